@@ -0,0 +1,106 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load generator: {@code clients} concurrent clients each send a GET, wait
+ * for the full response and send the next one, for {@code seconds} after a warm-up. Prints
+ * one result line with throughput and latency percentiles. Needs only a JDK 17+:
+ *
+ * <pre>
+ * java benchmarks/load/LoadTest.java http://localhost:8080/api/bids/quiz 2000 30 10
+ * </pre>
+ *
+ * Arguments: url, clients (default 1000), measured seconds (default 30), warm-up seconds
+ * (default 10). Clients are asynchronous request chains rather than threads, so the
+ * generator itself stays cheap at thousands of clients.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: java LoadTest.java <url> [clients] [seconds] [warmupSeconds]");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmup = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients);
+        Client[] all = new Client[clients];
+        for (int i = 0; i < clients; i++) {
+            all[i] = new Client(http, request, measureFrom, measureTo, done);
+            all[i].next();
+        }
+        done.await();
+
+        long[] latencies = Arrays.stream(all).flatMapToLong(c -> Arrays.stream(c.latencies, 0, c.count)).sorted().toArray();
+        long errors = Arrays.stream(all).mapToLong(c -> c.errors).sum();
+        System.out.printf("%s clients=%d seconds=%d requests=%d errors=%d throughput=%.1f/s"
+                        + " p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                uri.getPath(), clients, seconds, latencies.length, errors, latencies.length / (double) seconds,
+                millis(latencies, 0.50), millis(latencies, 0.90), millis(latencies, 0.99), millis(latencies, 1.0));
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) return Double.NaN;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /** One client: a chain of requests, each sent when the previous response has been read. */
+    private static final class Client {
+        private final HttpClient http;
+        private final HttpRequest request;
+        private final long measureFrom;
+        private final long measureTo;
+        private final CountDownLatch done;
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        Client(HttpClient http, HttpRequest request, long measureFrom, long measureTo, CountDownLatch done) {
+            this.http = http;
+            this.request = request;
+            this.measureFrom = measureFrom;
+            this.measureTo = measureTo;
+            this.done = done;
+        }
+
+        void next() {
+            long sent = System.nanoTime();
+            if (sent >= measureTo) {
+                done.countDown();
+                return;
+            }
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long received = System.nanoTime();
+                // Only requests sent and completed inside the measured window count
+                if (sent >= measureFrom && received <= measureTo) {
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors++;
+                    } else {
+                        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                        latencies[count++] = received - sent;
+                    }
+                }
+                next();
+            });
+        }
+    }
+}
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Load-tests /api/bids/quiz and /api/deals/recent.csv with the app on platform threads and
+# then on virtual threads, and writes one result line per endpoint and mode to
+# benchmarks/load/results.txt.
+#
+#   benchmarks/load/compare.sh [clients] [seconds] [warmupSeconds]
+#
+# Builds the boot jar on the JDK 21 toolchain, which both modes run on, so the thread mode
+# is the only difference. Write-behind is off so /api/bids/quiz inserts its row in the
+# request, and each run starts from an empty in-memory database.
+set -euo pipefail
+
+CLIENTS=${1:-2000}
+SECONDS_MEASURED=${2:-30}
+WARMUP=${3:-10}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+OUT="$ROOT/benchmarks/load/results.txt"
+
+cd "$ROOT"
+./gradlew -q -PjavaVersion=21 bootJar
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+JAVA=${JAVA_21:-java}
+if [ "$("$JAVA" -XshowSettings:properties -version 2>&1 | awk -F' = ' '/java.specification.version/ {print $2}')" -lt 21 ]; then
+    echo "Set JAVA_21 to a JDK 21 java binary" >&2
+    exit 1
+fi
+
+{
+    echo "# $(date -u +%Y-%m-%dT%H:%M:%SZ) clients=$CLIENTS seconds=$SECONDS_MEASURED warmup=$WARMUP"
+    echo "# $(uname -srm), $(nproc) cores, $("$JAVA" -version 2>&1 | head -n 1)"
+} >> "$OUT"
+
+for VIRTUAL in false true; do
+    "$JAVA" -jar "$JAR" \
+        --server.port="$PORT" \
+        --spring.threads.virtual.enabled="$VIRTUAL" \
+        --spring.datasource.url="jdbc:h2:mem:load;DB_CLOSE_DELAY=-1" \
+        --quiz.persistence.write-behind.enabled=false \
+        --logging.level.root=WARN > "build/load-$VIRTUAL.log" 2>&1 &
+    APP=$!
+    trap 'kill $APP 2>/dev/null || true' EXIT
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+        kill -0 $APP 2>/dev/null || { echo "The app did not start, see build/load-$VIRTUAL.log" >&2; exit 1; }
+        sleep 1
+    done
+
+    # The quiz run also fills the table the CSV run reads
+    for PATH_QUERY in /api/bids/quiz "/api/deals/recent.csv?limit=100"; do
+        RESULT=$("$JAVA" benchmarks/load/LoadTest.java "http://localhost:$PORT$PATH_QUERY" \
+            "$CLIENTS" "$SECONDS_MEASURED" "$WARMUP")
+        echo "virtual=$VIRTUAL $RESULT" | tee -a "$OUT"
+    done
+
+    kill $APP
+    wait $APP 2>/dev/null || true
+done
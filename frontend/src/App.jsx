@@ -27,7 +27,7 @@ function App() {
     try {
       setDealsLoading(true)
       setDealsError('')
-      const res = await fetch(`/api/deals/recent?limit=${encodeURIComponent(limit)}`)
+      const res = await fetch(`/api/deals/recent?limit=${encodeURIComponent(limit)}&includeAuction=true`)
       if (!res.ok) throw new Error(`Failed to load deals (${res.status})`)
       const data = await res.json()
       setDeals(Array.isArray(data) ? data : [])
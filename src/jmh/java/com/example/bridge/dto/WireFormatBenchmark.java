@@ -0,0 +1,79 @@
+package com.example.bridge.dto;
+
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.service.BridgeBiddingService;
+import com.example.bridge.service.HandGeneratorService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a batch of bid responses and decoding a batch of bid requests in each wire format
+ * the bidding endpoints accept, with and without explanations. The encoded sizes are logged
+ * once per trial, since they do not show up in the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    private static final int ITEMS = 1000;
+    private static final TypeReference<List<BidRequest>> REQUESTS = new TypeReference<>() {};
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"true", "false"})
+    public boolean explain;
+
+    private ObjectMapper mapper;
+    private BatchResponse<BidResponse> responses;
+    private byte[] encodedRequests;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        HandGeneratorService generator = new HandGeneratorService();
+        BridgeBiddingService bidding = new BridgeBiddingService();
+        List<BidRequest> requests = new ArrayList<>(ITEMS);
+        List<BidResponse> results = new ArrayList<>(ITEMS);
+        while (requests.size() < ITEMS) {
+            var deal = generator.generateDeal();
+            for (HandPosition position : HandPosition.values()) {
+                BidRequest request = new BidRequest(deal.getHands().get(position), position.getSymbol(),
+                        "natural", "None", List.of());
+                requests.add(request);
+                results.add(bidding.suggestBid(request, explain, null));
+            }
+        }
+        responses = new BatchResponse<>(results.size(), 0, results);
+        encodedRequests = mapper.writeValueAsBytes(requests);
+        log.info("{} explain={}: {} requests {} bytes, {} responses {} bytes", format, explain,
+                requests.size(), encodedRequests.length, results.size(), mapper.writeValueAsBytes(responses).length);
+    }
+
+    @Benchmark
+    public byte[] encodeResponses() throws IOException {
+        return mapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public List<BidRequest> decodeRequests() throws IOException {
+        return mapper.readValue(encodedRequests, REQUESTS);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedHand;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening-bid and full-auction evaluation for each convention family recognised by the bidding service.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BiddingBenchmark {
+
+    private static final int HANDS = 1024;
+
+    @Param({"natural", "precision", "polish club", "2/1", "acol"})
+    public String convention;
+
+    private final BridgeBiddingService service = new BridgeBiddingService();
+    private final String[] hands = new String[HANDS];
+    private final long[][] deals = new long[HANDS / 4][4];
+    private final HandPosition[] dealers = new HandPosition[HANDS / 4];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        HandGeneratorService generator = new HandGeneratorService();
+        for (int i = 0; i < HANDS; i += 4) {
+            var deal = generator.generateDeal();
+            int j = 0;
+            for (HandPosition position : HandPosition.values()) {
+                hands[i + j++] = deal.getHands().get(position);
+                deals[i / 4][position.ordinal()] = PackedHand.parse(deal.getHands().get(position));
+            }
+            dealers[i / 4] = deal.getDealer();
+        }
+    }
+
+    @Benchmark
+    public String suggestOpeningBid() {
+        String hand = hands[next++ & (HANDS - 1)];
+        return service.suggestOpeningBid(hand, convention);
+    }
+
+    @Benchmark
+    public byte[] bidDeal() {
+        int deal = next++ & (HANDS / 4 - 1);
+        return service.bidDeal(deals[deal], dealers[deal], convention);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bridge.service;
+
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.model.Deal;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV rendering of stored quiz deals at different export sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CsvExportBenchmark {
+
+    @Param({"100", "1000", "100000"})
+    public int rows;
+
+    private final QuizDealService service = new QuizDealService(null);
+    private List<QuizDeal> deals;
+
+    @Setup
+    public void setUp() {
+        HandGeneratorService generator = new HandGeneratorService();
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+        deals = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Deal deal = generator.generateDeal();
+            QuizDeal d = new QuizDeal();
+            d.setId((long) i + 1);
+            d.setCreatedAt(createdAt.plusMillis(i));
+            d.setDealer(deal.getDealer());
+            d.setHands(deal.getHands());
+            d.setConvention("polish club");
+            d.setAuction(List.of("1C", "PASS", "1H"));
+            deals.add(d);
+        }
+    }
+
+    @Benchmark
+    public String toCsv() {
+        return service.toCsv(deals);
+    }
+}
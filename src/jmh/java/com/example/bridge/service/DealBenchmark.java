@@ -0,0 +1,42 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.Card;
+import com.example.bridge.model.Deal;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deal generation and hand rendering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DealBenchmark {
+
+    private final HandGeneratorService service = new HandGeneratorService();
+    private final long[] hands = new long[4];
+    private List<Card> hand;
+
+    @Setup
+    public void setUpHand() {
+        hand = service.generateRandomHand();
+    }
+
+    @Benchmark
+    public Deal generateDeal() {
+        return service.generateDeal();
+    }
+
+    @Benchmark
+    public long[] dealInto() {
+        service.dealInto(hands);
+        return hands;
+    }
+
+    @Benchmark
+    public String formatHand() {
+        return service.formatHand(hand);
+    }
+}
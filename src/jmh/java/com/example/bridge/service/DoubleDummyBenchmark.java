@@ -0,0 +1,37 @@
+package com.example.bridge.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Double-dummy trick tables of random deals, all 20 declarer and strain entries per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DoubleDummyBenchmark {
+
+    private static final int DEALS = 64;
+
+    private final DoubleDummySolver solver = new DoubleDummySolver();
+    private final long[][] deals = new long[DEALS][4];
+    private int next;
+
+    @Setup
+    public void setUpDeals() {
+        // the same deals on every run, so results stay comparable across changes
+        HandGeneratorService generator = new HandGeneratorService(() -> new SplittableRandom(2024));
+        for (long[] deal : deals) {
+            generator.dealInto(deal);
+        }
+    }
+
+    @Benchmark
+    public byte[] solveTable() {
+        long[] deal = deals[next];
+        next = (next + 1) % DEALS;
+        return solver.solve(deal);
+    }
+}
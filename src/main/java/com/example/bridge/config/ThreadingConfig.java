@@ -0,0 +1,34 @@
+package com.example.bridge.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request threading mode. By default Tomcat serves requests on its platform-thread pool
+ * ({@code server.tomcat.threads.max}). With {@code spring.threads.virtual.enabled=true}
+ * Spring Boot runs each request, including any blocking persistence in it, on its own
+ * virtual thread. Boot ignores the property on a JDK older than 21, so this logs
+ * which mode is actually in effect.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    static final int VIRTUAL_THREADS_FEATURE = 21;
+
+    public ThreadingConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        int feature = Runtime.version().feature();
+        if (!virtualThreads) {
+            log.info("Serving requests on platform threads");
+        } else if (feature < VIRTUAL_THREADS_FEATURE) {
+            log.warn("spring.threads.virtual.enabled is set but this is JDK {}; virtual threads need JDK {}"
+                    + " (build with -PjavaVersion=21). Serving requests on platform threads", feature,
+                    VIRTUAL_THREADS_FEATURE);
+        } else {
+            log.info("Serving requests on virtual threads");
+        }
+    }
+}
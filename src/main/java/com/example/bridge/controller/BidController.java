@@ -1,16 +1,26 @@
 package com.example.bridge.controller;
 
+import com.example.bridge.dto.BatchResponse;
 import com.example.bridge.dto.BidRequest;
 import com.example.bridge.dto.BidResponse;
 import com.example.bridge.dto.CheckBidRequest;
 import com.example.bridge.dto.CheckBidResponse;
 import com.example.bridge.dto.QuizHandResponse;
-import com.example.bridge.model.HandPosition;
+import com.example.bridge.service.BatchBiddingService;
 import com.example.bridge.service.BridgeBiddingService;
-import com.example.bridge.service.HandGeneratorService;
-import com.example.bridge.service.QuizDealService;
+import com.example.bridge.service.QuizHandPool;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -19,9 +29,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * REST controller for handling bridge bidding operations.
@@ -37,14 +57,26 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class BidController {
 
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+
     private final BridgeBiddingService biddingService;
-    private final HandGeneratorService handGeneratorService;
-    private final QuizDealService quizDealService;
+    private final QuizHandPool quizHandPool;
+    private final BatchBiddingService batchBiddingService;
+    private final ObjectMapper objectMapper;
+    // Same settings as objectMapper, for batch bodies sent as CBOR or Smile
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
 
-    public BidController(BridgeBiddingService biddingService, HandGeneratorService handGeneratorService, QuizDealService quizDealService) {
+    public BidController(BridgeBiddingService biddingService, QuizHandPool quizHandPool,
+                         BatchBiddingService batchBiddingService, ObjectMapper objectMapper) {
         this.biddingService = biddingService;
-        this.handGeneratorService = handGeneratorService;
-        this.quizDealService = quizDealService;
+        this.quizHandPool = quizHandPool;
+        this.batchBiddingService = batchBiddingService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
     }
 
     @Operation(
@@ -53,35 +85,8 @@ public class BidController {
     )
     @GetMapping("/quiz")
     public ResponseEntity<QuizHandResponse> getQuizHand() {
-        var deal = handGeneratorService.generateDeal();
-
-        // User always answers as North
-        String northHand = deal.getHands().get(HandPosition.NORTH);
-
-        // Convention used for simulation
-        String convention = "polish club";
-
-        // Build initial auction from Dealer up to but not including North
-        java.util.List<String> auction = new java.util.ArrayList<>();
-        HandPosition dealer = deal.getDealer();
-        HandPosition cursor = dealer;
-        while (cursor != HandPosition.NORTH) {
-            String h = deal.getHands().get(cursor);
-            String bid = biddingService.suggestOpeningBid(h, convention);
-            auction.add(bid);
-            cursor = cursor.next();
-        }
-
-        // Persist the generated quiz deal
-        quizDealService.save(deal, convention, auction);
-
-        QuizHandResponse payload = new QuizHandResponse(
-                northHand,
-                "N",
-                convention,
-                auction
-        );
-        return ResponseEntity.ok(payload);
+        // Served from the pre-generated pool; built (and persisted) on this thread only on a miss
+        return ResponseEntity.ok(quizHandPool.take());
     }
 
     @Operation(
@@ -141,7 +146,9 @@ public class BidController {
 
     @Operation(
         summary = "Get a suggested bid",
-        description = "Returns a suggested bid based on the current hand and auction state"
+        description = "Returns a suggested bid based on the current hand and auction state. Requests and responses "
+                + "may be JSON, CBOR (application/cbor) or Smile (application/x-jackson-smile), chosen by "
+                + "Content-Type and Accept."
     )
     @ApiResponses({
         @ApiResponse(
@@ -173,7 +180,14 @@ public class BidController {
                       "timestamp": "2023-07-20T12:00:00.000+00:00",
                       "status": 400,
                       "error": "Bad Request",
-                      "message": "Invalid hand format",
+                      "errors": [
+                        {
+                          "field": "hand",
+                          "rejectedValue": "AKQJ.T987.AK.QJ98",
+                          "code": "ValidHand",
+                          "defaultMessage": "Hand has 14 cards, expected 13"
+                        }
+                      ],
                       "path": "/api/bids/suggest"
                     }
                     """
@@ -181,11 +195,14 @@ public class BidController {
             )
         )
     })
-    @PostMapping("/suggest")
+    @PostMapping(path = "/suggest", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE})
     public ResponseEntity<BidResponse> suggestBid(
             @Parameter(description = "Bid request details", required = true)
-            @Valid @RequestBody BidRequest request) {
-        return ResponseEntity.ok(biddingService.suggestBid(request));
+            @Valid @RequestBody BidRequest request,
+            @Parameter(description = "Include the explanation, in the Accept-Language language when templates exist for it (English otherwise); false leaves it out and skips rendering it")
+            @RequestParam(name = "explain", defaultValue = "true") boolean explain,
+            Locale locale) {
+        return ResponseEntity.ok(biddingService.suggestBid(request, explain, locale));
     }
 
     @Operation(
@@ -230,10 +247,186 @@ public class BidController {
             )
         )
     })
-    @PostMapping("/check")
+    @PostMapping(path = "/check", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE})
     public ResponseEntity<CheckBidResponse> checkBid(
             @Parameter(description = "Check bid request details", required = true)
-            @Valid @RequestBody CheckBidRequest request) {
-        return ResponseEntity.ok(biddingService.checkBid(request));
+            @Valid @RequestBody CheckBidRequest request,
+            @Parameter(description = "Include the explanation, in the Accept-Language language when templates exist for it (English otherwise); false leaves it out and skips rendering it")
+            @RequestParam(name = "explain", defaultValue = "true") boolean explain,
+            Locale locale) {
+        return ResponseEntity.ok(biddingService.checkBid(request, explain, locale));
+    }
+
+    @Operation(
+        summary = "Suggest bids for a batch of hands",
+        description = "Evaluates a JSON array of bid requests in parallel. Results are returned in request order "
+                + "together with the server-side batch time (also sent as a Server-Timing header). "
+                + "The number of items is limited by 'bids.batch.max-size'. "
+                + "CBOR and Smile bodies are accepted and produced as well as JSON."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "All items evaluated"),
+        @ApiResponse(responseCode = "400", description = "Empty batch or an invalid item"),
+        @ApiResponse(responseCode = "413", description = "Batch larger than the configured limit")
+    })
+    @PostMapping(path = "/suggest:batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE})
+    public ResponseEntity<BatchResponse<BidResponse>> suggestBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    array = @ArraySchema(schema = @Schema(implementation = BidRequest.class))))
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(name = "explain", defaultValue = "true") boolean explain,
+            Locale locale) throws IOException {
+        List<BidRequest> requests = readArray(body, contentType, BidRequest.class);
+        BatchResponse<BidResponse> response = batchBiddingService.suggestAll(requests, explain, locale);
+        return ResponseEntity.ok()
+                .header(SERVER_TIMING, serverTiming(response.elapsedMicros()))
+                .body(response);
+    }
+
+    @Operation(
+        summary = "Suggest bids for a batch of hands (NDJSON)",
+        description = "Accepts one bid request per line and streams one result per line in request order. "
+                + "The last line holds the batch summary: {\"count\":..., \"elapsedMicros\":...}."
+    )
+    @PostMapping(path = "/suggest:batch", consumes = NDJSON_VALUE, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> suggestBatchNdjson(
+            InputStream body,
+            @RequestParam(name = "explain", defaultValue = "true") boolean explain,
+            Locale locale) throws IOException {
+        List<BidRequest> requests = readNdjson(body, BidRequest.class);
+        batchBiddingService.validate(requests);
+        return ndjson(out -> batchBiddingService.suggestEach(requests, explain, locale, out::write), requests.size());
+    }
+
+    @Operation(
+        summary = "Check bids for a batch of hands",
+        description = "Evaluates a JSON array of check requests in parallel. Results are returned in request order "
+                + "together with the server-side batch time (also sent as a Server-Timing header). "
+                + "The number of items is limited by 'bids.batch.max-size'. "
+                + "CBOR and Smile bodies are accepted and produced as well as JSON."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "All items evaluated"),
+        @ApiResponse(responseCode = "400", description = "Empty batch or an invalid item"),
+        @ApiResponse(responseCode = "413", description = "Batch larger than the configured limit")
+    })
+    @PostMapping(path = "/check:batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE})
+    public ResponseEntity<BatchResponse<CheckBidResponse>> checkBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    array = @ArraySchema(schema = @Schema(implementation = CheckBidRequest.class))))
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(name = "explain", defaultValue = "true") boolean explain,
+            Locale locale) throws IOException {
+        List<CheckBidRequest> requests = readArray(body, contentType, CheckBidRequest.class);
+        BatchResponse<CheckBidResponse> response = batchBiddingService.checkAll(requests, explain, locale);
+        return ResponseEntity.ok()
+                .header(SERVER_TIMING, serverTiming(response.elapsedMicros()))
+                .body(response);
+    }
+
+    @Operation(
+        summary = "Check bids for a batch of hands (NDJSON)",
+        description = "Accepts one check request per line and streams one result per line in request order. "
+                + "The last line holds the batch summary: {\"count\":..., \"elapsedMicros\":...}."
+    )
+    @PostMapping(path = "/check:batch", consumes = NDJSON_VALUE, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> checkBatchNdjson(
+            InputStream body,
+            @RequestParam(name = "explain", defaultValue = "true") boolean explain,
+            Locale locale) throws IOException {
+        List<CheckBidRequest> requests = readNdjson(body, CheckBidRequest.class);
+        batchBiddingService.validate(requests);
+        return ndjson(out -> batchBiddingService.checkEach(requests, explain, locale, out::write), requests.size());
+    }
+
+    // --- Batch body helpers ---
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    /** Writes one JSON value per line. */
+    private interface LineWriter {
+        void write(Object value) throws IOException;
+    }
+
+    private interface BatchRun {
+        long run(LineWriter out) throws IOException;
+    }
+
+    /**
+     * Reads a JSON (or CBOR or Smile) array item by item, so that an oversized batch is refused
+     * once it passes the limit rather than after the whole body has been bound.
+     */
+    private <T> List<T> readArray(InputStream body, String contentType, Class<T> type) throws IOException {
+        ObjectMapper mapper = mapperFor(MediaType.parseMediaType(contentType));
+        List<T> items = new ArrayList<>();
+        try (JsonParser parser = mapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must be an array of items");
+            }
+            ObjectReader reader = mapper.readerFor(type);
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch array is not closed");
+                }
+                if (items.size() >= batchBiddingService.maxBatchSize()) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "Batch exceeds the limit of " + batchBiddingService.maxBatchSize() + " items");
+                }
+                items.add(reader.readValue(parser));
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid batch item " + items.size() + ": " + e.getOriginalMessage());
+        }
+        return items;
+    }
+
+    private ObjectMapper mapperFor(MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.includes(contentType)) return cborMapper;
+        if (SMILE.includes(contentType)) return smileMapper;
+        return objectMapper;
+    }
+
+    private <T> List<T> readNdjson(InputStream body, Class<T> type) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> it = objectMapper.readerFor(type).readValues(body)) {
+            while (it.hasNextValue()) {
+                if (items.size() >= batchBiddingService.maxBatchSize()) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "Batch exceeds the limit of " + batchBiddingService.maxBatchSize() + " items");
+                }
+                items.add(it.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            String line = e.getLocation() != null ? String.valueOf(e.getLocation().getLineNr()) : "?";
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid NDJSON at line " + line + ": " + e.getOriginalMessage());
+        }
+        return items;
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(BatchRun batch, int count) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.setRootValueSeparator(null);
+            LineWriter lines = value -> {
+                generator.writeObject(value);
+                generator.writeRaw('\n');
+            };
+            long elapsedMicros = batch.run(lines);
+            lines.write(new BatchResponse<>(count, elapsedMicros, null));
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    private static String serverTiming(long elapsedMicros) {
+        return "batch;dur=" + (elapsedMicros / 1000.0);
     }
 }
@@ -0,0 +1,55 @@
+package com.example.bridge.controller;
+
+import com.example.bridge.service.ConventionRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/conventions")
+@Tag(name = "Conventions", description = "Bidding conventions loaded from rule files")
+public class ConventionController {
+
+    private final ConventionRegistry conventionRegistry;
+
+    public ConventionController(ConventionRegistry conventionRegistry) {
+        this.conventionRegistry = conventionRegistry;
+    }
+
+    @GetMapping
+    @Operation(
+        summary = "List conventions",
+        description = "Ids of the loaded conventions; requests may also name them by alias"
+    )
+    public ResponseEntity<List<String>> list() {
+        return ResponseEntity.ok(conventionRegistry.ids());
+    }
+
+    @PostMapping("/reload")
+    @Operation(
+        summary = "Reload convention rule files",
+        description = "Recompiles the built-in rule files and those in 'bidding.conventions.dir'. "
+                + "If any file is invalid the current rules stay in place."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Rules reloaded; returns the loaded ids"),
+        @ApiResponse(responseCode = "400", description = "A rule file is invalid")
+    })
+    public ResponseEntity<List<String>> reload() {
+        try {
+            return ResponseEntity.ok(conventionRegistry.reload());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.bridge.controller;
 
+import com.example.bridge.dto.ConstrainedDealRequest;
+import com.example.bridge.dto.ConstrainedDealResponse;
 import com.example.bridge.model.Deal;
+import com.example.bridge.service.ConstrainedDealService;
 import com.example.bridge.service.HandGeneratorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -18,9 +26,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class DealController {
 
     private final HandGeneratorService handGeneratorService;
+    private final ConstrainedDealService constrainedDealService;
 
-    public DealController(HandGeneratorService handGeneratorService) {
+    public DealController(HandGeneratorService handGeneratorService, ConstrainedDealService constrainedDealService) {
         this.handGeneratorService = handGeneratorService;
+        this.constrainedDealService = constrainedDealService;
     }
 
     @GetMapping("/random")
@@ -39,4 +49,37 @@ public class DealController {
     public ResponseEntity<Deal> getRandomDeal() {
         return ResponseEntity.ok(handGeneratorService.generateDeal());
     }
+
+    @GetMapping("/{setId}/{number}")
+    @Operation(
+        summary = "Get a deal from a seeded set",
+        description = "Returns deal 'number' (1-based) of the set named 'setId'. Deals are computed from the "
+                + "set name and number, so the same request always returns the same deal and nothing is stored. "
+                + "The dealer rotates N, E, S, W with the deal number."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "The deal",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Deal.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid set id or deal number")
+    })
+    public ResponseEntity<Deal> getSetDeal(@PathVariable String setId, @PathVariable long number) {
+        return ResponseEntity.ok(handGeneratorService.dealFromSet(setId, number));
+    }
+
+    @PostMapping("/constrained")
+    @Operation(
+        summary = "Deal hands matching per-seat constraints",
+        description = "Deals up to 'count' layouts where every seat meets its HCP range, suit-length ranges and "
+                + "optional balanced shape, e.g. {\"count\": 10, \"seats\": {\"N\": {\"hcp\": {\"min\": 15, "
+                + "\"max\": 17}, \"balanced\": true}, \"S\": {\"hearts\": {\"min\": 5}}}}. "
+                + "Stops after 'maxAttempts' attempts or the server's time budget ('deals.constrained.time-budget-ms') "
+                + "and reports how many were rejected at each stage."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Matching deals with acceptance statistics"),
+        @ApiResponse(responseCode = "400", description = "Unknown seat or contradictory constraints")
+    })
+    public ResponseEntity<ConstrainedDealResponse> getConstrainedDeals(@Valid @RequestBody ConstrainedDealRequest request) {
+        return ResponseEntity.ok(constrainedDealService.deal(request));
+    }
 }
@@ -1,7 +1,11 @@
 package com.example.bridge.controller;
 
-import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.dto.DealCursor;
+import com.example.bridge.dto.QuizDealSummary;
+import com.example.bridge.service.DealFeed;
 import com.example.bridge.service.QuizDealService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -9,63 +13,244 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping(path = "/api/deals")
 @Tag(name = "Quiz Deal Export", description = "List and download stored quiz deals")
 public class QuizDealController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_LIMIT = 1000;
+
+    // Cache keys for the rendered /recent and /recent.csv bodies
+    private record RecentKey(int limit, DealCursor before, boolean includeAuction) {}
+    private record RecentCsvKey(int limit) {}
+
     private final QuizDealService quizDealService;
+    private final DealFeed dealFeed;
+    private final ObjectMapper objectMapper;
+    private final RenderedResponseCache recentCache;
+    private final long streamTimeoutMillis;
 
-    public QuizDealController(QuizDealService quizDealService) {
+    public QuizDealController(
+            QuizDealService quizDealService,
+            DealFeed dealFeed,
+            ObjectMapper objectMapper,
+            @Value("${quiz.deals.recent.cache-maximum-size:64}") long cacheMaximumSize,
+            @Value("${quiz.deals.recent.cache-ttl-ms:2000}") long cacheTtlMillis,
+            @Value("${quiz.deals.stream.timeout-ms:1800000}") long streamTimeoutMillis) {
         this.quizDealService = quizDealService;
+        this.dealFeed = dealFeed;
+        this.objectMapper = objectMapper;
+        this.recentCache = new RenderedResponseCache(cacheMaximumSize, cacheTtlMillis);
+        this.streamTimeoutMillis = streamTimeoutMillis;
     }
 
     @GetMapping(path = "/recent", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
             summary = "List recent stored quiz deals",
-            description = "Returns up to 'limit' most recent stored quiz deals.",
-            responses = @ApiResponse(
-                    responseCode = "200",
-                    description = "List of deals",
-                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = QuizDeal.class)))
-            )
+            description = "Returns up to 'limit' most recent stored quiz deals, newest first. "
+                    + "Pass the X-Next-Cursor header of a full page as 'before' to get the next (older) page. "
+                    + "The auction is only included with 'includeAuction=true'. "
+                    + "Responses carry an ETag and Last-Modified; a conditional request for unchanged deals gets 304.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "List of deals",
+                            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = QuizDealSummary.class)))
+                    ),
+                    @ApiResponse(responseCode = "304", description = "No deal was saved since the ETag or date given")
+            }
     )
-    public ResponseEntity<List<QuizDeal>> listRecent(
+    public ResponseEntity<byte[]> listRecent(
             @Parameter(description = "Max number of deals to return (1-1000)")
-            @RequestParam(name = "limit", defaultValue = "100") int limit
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            @Parameter(description = "Cursor '<createdAt>,<id>': only return deals older than this", example = "2024-01-01T00:00:00Z,42")
+            @RequestParam(name = "before", required = false) String before,
+            @Parameter(description = "Include the stored auction JSON")
+            @RequestParam(name = "includeAuction", defaultValue = "false") boolean includeAuction,
+            WebRequest request
     ) {
-        return ResponseEntity.ok(quizDealService.listRecent(limit));
+        DealCursor cursor;
+        try {
+            cursor = before == null || before.isBlank() ? null : DealCursor.parse(before);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        QuizDealService.ChangeToken token = quizDealService.changeToken();
+        if (request.checkNotModified(token.etag(), token.lastModified())) {
+            return null; // 304, without querying the store
+        }
+        int effectiveLimit = effectiveLimit(limit);
+        RenderedResponseCache.Rendered page = recentCache.get(
+                new RecentKey(effectiveLimit, cursor, includeAuction), token.sequence(), () -> {
+                    List<QuizDealSummary> deals = quizDealService.listRecentSummaries(effectiveLimit, cursor, includeAuction);
+                    String nextCursor = !deals.isEmpty() && deals.size() >= effectiveLimit
+                            ? deals.get(deals.size() - 1).cursor().toString()
+                            : null;
+                    return new RenderedResponseCache.Rendered(json(deals), nextCursor);
+                });
+        ResponseEntity.BodyBuilder response = conditional(ResponseEntity.ok(), token)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.body());
     }
 
     @GetMapping(path = "/recent.csv", produces = "text/csv")
     @Operation(
             summary = "Download recent stored quiz deals as CSV",
-            description = "Downloads up to 'limit' most recent stored quiz deals in CSV format."
+            description = "Downloads up to 'limit' most recent stored quiz deals in CSV format. "
+                    + "Conditional requests work as for /recent."
     )
     public ResponseEntity<byte[]> downloadRecentCsv(
             @Parameter(description = "Max number of deals to return (1-1000)")
-            @RequestParam(name = "limit", defaultValue = "100") int limit
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            WebRequest request
     ) {
-        List<QuizDeal> deals = quizDealService.listRecent(limit);
-        String csv = quizDealService.toCsv(deals);
-        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        QuizDealService.ChangeToken token = quizDealService.changeToken();
+        if (request.checkNotModified(token.etag(), token.lastModified())) {
+            return null;
+        }
+        int effectiveLimit = effectiveLimit(limit);
+        byte[] bytes = recentCache.get(new RecentCsvKey(effectiveLimit), token.sequence(), () -> {
+            String csv = quizDealService.recentCsv(effectiveLimit);
+            return new RenderedResponseCache.Rendered(csv.getBytes(StandardCharsets.UTF_8), null);
+        }).body();
         String filename = "quiz-deals-" + DateTimeFormatter.ISO_INSTANT.format(java.time.Instant.now()) + ".csv";
-        return ResponseEntity.ok()
+        return conditional(ResponseEntity.ok(), token)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
                 .contentLength(bytes.length)
                 .body(bytes);
     }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream newly stored quiz deals",
+            description = "Server-Sent Events: one 'deal' event per stored quiz deal, with the deal as JSON (auction included). "
+                    + "Clients that reconnect with Last-Event-ID (EventSource does so itself) get the deals they missed "
+                    + "while those are still buffered; otherwise a 'reset' event says to re-read /api/deals/recent. "
+                    + "The connection is closed after 'quiz.deals.stream.timeout-ms' and clients reconnect.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream"),
+                    @ApiResponse(responseCode = "503", description = "Too many open streams")
+            }
+    )
+    public SseEmitter stream(
+            @Parameter(description = "Id of the last event received; sent by EventSource when it reconnects")
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        DealFeed.Subscription subscription = dealFeed.subscribe(lastEventId, new SseSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    @GetMapping(path = "/export.csv", produces = "text/csv")
+    @Operation(
+            summary = "Stream all stored quiz deals as CSV",
+            description = "Streams every stored quiz deal with id greater than 'afterId' in id order, without a row cap. "
+                    + "Rows are read in keyset pages and written straight to the response; pass the last exported id "
+                    + "as 'afterId' to resume. Set 'gzip=true' for a gzip-encoded body."
+    )
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @Parameter(description = "Only export deals with an id greater than this")
+            @RequestParam(name = "afterId", defaultValue = "0") long afterId,
+            @Parameter(description = "Compress the response body with gzip")
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_SIZE) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            quizDealService.writeCsv(writer, afterId, EXPORT_PAGE_SIZE);
+            writer.flush();
+            if (target instanceof GZIPOutputStream gz) {
+                gz.finish();
+            }
+        };
+        String filename = "quiz-deals-export-" + DateTimeFormatter.ISO_INSTANT.format(java.time.Instant.now()) + ".csv";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // Writes feed events to an SSE response; the data is already JSON, so it is sent as is
+    private record SseSink(SseEmitter emitter) implements DealFeed.Sink {
+
+        @Override
+        public void send(DealFeed.Event event) throws IOException {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event();
+            if (event.id() != null) {
+                builder.id(event.id());
+            }
+            emitter.send(builder.name(event.name()).data(event.data()));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+
+    private static int effectiveLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Validators for the next poll; no-cache makes clients revalidate rather than guess freshness
+    private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder response,
+                                                          QuizDealService.ChangeToken token) {
+        return response.eTag(token.etag())
+                .lastModified(token.lastModified())
+                .cacheControl(CacheControl.noCache());
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.bridge.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Response bodies rendered for one {@link com.example.bridge.service.QuizDealService.ChangeToken}
+ * sequence, kept for a short time so that clients polling the same listing share one query and
+ * one serialization. Entries are keyed by request and sequence, so an entry rendered for an
+ * older token is never served, and concurrent requests for the same key and sequence wait for
+ * a single rendering rather than each running the query. Requests for other keys do not wait
+ * for it.
+ */
+final class RenderedResponseCache {
+
+    /** A rendered body and the {@code X-Next-Cursor} value that goes with it, if any. */
+    record Rendered(byte[] body, String nextCursor) {
+    }
+
+    private record Key(Object request, long sequence) {
+    }
+
+    // null when disabled; entries of older sequences are never read again and age out
+    private final Cache<Key, Rendered> entries;
+
+    RenderedResponseCache(long maximumSize, long timeToLiveMillis) {
+        this.entries = maximumSize > 0 && timeToLiveMillis > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(Duration.ofMillis(timeToLiveMillis))
+                        .build()
+                : null;
+    }
+
+    /** The body rendered for {@code key} at change {@code sequence}, rendering it when there is none. */
+    Rendered get(Object key, long sequence, Supplier<Rendered> render) {
+        if (entries == null) return render.get();
+        return entries.get(new Key(key, sequence), k -> render.get());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bridge.controller;
+
+import com.example.bridge.dto.SimulationRequest;
+import com.example.bridge.dto.SimulationResult;
+import com.example.bridge.service.BatchBiddingService;
+import com.example.bridge.service.SimulationService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+@RestController
+@ConditionalOnProperty(name = "simulations.enabled", havingValue = "true")
+@RequestMapping("/api/simulations")
+@Tag(name = "Simulations", description = "Monte Carlo evaluation of contracts around a known hand")
+public class SimulationController {
+
+    private final SimulationService simulationService;
+    private final ObjectMapper objectMapper;
+
+    public SimulationController(SimulationService simulationService, ObjectMapper objectMapper) {
+        this.simulationService = simulationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(
+        summary = "Simulate contracts around a known hand",
+        description = "Deals random layouts consistent with the known hand, solves each candidate contract "
+                + "double dummy and returns expected tricks and score with 95% confidence intervals. "
+                + "Stops at the requested sample count or the time budget, whichever comes first."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Estimates from the simulated layouts"),
+        @ApiResponse(responseCode = "400", description = "Invalid hand, position or contract"),
+        @ApiResponse(responseCode = "503", description = "Too many simulations running")
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SimulationResult> simulate(@Valid @RequestBody SimulationRequest request) throws IOException {
+        return ResponseEntity.ok(simulationService.simulate(request, snapshot -> { }));
+    }
+
+    @Operation(
+        summary = "Simulate contracts around a known hand (NDJSON)",
+        description = "Same as the JSON variant, but streams a snapshot of the estimates per line while the "
+                + "simulation converges. The last line holds the final result."
+    )
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = BidController.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> simulateStream(@Valid @RequestBody SimulationRequest request) {
+        SimulationService.Slot slot = simulationService.reserve(request);
+        StreamingResponseBody body = out -> {
+            try (slot) {
+                JsonGenerator generator = objectMapper.createGenerator(out);
+                generator.setRootValueSeparator(null);
+                BatchBiddingService.ResultConsumer<SimulationResult> lines = value -> {
+                    generator.writeObject(value);
+                    generator.writeRaw('\n');
+                    generator.flush();
+                };
+                lines.accept(simulationService.simulate(slot, lines));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(BidController.NDJSON_VALUE)).body(body);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bridge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Results of a batch evaluation, in request order, with the server-side time spent on the batch.
+ * NDJSON responses stream the results line by line and end with this record without {@code results}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResponse<T>(int count, long elapsedMicros, List<T> results) {}
@@ -1,3 +1,7 @@
 package com.example.bridge.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** A suggested call. {@code explanation} is null, and left out of the body, when not asked for. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record BidResponse(String suggestedBid, String explanation) {}
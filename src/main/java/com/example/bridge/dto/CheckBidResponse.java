@@ -1,8 +1,11 @@
 package com.example.bridge.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * For now, reuse the same shape as BidResponse to provide a suggestion
  * while the endpoint name implies checking. Can be extended later with
  * fields like `isConsistent`, `issues`, etc.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record CheckBidResponse(String suggestedBid, String explanation) {}
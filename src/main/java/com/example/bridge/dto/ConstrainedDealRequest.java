@@ -0,0 +1,32 @@
+package com.example.bridge.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+
+import java.util.Map;
+
+/**
+ * Deals matching per-seat constraints, e.g. North 15-17 balanced and South 5+ hearts.
+ * Seats are keyed by "N", "E", "S" or "W"; unconstrained seats may be left out.
+ * {@code count} and {@code maxAttempts} default to and are capped by the
+ * {@code deals.constrained.*} properties; {@code dealer} is random when absent.
+ */
+public record ConstrainedDealRequest(
+        @Positive Integer count,
+        String dealer,
+        Map<String, @Valid SeatConstraint> seats,
+        @Positive Long maxAttempts
+) {
+
+    /** Inclusive ranges; any range or bound may be omitted. */
+    public record SeatConstraint(
+            Range hcp,
+            Range spades,
+            Range hearts,
+            Range diamonds,
+            Range clubs,
+            boolean balanced
+    ) {}
+
+    public record Range(Integer min, Integer max) {}
+}
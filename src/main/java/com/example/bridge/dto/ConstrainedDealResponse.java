@@ -0,0 +1,21 @@
+package com.example.bridge.dto;
+
+import com.example.bridge.model.Deal;
+
+import java.util.List;
+
+/**
+ * Matching deals with the sampling statistics. An attempt is rejected either once its
+ * suit lengths rule it out or once its honour cards do; {@code complete} is false when
+ * the attempt cap or the time budget was reached before {@code requested} deals were found.
+ */
+public record ConstrainedDealResponse(
+        List<Deal> deals,
+        int requested,
+        long attempts,
+        long shapeRejections,
+        long hcpRejections,
+        double acceptanceRate,
+        long elapsedMicros,
+        boolean complete
+) {}
@@ -0,0 +1,29 @@
+package com.example.bridge.dto;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in the recent-deals listing, written as {@code <createdAt>,<id>},
+ * e.g. {@code 2024-01-01T00:00:00Z,42}. A page "before" a cursor holds strictly older deals.
+ */
+public record DealCursor(Instant createdAt, long id) {
+
+    public static DealCursor parse(String value) {
+        int comma = value == null ? -1 : value.lastIndexOf(',');
+        if (comma <= 0) {
+            throw new IllegalArgumentException("Cursor must look like '<createdAt>,<id>'");
+        }
+        try {
+            return new DealCursor(Instant.parse(value.substring(0, comma).trim()),
+                    Long.parseLong(value.substring(comma + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor must look like '<createdAt>,<id>'", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return createdAt + "," + id;
+    }
+}
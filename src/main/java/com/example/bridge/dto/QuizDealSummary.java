@@ -0,0 +1,62 @@
+package com.example.bridge.dto;
+
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedDeal;
+import com.example.bridge.model.PackedHand;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Listing view of a stored quiz deal. {@code auctionJson} is only loaded (and serialized)
+ * when the caller asks for it, so the LOB column is skipped for plain listings.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QuizDealSummary(
+        Long id,
+        Instant createdAt,
+        HandPosition dealer,
+        String northHand,
+        String eastHand,
+        String southHand,
+        String westHand,
+        String convention,
+        String auctionJson
+) {
+    public QuizDealSummary(Long id, Instant createdAt, HandPosition dealer, String northHand, String eastHand,
+                           String southHand, String westHand, String convention) {
+        this(id, createdAt, dealer, northHand, eastHand, southHand, westHand, convention, null);
+    }
+
+    /** Decodes the compact columns selected by the repository's listing queries. */
+    public QuizDealSummary(Long id, Instant createdAt, HandPosition dealer, byte[] dealBits, String convention,
+                           byte[] auctionCalls) {
+        this(id, createdAt, dealer, hands(dealBits), convention, QuizDeal.auctionJson(auctionCalls));
+    }
+
+    public QuizDealSummary(Long id, Instant createdAt, HandPosition dealer, byte[] dealBits, String convention) {
+        this(id, createdAt, dealer, hands(dealBits), convention, null);
+    }
+
+    private QuizDealSummary(Long id, Instant createdAt, HandPosition dealer, String[] hands, String convention,
+                            String auctionJson) {
+        this(id, createdAt, dealer, hands[0], hands[1], hands[2], hands[3], convention, auctionJson);
+    }
+
+    private static String[] hands(byte[] dealBits) {
+        String[] hands = new String[4];
+        if (dealBits != null) {
+            long[] packed = new long[4];
+            PackedDeal.decode(dealBits, packed);
+            for (int seat = 0; seat < 4; seat++) {
+                hands[seat] = PackedHand.format(packed[seat]);
+            }
+        }
+        return hands;
+    }
+
+    public DealCursor cursor() {
+        return new DealCursor(createdAt, id);
+    }
+}
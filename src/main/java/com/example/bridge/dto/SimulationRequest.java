@@ -0,0 +1,24 @@
+package com.example.bridge.dto;
+
+import com.example.bridge.validation.ValidHand;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Monte Carlo evaluation of contracts around a known hand. Optional fields fall back to
+ * server defaults: the known hand's seat declares, and the sample count and time budget
+ * come from the {@code simulations.*} properties (and are capped by them).
+ */
+public record SimulationRequest(
+        @NotBlank(message = "Provide the known hand, e.g. 'AKQJ.T987.AK.QJ9'") @ValidHand String hand,
+        @NotBlank(message = "Provide the known hand's position: N, E, S, or W") String position,
+        @NotEmpty @Size(max = 10) List<String> contracts,
+        String declarer,
+        @Positive Integer samples,
+        @Positive Long timeBudgetMillis,
+        boolean vulnerable
+) {}
@@ -0,0 +1,32 @@
+package com.example.bridge.dto;
+
+import java.util.List;
+
+/**
+ * Estimates from the layouts simulated so far. {@code complete} is false for progress
+ * snapshots and when the time budget ran out before every requested sample was dealt.
+ */
+public record SimulationResult(
+        int samples,
+        int requestedSamples,
+        long elapsedMillis,
+        boolean complete,
+        List<ContractEstimate> contracts
+) {
+
+    /**
+     * Mean tricks and score for the declaring side with their 95% confidence intervals
+     * (normal approximation), and the fraction of layouts where the contract makes.
+     */
+    public record ContractEstimate(
+            String contract,
+            String declarer,
+            double expectedTricks,
+            Interval tricks95,
+            double expectedScore,
+            Interval score95,
+            double makeProbability
+    ) {}
+
+    public record Interval(double low, double high) {}
+}
@@ -1,22 +1,36 @@
 package com.example.bridge.entity;
 
 import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedDeal;
+import com.example.bridge.model.PackedHand;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 @Entity
-@Table(name = "quiz_deal")
+@Table(name = "quiz_deal", indexes = {
+        // Keyset listing of recent deals: order by created_at desc, id desc
+        @Index(name = "idx_quiz_deal_created_at_id", columnList = "created_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class QuizDeal {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final HandPosition[] POSITIONS = HandPosition.values();
+
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch inserts from the write-behind queue
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_deal_seq")
+    @SequenceGenerator(name = "quiz_deal_seq", sequenceName = "quiz_deal_seq", allocationSize = QuizDeal.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, updatable = false)
@@ -26,22 +40,67 @@ public class QuizDeal {
     @Column(nullable = false, length = 8)
     private HandPosition dealer;
 
-    @Column(nullable = false, length = 64)
-    private String northHand;
+    // Owner of every card, see PackedDeal. Nullable only so a schema update can add the column
+    // to a table of legacy rows, which QuizDealMigration then fills in.
+    @Column(name = "deal_bits", length = PackedDeal.BYTES)
+    private byte[] dealBits;
 
-    @Column(nullable = false, length = 64)
-    private String eastHand;
+    @Column(length = 64)
+    private String convention;
 
-    @Column(nullable = false, length = 64)
-    private String southHand;
+    /** One {@link PackedAuction} call code per byte; an auction has at most {@link PackedAuction#MAX_CALLS} calls. */
+    @Column(name = "auction_calls", length = 320)
+    private byte[] auctionCalls;
 
-    @Column(nullable = false, length = 64)
-    private String westHand;
+    public void setHands(Map<HandPosition, String> hands) {
+        long[] packed = new long[POSITIONS.length];
+        for (HandPosition position : POSITIONS) {
+            packed[position.ordinal()] = PackedHand.parse(hands.get(position));
+        }
+        dealBits = PackedDeal.encode(packed);
+    }
 
-    @Column(length = 64)
-    private String convention;
+    /** The hand of {@code position} in the usual S.H.D.C form, or null when no deal is stored. */
+    public String getHand(HandPosition position) {
+        return dealBits == null ? null : PackedHand.format(PackedDeal.hand(dealBits, position));
+    }
+
+    public String getNorthHand() {
+        return getHand(HandPosition.NORTH);
+    }
+
+    public String getEastHand() {
+        return getHand(HandPosition.EAST);
+    }
+
+    public String getSouthHand() {
+        return getHand(HandPosition.SOUTH);
+    }
+
+    public String getWestHand() {
+        return getHand(HandPosition.WEST);
+    }
+
+    public void setAuction(List<String> calls) {
+        auctionCalls = calls == null ? null : PackedAuction.encodeCalls(calls);
+    }
+
+    public List<String> getAuction() {
+        return auctionCalls == null ? null : PackedAuction.decodeCalls(auctionCalls);
+    }
+
+    /** The auction as a JSON array of calls, e.g. {@code ["1C","PASS"]}. */
+    public String getAuctionJson() {
+        return auctionJson(auctionCalls);
+    }
 
-    @Lob
-    @Column(name = "auction_json")
-    private String auctionJson;
+    public static String auctionJson(byte[] auctionCalls) {
+        if (auctionCalls == null) return null;
+        StringBuilder json = new StringBuilder(auctionCalls.length * 6 + 2).append('[');
+        for (String call : PackedAuction.decodeCalls(auctionCalls)) {
+            if (json.length() > 1) json.append(',');
+            json.append('"').append(call).append('"');
+        }
+        return json.append(']').toString();
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.bridge.health;
+
+import com.example.bridge.service.QuizHandPool;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the quiz hand pool depth and miss rate under /actuator/health.
+ * The pool only degrades latency when it runs dry, so it always reports UP.
+ */
+@Component
+public class QuizPoolHealthIndicator implements HealthIndicator {
+
+    private final QuizHandPool pool;
+
+    public QuizPoolHealthIndicator(QuizHandPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("depth", pool.depth())
+                .withDetail("capacity", pool.capacity())
+                .withDetail("hits", pool.hits())
+                .withDetail("misses", pool.misses())
+                .withDetail("missRate", pool.missRate())
+                .build();
+    }
+}
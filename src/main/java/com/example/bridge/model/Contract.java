@@ -0,0 +1,57 @@
+package com.example.bridge.model;
+
+/**
+ * An undoubled contract such as "4H" or "3NT", with duplicate scoring.
+ * Strains use the {@link TrickTable} indices: S, H, D, C, then no trump.
+ */
+public record Contract(int level, int strain) {
+
+    public Contract {
+        if (level < 1 || level > 7 || strain < 0 || strain >= TrickTable.STRAINS) {
+            throw new IllegalArgumentException("Contract needs a level 1-7 and a strain S, H, D, C or NT");
+        }
+    }
+
+    /** Parses "4H", "3NT" or "3N" (case-insensitive). */
+    public static Contract parse(String text) {
+        String value = text == null ? "" : text.trim().toUpperCase();
+        if (value.length() < 2 || value.charAt(0) < '1' || value.charAt(0) > '7') {
+            throw new IllegalArgumentException("Invalid contract '" + text + "', expected e.g. 4H or 3NT");
+        }
+        String strain = value.substring(1);
+        for (int i = 0; i < TrickTable.STRAINS; i++) {
+            if (strain.equals(TrickTable.STRAIN_SYMBOLS[i])) {
+                return new Contract(value.charAt(0) - '0', i);
+            }
+        }
+        if (strain.equals("N")) {
+            return new Contract(value.charAt(0) - '0', TrickTable.NO_TRUMP);
+        }
+        throw new IllegalArgumentException("Invalid contract '" + text + "', expected e.g. 4H or 3NT");
+    }
+
+    public boolean makes(int tricks) {
+        return tricks >= level + 6;
+    }
+
+    /** Duplicate score for the declaring side when declarer takes {@code tricks}. */
+    public int score(int tricks, boolean vulnerable) {
+        int over = tricks - level - 6;
+        if (over < 0) {
+            return over * (vulnerable ? 100 : 50);
+        }
+        boolean minor = strain == PackedHand.DIAMONDS || strain == PackedHand.CLUBS;
+        int perTrick = minor ? 20 : 30;
+        int contracted = level * perTrick + (strain == TrickTable.NO_TRUMP ? 10 : 0);
+        int score = contracted + over * perTrick;
+        score += contracted >= 100 ? (vulnerable ? 500 : 300) : 50;
+        if (level == 6) score += vulnerable ? 750 : 500;
+        if (level == 7) score += vulnerable ? 1500 : 1000;
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return level + TrickTable.STRAIN_SYMBOLS[strain];
+    }
+}
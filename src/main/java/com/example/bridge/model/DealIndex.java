@@ -0,0 +1,129 @@
+package com.example.bridge.model;
+
+import java.math.BigInteger;
+
+/**
+ * Numbers every bridge deal: a bijection between the 53,644,737,765,488,792,839,237,440,000
+ * layouts of four 13-card hands and the integers below {@link #COUNT} (a 96-bit number).
+ * <p>
+ * Cards are visited in {@link PackedHand} bit order and each is given to the first seat (in
+ * {@link HandPosition} order) whose block of remaining layouts contains the index; the block
+ * sizes are multinomial coefficients of the cards each seat still needs. They are
+ * precomputed as 128-bit values held in two longs, so ranking or unranking a deal takes at
+ * most 52 x 4 comparisons and subtractions and never touches {@link BigInteger} on the way.
+ */
+public final class DealIndex {
+
+    private static final int CARDS = 52;
+    private static final int HAND = 13;
+    private static final int SIDE = HAND + 1;
+
+    // multinomial (a+b+c+d)! / (a! b! c! d!) for a..d cards still to deal per seat, 128-bit
+    private static final long[] WAYS_HI = new long[SIDE * SIDE * SIDE * SIDE];
+    private static final long[] WAYS_LO = new long[SIDE * SIDE * SIDE * SIDE];
+
+    static {
+        for (int a = 0; a < SIDE; a++) {
+            for (int b = 0; b < SIDE; b++) {
+                for (int c = 0; c < SIDE; c++) {
+                    for (int d = 0; d < SIDE; d++) {
+                        int i = key(a, b, c, d);
+                        if (a + b + c + d == 0) {
+                            WAYS_LO[i] = 1;
+                            continue;
+                        }
+                        // the next card goes to one of the seats that still needs cards
+                        long hi = 0, lo = 0;
+                        int[] from = {
+                                a > 0 ? key(a - 1, b, c, d) : -1, b > 0 ? key(a, b - 1, c, d) : -1,
+                                c > 0 ? key(a, b, c - 1, d) : -1, d > 0 ? key(a, b, c, d - 1) : -1};
+                        for (int j : from) {
+                            if (j < 0) continue;
+                            long sum = lo + WAYS_LO[j];
+                            hi += WAYS_HI[j] + (Long.compareUnsigned(sum, lo) < 0 ? 1 : 0);
+                            lo = sum;
+                        }
+                        WAYS_HI[i] = hi;
+                        WAYS_LO[i] = lo;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Number of distinct deals. */
+    public static final BigInteger COUNT = toBigInteger(WAYS_HI[key(HAND, HAND, HAND, HAND)],
+            WAYS_LO[key(HAND, HAND, HAND, HAND)]);
+
+    private DealIndex() {
+    }
+
+    /**
+     * Index of a deal given as four {@link PackedHand} masks indexed by seat; throws
+     * IllegalArgumentException unless they are four disjoint 13-card hands.
+     */
+    public static BigInteger rank(long[] hands) {
+        long all = 0L;
+        for (long hand : hands) {
+            if (PackedHand.cardCount(hand) != HAND || (all & hand) != 0) {
+                throw new IllegalArgumentException("A deal needs four disjoint 13-card hands");
+            }
+            all |= hand;
+        }
+        int[] left = {HAND, HAND, HAND, HAND};
+        long hi = 0, lo = 0;
+        for (int card = 0; card < CARDS; card++) {
+            long bit = 1L << card;
+            for (int seat = 0; seat < 4; seat++) {
+                if (left[seat] == 0) continue;
+                left[seat]--;
+                if ((hands[seat] & bit) != 0) break;
+                int k = key(left[0], left[1], left[2], left[3]);
+                long sum = lo + WAYS_LO[k];
+                hi += WAYS_HI[k] + (Long.compareUnsigned(sum, lo) < 0 ? 1 : 0);
+                lo = sum;
+                left[seat]++;
+            }
+        }
+        return toBigInteger(hi, lo);
+    }
+
+    /**
+     * Writes the deal with {@code index} into {@code hands} as four {@link PackedHand} masks
+     * indexed by seat; throws IllegalArgumentException unless 0 <= index < {@link #COUNT}.
+     */
+    public static void unrank(BigInteger index, long[] hands) {
+        if (index.signum() < 0 || index.compareTo(COUNT) >= 0) {
+            throw new IllegalArgumentException("Deal index must be between 0 and " + COUNT.subtract(BigInteger.ONE));
+        }
+        long hi = index.shiftRight(64).longValue();
+        long lo = index.longValue();
+        int[] left = {HAND, HAND, HAND, HAND};
+        hands[0] = hands[1] = hands[2] = hands[3] = 0L;
+        for (int card = 0; card < CARDS; card++) {
+            for (int seat = 0; seat < 4; seat++) {
+                if (left[seat] == 0) continue;
+                left[seat]--;
+                int k = key(left[0], left[1], left[2], left[3]);
+                long waysHi = WAYS_HI[k];
+                long waysLo = WAYS_LO[k];
+                if (hi < waysHi || (hi == waysHi && Long.compareUnsigned(lo, waysLo) < 0)) {
+                    hands[seat] |= 1L << card;
+                    break;
+                }
+                hi -= waysHi + (Long.compareUnsigned(lo, waysLo) < 0 ? 1 : 0);
+                lo -= waysLo;
+                left[seat]++;
+            }
+        }
+    }
+
+    private static int key(int a, int b, int c, int d) {
+        return ((a * SIDE + b) * SIDE + c) * SIDE + d;
+    }
+
+    private static BigInteger toBigInteger(long hi, long lo) {
+        BigInteger low = BigInteger.valueOf(lo >>> 1).shiftLeft(1).or(BigInteger.valueOf(lo & 1));
+        return BigInteger.valueOf(hi).shiftLeft(64).or(low);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.bridge.model;
+
+/**
+ * Strict parser for hands supplied by clients, in one pass over the characters with no
+ * regular expressions and no allocation on success.
+ * <p>
+ * Two notations are accepted:
+ * <ul>
+ *   <li>PBN: the four suits in S.H.D.C order separated by dots, e.g. {@code AKQJ.T987.AK.QJ9}.
+ *   A void is written as nothing or as {@code -}, e.g. {@code AKQJ9.-.T987.QJ9}.</li>
+ *   <li>LIN: each suit letter followed by its cards, e.g. {@code SAKQJHT987DAKCQJ9}. Suits may come
+ *   in any order, each at most once, and a void suit may be left out.</li>
+ * </ul>
+ * Ranks and suit letters are case-insensitive, {@code 10} is accepted for the ten and
+ * whitespace is ignored. A valid hand holds exactly 13 different cards.
+ * <p>
+ * {@link #parse} returns the {@link PackedHand} mask, or a negative result that encodes what
+ * went wrong and where; decode it with {@link #error}, {@link #index} and {@link #message}.
+ */
+public final class HandParser {
+
+    /** Longest input accepted; 13 cards written as LIN with spaces and tens fit comfortably. */
+    public static final int MAX_LENGTH = 64;
+
+    public static final int CARDS = 13;
+
+    public enum Error {
+        /** Nothing but whitespace. */
+        EMPTY,
+        /** Longer than {@link #MAX_LENGTH}. */
+        TOO_LONG,
+        /** A PBN hand without exactly four suits; the index is the number of suits, 5 for too many. */
+        SUIT_COUNT,
+        /** A LIN suit letter given twice. */
+        DUPLICATE_SUIT,
+        /** Not a rank, suit letter or separator. */
+        INVALID_CHARACTER,
+        /** A card given twice. */
+        DUPLICATE_CARD,
+        /** Well formed, but not 13 cards; the index is the number of cards. */
+        CARD_COUNT
+    }
+
+    private static final Error[] ERRORS = Error.values();
+
+    private HandParser() {
+    }
+
+    /**
+     * The packed hand, or a negative value when {@code text} is not a valid hand. A null
+     * input is {@link Error#EMPTY}.
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) return failure(Error.EMPTY, 0);
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (start == end) return failure(Error.EMPTY, 0);
+        if (end - start > MAX_LENGTH) return failure(Error.TOO_LONG, end - start);
+
+        boolean lin = suitOf(text.charAt(start)) >= 0;
+        long mask = 0L;
+        int suit = lin ? -1 : 0;
+        int suitsSeen = 0;        // LIN: bit per suit letter seen
+        boolean suitUsed = false; // PBN: the current suit already has a card or a void mark
+        boolean voided = false;   // PBN: the current suit is marked void
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c <= ' ') continue;
+            if (lin) {
+                int s = suitOf(c);
+                if (s >= 0) {
+                    if ((suitsSeen & 1 << s) != 0) return failure(Error.DUPLICATE_SUIT, i);
+                    suitsSeen |= 1 << s;
+                    suit = s;
+                    continue;
+                }
+            } else if (c == '.') {
+                if (++suit == PackedHand.SUITS) return failure(Error.SUIT_COUNT, PackedHand.SUITS + 1);
+                suitUsed = false;
+                voided = false;
+                continue;
+            } else if (c == '-') {
+                if (suitUsed) return failure(Error.INVALID_CHARACTER, i);
+                suitUsed = true;
+                voided = true;
+                continue;
+            }
+
+            int rank;
+            int at = i;
+            if (c == '1' && i + 1 < end && text.charAt(i + 1) == '0') {
+                rank = 8;
+                i++;
+            } else {
+                rank = PackedHand.rank(c);
+            }
+            if (rank < 0 || voided) return failure(Error.INVALID_CHARACTER, at);
+            long card = PackedHand.bit(suit, rank);
+            if ((mask & card) != 0) return failure(Error.DUPLICATE_CARD, at);
+            mask |= card;
+            suitUsed = true;
+        }
+        if (!lin && suit != PackedHand.SUITS - 1) return failure(Error.SUIT_COUNT, suit + 1);
+        int cards = Long.bitCount(mask);
+        return cards == CARDS ? mask : failure(Error.CARD_COUNT, cards);
+    }
+
+    /** The packed hand; invalid input is rejected with the {@link #message}. */
+    public static long parseOrThrow(CharSequence text) {
+        long result = parse(text);
+        if (isError(result)) {
+            throw new IllegalArgumentException(message(result, text));
+        }
+        return result;
+    }
+
+    public static boolean isError(long result) {
+        return result < 0;
+    }
+
+    /** What a failed {@link #parse} found wrong, or null for a hand. */
+    public static Error error(long result) {
+        return isError(result) ? ERRORS[(int) (result >>> 32) & 0xFF] : null;
+    }
+
+    /**
+     * Where a failed {@link #parse} stopped: the index of the offending character in the input,
+     * or a count for {@link Error#SUIT_COUNT}, {@link Error#CARD_COUNT} and {@link Error#TOO_LONG}.
+     */
+    public static int index(long result) {
+        return (int) result;
+    }
+
+    /** A sentence describing a failed {@link #parse} of {@code text}, or null for a hand. */
+    public static String message(long result, CharSequence text) {
+        Error error = error(result);
+        if (error == null) return null;
+        int index = index(result);
+        return switch (error) {
+            case EMPTY -> "Hand is empty";
+            case TOO_LONG -> "Hand is " + index + " characters long, at most " + MAX_LENGTH + " are accepted";
+            case SUIT_COUNT -> (index > PackedHand.SUITS ? "Hand has more than 4 suits" : "Hand has " + index + " suits")
+                    + ", expected 4 separated by dots (S.H.D.C)";
+            case DUPLICATE_SUIT -> "Suit " + Character.toUpperCase(text.charAt(index)) + " is given twice at position " + (index + 1);
+            case INVALID_CHARACTER -> "Unexpected character '" + text.charAt(index) + "' at position " + (index + 1);
+            case DUPLICATE_CARD -> "Card " + card(text, index) + " is given twice at position " + (index + 1);
+            case CARD_COUNT -> "Hand has " + index + " cards, expected " + CARDS;
+        };
+    }
+
+    private static String card(CharSequence text, int index) {
+        return text.charAt(index) == '1' ? "10" : String.valueOf(Character.toUpperCase(text.charAt(index)));
+    }
+
+    private static long failure(Error error, int index) {
+        return Long.MIN_VALUE | (long) error.ordinal() << 32 | (index & 0xFFFFFFFFL);
+    }
+
+    private static int suitOf(char c) {
+        return switch (c) {
+            case 'S', 's' -> PackedHand.SPADES;
+            case 'H', 'h' -> PackedHand.HEARTS;
+            case 'D', 'd' -> PackedHand.DIAMONDS;
+            case 'C', 'c' -> PackedHand.CLUBS;
+            default -> -1;
+        };
+    }
+}
@@ -19,6 +19,16 @@ public enum HandPosition {
         return symbol;
     }
 
+    /** Position for "N", "E", "S" or "W" (case-insensitive). */
+    public static HandPosition fromSymbol(String symbol) {
+        for (HandPosition position : values()) {
+            if (position.symbol.equalsIgnoreCase(symbol == null ? "" : symbol.trim())) {
+                return position;
+            }
+        }
+        throw new IllegalArgumentException("Unknown position '" + symbol + "', expected N, E, S or W");
+    }
+
     public HandPosition next() {
         return switch (this) {
             case NORTH -> EAST;
@@ -0,0 +1,265 @@
+package com.example.bridge.model;
+
+import java.util.List;
+
+/**
+ * Compact, allocation-free auction state.
+ * <p>
+ * Calls are small integer codes: {@link #PASS}, {@link #DOUBLE}, {@link #REDOUBLE}, then the
+ * 35 bids 1C..7NT in ascending order, so a bid is sufficient exactly when its code is higher
+ * than the last bid. The state of an auction is a single {@code long} holding the dealer,
+ * the number of calls, the last bid with its bidder and double state, the run of passes,
+ * and the opening, the opener's partner's first call and whether the opener has rebid.
+ * {@link #apply} extends an auction by one call in constant time, so evaluating the next
+ * call never has to replay the calls made so far. Seats are {@link HandPosition} ordinals.
+ */
+public final class PackedAuction {
+
+    public static final int PASS = 0;
+    public static final int DOUBLE = 1;
+    public static final int REDOUBLE = 2;
+
+    /** Number of distinct call codes: pass, double, redouble and 35 bids. */
+    public static final int CALLS = 38;
+
+    /**
+     * Calls in the longest legal auction: three passes, then every bid followed by two passes,
+     * a double, two passes, a redouble and two passes, and one more pass to end it.
+     */
+    public static final int MAX_CALLS = 319;
+
+    private static final int FIRST_BID = 3;
+    private static final int DENOMINATIONS = 5;
+    private static final String[] SYMBOLS = new String[CALLS];
+
+    // field layout of the packed state
+    private static final int DEALER = 0;            // 2 bits
+    private static final int COUNT = 2;             // 9 bits, an auction has at most 319 calls
+    private static final int LAST_BID = 11;         // 6 bits, PASS when nobody has bid
+    private static final int LAST_BIDDER = 17;      // 2 bits
+    private static final int DOUBLED = 19;          // 2 bits: 0, DOUBLE or REDOUBLE
+    private static final int PASSES = 21;           // 3 bits, consecutive passes
+    private static final int OPENING = 24;          // 6 bits, PASS when nobody has opened
+    private static final int OPENER = 30;           // 2 bits
+    private static final int RESPONSE = 32;         // 6 bits, call code + 1, 0 until partner calls
+    private static final int REBID = 38;            // 1 bit, opener has called again
+    private static final int CALLED = 39;           // 4 bits, seats that made a call other than pass
+
+    static {
+        SYMBOLS[PASS] = "PASS";
+        SYMBOLS[DOUBLE] = "X";
+        SYMBOLS[REDOUBLE] = "XX";
+        for (int level = 1; level <= 7; level++) {
+            for (int strain = 0; strain < TrickTable.STRAINS; strain++) {
+                SYMBOLS[bid(level, strain)] = level + TrickTable.STRAIN_SYMBOLS[strain];
+            }
+        }
+    }
+
+    private PackedAuction() {
+    }
+
+    /** An empty auction with {@code dealer} to call first. */
+    public static long start(HandPosition dealer) {
+        return dealer.ordinal();
+    }
+
+    /** Replays {@code calls} from {@code dealer}; throws IllegalArgumentException on an unknown or illegal call. */
+    public static long parse(HandPosition dealer, List<String> calls) {
+        long auction = start(dealer);
+        if (calls == null) return auction;
+        for (String call : calls) {
+            auction = apply(auction, parseCall(call));
+        }
+        return auction;
+    }
+
+    /**
+     * Code of a bid; strains use the {@link TrickTable} indices (S, H, D, C, then no trump).
+     */
+    public static int bid(int level, int strain) {
+        int denomination = strain == TrickTable.NO_TRUMP ? 4 : 3 - strain;
+        return FIRST_BID + (level - 1) * DENOMINATIONS + denomination;
+    }
+
+    public static boolean isBid(int call) {
+        return call >= FIRST_BID && call < CALLS;
+    }
+
+    public static int level(int bid) {
+        return (bid - FIRST_BID) / DENOMINATIONS + 1;
+    }
+
+    /** Strain of a bid as a {@link TrickTable} index. */
+    public static int strain(int bid) {
+        int denomination = (bid - FIRST_BID) % DENOMINATIONS;
+        return denomination == 4 ? TrickTable.NO_TRUMP : 3 - denomination;
+    }
+
+    /** The lowest bid in {@code strain} that is sufficient over {@code lastBid} (which may be PASS), or -1 above 7NT. */
+    public static int cheapestBid(int lastBid, int strain) {
+        int level = isBid(lastBid) ? level(lastBid) : 1;
+        int bid = bid(level, strain);
+        if (bid <= lastBid) bid += DENOMINATIONS;
+        return bid < CALLS ? bid : -1;
+    }
+
+    /**
+     * Parses "PASS"/"P", "X"/"DBL", "XX"/"RDBL" or a bid such as "1H", "3NT" or "3N"
+     * (case-insensitive).
+     */
+    public static int parseCall(String text) {
+        String call = text == null ? "" : text.trim().toUpperCase();
+        switch (call) {
+            case "PASS", "P" -> { return PASS; }
+            case "X", "DBL", "D" -> { return DOUBLE; }
+            case "XX", "RDBL", "R" -> { return REDOUBLE; }
+            default -> { }
+        }
+        Contract contract;
+        try {
+            contract = Contract.parse(call);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid call '" + text + "', expected PASS, X, XX or a bid such as 1H");
+        }
+        return bid(contract.level(), contract.strain());
+    }
+
+    public static String symbol(int call) {
+        return SYMBOLS[call];
+    }
+
+    /**
+     * Storage form of a call list: one call code per byte. Calls are parsed but not checked
+     * for legality; throws IllegalArgumentException on an unknown call.
+     */
+    public static byte[] encodeCalls(List<String> calls) {
+        byte[] codes = new byte[calls.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) parseCall(calls.get(i));
+        }
+        return codes;
+    }
+
+    /** The calls of {@link #encodeCalls} as their symbols. */
+    public static List<String> decodeCalls(byte[] codes) {
+        String[] calls = new String[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            int call = codes[i];
+            if (call < 0 || call >= CALLS) {
+                throw new IllegalArgumentException("Invalid call code " + call);
+            }
+            calls[i] = SYMBOLS[call];
+        }
+        return List.of(calls);
+    }
+
+    public static int dealer(long auction) {
+        return (int) (auction >>> DEALER) & 3;
+    }
+
+    public static int callCount(long auction) {
+        return (int) (auction >>> COUNT) & 0x1FF;
+    }
+
+    public static int seatToAct(long auction) {
+        return (dealer(auction) + callCount(auction)) & 3;
+    }
+
+    /** The highest bid so far, or {@link #PASS} when nobody has bid. */
+    public static int lastBid(long auction) {
+        return (int) (auction >>> LAST_BID) & 0x3F;
+    }
+
+    public static int lastBidder(long auction) {
+        return (int) (auction >>> LAST_BIDDER) & 3;
+    }
+
+    /** 0, {@link #DOUBLE} or {@link #REDOUBLE} for the last bid. */
+    public static int doubled(long auction) {
+        return (int) (auction >>> DOUBLED) & 3;
+    }
+
+    /** The first bid of the auction, or {@link #PASS} when nobody has opened. */
+    public static int opening(long auction) {
+        return (int) (auction >>> OPENING) & 0x3F;
+    }
+
+    /** Seat of the opener; only meaningful once {@link #opening} is a bid. */
+    public static int opener(long auction) {
+        return (int) (auction >>> OPENER) & 3;
+    }
+
+    /** The opener's partner's first call after the opening, or -1 while they have not called. */
+    public static int response(long auction) {
+        return ((int) (auction >>> RESPONSE) & 0x3F) - 1;
+    }
+
+    public static boolean openerHasRebid(long auction) {
+        return (auction >>> REBID & 1) != 0;
+    }
+
+    /** Whether {@code seat} has made any call other than pass. */
+    public static boolean hasCalled(long auction, int seat) {
+        return (auction >>> (CALLED + seat) & 1) != 0;
+    }
+
+    /** Four passes, or three passes after a bid. */
+    public static boolean isComplete(long auction) {
+        int passes = (int) (auction >>> PASSES) & 7;
+        return passes >= 4 || (passes >= 3 && lastBid(auction) != PASS);
+    }
+
+    public static boolean isLegal(long auction, int call) {
+        if (call < 0 || call >= CALLS || isComplete(auction)) return false;
+        if (call == PASS) return true;
+        int lastBid = lastBid(auction);
+        boolean opponentsBid = ((lastBidder(auction) ^ seatToAct(auction)) & 1) != 0;
+        if (call == DOUBLE) return lastBid != PASS && doubled(auction) == 0 && opponentsBid;
+        if (call == REDOUBLE) return doubled(auction) == DOUBLE && !opponentsBid;
+        return call > lastBid;
+    }
+
+    /** The auction extended by {@code call}; throws IllegalArgumentException when the call is not legal. */
+    public static long apply(long auction, int call) {
+        if (!isLegal(auction, call)) {
+            throw new IllegalArgumentException(isComplete(auction)
+                    ? "The auction is already over"
+                    : "Call " + (call >= 0 && call < CALLS ? symbol(call) : String.valueOf(call))
+                    + " is not legal after " + (lastBid(auction) == PASS ? "no bids" : symbol(lastBid(auction))));
+        }
+        int seat = seatToAct(auction);
+        boolean opened = opening(auction) != PASS;
+        long next = auction + (1L << COUNT);
+
+        int passes = (int) (auction >>> PASSES) & 7;
+        next = set(next, PASSES, 7, call == PASS ? passes + 1 : 0);
+        if (call != PASS) {
+            next |= 1L << (CALLED + seat);
+        }
+        if (call == DOUBLE || call == REDOUBLE) {
+            next = set(next, DOUBLED, 3, call);
+        } else if (call != PASS) {
+            next = set(next, LAST_BID, 0x3F, call);
+            next = set(next, LAST_BIDDER, 3, seat);
+            next = set(next, DOUBLED, 3, 0);
+            if (!opened) {
+                next = set(next, OPENING, 0x3F, call);
+                next = set(next, OPENER, 3, seat);
+            }
+        }
+        if (opened) {
+            int opener = opener(auction);
+            if (seat == (opener ^ 2) && response(auction) < 0) {
+                next = set(next, RESPONSE, 0x3F, call + 1);
+            } else if (seat == opener) {
+                next |= 1L << REBID;
+            }
+        }
+        return next;
+    }
+
+    private static long set(long auction, int shift, long mask, int value) {
+        return auction & ~(mask << shift) | ((long) value & mask) << shift;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bridge.model;
+
+/**
+ * A whole deal in 13 bytes: two bits per card naming its owner (a {@link HandPosition}
+ * ordinal), cards in {@link PackedHand} bit order, four cards per byte starting with the low
+ * bits. This is the storage form of a deal; {@link PackedHand} masks are the working form.
+ */
+public final class PackedDeal {
+
+    public static final int BYTES = 13;
+
+    private static final int CARDS = 52;
+    private static final long DECK = (1L << CARDS) - 1;
+
+    private PackedDeal() {
+    }
+
+    /**
+     * Encodes four {@link PackedHand} masks indexed by seat; throws IllegalArgumentException
+     * unless every card is held by exactly one seat.
+     */
+    public static byte[] encode(long[] hands) {
+        if (hands.length != 4) {
+            throw new IllegalArgumentException("A deal needs exactly four hands");
+        }
+        long all = 0L;
+        byte[] deal = new byte[BYTES];
+        for (int seat = 0; seat < 4; seat++) {
+            long hand = hands[seat];
+            if ((all & hand) != 0 || (hand & ~DECK) != 0) {
+                throw new IllegalArgumentException("Hands must not share cards");
+            }
+            all |= hand;
+            for (long rest = hand; rest != 0; rest &= rest - 1) {
+                int card = Long.numberOfTrailingZeros(rest);
+                deal[card >>> 2] |= (byte) (seat << ((card & 3) << 1));
+            }
+        }
+        if (all != DECK) {
+            throw new IllegalArgumentException("A deal must hold all 52 cards");
+        }
+        return deal;
+    }
+
+    /** Writes the four hands of an encoded deal into {@code hands}, indexed by seat. */
+    public static void decode(byte[] deal, long[] hands) {
+        if (deal.length != BYTES) {
+            throw new IllegalArgumentException("An encoded deal has " + BYTES + " bytes, not " + deal.length);
+        }
+        long n = 0, e = 0, s = 0, w = 0;
+        for (int card = 0; card < CARDS; card++) {
+            long bit = 1L << card;
+            switch ((deal[card >>> 2] >>> ((card & 3) << 1)) & 3) {
+                case 0 -> n |= bit;
+                case 1 -> e |= bit;
+                case 2 -> s |= bit;
+                default -> w |= bit;
+            }
+        }
+        hands[0] = n;
+        hands[1] = e;
+        hands[2] = s;
+        hands[3] = w;
+    }
+
+    /** The hand of one seat of an encoded deal. */
+    public static long hand(byte[] deal, HandPosition seat) {
+        long[] hands = new long[4];
+        decode(deal, hands);
+        return hands[seat.ordinal()];
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.bridge.model;
+
+import java.util.Arrays;
+
+/**
+ * Compact, allocation-free representation of a bridge hand.
+ * <p>
+ * A hand is a 52-bit {@code long} card mask: card {@code (suit, rank)} lives at bit
+ * {@code suit * 13 + rank}, where suits are indexed S, H, D, C (matching {@link Card.Suit}
+ * ordinals) and ranks 2..A are 0..12 (matching {@link Card.Rank} ordinals).
+ * All helpers are static and work on the primitive mask, so evaluating a hand
+ * does not create any objects.
+ */
+public final class PackedHand {
+
+    public static final int SPADES = 0;
+    public static final int HEARTS = 1;
+    public static final int DIAMONDS = 2;
+    public static final int CLUBS = 3;
+
+    public static final int SUITS = 4;
+    public static final int RANKS = 13;
+
+    /** Suit letters in S, H, D, C order. */
+    public static final char[] SUIT_SYMBOLS = {'S', 'H', 'D', 'C'};
+
+    /** Rank letters indexed by rank (2..A). */
+    public static final char[] RANK_SYMBOLS = {'2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K', 'A'};
+
+    static final int SUIT_MASK = 0x1FFF;
+
+    private static final int HONOUR_SHIFT = 9; // J, Q, K, A are ranks 9..12
+
+    // rank index by ASCII char, -1 for anything that is not a rank
+    private static final byte[] RANK_BY_CHAR = new byte[128];
+    // HCP of the four honour bits (J=1, Q=2, K=3, A=4) of a single suit
+    private static final byte[] HCP_BY_HONOURS = new byte[16];
+
+    static {
+        Arrays.fill(RANK_BY_CHAR, (byte) -1);
+        for (int r = 0; r < RANKS; r++) {
+            char c = RANK_SYMBOLS[r];
+            RANK_BY_CHAR[c] = (byte) r;
+            RANK_BY_CHAR[Character.toLowerCase(c)] = (byte) r;
+        }
+        for (int honours = 0; honours < 16; honours++) {
+            HCP_BY_HONOURS[honours] = (byte) (((honours & 1) != 0 ? 1 : 0)
+                    + ((honours & 2) != 0 ? 2 : 0)
+                    + ((honours & 4) != 0 ? 3 : 0)
+                    + ((honours & 8) != 0 ? 4 : 0));
+        }
+    }
+
+    private PackedHand() {
+    }
+
+    /**
+     * Parses a hand in "S.H.D.C" form, e.g. "AKQJ.T987.AK.QJ9" (empty suits allowed).
+     * Ranks are case-insensitive and "10" is accepted for the ten. Anything that does not
+     * have exactly four dot-separated suits yields an empty hand; unknown characters are ignored.
+     * Meant for hands this application produced; client input goes through {@link HandParser}.
+     */
+    public static long parse(CharSequence hand) {
+        if (hand == null) return 0L;
+        int start = 0;
+        int end = hand.length();
+        while (start < end && hand.charAt(start) <= ' ') start++;
+        while (end > start && hand.charAt(end - 1) <= ' ') end--;
+
+        long mask = 0L;
+        int suit = 0;
+        for (int i = start; i < end; i++) {
+            char c = hand.charAt(i);
+            if (c == '.') {
+                if (++suit >= SUITS) return 0L;
+                continue;
+            }
+            if (c == '1' && i + 1 < end && hand.charAt(i + 1) == '0') {
+                mask |= bit(suit, 8);
+                i++;
+                continue;
+            }
+            int rank = c < 128 ? RANK_BY_CHAR[c] : -1;
+            if (rank >= 0) mask |= bit(suit, rank);
+        }
+        return suit == SUITS - 1 ? mask : 0L;
+    }
+
+    /** Rank index (2..A = 0..12) of a rank letter in either case, or -1. "10" is not handled here. */
+    static int rank(char c) {
+        return c < 128 ? RANK_BY_CHAR[c] : -1;
+    }
+
+    /** Single-card mask for the given suit index and rank index. */
+    public static long bit(int suit, int rank) {
+        return 1L << (suit * RANKS + rank);
+    }
+
+    /** The 13-bit rank set of one suit (bit 12 = ace). */
+    public static int suitCards(long hand, int suit) {
+        return (int) (hand >>> (suit * RANKS)) & SUIT_MASK;
+    }
+
+    public static int length(long hand, int suit) {
+        return Integer.bitCount(suitCards(hand, suit));
+    }
+
+    public static int cardCount(long hand) {
+        return Long.bitCount(hand);
+    }
+
+    /** High-card points using the 4-3-2-1 count. */
+    public static int hcp(long hand) {
+        return HCP_BY_HONOURS[(suitCards(hand, SPADES) >>> HONOUR_SHIFT)]
+                + HCP_BY_HONOURS[(suitCards(hand, HEARTS) >>> HONOUR_SHIFT)]
+                + HCP_BY_HONOURS[(suitCards(hand, DIAMONDS) >>> HONOUR_SHIFT)]
+                + HCP_BY_HONOURS[(suitCards(hand, CLUBS) >>> HONOUR_SHIFT)];
+    }
+
+    /**
+     * Suit lengths packed 4 bits each, spades in the highest nibble:
+     * {@code S << 12 | H << 8 | D << 4 | C}.
+     */
+    public static int shape(long hand) {
+        return shapeOf(length(hand, SPADES), length(hand, HEARTS), length(hand, DIAMONDS), length(hand, CLUBS));
+    }
+
+    public static int shapeOf(int spades, int hearts, int diamonds, int clubs) {
+        return spades << 12 | hearts << 8 | diamonds << 4 | clubs;
+    }
+
+    /** Length of one suit in a shape produced by {@link #shape(long)}. */
+    public static int suitLength(int shape, int suit) {
+        return (shape >>> ((CLUBS - suit) * 4)) & 0xF;
+    }
+
+    /** Renders the hand back to "S.H.D.C" form with ranks in descending order. */
+    public static String format(long hand) {
+        char[] out = new char[cardCount(hand) + SUITS - 1];
+        int len = formatInto(hand, out, 0);
+        return new String(out, 0, len);
+    }
+
+    /**
+     * Writes the "S.H.D.C" form of the hand into {@code out} starting at {@code pos}
+     * and returns the position after the last written char. A 13-card hand needs 16 chars.
+     */
+    public static int formatInto(long hand, char[] out, int pos) {
+        for (int suit = 0; suit < SUITS; suit++) {
+            if (suit > 0) out[pos++] = '.';
+            int cards = suitCards(hand, suit);
+            while (cards != 0) {
+                int rank = 31 - Integer.numberOfLeadingZeros(cards);
+                out[pos++] = RANK_SYMBOLS[rank];
+                cards &= ~(1 << rank);
+            }
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bridge.model;
+
+import java.util.Arrays;
+
+/**
+ * Double-dummy results of a deal: the tricks each declarer takes in each strain,
+ * with the player on declarer's left leading.
+ * Strains are indexed S, H, D, C like {@link PackedHand} suits, with no trump last.
+ */
+public final class TrickTable {
+
+    public static final int NO_TRUMP = 4;
+    public static final int STRAINS = 5;
+
+    /** Strain letters in index order. */
+    public static final String[] STRAIN_SYMBOLS = {"S", "H", "D", "C", "NT"};
+
+    private final byte[] tricks;
+
+    /**
+     * @param tricks 20 trick counts indexed by {@code declarer.ordinal() * STRAINS + strain}
+     */
+    public TrickTable(byte[] tricks) {
+        if (tricks.length != HandPosition.values().length * STRAINS) {
+            throw new IllegalArgumentException("A trick table holds 20 results");
+        }
+        this.tricks = tricks.clone();
+    }
+
+    public int tricks(HandPosition declarer, int strain) {
+        return tricks[declarer.ordinal() * STRAINS + strain];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof TrickTable other && Arrays.equals(tricks, other.tricks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(tricks);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("TrickTable{");
+        for (HandPosition declarer : HandPosition.values()) {
+            if (declarer.ordinal() > 0) out.append(", ");
+            out.append(declarer.getSymbol()).append('=');
+            for (int strain = 0; strain < STRAINS; strain++) {
+                if (strain > 0) out.append('/');
+                out.append(tricks(declarer, strain));
+            }
+        }
+        return out.append('}').toString();
+    }
+}
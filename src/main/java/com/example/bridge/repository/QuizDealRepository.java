@@ -1,9 +1,50 @@
 package com.example.bridge.repository;
 
+import com.example.bridge.dto.QuizDealSummary;
 import com.example.bridge.entity.QuizDeal;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface QuizDealRepository extends JpaRepository<QuizDeal, Long> {
+
+    /**
+     * Keyset page of deals in id order, used for full exports: pass the last id of the
+     * previous page to continue. Read-only, so Hibernate keeps no snapshots for dirty checking.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    List<QuizDeal> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    // --- Recent listing: keyset on (createdAt, id) descending, backed by idx_quiz_deal_created_at_id ---
+
+    String SUMMARY = "new com.example.bridge.dto.QuizDealSummary("
+            + "d.id, d.createdAt, d.dealer, d.dealBits, d.convention";
+    String BEFORE = " where d.createdAt < :createdAt or (d.createdAt = :createdAt and d.id < :id)";
+    String NEWEST_FIRST = " order by d.createdAt desc, d.id desc";
+
+    @Query("select " + SUMMARY + ") from QuizDeal d" + NEWEST_FIRST)
+    List<QuizDealSummary> findRecentSummaries(Pageable pageable);
+
+    @Query("select " + SUMMARY + ") from QuizDeal d" + BEFORE + NEWEST_FIRST)
+    List<QuizDealSummary> findRecentSummariesBefore(@Param("createdAt") Instant createdAt, @Param("id") long id, Pageable pageable);
+
+    @Query("select " + SUMMARY + ", d.auctionCalls) from QuizDeal d" + NEWEST_FIRST)
+    List<QuizDealSummary> findRecentSummariesWithAuction(Pageable pageable);
+
+    @Query("select " + SUMMARY + ", d.auctionCalls) from QuizDeal d" + BEFORE + NEWEST_FIRST)
+    List<QuizDealSummary> findRecentSummariesWithAuctionBefore(@Param("createdAt") Instant createdAt, @Param("id") long id, Pageable pageable);
 }
@@ -0,0 +1,56 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedAuction;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * All bidding tables of one convention: the opening table, built up front, and one
+ * {@link OpeningBidTable} per auction context of {@link AuctionRules}, built the first
+ * time the context comes up. Only a few dozen of the possible contexts are reachable,
+ * so the tables stay small; a lookup is an array read once a context has been built.
+ */
+final class AuctionRuleTable {
+
+    private final Convention convention;
+    private final OpeningBidTable openings;
+    private final AtomicReferenceArray<OpeningBidTable> byContext =
+            new AtomicReferenceArray<>(AuctionRules.CONTEXTS);
+
+    AuctionRuleTable(Convention convention) {
+        this.convention = convention;
+        this.openings = new OpeningBidTable(convention::open);
+    }
+
+    Convention convention() {
+        return convention;
+    }
+
+    OpeningBidTable openings() {
+        return openings;
+    }
+
+    /**
+     * Call code for the seat to act in {@code auction}. A rule that is not sufficient
+     * after interference by the opponents becomes a pass.
+     */
+    int call(long auction, int context, int hcp, int shape) {
+        int role = AuctionRules.role(context);
+        if (role == AuctionRules.PASS_OUT) return PackedAuction.PASS;
+        int call = role == AuctionRules.OPEN
+                ? openings.lookupCall(hcp, shape)
+                : table(context).lookupCall(hcp, shape);
+        return PackedAuction.isLegal(auction, call) ? call : PackedAuction.PASS;
+    }
+
+    private OpeningBidTable table(int context) {
+        OpeningBidTable table = byContext.get(context);
+        if (table == null) {
+            // tables are immutable, so a lost race only builds one twice
+            byContext.compareAndSet(context, null,
+                    new OpeningBidTable((hcp, shape) -> AuctionRules.call(convention, context, hcp, shape)));
+            table = byContext.get(context);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+import com.example.bridge.model.TrickTable;
+
+/**
+ * Simple bidding rules by auction context; openings come from the {@link Convention}.
+ * <p>
+ * The seat to act is in one of a few roles: opening, responding to partner's opening,
+ * the opener's rebid, competing after the opponents opened, or advancing partner's overcall
+ * or double. Every other call passes, so every auction ends after at most a few rounds.
+ * A context is the role together with the two calls the rules look at, and the rules only
+ * depend on HCP and shape within a context, so {@link AuctionRuleTable} can precompute each
+ * context as an {@link OpeningBidTable}.
+ */
+final class AuctionRules {
+
+    static final int OPEN = 0;
+    static final int RESPOND = 1;
+    static final int REBID = 2;
+    static final int COMPETE = 3;
+    static final int ADVANCE = 4;
+    static final int PASS_OUT = 5;
+
+    static final int ROLES = 6;
+    static final int CONTEXTS = ROLES * PackedAuction.CALLS * PackedAuction.CALLS;
+
+    private static final int SPADES = PackedHand.SPADES;
+    private static final int HEARTS = PackedHand.HEARTS;
+    private static final int DIAMONDS = PackedHand.DIAMONDS;
+    private static final int CLUBS = PackedHand.CLUBS;
+    private static final int NT = TrickTable.NO_TRUMP;
+
+    private AuctionRules() {
+    }
+
+    // --- contexts ---
+
+    /**
+     * Context of the seat to act: for responses the opening, for rebids the opening and
+     * partner's response, for competing the opening and the bid to beat, for advancing the
+     * bid to beat and partner's call on it (the bid itself, DOUBLE, or PASS when the
+     * opponents have bid again since).
+     */
+    static int context(long auction) {
+        int opening = PackedAuction.opening(auction);
+        if (opening == PackedAuction.PASS) return context(OPEN, 0, 0);
+        int seat = PackedAuction.seatToAct(auction);
+        int opener = PackedAuction.opener(auction);
+        int response = PackedAuction.response(auction);
+        if (seat == (opener ^ 2)) {
+            return response < 0 ? context(RESPOND, opening, 0) : context(PASS_OUT, 0, 0);
+        }
+        if (seat == opener) {
+            return PackedAuction.openerHasRebid(auction) ? context(PASS_OUT, 0, 0) : context(REBID, opening, response);
+        }
+        int lastBid = PackedAuction.lastBid(auction);
+        if (PackedAuction.hasCalled(auction, seat)) return context(PASS_OUT, 0, 0);
+        if (!PackedAuction.hasCalled(auction, seat ^ 2)) return context(COMPETE, opening, lastBid);
+        int partners;
+        if (PackedAuction.lastBidder(auction) == (seat ^ 2)) {
+            partners = lastBid;
+        } else {
+            partners = PackedAuction.doubled(auction) == PackedAuction.DOUBLE
+                    ? PackedAuction.DOUBLE : PackedAuction.PASS;
+        }
+        return context(ADVANCE, lastBid, partners);
+    }
+
+    static int context(int role, int first, int second) {
+        return (role * PackedAuction.CALLS + first) * PackedAuction.CALLS + second;
+    }
+
+    static int role(int context) {
+        return context / (PackedAuction.CALLS * PackedAuction.CALLS);
+    }
+
+    static int first(int context) {
+        return context / PackedAuction.CALLS % PackedAuction.CALLS;
+    }
+
+    static int second(int context) {
+        return context % PackedAuction.CALLS;
+    }
+
+    /** Call for a hand in {@code context}; may be insufficient when the opponents interfered. */
+    static String call(Convention convention, int context, int hcp, int shape) {
+        int first = first(context);
+        int second = second(context);
+        return switch (role(context)) {
+            case OPEN -> convention.open(hcp, shape);
+            case RESPOND -> respond(convention, first, hcp, shape);
+            case REBID -> rebid(convention, first, second, hcp, shape);
+            case COMPETE -> compete(first, second, hcp, shape);
+            case ADVANCE -> advance(first, second, hcp, shape);
+            default -> "PASS";
+        };
+    }
+
+    // --- responses ---
+
+    private static String respond(Convention convention, int opening, int hcp, int shape) {
+        int level = PackedAuction.level(opening);
+        int suit = PackedAuction.strain(opening);
+        if (level != 1) return "PASS";
+        if (suit == NT) return respondToNoTrump(hcp, shape);
+        if (convention.strongClub() && suit == CLUBS) return respondToStrongClub(hcp, shape);
+        if (hcp < 6) return "PASS";
+
+        boolean major = suit == SPADES || suit == HEARTS;
+        int support = length(shape, suit);
+        if (major && support >= 3) {
+            if (hcp <= 9) return bid(2, suit);
+            return hcp <= 12 ? bid(3, suit) : bid(4, suit);
+        }
+
+        // a new suit at the one level ranks above the opening: longest first, up the line with four-card suits
+        int oneLevel = -1;
+        for (int other = suit - 1; other >= SPADES; other--) {
+            int len = length(shape, other);
+            if (len >= 4 && (oneLevel < 0 || len > length(shape, oneLevel))) oneLevel = other;
+        }
+        if (oneLevel >= 0) return bid(1, oneLevel);
+
+        // a new suit at the two level needs a good hand (game forcing in 2/1)
+        boolean twoOverOne = convention.twoOverOne();
+        if (hcp >= (twoOverOne ? 12 : 10)) {
+            for (int other = suit + 1; other <= CLUBS; other++) {
+                int minLength = other == HEARTS ? 5 : 4;
+                if (length(shape, other) >= minLength) return bid(2, other);
+            }
+        }
+
+        if (!major && support >= 5) {
+            return hcp <= 9 ? bid(2, suit) : bid(3, suit);
+        }
+        if (isBalanced(shape) && hcp >= 11) {
+            return hcp <= 12 ? "2NT" : "3NT";
+        }
+        return "1NT";
+    }
+
+    private static String respondToNoTrump(int hcp, int shape) {
+        int spades = length(shape, SPADES);
+        int hearts = length(shape, HEARTS);
+        int longMajor = spades >= hearts ? SPADES : HEARTS;
+        int longMajorLength = Math.max(spades, hearts);
+
+        if (hcp >= 10 && longMajorLength >= 6 && hcp <= 15) return bid(4, longMajor);
+        if (hcp >= 8 && longMajorLength == 4) return "2C"; // Stayman
+        if (hcp >= 10 && longMajorLength == 5) return bid(3, longMajor);
+        if (hcp < 8) return longMajorLength >= 5 ? bid(2, longMajor) : "PASS";
+        if (hcp <= 9) return "2NT";
+        if (hcp <= 15) return "3NT";
+        return hcp <= 17 ? "4NT" : "6NT";
+    }
+
+    private static String respondToStrongClub(int hcp, int shape) {
+        if (hcp < 8) return "1D"; // negative
+        int suit = longest5PlusSuit(shape);
+        if (suit < 0) return "1NT";
+        return suit == SPADES || suit == HEARTS ? bid(1, suit) : bid(2, suit);
+    }
+
+    // --- rebids ---
+
+    private static String rebid(Convention convention, int opening, int response, int hcp, int shape) {
+        int suit = PackedAuction.strain(opening);
+        if (suit == NT) return rebidNoTrump(response, hcp, shape);
+        if (!PackedAuction.isBid(response)) return "PASS";
+        if (convention.strongClub() && suit == CLUBS) return rebidStrongClub(response, hcp, shape);
+
+        int level = PackedAuction.level(response);
+        int other = PackedAuction.strain(response);
+        boolean major = suit == SPADES || suit == HEARTS;
+
+        if (other == suit) {
+            // partner raised: 2-level raises are 6-9, 3-level raises are limit raises
+            if (level == 2 && hcp >= 19) return major ? bid(4, suit) : "3NT";
+            if (level == 2 && hcp >= 16) return bid(3, suit);
+            if (level == 3 && hcp >= (major ? 14 : 15)) return major ? bid(4, suit) : "3NT";
+            return "PASS";
+        }
+        if (other == NT) {
+            if (level == 2) return hcp >= 13 ? "3NT" : "PASS";
+            if (level != 1) return "PASS";
+            if (length(shape, suit) >= 6) return bid(2, suit);
+            int second = secondSuitBelow(shape, suit);
+            if (second >= 0) return bid(2, second);
+            return isBalanced(shape) && hcp >= 18 ? "2NT" : "PASS";
+        }
+
+        // partner bid a new suit
+        boolean otherMajor = other == SPADES || other == HEARTS;
+        if (length(shape, other) >= 4) {
+            if (level == 2) return bid(3, other);
+            if (hcp >= 19) return otherMajor ? bid(4, other) : "3NT";
+            return hcp >= 16 ? bid(3, other) : bid(2, other);
+        }
+        if (level == 1) {
+            if (isBalanced(shape)) return hcp >= 18 ? "2NT" : "1NT";
+            for (int next = other - 1; next >= SPADES; next--) {
+                if (next != suit && length(shape, next) >= 4) return bid(1, next);
+            }
+        } else if (isBalanced(shape)) {
+            return "2NT";
+        }
+        if (length(shape, suit) >= 6) return bid(hcp >= 16 && level == 1 ? 3 : 2, suit);
+        int second = secondSuitBelow(shape, suit);
+        if (second >= 0 && second != other) return bid(2, second);
+        return length(shape, suit) >= 5 ? bid(2, suit) : (level == 1 ? "1NT" : "2NT");
+    }
+
+    private static String rebidNoTrump(int response, int hcp, int shape) {
+        if (response == PackedAuction.bid(2, CLUBS)) {
+            if (length(shape, HEARTS) >= 4) return "2H";
+            return length(shape, SPADES) >= 4 ? "2S" : "2D";
+        }
+        if (response == PackedAuction.bid(2, NT)) return hcp >= 16 ? "3NT" : "PASS";
+        if (response == PackedAuction.bid(3, SPADES) || response == PackedAuction.bid(3, HEARTS)) {
+            int major = PackedAuction.strain(response);
+            return length(shape, major) >= 3 ? bid(4, major) : "3NT";
+        }
+        return "PASS";
+    }
+
+    private static String rebidStrongClub(int response, int hcp, int shape) {
+        boolean negative = response == PackedAuction.bid(1, DIAMONDS);
+        int other = PackedAuction.strain(response);
+        if (!negative && other != NT && length(shape, other) >= 4) {
+            return bid(PackedAuction.level(response) + 1, other);
+        }
+        if (isBalanced(shape)) {
+            return negative && hcp >= 19 ? "2NT" : PackedAuction.symbol(PackedAuction.cheapestBid(response, NT));
+        }
+        return PackedAuction.symbol(PackedAuction.cheapestBid(response, longestSuitAny(shape)));
+    }
+
+    // --- competing after the opponents opened ---
+
+    private static String compete(int opening, int lastBid, int hcp, int shape) {
+        int theirs = PackedAuction.strain(opening);
+        int suit = longest5PlusSuit(shape);
+        if (suit >= 0 && suit != theirs && hcp >= 8 && hcp <= 16) {
+            int overcall = PackedAuction.cheapestBid(lastBid, suit);
+            int level = overcall < 0 ? 8 : PackedAuction.level(overcall);
+            if (level == 1 || (level == 2 && hcp >= 10)) return PackedAuction.symbol(overcall);
+        }
+        if (theirs != NT && isBalanced(shape) && hcp >= 15 && hcp <= 18 && lastBid < PackedAuction.bid(1, NT)) {
+            return "1NT";
+        }
+        if (theirs != NT && hcp >= 12 && length(shape, theirs) <= 1) {
+            boolean support = true;
+            for (int other = SPADES; other <= CLUBS; other++) {
+                if (other != theirs && length(shape, other) < 3) support = false;
+            }
+            if (support) return "X";
+        }
+        return hcp >= 17 ? "X" : "PASS";
+    }
+
+    private static String advance(int lastBid, int partners, int hcp, int shape) {
+        int theirs = PackedAuction.strain(lastBid);
+        if (partners == PackedAuction.DOUBLE) {
+            // answer the takeout double in the longest other suit, or convert it with length in theirs
+            if (theirs != NT && length(shape, theirs) >= 5 && hcp >= 8) return "PASS";
+            int best = -1;
+            for (int suit = SPADES; suit <= CLUBS; suit++) {
+                if (suit != theirs && (best < 0 || length(shape, suit) > length(shape, best))) best = suit;
+            }
+            int bid = PackedAuction.cheapestBid(lastBid, best);
+            return bid < 0 ? "PASS" : PackedAuction.symbol(bid);
+        }
+        if (PackedAuction.isBid(partners) && theirs != NT && length(shape, theirs) >= 3 && hcp >= 8) {
+            int raise = PackedAuction.cheapestBid(lastBid, theirs);
+            return raise < 0 ? "PASS" : PackedAuction.symbol(raise);
+        }
+        return "PASS";
+    }
+
+    // --- hand helpers ---
+
+    static boolean isBalanced(int shape) {
+        // Balanced patterns: 4-3-3-3, 4-4-3-2, 5-3-3-2
+        // i.e. 13 cards, no singleton/void, no suit longer than 5 and at most one doubleton
+        int doubletons = 0;
+        int cards = 0;
+        for (int suit = 0; suit < PackedHand.SUITS; suit++) {
+            int len = PackedHand.suitLength(shape, suit);
+            if (len < 2 || len > 5) return false;
+            if (len == 2) doubletons++;
+            cards += len;
+        }
+        return doubletons <= 1 && cards == 13;
+    }
+
+    /** Clubs unless diamonds are longer. */
+    static int betterMinor(int shape) {
+        return length(shape, CLUBS) >= length(shape, DIAMONDS) ? CLUBS : DIAMONDS;
+    }
+
+    /** Suit index of the longest 5+ card suit (ties go to the higher-ranking suit), or -1. */
+    private static int longest5PlusSuit(int shape) {
+        int best = -1; int bestLen = 0;
+        for (int suit = 0; suit < PackedHand.SUITS; suit++) {
+            int len = PackedHand.suitLength(shape, suit);
+            if (len >= 5 && len > bestLen) { best = suit; bestLen = len; }
+        }
+        return best;
+    }
+
+    /** Suit index of the longest suit, ties broken S, H, D, C. */
+    static int longestSuitAny(int shape) {
+        int best = CLUBS; int bestLen = -1;
+        for (int suit = 0; suit < PackedHand.SUITS; suit++) {
+            int len = PackedHand.suitLength(shape, suit);
+            if (len > bestLen) { best = suit; bestLen = len; }
+        }
+        return best;
+    }
+
+    /** A 4+ card suit ranking below {@code suit}, which can be shown without reversing, or -1. */
+    private static int secondSuitBelow(int shape, int suit) {
+        for (int other = suit + 1; other <= CLUBS; other++) {
+            if (length(shape, other) >= 4) return other;
+        }
+        return -1;
+    }
+
+    private static int length(int shape, int suit) {
+        return PackedHand.suitLength(shape, suit);
+    }
+
+    private static String bid(int level, int strain) {
+        return PackedAuction.symbol(PackedAuction.bid(level, strain));
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.BatchResponse;
+import com.example.bridge.dto.BidRequest;
+import com.example.bridge.dto.BidResponse;
+import com.example.bridge.dto.CheckBidRequest;
+import com.example.bridge.dto.CheckBidResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates whole sets of hands per request.
+ * <p>
+ * Items are split into fixed-size chunks that run on a dedicated fork-join pool, so a big
+ * batch uses every core without starving the common pool. Results are always delivered in
+ * request order; {@link #suggestEach} hands them out chunk by chunk as soon as the next chunk
+ * in order is done, which lets callers stream the response while later chunks still compute.
+ */
+@Service
+public class BatchBiddingService {
+
+    /** Receives batch results one at a time, in request order. */
+    @FunctionalInterface
+    public interface ResultConsumer<R> {
+        void accept(R result) throws IOException;
+    }
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final BridgeBiddingService biddingService;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final ForkJoinPool pool;
+
+    public BatchBiddingService(
+            BridgeBiddingService biddingService,
+            Validator validator,
+            @Value("${bids.batch.max-size:10000}") int maxBatchSize,
+            @Value("${bids.batch.parallelism:0}") int parallelism) {
+        this.biddingService = biddingService;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Suggestions in request order; explanations are left out unless {@code explain} is set,
+     * and rendered in {@code locale}'s language when it is.
+     */
+    public BatchResponse<BidResponse> suggestAll(List<BidRequest> requests, boolean explain, Locale locale) {
+        return collect(requests, request -> biddingService.suggestBid(request, explain, locale));
+    }
+
+    public BatchResponse<CheckBidResponse> checkAll(List<CheckBidRequest> requests, boolean explain, Locale locale) {
+        return collect(requests, request -> biddingService.checkBid(request, explain, locale));
+    }
+
+    /**
+     * Evaluates suggestions and passes them to {@code consumer} in request order. The batch
+     * must already have passed {@link #validate}, which callers run before they start streaming.
+     *
+     * @return elapsed time in microseconds
+     */
+    public long suggestEach(List<BidRequest> requests, boolean explain, Locale locale,
+                            ResultConsumer<BidResponse> consumer)
+            throws IOException {
+        return forEach(requests, request -> biddingService.suggestBid(request, explain, locale), consumer);
+    }
+
+    /**
+     * Evaluates checks and passes them to {@code consumer} in request order. The batch must
+     * already have passed {@link #validate}.
+     *
+     * @return elapsed time in microseconds
+     */
+    public long checkEach(List<CheckBidRequest> requests, boolean explain, Locale locale,
+                          ResultConsumer<CheckBidResponse> consumer)
+            throws IOException {
+        return forEach(requests, request -> biddingService.checkBid(request, explain, locale), consumer);
+    }
+
+    /**
+     * Rejects batches over the configured size (413) and items failing bean validation or
+     * with an unknown position or illegal auction (400, naming the first offending item).
+     * Call before any response bytes are written.
+     */
+    public void validate(List<?> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must contain at least one item");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch of " + requests.size() + " items exceeds the limit of " + maxBatchSize);
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            Object item = requests.get(i);
+            if (item == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item " + i + " is null");
+            }
+            Set<ConstraintViolation<Object>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                String details = violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item " + i + " is invalid: " + details);
+            }
+            validateAuction(i, item);
+        }
+    }
+
+    // The same position and auction checks the single-item endpoints make, so that a bad item
+    // is reported up front instead of cutting a streamed response off halfway
+    private void validateAuction(int index, Object item) {
+        try {
+            if (item instanceof BidRequest request) {
+                biddingService.validateAuction(request.position(), request.auction());
+            } else if (item instanceof CheckBidRequest request) {
+                biddingService.validateAuction(request.position(), request.auction());
+            }
+        } catch (ResponseStatusException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item " + index + " is invalid: " + e.getReason());
+        }
+    }
+
+    private <T, R> BatchResponse<R> collect(List<T> requests, Function<T, R> evaluator) {
+        validate(requests);
+        List<R> results = new ArrayList<>(requests.size());
+        try {
+            long elapsed = forEach(requests, evaluator, results::add);
+            return new BatchResponse<>(results.size(), elapsed, results);
+        } catch (IOException e) {
+            // results::add never throws
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T, R> long forEach(List<T> requests, Function<T, R> evaluator, ResultConsumer<R> consumer) throws IOException {
+        long start = System.nanoTime();
+        List<CompletableFuture<List<R>>> chunks = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += CHUNK_SIZE) {
+            List<T> chunk = requests.subList(from, Math.min(from + CHUNK_SIZE, requests.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> evaluateChunk(chunk, evaluator), pool));
+        }
+        try {
+            for (CompletableFuture<List<R>> chunk : chunks) {
+                for (R result : join(chunk)) {
+                    consumer.accept(result);
+                }
+            }
+        } finally {
+            chunks.forEach(c -> c.cancel(false));
+        }
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    }
+
+    private static <T, R> List<R> evaluateChunk(List<T> chunk, Function<T, R> evaluator) {
+        List<R> results = new ArrayList<>(chunk.size());
+        for (T item : chunk) {
+            results.add(evaluator.apply(item));
+        }
+        return results;
+    }
+
+    private static <R> List<R> join(CompletableFuture<List<R>> chunk) {
+        try {
+            return chunk.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+}
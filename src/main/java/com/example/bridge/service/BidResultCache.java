@@ -0,0 +1,46 @@
+package com.example.bridge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Suggested calls, keyed by what they are computed from: the packed hand, the packed auction
+ * and the compiled rules the convention name resolved to. Equivalent hand strings pack to the
+ * same bits and convention aliases resolve to the same rules, so they share an entry. Entries
+ * are {@link SuggestedCall}s rather than responses, so suggest and check share them and an
+ * explanation is rendered per request in whatever language it asks for. A convention reload
+ * compiles new rule tables, so entries for the old ones are simply no longer hit and age out.
+ * The cache is bounded in size and entries expire after a fixed time; gets, hits and misses
+ * are published as {@code cache.*} meters tagged {@code cache=bidding.suggest}.
+ */
+final class BidResultCache {
+
+    static final String SUGGEST = "bidding.suggest";
+
+    private record Key(long hand, long auction, AuctionRuleTable rules) {}
+
+    private final Cache<Key, SuggestedCall> suggestions;
+
+    /** A cache holding up to {@code maximumSize} suggestions; null when disabled. */
+    static BidResultCache create(boolean enabled, long maximumSize, long expireAfterWriteMs, MeterRegistry registry) {
+        return enabled && maximumSize > 0 ? new BidResultCache(maximumSize, expireAfterWriteMs, registry) : null;
+    }
+
+    private BidResultCache(long maximumSize, long expireAfterWriteMs, MeterRegistry registry) {
+        this.suggestions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(Math.max(1, expireAfterWriteMs)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, suggestions, SUGGEST);
+    }
+
+    SuggestedCall suggestion(long hand, long auction, AuctionRuleTable rules, Supplier<SuggestedCall> compute) {
+        return suggestions.get(new Key(hand, auction, rules), k -> compute.get());
+    }
+}
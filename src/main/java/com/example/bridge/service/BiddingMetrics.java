@@ -0,0 +1,59 @@
+package com.example.bridge.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening-bid meters, cached per (convention, bid) so recording does not build meter ids
+ * on the hot path. Callers pass the id of a loaded convention, or null for names no
+ * convention claims, which share the "other" tag; the tag cardinality is bounded by
+ * the rule files whatever clients send.
+ */
+final class BiddingMetrics {
+
+    static final String OPENING_TIMER = "bridge.bidding.opening";
+    static final String PASS_COUNTER = "bridge.bidding.opening.pass";
+    static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> passes = new ConcurrentHashMap<>();
+
+    BiddingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    void recordOpening(String convention, String bid, long nanos) {
+        String tag = convention != null ? convention : OTHER;
+        Map<String, Timer> byBid = timers.get(tag);
+        if (byBid == null) {
+            byBid = timers.computeIfAbsent(tag, t -> new ConcurrentHashMap<>());
+        }
+        Timer timer = byBid.get(bid);
+        if (timer == null) {
+            timer = byBid.computeIfAbsent(bid, b -> Timer.builder(OPENING_TIMER)
+                    .description("Opening bid evaluation")
+                    .tag("convention", tag)
+                    .tag("bid", b)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+
+        if ("PASS".equals(bid)) {
+            Counter counter = passes.get(tag);
+            if (counter == null) {
+                counter = passes.computeIfAbsent(tag, t -> Counter.builder(PASS_COUNTER)
+                        .description("Hands evaluated as PASS (not strong enough to open)")
+                        .tag("convention", t)
+                        .register(registry));
+            }
+            counter.increment();
+        }
+    }
+}
@@ -4,190 +4,227 @@ import com.example.bridge.dto.BidRequest;
 import com.example.bridge.dto.BidResponse;
 import com.example.bridge.dto.CheckBidRequest;
 import com.example.bridge.dto.CheckBidResponse;
+import com.example.bridge.model.HandParser;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import java.util.HashMap;
-import java.util.Map;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 @Service
 public class BridgeBiddingService {
 
+    // Compiled convention rules, resolved by the name a request gives
+    private final ConventionRegistry conventions;
+    private final BiddingMetrics metrics;
+    private final ExplanationTemplates explanations;
+    // Suggested calls by hand, auction and rules; null when caching is disabled
+    private final BidResultCache cache;
+
+    public BridgeBiddingService() {
+        this(Metrics.globalRegistry);
+    }
+
+    public BridgeBiddingService(MeterRegistry meterRegistry) {
+        this(meterRegistry, new ConventionRegistry());
+    }
+
+    public BridgeBiddingService(MeterRegistry meterRegistry, ConventionRegistry conventions) {
+        this(meterRegistry, conventions, new ExplanationTemplates(), true, 10_000, 600_000);
+    }
+
+    @Autowired
+    public BridgeBiddingService(
+            MeterRegistry meterRegistry,
+            ConventionRegistry conventions,
+            ExplanationTemplates explanations,
+            @Value("${bidding.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${bidding.cache.maximum-size:10000}") long cacheMaximumSize,
+            @Value("${bidding.cache.expire-after-write-ms:600000}") long cacheExpireAfterWriteMs) {
+        this.conventions = conventions;
+        this.metrics = new BiddingMetrics(meterRegistry);
+        this.explanations = explanations;
+        this.cache = BidResultCache.create(cacheEnabled, cacheMaximumSize, cacheExpireAfterWriteMs, meterRegistry);
+    }
+
     public BidResponse suggestBid(BidRequest request) {
-        HandAnalysis ha = analyzeHand(request.hand());
-        String conv = normalizeConvention(request.convention());
+        return suggestBid(request, true, null);
+    }
 
-        String suggested = suggestOpening(conv, ha);
-        String explanation = String.format(
-                "HCP=%d, dist=%s, convention='%s'. Open with %s by simple rules.",
-                ha.hcp, ha.distSummary(), conv, suggested
-        );
-        return new BidResponse(suggested, explanation);
+    /**
+     * Suggested call, with its explanation in {@code locale}'s language (English for null or
+     * languages without templates) when {@code explain} is set; otherwise the explanation is
+     * null and never rendered. Suggestions are cached by packed hand, packed auction and
+     * resolved convention, so repeated hands skip evaluation (and are not recorded again in
+     * the opening metrics).
+     */
+    public BidResponse suggestBid(BidRequest request, boolean explain, Locale locale) {
+        SuggestedCall suggestion = suggestion(request.hand(), request.convention(), request.position(), request.auction());
+        return new BidResponse(suggestion.call(), explain ? explanations.suggestion(suggestion, locale) : null);
     }
 
     public CheckBidResponse checkBid(CheckBidRequest request) {
-        HandAnalysis ha = analyzeHand(request.hand());
-        String conv = normalizeConvention(request.convention());
-        String suggested = suggestOpening(conv, ha);
+        return checkBid(request, true, null);
+    }
 
-        String verdict = request.proposedBid() != null && request.proposedBid().equalsIgnoreCase(suggested)
-                ? "Your bid matches the suggested opening."
-                : String.format("Your bid '%s' differs from suggested '%s'.", request.proposedBid(), suggested);
+    /**
+     * Checks a proposed call against the suggestion, which is shared with {@link #suggestBid}
+     * in the cache; the verdict is only worked out when there is an explanation to render.
+     */
+    public CheckBidResponse checkBid(CheckBidRequest request, boolean explain, Locale locale) {
+        long hand = analyzeHand(request.hand());
+        AuctionRuleTable conv = conventions.resolve(request.convention());
+        long auction = analyzeAuction(request.position(), request.auction());
+        SuggestedCall suggestion = suggestion(hand, auction, conv);
+        if (!explain) return new CheckBidResponse(suggestion.call(), null);
+
+        int proposed = proposedCall(request.proposedBid());
+        ExplanationTemplates.Verdict verdict;
+        if (proposed >= 0 && PackedAuction.symbol(proposed).equals(suggestion.call())) {
+            verdict = ExplanationTemplates.Verdict.MATCH;
+        } else if (proposed >= 0 && !PackedAuction.isLegal(auction, proposed)) {
+            verdict = ExplanationTemplates.Verdict.ILLEGAL;
+        } else {
+            verdict = ExplanationTemplates.Verdict.DIFFERS;
+        }
+        return new CheckBidResponse(suggestion.call(),
+                explanations.check(suggestion, verdict, request.proposedBid(), locale));
+    }
 
-        String explanation = String.format(
-                "%s HCP=%d, dist=%s, convention='%s'.",
-                verdict, ha.hcp, ha.distSummary(), conv
-        );
-        return new CheckBidResponse(suggested, explanation);
+    private SuggestedCall suggestion(String hand, String convention, String position, List<String> calls) {
+        long packed = analyzeHand(hand);
+        AuctionRuleTable conv = conventions.resolve(convention);
+        return suggestion(packed, analyzeAuction(position, calls), conv);
+    }
+
+    private SuggestedCall suggestion(long hand, long auction, AuctionRuleTable conv) {
+        if (cache == null) return suggest(hand, auction, conv);
+        return cache.suggestion(hand, auction, conv, () -> suggest(hand, auction, conv));
+    }
+
+    private SuggestedCall suggest(long hand, long auction, AuctionRuleTable conv) {
+        int context = AuctionRules.context(auction);
+        String call = suggestCall(conv, auction, context, hand);
+        return new SuggestedCall(call, context, computeHcp(hand), PackedHand.shape(hand), conv.convention().id());
     }
 
     /**
      * Public helper used by controllers to get an opening bid for a given hand/convention.
-     * Auction context is ignored; this returns an opening only.
+     * Auction context is ignored; use {@link #nextCall} to bid in an auction.
      */
     public String suggestOpeningBid(String hand, String convention) {
-        HandAnalysis ha = analyzeHand(hand);
-        String conv = normalizeConvention(convention);
-        return suggestOpening(conv, ha);
+        long packed = analyzeHand(hand);
+        return suggestOpening(conventions.resolve(convention), packed);
     }
 
-    // --- Simple evaluation and suggestion helpers ---
+    /**
+     * Call code for the seat to act in a {@link PackedAuction}, holding {@code hand}.
+     * Extend the auction with {@link PackedAuction#apply} to bid on, one call at a time.
+     */
+    public int nextCall(long auction, long hand, String convention) {
+        AuctionRuleTable rules = conventions.resolve(convention);
+        return rules.call(auction, AuctionRules.context(auction), computeHcp(hand), PackedHand.shape(hand));
+    }
 
-    private String normalizeConvention(String convention) {
-        if (convention == null) return "natural";
-        String c = convention.trim().toLowerCase();
-        if (c.contains("precision") || c.contains("strong")) return "precision";
-        if (c.contains("polish")) return "polish-club";
-        if (c.contains("2/1") || c.contains("two-over-one") || c.contains("2-over-1")) return "2/1";
-        if (c.contains("acol")) return "acol";
-        if (c.contains("sayc") || c.contains("standard") || c.contains("std")) return "natural";
-        return c;
-    }
-
-    private String suggestOpening(String convention, HandAnalysis ha) {
-        // Basic rules, simplified:
-        // - Precision: 16+ HCP open 1C; else natural-style opening
-        // - Natural/2/1: 12+ HCP open 1 of longest 5+ suit; with balanced 15-17 suggest 1NT; else PASS
-        // - Acol: 12+ HCP 4-card majors possible; use longest suit else PASS
-
-        if ("precision".equals(convention)) {
-            if (ha.hcp >= 16) return "1C"; // strong club
-            // fallthrough to natural logic for limited hands
+    /**
+     * Bids a whole deal from {@code dealer} until the auction is over; {@code hands} are
+     * packed hands indexed by seat. Returns the call codes in order. Meant for bulk
+     * simulation: nothing is recorded in the opening metrics and no strings are built.
+     */
+    public byte[] bidDeal(long[] hands, HandPosition dealer, String convention) {
+        AuctionRuleTable rules = conventions.resolve(convention);
+        int[] hcp = new int[4];
+        int[] shapes = new int[4];
+        for (int seat = 0; seat < 4; seat++) {
+            hcp[seat] = computeHcp(hands[seat]);
+            shapes[seat] = PackedHand.shape(hands[seat]);
         }
-
-        if ("polish-club".equals(convention)) {
-            if (isBalanced(ha) && ha.hcp >= 15 && ha.hcp <= 17) return "1NT"; // PC still 1NT for 15-17
-            if (isBalanced(ha) && ha.hcp >= 12 && ha.hcp <= 14) return "1C";  // 12-14 balanced 1C
-            if (ha.hcp >= 12) {
-                char ls = ha.longest5PlusSuit();
-                if (ls != '\0') return "1" + suitSymbolToBid(ls);
-                return "1" + (ha.counts.get('C') >= ha.counts.get('D') ? 'C' : 'D');
-            }
-            return "PASS";
+        byte[] calls = new byte[16];
+        int count = 0;
+        long auction = PackedAuction.start(dealer);
+        while (!PackedAuction.isComplete(auction)) {
+            int seat = PackedAuction.seatToAct(auction);
+            int call = rules.call(auction, AuctionRules.context(auction), hcp[seat], shapes[seat]);
+            if (count == calls.length) calls = Arrays.copyOf(calls, count * 2);
+            calls[count++] = (byte) call;
+            auction = PackedAuction.apply(auction, call);
         }
+        return Arrays.copyOf(calls, count);
+    }
 
-        if ("natural".equals(convention) || "2/1".equals(convention) || "precision".equals(convention)) {
-            if (isBalanced(ha) && ha.hcp >= 15 && ha.hcp <= 17) return "1NT";
-            if (ha.hcp >= 12) {
-                char ls = ha.longest5PlusSuit();
-                if (ls != '\0') return "1" + suitSymbolToBid(ls);
-                // No 5-card suit: open better minor (prefer clubs if equal here)
-                return "1" + (ha.counts.get('C') >= ha.counts.get('D') ? 'C' : 'D');
-            }
-            return "PASS";
-        }
+    // --- Simple evaluation and suggestion helpers ---
 
-        if ("acol".equals(convention)) {
-            if (ha.hcp >= 12) {
-                // Allow 4-card major opening: pick longest; tie-break S, H, D, C
-                char suit = ha.longestSuitAny();
-                return "1" + suitSymbolToBid(suit);
-            }
-            return "PASS";
-        }
+    private String suggestOpening(AuctionRuleTable convention, long hand) {
+        long start = System.nanoTime();
+        String bid = convention.openings().lookup(computeHcp(hand), PackedHand.shape(hand));
+        String tag = ConventionRegistry.isFallback(convention) ? null : convention.convention().id();
+        metrics.recordOpening(tag, bid, System.nanoTime() - start);
+        return bid;
+    }
 
-        // default
-        return ha.hcp >= 12 ? "1" + suitSymbolToBid(ha.longestSuitAny()) : "PASS";
-    }
-
-    private boolean isBalanced(HandAnalysis ha) {
-        // Balanced patterns: 4-3-3-3, 4-4-3-2, 5-3-3-2
-        int s = ha.counts.get('S');
-        int h = ha.counts.get('H');
-        int d = ha.counts.get('D');
-        int c = ha.counts.get('C');
-        int[] arr = new int[]{s, h, d, c};
-        java.util.Arrays.sort(arr);
-        String key = arr[3] + "-" + arr[2] + "-" + arr[1] + "-" + arr[0];
-        return key.equals("4-3-3-3") || key.equals("4-4-3-2") || key.equals("5-3-3-2");
-    }
-
-    private char suitSymbolToBid(char suit) { return suit; }
-
-    private HandAnalysis analyzeHand(String hand) {
-        // Expect format like "AKQJ.T987.AK.QJ9" (S.H.D.C), empty suit allowed as ""
-        Map<Character, String> suits = parseSuits(hand);
-        int hcp = computeHcp(suits);
-        Map<Character, Integer> counts = new HashMap<>();
-        counts.put('S', suits.get('S').length());
-        counts.put('H', suits.get('H').length());
-        counts.put('D', suits.get('D').length());
-        counts.put('C', suits.get('C').length());
-        return new HandAnalysis(hcp, suits, counts);
-    }
-
-    private Map<Character, String> parseSuits(String hand) {
-        Map<Character, String> suits = new HashMap<>();
-        suits.put('S', ""); suits.put('H', ""); suits.put('D', ""); suits.put('C', "");
-        if (hand == null || hand.isEmpty()) return suits;
-        String[] parts = hand.trim().split("\\.", -1);
-        if (parts.length == 4) {
-            suits.put('S', parts[0]);
-            suits.put('H', parts[1]);
-            suits.put('D', parts[2]);
-            suits.put('C', parts[3]);
+    private String suggestCall(AuctionRuleTable convention, long auction, int context, long hand) {
+        if (AuctionRules.role(context) == AuctionRules.OPEN) {
+            // only passes so far, so any opening is legal
+            return suggestOpening(convention, hand);
         }
-        return suits;
-    }
-
-    private int computeHcp(Map<Character, String> suits) {
-        int hcp = 0;
-        for (String cards : suits.values()) {
-            for (char r : cards.toCharArray()) {
-                switch (r) {
-                    case 'A': hcp += 4; break;
-                    case 'K': hcp += 3; break;
-                    case 'Q': hcp += 2; break;
-                    case 'J': hcp += 1; break;
-                }
+        int call = convention.call(auction, context, computeHcp(hand), PackedHand.shape(hand));
+        return PackedAuction.symbol(call);
+    }
+
+    /**
+     * Rejects a position and auction that {@link #suggestBid} and {@link #checkBid} would
+     * reject (400), without evaluating anything. Lets batches fail before streaming starts.
+     */
+    public void validateAuction(String position, List<String> calls) {
+        analyzeAuction(position, calls);
+    }
+
+    /**
+     * Replays the calls made before {@code position}; the dealer is the seat that many
+     * calls earlier. Unknown positions and illegal calls are rejected with 400.
+     */
+    private long analyzeAuction(String position, List<String> calls) {
+        try {
+            HandPosition seat = HandPosition.fromSymbol(position);
+            int size = calls == null ? 0 : calls.size();
+            HandPosition dealer = HandPosition.values()[Math.floorMod(seat.ordinal() - size, 4)];
+            long auction = PackedAuction.parse(dealer, calls);
+            if (PackedAuction.isComplete(auction)) {
+                throw new IllegalArgumentException("The auction is already over");
             }
+            return auction;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
-        return hcp;
     }
 
-    private static class HandAnalysis {
-        final int hcp;
-        final Map<Character, String> suits;
-        final Map<Character, Integer> counts;
-        HandAnalysis(int hcp, Map<Character, String> suits, Map<Character, Integer> counts) {
-            this.hcp = hcp; this.suits = suits; this.counts = counts;
-        }
-        String distSummary() {
-            return String.format("%d-%d-%d-%d", counts.get('S'), counts.get('H'), counts.get('D'), counts.get('C'));
+    private static int proposedCall(String bid) {
+        try {
+            return PackedAuction.parseCall(bid);
+        } catch (IllegalArgumentException e) {
+            return -1;
         }
-        char longest5PlusSuit() {
-            char best = '\0'; int bestLen = 0;
-            for (char suit : new char[]{'S','H','D','C'}) {
-                int len = counts.get(suit);
-                if (len >= 5 && len > bestLen) { best = suit; bestLen = len; }
-            }
-            return best;
-        }
-        char longestSuitAny() {
-            char best = 'C'; int bestLen = -1;
-            for (char suit : new char[]{'S','H','D','C'}) {
-                int len = counts.get(suit);
-                if (len > bestLen) { best = suit; bestLen = len; }
-            }
-            return best;
+    }
+
+    /** Parses a client hand (see {@link HandParser}); anything but 13 valid cards is rejected with 400. */
+    private long analyzeHand(String hand) {
+        long packed = HandParser.parse(hand);
+        if (HandParser.isError(packed)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HandParser.message(packed, hand));
         }
+        return packed;
+    }
+
+    private int computeHcp(long hand) {
+        return PackedHand.hcp(hand);
     }
 }
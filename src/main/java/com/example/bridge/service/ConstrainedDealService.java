@@ -0,0 +1,344 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.ConstrainedDealRequest;
+import com.example.bridge.dto.ConstrainedDealRequest.Range;
+import com.example.bridge.dto.ConstrainedDealRequest.SeatConstraint;
+import com.example.bridge.dto.ConstrainedDealResponse;
+import com.example.bridge.model.Deal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedHand;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Deals layouts that satisfy per-seat HCP and suit-length constraints.
+ * <p>
+ * Instead of dealing whole hands and rejecting them, an attempt is built in three stages
+ * and abandoned as soon as a stage fails: first the suit lengths of every seat, suit by
+ * suit, then which seat gets each ace, king, queen and jack, and only then the spot cards,
+ * which cannot break a constraint. Every stage draws each card's seat with probability
+ * proportional to the free places left, so accepted deals are uniformly distributed
+ * among all deals meeting the constraints. A request stops at {@code deals.constrained.max-attempts}
+ * attempts or after {@code deals.constrained.time-budget-ms}, whichever comes first, so
+ * constraints that almost no deal meets cost a bounded amount of time.
+ */
+@Service
+public class ConstrainedDealService {
+
+    private static final HandPosition[] POSITIONS = HandPosition.values();
+    private static final int SEATS = 4;
+    private static final int SUITS = PackedHand.SUITS;
+    private static final int RANKS = PackedHand.RANKS;
+    private static final int HAND_SIZE = 13;
+    private static final int MAX_HCP = 37;
+    private static final int SPOTS = 9; // 2..T
+    private static final int SUIT_HCP = 10; // A + K + Q + J
+
+    private final ThreadLocal<Sampler> samplers;
+    private final int maxCount;
+    private final long maxAttempts;
+    private final long timeBudgetNanos;
+
+    @Autowired
+    public ConstrainedDealService(
+            @Value("${deals.constrained.max-count:1000}") int maxCount,
+            @Value("${deals.constrained.max-attempts:5000000}") long maxAttempts,
+            @Value("${deals.constrained.time-budget-ms:2000}") long timeBudgetMillis) {
+        this(SplittableRandom::new, maxCount, maxAttempts, timeBudgetMillis);
+    }
+
+    ConstrainedDealService(Supplier<? extends RandomGenerator> randoms, int maxCount, long maxAttempts,
+                           long timeBudgetMillis) {
+        this.samplers = ThreadLocal.withInitial(() -> new Sampler(randoms.get()));
+        this.maxCount = Math.max(1, maxCount);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeBudgetMillis));
+    }
+
+    public ConstrainedDealResponse deal(ConstrainedDealRequest request) {
+        Constraints constraints = compile(request.seats());
+        HandPosition dealer = request.dealer() == null || request.dealer().isBlank()
+                ? null : position(request.dealer());
+        int count = request.count() == null ? 1 : Math.min(request.count(), maxCount);
+        long attemptCap = request.maxAttempts() == null ? maxAttempts : Math.min(request.maxAttempts(), maxAttempts);
+
+        long start = System.nanoTime();
+        Sampler sampler = samplers.get();
+        sampler.reset(constraints);
+        List<Deal> deals = new ArrayList<>(count);
+        long[] hands = new long[SEATS];
+        while (deals.size() < count && sampler.attempts < attemptCap) {
+            // The clock is read once per 1024 attempts; an attempt takes well under a microsecond
+            if ((sampler.attempts & 1023) == 1023 && System.nanoTime() - start > timeBudgetNanos) break;
+            if (sampler.attempt(hands)) {
+                HandPosition seat = dealer != null ? dealer : POSITIONS[sampler.random.nextInt(SEATS)];
+                deals.add(toDeal(seat, hands));
+            }
+        }
+        long attempts = sampler.attempts;
+        return new ConstrainedDealResponse(deals, count, attempts, sampler.shapeRejections, sampler.hcpRejections,
+                attempts == 0 ? 0.0 : (double) deals.size() / attempts,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), deals.size() == count);
+    }
+
+    private static Deal toDeal(HandPosition dealer, long[] hands) {
+        Map<HandPosition, String> formatted = new EnumMap<>(HandPosition.class);
+        for (HandPosition position : POSITIONS) {
+            formatted.put(position, PackedHand.format(hands[position.ordinal()]));
+        }
+        return new Deal(dealer, formatted);
+    }
+
+    /** Per-seat bounds with omitted values filled in; rejects contradictory constraints with 400. */
+    private static Constraints compile(Map<String, SeatConstraint> seats) {
+        Constraints c = new Constraints();
+        if (seats != null) {
+            for (Map.Entry<String, SeatConstraint> entry : seats.entrySet()) {
+                int seat = position(entry.getKey()).ordinal();
+                SeatConstraint constraint = entry.getValue();
+                if (constraint == null) continue;
+                String name = entry.getKey().trim().toUpperCase();
+                bound(c.hcpMin, c.hcpMax, seat, constraint.hcp(), MAX_HCP, name + " hcp");
+                Range[] lengths = {constraint.spades(), constraint.hearts(), constraint.diamonds(), constraint.clubs()};
+                for (int suit = 0; suit < SUITS; suit++) {
+                    bound(c.lengthMin[seat], c.lengthMax[seat], suit, lengths[suit], HAND_SIZE,
+                            name + " " + PackedHand.SUIT_SYMBOLS[suit]);
+                    if (constraint.balanced()) {
+                        c.lengthMin[seat][suit] = Math.max(c.lengthMin[seat][suit], 2);
+                        c.lengthMax[seat][suit] = Math.min(c.lengthMax[seat][suit], 5);
+                    }
+                }
+                c.balanced[seat] = constraint.balanced();
+            }
+        }
+        for (int seat = 0; seat < SEATS; seat++) {
+            int min = 0;
+            int max = 0;
+            for (int suit = 0; suit < SUITS; suit++) {
+                if (c.lengthMin[seat][suit] > c.lengthMax[seat][suit]) throw badRequest("Empty suit-length range");
+                min += c.lengthMin[seat][suit];
+                max += c.lengthMax[seat][suit];
+            }
+            if (min > HAND_SIZE || max < HAND_SIZE) {
+                throw badRequest("Suit lengths of " + POSITIONS[seat].getSymbol() + " cannot add up to 13");
+            }
+        }
+        for (int suit = 0; suit < SUITS; suit++) {
+            int min = 0;
+            int max = 0;
+            for (int seat = 0; seat < SEATS; seat++) {
+                min += c.lengthMin[seat][suit];
+                max += c.lengthMax[seat][suit];
+            }
+            if (min > HAND_SIZE || max < HAND_SIZE) {
+                throw badRequest("Lengths in " + PackedHand.SUIT_SYMBOLS[suit] + " cannot add up to 13");
+            }
+        }
+        int hcpMin = 0;
+        int hcpMax = 0;
+        for (int seat = 0; seat < SEATS; seat++) {
+            hcpMin += c.hcpMin[seat];
+            hcpMax += c.hcpMax[seat];
+        }
+        if (hcpMin > 40 || hcpMax < 40) throw badRequest("HCP ranges cannot add up to 40");
+        return c;
+    }
+
+    private static void bound(int[] mins, int[] maxes, int index, Range range, int limit, String what) {
+        if (range == null) return;
+        int min = range.min() == null ? 0 : range.min();
+        int max = range.max() == null ? limit : range.max();
+        if (min < 0 || max > limit || min > max) {
+            throw badRequest("Invalid range for " + what + ": " + min + "-" + max);
+        }
+        mins[index] = Math.max(mins[index], min);
+        maxes[index] = Math.min(maxes[index], max);
+    }
+
+    private static HandPosition position(String symbol) {
+        try {
+            return HandPosition.fromSymbol(symbol);
+        } catch (IllegalArgumentException e) {
+            throw badRequest(e.getMessage());
+        }
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+
+    private static final class Constraints {
+        final int[] hcpMin = new int[SEATS];
+        final int[] hcpMax = {MAX_HCP, MAX_HCP, MAX_HCP, MAX_HCP};
+        final int[][] lengthMin = new int[SEATS][SUITS];
+        final int[][] lengthMax = new int[SEATS][SUITS];
+        final boolean[] balanced = new boolean[SEATS];
+
+        Constraints() {
+            for (int[] max : lengthMax) {
+                Arrays.fill(max, HAND_SIZE);
+            }
+        }
+    }
+
+    /** Per-thread scratch state; one attempt allocates nothing. */
+    private static final class Sampler {
+        final RandomGenerator random;
+        final int[][] lengths = new int[SEATS][SUITS];
+        final int[] free = new int[SEATS];
+        final int[] slots = new int[SEATS];
+        final int[] hcp = new int[SEATS];
+        final byte[] spots = new byte[SPOTS];
+        // lowest and highest number of cards each seat still needs for the suits not dealt yet
+        final int[][] restMin = new int[SEATS][SUITS + 1];
+        final int[][] restMax = new int[SEATS][SUITS + 1];
+        Constraints constraints;
+        long attempts;
+        long shapeRejections;
+        long hcpRejections;
+
+        Sampler(RandomGenerator random) {
+            this.random = random;
+        }
+
+        void reset(Constraints constraints) {
+            this.constraints = constraints;
+            attempts = 0;
+            shapeRejections = 0;
+            hcpRejections = 0;
+            for (int seat = 0; seat < SEATS; seat++) {
+                for (int suit = SUITS - 1; suit >= 0; suit--) {
+                    restMin[seat][suit] = restMin[seat][suit + 1] + constraints.lengthMin[seat][suit];
+                    restMax[seat][suit] = restMax[seat][suit + 1] + constraints.lengthMax[seat][suit];
+                }
+            }
+        }
+
+        boolean attempt(long[] hands) {
+            attempts++;
+            if (!dealLengths()) {
+                shapeRejections++;
+                return false;
+            }
+            if (!dealHonours(hands)) {
+                hcpRejections++;
+                return false;
+            }
+            dealSpots(hands);
+            return true;
+        }
+
+        // Suit by suit, sends each card to a seat with probability proportional to its free places
+        private boolean dealLengths() {
+            Constraints c = constraints;
+            int total = SEATS * HAND_SIZE;
+            for (int seat = 0; seat < SEATS; seat++) free[seat] = HAND_SIZE;
+            for (int suit = 0; suit < SUITS; suit++) {
+                for (int seat = 0; seat < SEATS; seat++) slots[seat] = 0;
+                for (int card = 0; card < HAND_SIZE; card++) {
+                    int seat = pick(total, free, slots);
+                    slots[seat]++;
+                    total--;
+                }
+                for (int seat = 0; seat < SEATS; seat++) {
+                    int length = slots[seat];
+                    free[seat] -= length;
+                    lengths[seat][suit] = length;
+                    if (length < c.lengthMin[seat][suit] || length > c.lengthMax[seat][suit]
+                            || free[seat] < restMin[seat][suit + 1] || free[seat] > restMax[seat][suit + 1]) {
+                        return false;
+                    }
+                }
+            }
+            for (int seat = 0; seat < SEATS; seat++) {
+                if (c.balanced[seat] && doubletons(lengths[seat]) > 1) return false;
+            }
+            return true;
+        }
+
+        // Places A, K, Q, J of each suit among the seats' places in that suit
+        private boolean dealHonours(long[] hands) {
+            Constraints c = constraints;
+            for (int seat = 0; seat < SEATS; seat++) {
+                hcp[seat] = 0;
+                hands[seat] = 0L;
+            }
+            int pointsLeft = SUITS * SUIT_HCP;
+            for (int suit = 0; suit < SUITS; suit++) {
+                int total = HAND_SIZE;
+                for (int seat = 0; seat < SEATS; seat++) free[seat] = lengths[seat][suit];
+                for (int rank = RANKS - 1; rank >= RANKS - 4; rank--) {
+                    int seat = pickFree(total);
+                    free[seat]--;
+                    total--;
+                    hcp[seat] += rank - (RANKS - 5);
+                    hands[seat] |= PackedHand.bit(suit, rank);
+                }
+                pointsLeft -= SUIT_HCP;
+                for (int seat = 0; seat < SEATS; seat++) {
+                    if (hcp[seat] > c.hcpMax[seat] || hcp[seat] + pointsLeft < c.hcpMin[seat]) return false;
+                }
+            }
+            return true;
+        }
+
+        // Spot cards cannot change HCP or lengths, so they are shuffled into the remaining places
+        private void dealSpots(long[] hands) {
+            for (int suit = 0; suit < SUITS; suit++) {
+                for (int i = 0; i < SPOTS; i++) spots[i] = (byte) i;
+                for (int i = SPOTS - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    byte tmp = spots[i];
+                    spots[i] = spots[j];
+                    spots[j] = tmp;
+                }
+                int next = 0;
+                for (int seat = 0; seat < SEATS; seat++) {
+                    int honours = Long.bitCount(hands[seat] & PackedHand.bit(suit, 0) * 0x1E00L);
+                    for (int i = lengths[seat][suit] - honours; i > 0; i--) {
+                        hands[seat] |= PackedHand.bit(suit, spots[next++]);
+                    }
+                }
+            }
+        }
+
+        private int pick(int total, int[] capacity, int[] taken) {
+            int r = random.nextInt(total);
+            for (int seat = 0; seat < SEATS - 1; seat++) {
+                r -= capacity[seat] - taken[seat];
+                if (r < 0) return seat;
+            }
+            return SEATS - 1;
+        }
+
+        private int pickFree(int total) {
+            int r = random.nextInt(total);
+            for (int seat = 0; seat < SEATS - 1; seat++) {
+                r -= free[seat];
+                if (r < 0) return seat;
+            }
+            return SEATS - 1;
+        }
+
+        private static int doubletons(int[] shape) {
+            int count = 0;
+            for (int length : shape) {
+                if (length == 2) count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A {@link ConventionDefinition} with its opening rules compiled to integer bounds.
+ * Compiling validates the whole file, so a broken rule is reported when it is loaded
+ * rather than on the first hand it matches.
+ */
+final class Convention {
+
+    private static final String ANY_SUIT = "longest";
+    private static final String BETTER_MINOR = "betterMinor";
+
+    private final String id;
+    private final boolean strongClub;
+    private final boolean twoOverOne;
+    private final Rule[] openings;
+
+    private Convention(String id, boolean strongClub, boolean twoOverOne, Rule[] openings) {
+        this.id = id;
+        this.strongClub = strongClub;
+        this.twoOverOne = twoOverOne;
+        this.openings = openings;
+    }
+
+    /** Throws IllegalArgumentException naming the convention and rule that is invalid. */
+    static Convention compile(ConventionDefinition definition) {
+        String id = definition.id() == null ? "" : definition.id().trim().toLowerCase(Locale.ROOT);
+        if (id.isEmpty()) throw new IllegalArgumentException("Convention without an id");
+        List<ConventionDefinition.OpeningRule> rules = definition.openings() == null ? List.of() : definition.openings();
+        Rule[] openings = new Rule[rules.size()];
+        for (int i = 0; i < openings.length; i++) {
+            try {
+                openings[i] = Rule.compile(rules.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Convention '" + id + "' opening rule " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return new Convention(id, definition.strongClub(), definition.twoOverOne(), openings);
+    }
+
+    String id() {
+        return id;
+    }
+
+    /** The 1C opening is artificial and strong, answered with a 1D negative. */
+    boolean strongClub() {
+        return strongClub;
+    }
+
+    /** New suits at the two level are game forcing. */
+    boolean twoOverOne() {
+        return twoOverOne;
+    }
+
+    String open(int hcp, int shape) {
+        for (Rule rule : openings) {
+            String bid = rule.bid(hcp, shape);
+            if (bid != null) return bid;
+        }
+        return "PASS";
+    }
+
+    private record Rule(int minHcp, int maxHcp, int balanced, int[] minLength, int[] maxLength,
+                        String bid, int level, boolean betterMinor, int suitMinLength) {
+
+        static Rule compile(ConventionDefinition.OpeningRule rule) {
+            int[] hcp = range(rule.hcp(), 0, 37);
+            int[] minLength = new int[PackedHand.SUITS];
+            int[] maxLength = new int[PackedHand.SUITS];
+            String[] lengths = {rule.spades(), rule.hearts(), rule.diamonds(), rule.clubs()};
+            for (int suit = 0; suit < PackedHand.SUITS; suit++) {
+                int[] length = range(lengths[suit], 0, 13);
+                minLength[suit] = length[0];
+                maxLength[suit] = length[1];
+            }
+            int balanced = rule.balanced() == null ? -1 : (rule.balanced() ? 1 : 0);
+
+            if (rule.bid() != null) {
+                if (rule.level() != null || rule.suit() != null) {
+                    throw new IllegalArgumentException("give either 'bid' or 'level' and 'suit'");
+                }
+                String bid = PackedAuction.symbol(PackedAuction.parseCall(rule.bid()));
+                return new Rule(hcp[0], hcp[1], balanced, minLength, maxLength, bid, 0, false, 0);
+            }
+            if (rule.level() == null || rule.level() < 1 || rule.level() > 7) {
+                throw new IllegalArgumentException("needs a 'bid' or a 'level' from 1 to 7");
+            }
+            boolean betterMinor;
+            if (ANY_SUIT.equals(rule.suit())) {
+                betterMinor = false;
+            } else if (BETTER_MINOR.equals(rule.suit())) {
+                betterMinor = true;
+            } else {
+                throw new IllegalArgumentException("unknown suit '" + rule.suit() + "', expected "
+                        + ANY_SUIT + " or " + BETTER_MINOR);
+            }
+            int suitMinLength = rule.minLength() == null ? 0 : rule.minLength();
+            return new Rule(hcp[0], hcp[1], balanced, minLength, maxLength, null, rule.level(), betterMinor, suitMinLength);
+        }
+
+        /** The bid when every condition holds, otherwise null. */
+        String bid(int hcp, int shape) {
+            if (hcp < minHcp || hcp > maxHcp) return null;
+            if (balanced >= 0 && AuctionRules.isBalanced(shape) != (balanced == 1)) return null;
+            for (int suit = 0; suit < PackedHand.SUITS; suit++) {
+                int length = PackedHand.suitLength(shape, suit);
+                if (length < minLength[suit] || length > maxLength[suit]) return null;
+            }
+            if (bid != null) return bid;
+            int suit = betterMinor ? AuctionRules.betterMinor(shape) : AuctionRules.longestSuitAny(shape);
+            if (PackedHand.suitLength(shape, suit) < suitMinLength) return null;
+            return PackedAuction.symbol(PackedAuction.bid(level, suit));
+        }
+
+        /** Parses "12+", "15-17", "-11" or "13" into {min, max}; null is the whole range. */
+        private static int[] range(String text, int min, int max) {
+            if (text == null || text.isBlank()) return new int[] {min, max};
+            String value = text.trim();
+            try {
+                int[] result;
+                if (value.endsWith("+")) {
+                    result = new int[] {Integer.parseInt(value.substring(0, value.length() - 1)), max};
+                } else if (value.startsWith("-")) {
+                    result = new int[] {min, Integer.parseInt(value.substring(1))};
+                } else if (value.indexOf('-') > 0) {
+                    int dash = value.indexOf('-');
+                    result = new int[] {Integer.parseInt(value.substring(0, dash).trim()),
+                            Integer.parseInt(value.substring(dash + 1).trim())};
+                } else {
+                    int exact = Integer.parseInt(value);
+                    result = new int[] {exact, exact};
+                }
+                if (result[0] < min || result[1] > max || result[0] > result[1]) {
+                    throw new IllegalArgumentException("range '" + text + "' is outside " + min + "-" + max);
+                }
+                return result;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid range '" + text + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.bridge.service;
+
+import java.util.List;
+
+/**
+ * A bidding convention as written in a rule file under {@code conventions/}.
+ * <p>
+ * {@code aliases} are exact (case-insensitive) names besides the id; {@code keywords}
+ * are matched as substrings of names nothing else matched, e.g. "precision" in
+ * "my precision system". When a name holds keywords of several conventions, the one with
+ * the highest {@code priority} wins (0 when left out; ties go to the file loaded first),
+ * so "strong polish" is precision rather than Polish Club. {@code strongClub} and {@code twoOverOne} select the matching
+ * response structures of {@link AuctionRules}. Openings are tried in order and the first
+ * rule whose conditions all hold gives the bid; a hand no rule matches passes.
+ */
+record ConventionDefinition(
+        String id,
+        List<String> aliases,
+        List<String> keywords,
+        int priority,
+        boolean strongClub,
+        boolean twoOverOne,
+        List<OpeningRule> openings
+) {
+
+    /**
+     * Ranges are written "12+", "15-17", "-11" or "13"; conditions that are left out always hold.
+     * The bid is either a fixed call ({@code bid}, e.g. "1NT") or a {@code level} with a suit
+     * chosen from the hand: "longest" (ties go to the higher-ranking suit) or "betterMinor"
+     * (clubs unless diamonds are longer), which must hold at least {@code minLength} cards.
+     */
+    record OpeningRule(
+            String hcp,
+            Boolean balanced,
+            String spades,
+            String hearts,
+            String diamonds,
+            String clubs,
+            String bid,
+            Integer level,
+            String suit,
+            Integer minLength
+    ) {}
+}
@@ -0,0 +1,277 @@
+package com.example.bridge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Bidding conventions loaded from JSON rule files and compiled into {@link AuctionRuleTable}s.
+ * <p>
+ * The built-in files live under {@code conventions/} on the classpath. Files in the optional
+ * {@code bidding.conventions.dir} directory are loaded after them and replace a built-in with
+ * the same id. A reload compiles every file into a new immutable snapshot and swaps it in
+ * atomically; if any file is invalid the current rules stay in place. With
+ * {@code bidding.conventions.watch=true} the directory is watched and reloaded on change.
+ * <p>
+ * Names are resolved by exact id or alias first and by keyword otherwise. Each name a client
+ * sends is resolved once per snapshot and cached, so a request costs one hash lookup.
+ */
+@Service
+public class ConventionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ConventionRegistry.class);
+
+    static final String BUILT_IN = "classpath*:conventions/*.json";
+    /** Rules for names no convention claims. */
+    static final String FALLBACK_ID = "default";
+    /** Convention for requests that do not name one. */
+    static final String DEFAULT_NAME = "natural";
+
+    // client-supplied names cached per snapshot; beyond this they are resolved on every call
+    private static final int MAX_CACHED_NAMES = 1024;
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final boolean builtIns;
+    private final Path directory;
+    private final boolean watch;
+    private volatile Snapshot snapshot;
+    private volatile WatchService watchService;
+
+    public ConventionRegistry() {
+        this(true, null, false);
+    }
+
+    @Autowired
+    public ConventionRegistry(
+            @Value("${bidding.conventions.dir:}") String directory,
+            @Value("${bidding.conventions.watch:false}") boolean watch) {
+        this(true, directory == null || directory.isBlank() ? null : Path.of(directory), watch);
+    }
+
+    ConventionRegistry(boolean builtIns, Path directory, boolean watch) {
+        this.builtIns = builtIns;
+        this.directory = directory;
+        this.watch = watch;
+        this.snapshot = load();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!watch || directory == null) return;
+        try {
+            WatchService service = directory.getFileSystem().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchService = service;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch convention directory " + directory, e);
+        }
+        Thread t = new Thread(this::watchDirectory, "convention-watcher");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        WatchService service = watchService;
+        watchService = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.debug("Closing the convention watcher failed", e);
+            }
+        }
+    }
+
+    /** Compiled rules for a client-supplied convention name; unknown names get the default rules. */
+    AuctionRuleTable resolve(String name) {
+        Snapshot current = snapshot;
+        if (name == null) return current.byName.getOrDefault(DEFAULT_NAME, current.fallback);
+        AuctionRuleTable table = current.resolved.get(name);
+        if (table != null) return table;
+
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        table = current.byName.get(key);
+        if (table == null) {
+            table = current.fallback;
+            for (Map.Entry<String, AuctionRuleTable> keyword : current.keywords) {
+                if (key.contains(keyword.getKey())) {
+                    table = keyword.getValue();
+                    break;
+                }
+            }
+        }
+        if (current.resolved.size() < MAX_CACHED_NAMES) {
+            current.resolved.put(name, table);
+        }
+        return table;
+    }
+
+    /** Whether {@code table} holds the rules for names no convention claims. */
+    static boolean isFallback(AuctionRuleTable table) {
+        return FALLBACK_ID.equals(table.convention().id());
+    }
+
+    /** Ids of the loaded conventions, in load order. */
+    public List<String> ids() {
+        return snapshot.ids;
+    }
+
+    /**
+     * Recompiles every rule file and swaps the new rules in. Throws IllegalArgumentException
+     * (keeping the current rules) when a file is invalid.
+     */
+    public synchronized List<String> reload() {
+        snapshot = load();
+        log.info("Loaded bidding conventions {}", snapshot.ids);
+        return snapshot.ids;
+    }
+
+    private void watchDirectory() {
+        WatchService service;
+        while ((service = watchService) != null) {
+            try {
+                WatchKey key = service.take();
+                // editors write files in several steps; wait for them to settle
+                TimeUnit.MILLISECONDS.sleep(DEBOUNCE_MILLIS);
+                key.pollEvents();
+                key.reset();
+                reload();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Convention reload failed, keeping the current rules: {}", e.getMessage());
+            }
+        }
+    }
+
+    // --- loading ---
+
+    private Snapshot load() {
+        Map<String, ConventionDefinition> definitions = new LinkedHashMap<>();
+        if (builtIns) {
+            try {
+                Resource[] resources = new PathMatchingResourcePatternResolver().getResources(BUILT_IN);
+                Arrays.sort(resources, Comparator.comparing(r -> String.valueOf(r.getFilename())));
+                for (Resource resource : resources) {
+                    try (InputStream in = resource.getInputStream()) {
+                        add(definitions, read(in, resource.getFilename()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read the built-in conventions", e);
+            }
+        }
+        if (directory != null) {
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(p -> p.getFileName().toString().endsWith(".json")).sorted().toList();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot list convention directory " + directory + ": " + e.getMessage());
+            }
+            for (Path file : files) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    add(definitions, read(in, file.getFileName().toString()));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Cannot read convention file " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return compile(definitions.values());
+    }
+
+    private ConventionDefinition read(InputStream in, String file) throws IOException {
+        try {
+            return mapper.readValue(in, ConventionDefinition.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid convention file " + file + ": " + e.getOriginalMessage());
+        }
+    }
+
+    private static void add(Map<String, ConventionDefinition> definitions, ConventionDefinition definition) {
+        String id = definition.id() == null ? "" : definition.id().trim().toLowerCase(Locale.ROOT);
+        definitions.remove(id); // a later file replaces the convention, and moves it to the end
+        definitions.put(id, definition);
+    }
+
+    private static Snapshot compile(Iterable<ConventionDefinition> definitions) {
+        Map<String, AuctionRuleTable> byName = new HashMap<>();
+        List<Map.Entry<String, AuctionRuleTable>> keywords = new ArrayList<>();
+        Map<AuctionRuleTable, Integer> priorities = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        for (ConventionDefinition definition : definitions) {
+            AuctionRuleTable table = new AuctionRuleTable(Convention.compile(definition));
+            String id = table.convention().id();
+            ids.add(id);
+            claim(byName, id, table);
+            priorities.put(table, definition.priority());
+            for (String alias : definition.aliases() == null ? List.<String>of() : definition.aliases()) {
+                claim(byName, alias.trim().toLowerCase(Locale.ROOT), table);
+            }
+            for (String keyword : definition.keywords() == null ? List.<String>of() : definition.keywords()) {
+                keywords.add(Map.entry(keyword.trim().toLowerCase(Locale.ROOT), table));
+            }
+        }
+        // highest priority first; the sort is stable, so equal priorities keep file order
+        keywords.sort(Comparator.comparingInt(keyword -> -priorities.get(keyword.getValue())));
+        AuctionRuleTable fallback = byName.get(FALLBACK_ID);
+        if (fallback == null) {
+            throw new IllegalArgumentException("No '" + FALLBACK_ID + "' convention for unknown names");
+        }
+        return new Snapshot(Map.copyOf(byName), List.copyOf(keywords), fallback, List.copyOf(ids));
+    }
+
+    private static void claim(Map<String, AuctionRuleTable> byName, String name, AuctionRuleTable table) {
+        AuctionRuleTable previous = byName.putIfAbsent(name, table);
+        if (previous != null && previous != table) {
+            throw new IllegalArgumentException("Convention name '" + name + "' is used by both '"
+                    + previous.convention().id() + "' and '" + table.convention().id() + "'");
+        }
+    }
+
+    private static final class Snapshot {
+        final Map<String, AuctionRuleTable> byName;
+        final List<Map.Entry<String, AuctionRuleTable>> keywords;
+        final AuctionRuleTable fallback;
+        final List<String> ids;
+        final Map<String, AuctionRuleTable> resolved = new ConcurrentHashMap<>();
+
+        Snapshot(Map<String, AuctionRuleTable> byName, List<Map.Entry<String, AuctionRuleTable>> keywords,
+                 AuctionRuleTable fallback, List<String> ids) {
+            this.byName = byName;
+            this.keywords = keywords;
+            this.fallback = fallback;
+            this.ids = ids;
+        }
+    }
+}
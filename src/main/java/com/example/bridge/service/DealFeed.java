@@ -0,0 +1,433 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.QuizDealSummary;
+import com.example.bridge.entity.QuizDeal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Live feed of stored quiz deals, served as Server-Sent Events by {@code GET /api/deals/stream}.
+ * <p>
+ * {@link QuizDealService} publishes every deal once it is stored. Written-behind deals are
+ * published when their batch has been inserted, so every event has a database id. Publishing
+ * only puts the deal in a ring buffer holding the last {@code quiz.deals.stream.buffer-size}
+ * events and wakes the dispatch thread, so the writer never waits for subscribers. The
+ * dispatch thread hands each subscriber that is behind to the sender pool. One sender at a
+ * time drains a subscriber in order, at most {@code quiz.deals.stream.events-per-turn} events
+ * before it goes to the back of the queue, so a busy client only holds up itself. Sends block,
+ * so a send still running after {@code quiz.deals.stream.send-timeout-ms} marks a stalled
+ * client: it is dropped (its stream is closed once the send returns, and it can reconnect with
+ * {@code Last-Event-ID}), its sender is interrupted, and the pool gets a thread in its place
+ * until the send returns. Each event is serialized once, and the same text goes to every
+ * subscriber.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}. A client that reconnects with a
+ * {@code Last-Event-ID} still in the buffer gets the deals it missed. Some ids cannot be
+ * resumed from: ids from before a restart, and ids already overwritten because the client
+ * fell a whole buffer behind. The client then gets a {@code reset} event and continues from
+ * the oldest buffered deal, and should re-read {@code /api/deals/recent} to fill the gap.
+ */
+@Service
+public class DealFeed {
+
+    static final String DEAL_EVENT = "deal";
+    static final String RESET_EVENT = "reset";
+
+    // Subscription.sendStarted of a send the watchdog has given up on
+    private static final long ABANDONED = Long.MIN_VALUE;
+
+    /** One server-sent event; {@code id} is null for events a client cannot resume from. */
+    public record Event(String id, String name, String data) {
+    }
+
+    /** Where a subscription's events go. Called by one sender thread at a time. */
+    public interface Sink {
+
+        void send(Event event) throws IOException;
+
+        /** Keeps idle connections open through proxies, and finds out about closed ones. */
+        void heartbeat() throws IOException;
+
+        /** Ends the response; called when the feed shuts down. */
+        void close();
+    }
+
+    // A published deal; decoded and rendered by the first sender that needs it, not the writer
+    private final class Entry {
+        final long sequence;
+        final QuizDeal deal;
+        volatile Event event;
+
+        Entry(long sequence, QuizDeal deal) {
+            this.sequence = sequence;
+            this.deal = deal;
+        }
+
+        Event event() {
+            Event e = event;
+            if (e == null) {
+                QuizDealSummary summary = new QuizDealSummary(deal.getId(), deal.getCreatedAt(), deal.getDealer(),
+                        deal.getDealBits(), deal.getConvention(), deal.getAuctionCalls());
+                e = new Event(eventId(sequence), DEAL_EVENT, json(summary));
+                event = e;
+            }
+            return e;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int maxSubscribers;
+    private final int eventsPerTurn;
+    private final long sendTimeoutNanos;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicReferenceArray<Entry> ring;
+    private final Object publishLock = new Object();
+    // Next sequence to publish; written under publishLock after its slot
+    private volatile long head;
+
+    private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+    // Reserved before a subscriber is added and released when it is removed, so the limit holds
+    // under concurrent subscribes
+    private final AtomicInteger subscriberSlots = new AtomicInteger();
+    private final ScheduledExecutorService dispatcher;
+    private final ThreadPoolExecutor senders;
+    private final int sendThreads;
+    // Senders stuck in abandoned sends; guarded by senders. Can dip below 0 for a moment when a
+    // send returns before the watchdog has added its replacement
+    private int stuckSenders;
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+    private final Counter resets;
+    private final Counter stalls;
+
+    @Autowired
+    public DealFeed(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${quiz.deals.stream.buffer-size:1024}") int bufferSize,
+            @Value("${quiz.deals.stream.max-subscribers:1000}") int maxSubscribers,
+            @Value("${quiz.deals.stream.send-threads:8}") int sendThreads,
+            @Value("${quiz.deals.stream.heartbeat-ms:15000}") long heartbeatMillis,
+            @Value("${quiz.deals.stream.events-per-turn:64}") int eventsPerTurn,
+            @Value("${quiz.deals.stream.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.capacity = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.eventsPerTurn = Math.max(1, eventsPerTurn);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(daemon("deal-feed-dispatch"));
+        this.sendThreads = Math.max(1, sendThreads);
+        this.senders = new ThreadPoolExecutor(this.sendThreads, this.sendThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemon("deal-feed-send"));
+        if (heartbeatMillis > 0) {
+            dispatcher.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+        if (sendTimeoutMillis > 0) {
+            long period = Math.max(1, sendTimeoutMillis / 4);
+            dispatcher.scheduleAtFixedRate(this::dropStalled, period, period, TimeUnit.MILLISECONDS);
+        }
+        Gauge.builder("quiz.deals.stream.subscribers", subscribers, Set::size)
+                .description("Open /api/deals/stream connections")
+                .register(meterRegistry);
+        this.resets = Counter.builder("quiz.deals.stream.resets")
+                .description("Subscribers that could not resume and were sent a reset event")
+                .register(meterRegistry);
+        this.stalls = Counter.builder("quiz.deals.stream.stalled")
+                .description("Subscribers dropped because a send took longer than the send timeout")
+                .register(meterRegistry);
+    }
+
+    DealFeed(ObjectMapper objectMapper, int bufferSize, int maxSubscribers) {
+        this(objectMapper, bufferSize, maxSubscribers, 2, 0);
+    }
+
+    DealFeed(ObjectMapper objectMapper, int bufferSize, int maxSubscribers, int sendThreads, long sendTimeoutMillis) {
+        this(objectMapper, Metrics.globalRegistry, bufferSize, maxSubscribers, sendThreads, 0, 64, sendTimeoutMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        for (Subscription subscription : subscribers) {
+            subscription.cancel();
+            subscription.sink.close();
+        }
+    }
+
+    /** Adds a stored deal to the feed; never waits for subscribers. */
+    public void publish(QuizDeal deal) {
+        synchronized (publishLock) {
+            long sequence = head;
+            ring.set(slot(sequence), new Entry(sequence, deal));
+            head = sequence + 1;
+        }
+        if (dispatchPending.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                // shutting down; subscribers are being closed
+            }
+        }
+    }
+
+    /**
+     * Starts sending deals to {@code sink}: those published after {@code lastEventId} when it
+     * can be resumed from, only new ones when it is null. Rejected with 503 when the feed
+     * already has {@code quiz.deals.stream.max-subscribers} subscribers.
+     */
+    public Subscription subscribe(String lastEventId, Sink sink) {
+        int taken;
+        do {
+            taken = subscriberSlots.get();
+            if (taken >= maxSubscribers) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "The deal stream has reached its limit of " + maxSubscribers + " subscribers");
+            }
+        } while (!subscriberSlots.compareAndSet(taken, taken + 1));
+        Subscription subscription = new Subscription(sink, resumeAt(lastEventId));
+        subscribers.add(subscription);
+        subscription.schedule();
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // The sequence to continue from, or -1 when lastEventId cannot be resumed from
+    private long resumeAt(String lastEventId) {
+        long head = this.head;
+        if (lastEventId == null || lastEventId.isBlank()) return head;
+        int dash = lastEventId.indexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) return -1;
+        long next;
+        try {
+            next = Long.parseLong(lastEventId.substring(dash + 1).trim()) + 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        // An id that has already been overwritten is caught when the subscriber is drained
+        return next < 0 || next > head ? -1 : next;
+    }
+
+    private void dispatch() {
+        dispatchPending.set(false);
+        long head = this.head;
+        for (Subscription subscription : subscribers) {
+            if (subscription.cursor < head) subscription.schedule();
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscribers) {
+            subscription.heartbeatDue = true;
+            subscription.schedule();
+        }
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscribers) {
+            long started = subscription.sendStarted.get();
+            if (started != 0 && started != ABANDONED && now - started > sendTimeoutNanos
+                    && subscription.sendStarted.compareAndSet(started, ABANDONED)) {
+                subscription.abandon();
+            }
+        }
+    }
+
+    // A sender stuck in an abandoned send is replaced for as long as the send lasts
+    private void addSender() {
+        resizeSenders(1);
+    }
+
+    private void removeSender() {
+        resizeSenders(-1);
+    }
+
+    private void resizeSenders(int change) {
+        synchronized (senders) {
+            stuckSenders += change;
+            int size = sendThreads + Math.max(0, stuckSenders);
+            if (size > senders.getMaximumPoolSize()) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private long oldest(long head) {
+        return Math.max(0, head - capacity);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread t = new Thread(task, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** One client of the feed; cancel it when the client goes away. */
+    public final class Subscription {
+
+        private final Sink sink;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // System.nanoTime() when the current send started, 0 between sends, ABANDONED once timed out
+        private final AtomicLong sendStarted = new AtomicLong();
+        private volatile Thread sender;
+        // Next sequence to send; -1 until a reset has been sent. Written by the draining sender only
+        private volatile long cursor;
+        private volatile boolean heartbeatDue = true; // the first one sends the response headers
+        private volatile boolean cancelled;
+
+        private Subscription(Sink sink, long cursor) {
+            this.sink = sink;
+            this.cursor = cursor;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            if (subscribers.remove(this)) {
+                subscriberSlots.decrementAndGet();
+            }
+        }
+
+        private void schedule() {
+            if (!cancelled && scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) { // shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            sender = Thread.currentThread();
+            boolean abandoned = false;
+            try {
+                for (int sent = 0; !cancelled && sent < eventsPerTurn; sent++) {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        send(null);
+                    }
+                    long head = DealFeed.this.head;
+                    long next = cursor;
+                    if (next >= 0 && next >= head) break;
+                    Entry entry = next < 0 ? null : ring.get(slot(next));
+                    if (entry == null || entry.sequence != next) {
+                        // Never resumed, or lapped by the writer: skip to the oldest deal still buffered
+                        long oldest = oldest(head);
+                        resets.increment();
+                        send(new Event(null, RESET_EVENT,
+                                next < 0 ? "{}" : "{\"missed\":" + (oldest - next) + "}"));
+                        cursor = oldest;
+                        continue;
+                    }
+                    send(entry.event());
+                    cursor = next + 1;
+                }
+            } catch (IOException | RuntimeException e) {
+                // The client went away or the response failed; it reconnects with Last-Event-ID
+                cancel();
+            } finally {
+                sender = null;
+                abandoned = sendStarted.get() == ABANDONED;
+                scheduled.set(false);
+            }
+            if (abandoned) {
+                Thread.interrupted(); // the watchdog's interrupt, if the send ignored it
+                try {
+                    sink.close();
+                } finally {
+                    removeSender();
+                }
+                return;
+            }
+            // Deals published, or a heartbeat requested, while the flag was still set
+            if (!cancelled && (heartbeatDue || cursor < DealFeed.this.head)) {
+                schedule();
+            }
+        }
+
+        // Sends one event, or a heartbeat when event is null, where the watchdog can see how long it takes
+        private void send(Event event) throws IOException {
+            long started = System.nanoTime();
+            sendStarted.set(started);
+            boolean onTime;
+            try {
+                if (event == null) {
+                    sink.heartbeat();
+                } else {
+                    sink.send(event);
+                }
+            } finally {
+                onTime = sendStarted.compareAndSet(started, 0);
+            }
+            if (!onTime) {
+                throw new IOException("Send took longer than the send timeout");
+            }
+        }
+
+        // Called by the watchdog once it has marked the current send abandoned
+        private void abandon() {
+            stalls.increment();
+            addSender();
+            cancel();
+            Thread stuck = sender;
+            if (stuck != null) {
+                stuck.interrupt();
+            }
+        }
+    }
+}
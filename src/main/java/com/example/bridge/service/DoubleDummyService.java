@@ -0,0 +1,38 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.Deal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedHand;
+import com.example.bridge.model.TrickTable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Double-dummy analysis of complete deals, used to grade quiz answers against the
+ * tricks each contract actually makes.
+ */
+@Service
+public class DoubleDummyService {
+
+    private static final HandPosition[] POSITIONS = HandPosition.values();
+
+    // a solver owns large search tables, so each thread reuses its own
+    private final ThreadLocal<DoubleDummySolver> solvers = ThreadLocal.withInitial(DoubleDummySolver::new);
+
+    /**
+     * Solves all 20 declarer and strain combinations of a deal.
+     *
+     * @throws IllegalArgumentException if the deal does not hold four 13-card hands
+     *                                  that share no card
+     */
+    public TrickTable solve(Deal deal) {
+        long[] hands = new long[POSITIONS.length];
+        for (HandPosition position : POSITIONS) {
+            long hand = PackedHand.parse(deal.getHands().get(position));
+            if (PackedHand.cardCount(hand) != 13) {
+                throw new IllegalArgumentException("Hand " + position.getSymbol() + " must hold 13 cards");
+            }
+            hands[position.ordinal()] = hand;
+        }
+        return new TrickTable(solvers.get().solve(hands));
+    }
+}
@@ -0,0 +1,887 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedHand;
+
+import java.util.Arrays;
+
+/**
+ * Double-dummy solver working directly on {@link PackedHand} masks.
+ * <p>
+ * Each (strain, leader) pair is solved with a few null-window alpha-beta searches ("can
+ * North-South still take {@code target} tricks?"), stepping the target from a guess; when a
+ * whole deal is solved, each result is the guess for the next leader. Cards that are
+ * adjacent among the remaining cards of all four hands are played as one move.
+ * <p>
+ * At the start of every trick the search first tries to settle the position from bounds:
+ * the quick tricks the side on lead can cash, and the tricks the other side is sure to take
+ * later (top trumps, or at no trump the lead being lost). Otherwise it looks the position up
+ * in a transposition table keyed by the remaining cards normalised to relative ranks.
+ * <p>
+ * The table works as a partition search: along with its result every search reports which
+ * cards actually decided it (the winners of tricks contested within a suit, and the top
+ * cards behind a bound). An entry then holds for every position with the same suit lengths
+ * in every hand and the same owners of the remaining cards down to the lowest deciding rank
+ * of each suit; everything below that rank is treated as an interchangeable small card.
+ * <p>
+ * Instances are not thread-safe; keep one solver per thread.
+ */
+public final class DoubleDummySolver {
+
+    /** Strain indices follow the suit order of {@link PackedHand}; no trump comes last. */
+    public static final int NO_TRUMP = 4;
+    public static final int STRAINS = 5;
+    public static final int SEATS = 4;
+
+    private static final int RANKS = PackedHand.RANKS;
+    private static final int SUITS = PackedHand.SUITS;
+    private static final int CARDS = 52;
+    private static final long SUIT_MASK = 0x1FFFL;
+    private static final int TABLE_BITS = 20;
+    // leaders in solving order: each result is a good guess for the next one
+    private static final int[] LEAD_ORDER = {1, 3, 0, 2};
+
+    private static final int UNKNOWN = -1;
+    private static final int LOSE = 0;
+    private static final int WIN = 1;
+
+    private final long[] hands = new long[SEATS];
+    private final int[][] moves = new int[CARDS][RANKS];
+    private final long[][] groups = new long[CARDS][RANKS];
+    private final int[][] weights = new int[CARDS][RANKS];
+
+    private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+    private int trump = -1;
+    // cards whose ranks decided the search call (or bound) that just returned
+    private long winners;
+    private long nodes;
+
+    /**
+     * Solves every declarer and strain of a deal.
+     *
+     * @param deal four equal-sized hands indexed by seat (N, E, S, W)
+     * @return 20 trick counts indexed by {@code declarer * STRAINS + strain}, each the number
+     * of tricks the declaring side takes when the player on declarer's left leads
+     */
+    public byte[] solve(long[] deal) {
+        checkDeal(deal);
+        byte[] result = new byte[SEATS * STRAINS];
+        int total = PackedHand.cardCount(deal[0]);
+        for (int strain = 0; strain < STRAINS; strain++) {
+            int guess = -1;
+            for (int leader : LEAD_ORDER) {
+                int ns = solve(deal, strain, leader, guess);
+                int declarer = (leader + 3) & 3;
+                result[declarer * STRAINS + strain] = (byte) ((declarer & 1) == 0 ? ns : total - ns);
+                guess = ns;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of tricks North-South take in {@code strain} with {@code leader} on lead.
+     * The hands may be any equal-sized ending, not just full deals.
+     */
+    public int tricksNorthSouth(long[] deal, int strain, int leader) {
+        checkDeal(deal);
+        return solve(deal, strain, leader, -1);
+    }
+
+    /** Search nodes visited since the solver was created; useful when tuning. */
+    long nodes() {
+        return nodes;
+    }
+
+    private int solve(long[] deal, int strain, int leader, int guess) {
+        if (strain != trump) {
+            // entries describe positions, so they stay valid across deals of one strain
+            table.clear();
+            trump = strain;
+        }
+        System.arraycopy(deal, 0, hands, 0, SEATS);
+        int tricks = PackedHand.cardCount(deal[0]);
+        int lower = 0;
+        int upper = tricks;
+        int target = guess < 0 ? (tricks + 1) / 2 : guess;
+        while (lower < upper) {
+            target = Math.max(lower + 1, Math.min(upper, target));
+            boolean ok = search(leader, 0, -1, 0, 0, 0L, 0, tricks, target);
+            if (ok) {
+                lower = target;
+                target++;
+            } else {
+                upper = target - 1;
+                target--;
+            }
+        }
+        return lower;
+    }
+
+    private static void checkDeal(long[] deal) {
+        if (deal.length != SEATS) {
+            throw new IllegalArgumentException("A deal needs exactly four hands");
+        }
+        int size = PackedHand.cardCount(deal[0]);
+        long seen = 0L;
+        for (long hand : deal) {
+            if (PackedHand.cardCount(hand) != size || (seen & hand) != 0 || (hand >>> CARDS) != 0) {
+                throw new IllegalArgumentException("Hands must be disjoint and of equal size");
+            }
+            seen |= hand;
+        }
+    }
+
+    /**
+     * @param seat     player to move
+     * @param played   cards already in the current trick
+     * @param leadSuit suit led to the current trick, -1 before the lead
+     * @param winSeat  seat currently winning the trick
+     * @param winCard  bit index of the card currently winning the trick
+     * @param trick    cards already in the current trick
+     * @param tricksNs tricks North-South have won so far in this search
+     * @param left     tricks still to be completed, including the current one
+     * @param target   total North-South tricks the search tries to reach
+     * @return whether North-South can reach {@code target} against best defence
+     */
+    private boolean search(int seat, int played, int leadSuit, int winSeat, int winCard, long trick,
+                           int tricksNs, int left, int target) {
+        nodes++;
+        int need = target - tricksNs;
+        long lengthKey = 0L;
+        long ownersA = 0L;
+        long ownersB = 0L;
+        int hint = -1;
+        if (played == 0) {
+            winners = 0L;
+            if (need <= 0) return true;
+            if (need > left) return false;
+            if (left == 1) return lastTrickNorthSouth(seat) >= need;
+            int settled = bound(seat, left, need);
+            if (settled != UNKNOWN) return settled == WIN;
+
+            lengthKey = TranspositionTable.lengthKey(hands, seat);
+            ownersA = TranspositionTable.owners(hands, PackedHand.SPADES, PackedHand.HEARTS);
+            ownersB = TranspositionTable.owners(hands, PackedHand.DIAMONDS, PackedHand.CLUBS);
+            int entry = table.find(lengthKey, ownersA, ownersB, hands[0] | hands[1] | hands[2] | hands[3], need);
+            if (entry >= 0) {
+                if (table.lower(entry) >= need || table.upper(entry) < need) {
+                    winners = table.deciding(entry, hands);
+                    return table.lower(entry) >= need;
+                }
+                hint = table.bestMove(entry, hands, seat);
+            }
+        }
+
+        int depth = (RANKS - left) * 4 + played;
+        int count = generateMoves(depth, seat, played, leadSuit, winSeat, winCard, trick);
+        if (hint >= 0) promote(depth, count, hint);
+        int[] candidates = moves[depth];
+        long[] cardGroups = groups[depth];
+        boolean maximizing = (seat & 1) == 0;
+        boolean result = !maximizing;
+        long deciding = 0L;
+        int best = -1;
+        for (int i = 0; i < count; i++) {
+            int card = candidates[i];
+            long bit = 1L << card;
+            hands[seat] &= ~bit;
+
+            int nextWinSeat = winSeat;
+            int nextWinCard = winCard;
+            if (played == 0 || beats(card, winCard)) {
+                nextWinSeat = seat;
+                nextWinCard = card;
+            }
+            boolean reached;
+            long childWinners;
+            if (played == 3) {
+                int ns = tricksNs + ((nextWinSeat & 1) == 0 ? 1 : 0);
+                reached = search(nextWinSeat, 0, -1, 0, 0, 0L, ns, left - 1, target);
+                childWinners = winners;
+                // a trick taken by rank within a suit depends on the winner's rank
+                if (Long.bitCount((trick | bit) & suitOf(nextWinCard)) > 1) {
+                    childWinners |= 1L << nextWinCard;
+                }
+            } else {
+                reached = search((seat + 1) & 3, played + 1, played == 0 ? card / RANKS : leadSuit,
+                        nextWinSeat, nextWinCard, trick | bit, tricksNs, left, target);
+                childWinners = winners;
+            }
+
+            hands[seat] |= bit;
+            if (reached == maximizing) {
+                result = reached;
+                deciding = childWinners;
+                best = card;
+                break;
+            }
+            // the other cards of the group were not tried; if the ranks inside it mattered,
+            // positions sharing the entry have to hold the whole group the same way
+            deciding |= (childWinners & cardGroups[i]) != 0 ? childWinners | cardGroups[i] : childWinners;
+        }
+
+        if (played == 0) {
+            table.store(lengthKey, ownersA, ownersB, hands, deciding,
+                    result ? need : 0, result ? left : need - 1, best);
+        }
+        winners = deciding;
+        return result;
+    }
+
+    private boolean beats(int card, int winCard) {
+        int suit = card / RANKS;
+        int winSuit = winCard / RANKS;
+        if (suit == winSuit) return card > winCard;
+        return suit == trump;
+    }
+
+    private static long suitOf(int card) {
+        return SUIT_MASK << (card / RANKS * RANKS);
+    }
+
+    private int lastTrickNorthSouth(int leader) {
+        int winSeat = leader;
+        int winCard = Long.numberOfTrailingZeros(hands[leader]);
+        long trick = hands[0] | hands[1] | hands[2] | hands[3];
+        for (int i = 1; i < SEATS; i++) {
+            int seat = (leader + i) & 3;
+            int card = Long.numberOfTrailingZeros(hands[seat]);
+            if (beats(card, winCard)) {
+                winSeat = seat;
+                winCard = card;
+            }
+        }
+        winners = Long.bitCount(trick & suitOf(winCard)) > 1 ? 1L << winCard : 0L;
+        return (winSeat & 1) == 0 ? 1 : 0;
+    }
+
+    /**
+     * Settles "North-South take {@code need} of the {@code left} tricks" without searching
+     * when the quick tricks of the side on lead, or the tricks the other side is sure to take
+     * later, already decide it; {@link #UNKNOWN} otherwise. Sets {@link #winners} when settled.
+     */
+    private int bound(int leader, int left, int need) {
+        boolean northSouthLead = (leader & 1) == 0;
+        int quick = quickTricks(leader);
+        if (northSouthLead ? quick >= need : left - quick < need) {
+            return northSouthLead ? WIN : LOSE;
+        }
+        if (trump != NO_TRUMP) {
+            int sure = sureTrumpTricks();
+            if (sure > 0) {
+                boolean northSouthTrumps = (topTrumpOwner() & 1) == 0;
+                if (northSouthTrumps ? sure >= need : left - sure < need) {
+                    return northSouthTrumps ? WIN : LOSE;
+                }
+            }
+        } else if (losesLead(leader)) {
+            // the defenders win this trick whatever is led
+            if (northSouthLead ? left - 1 < need : need <= 1) {
+                return northSouthLead ? LOSE : WIN;
+            }
+        }
+        winners = 0L;
+        return UNKNOWN;
+    }
+
+    /**
+     * Tricks the side on lead can take from the top without giving up the lead: the
+     * leader's own cashing tricks or, when the leader can reach partner's winners, partner's.
+     * At no trump the two combine when partner can follow to every round the leader cashes
+     * first. Sets {@link #winners} to the top cards counted.
+     */
+    private int quickTricks(int leader) {
+        int partner = leader ^ 2;
+        int own = cashingTricks(leader, -1);
+        long ownWinners = winners;
+        int entrySuit = entrySuit(leader, partner);
+        if (entrySuit < 0) {
+            winners = ownWinners;
+            return own;
+        }
+        long entry = (long) Integer.highestOneBit(PackedHand.suitCards(hands[partner], entrySuit))
+                << (entrySuit * RANKS);
+        int viaPartner = cashingTricks(partner, -1);
+        long partnerWinners = winners | entry;
+        int best = own;
+        long bestWinners = ownWinners;
+        if (viaPartner > best) {
+            best = viaPartner;
+            bestWinners = partnerWinners;
+        }
+        if (trump == NO_TRUMP) {
+            // cash the leader's suits partner can follow to, then cross to partner
+            int combined = viaPartner + cashingTricks(leader, partner);
+            if (combined > best) {
+                best = combined;
+                bestWinners = partnerWinners | winners;
+            }
+        }
+        winners = bestWinners;
+        return best;
+    }
+
+    /**
+     * A suit the leader holds in which partner holds the top card and neither defender can
+     * ruff, or -1.
+     */
+    private int entrySuit(int leader, int partner) {
+        long all = hands[0] | hands[1] | hands[2] | hands[3];
+        for (int suit = 0; suit < SUITS; suit++) {
+            if (PackedHand.suitCards(hands[leader], suit) == 0) continue;
+            int top = Integer.highestOneBit(PackedHand.suitCards(all, suit));
+            if ((PackedHand.suitCards(hands[partner], suit) & top) == 0) continue;
+            if (trump != NO_TRUMP && suit != trump
+                    && (canRuff(leader ^ 1, suit) || canRuff(leader ^ 3, suit))) {
+                continue;
+            }
+            return suit;
+        }
+        return -1;
+    }
+
+    private boolean canRuff(int seat, int suit) {
+        return PackedHand.suitCards(hands[seat], suit) == 0 && PackedHand.suitCards(hands[seat], trump) != 0;
+    }
+
+    /**
+     * Tricks {@code seat} can cash from the top once on lead: top cards in a suit, plus the
+     * length behind them once the other hands are exhausted. In a suit contract the trump
+     * suit is cashed first and then one side suit, whose winners are capped where a
+     * defender with trumps could ruff. With {@code follower} set, only suits that hand can
+     * follow to throughout are counted, so it keeps its own cards. Sets {@link #winners} to
+     * the top cards counted.
+     */
+    private int cashingTricks(int seat, int follower) {
+        long all = hands[0] | hands[1] | hands[2] | hands[3];
+        int partner = seat ^ 2;
+        int total = 0;
+        long totalWinners = 0L;
+        int bestSide = 0;
+        long bestSideWinners = 0L;
+        for (int suit = 0; suit < SUITS; suit++) {
+            int mine = PackedHand.suitCards(hands[seat], suit);
+            if (mine == 0) continue;
+            int others = PackedHand.suitCards(all, suit) & ~mine;
+            int run = others == 0 ? mine : mine & -(Integer.highestOneBit(others) << 1);
+            if (run == 0) continue;
+            int tops = Integer.bitCount(run);
+            int othersMax = Math.max(PackedHand.length(hands[seat ^ 1], suit),
+                    Math.max(PackedHand.length(hands[seat ^ 2], suit), PackedHand.length(hands[seat ^ 3], suit)));
+            int q = tops >= othersMax ? Integer.bitCount(mine) : tops;
+            if (follower >= 0 && PackedHand.length(hands[follower], suit) < q) continue;
+            long runCards = (long) run << (suit * RANKS);
+            if (trump == NO_TRUMP || suit == trump) {
+                total += q;
+                totalWinners |= runCards;
+                continue;
+            }
+            for (int opp = 1; opp < SEATS; opp += 2) {
+                long oppHand = hands[seat ^ opp];
+                if (PackedHand.suitCards(oppHand, trump) != 0) {
+                    q = Math.min(q, PackedHand.length(oppHand, suit));
+                }
+            }
+            // partner holding nothing but this suit and trumps has to ruff once out of the suit
+            long partnerHand = hands[partner];
+            long partnerRest = partnerHand & ~(SUIT_MASK << (suit * RANKS)) & ~(SUIT_MASK << (trump * RANKS));
+            if (partnerRest == 0 && PackedHand.suitCards(partnerHand, trump) != 0) {
+                q = Math.min(q, PackedHand.length(partnerHand, suit) + 1);
+            }
+            if (q > bestSide) {
+                bestSide = q;
+                bestSideWinners = runCards;
+            }
+        }
+        winners = totalWinners | bestSideWinners;
+        return total + bestSide;
+    }
+
+    private int topTrumpOwner() {
+        int top = Integer.highestOneBit(PackedHand.suitCards(hands[0] | hands[1] | hands[2] | hands[3], trump));
+        int owner = 0;
+        while ((PackedHand.suitCards(hands[owner], trump) & top) == 0) owner++;
+        return owner;
+    }
+
+    /**
+     * Tricks the side holding the top trump is sure to take: of the unbroken run of top
+     * trumps it holds, each card in the hand holding more of them wins a trick of its own.
+     * Sets {@link #winners} to the run.
+     */
+    private int sureTrumpTricks() {
+        int trumps = PackedHand.suitCards(hands[0] | hands[1] | hands[2] | hands[3], trump);
+        if (trumps == 0) return 0;
+        int owner = topTrumpOwner();
+        int side = PackedHand.suitCards(hands[owner] | hands[owner ^ 2], trump);
+        int others = trumps & ~side;
+        int run = others == 0 ? side : side & -(Integer.highestOneBit(others) << 1);
+        winners = (long) run << (trump * RANKS);
+        return Math.max(Integer.bitCount(run & PackedHand.suitCards(hands[owner], trump)),
+                Integer.bitCount(run & PackedHand.suitCards(hands[owner ^ 2], trump)));
+    }
+
+    /**
+     * At no trump, whether every suit the leader can lead is headed by a defender. Sets
+     * {@link #winners} to those top cards.
+     */
+    private boolean losesLead(int leader) {
+        long all = hands[0] | hands[1] | hands[2] | hands[3];
+        long side = hands[leader] | hands[leader ^ 2];
+        long tops = 0L;
+        for (int suit = 0; suit < SUITS; suit++) {
+            if (PackedHand.suitCards(hands[leader], suit) == 0) continue;
+            int top = Integer.highestOneBit(PackedHand.suitCards(all, suit));
+            if ((PackedHand.suitCards(side, suit) & top) != 0) return false;
+            tops |= (long) top << (suit * RANKS);
+        }
+        winners = tops;
+        return true;
+    }
+
+    /**
+     * Fills {@code moves[depth]} with one card per group of equivalent cards, best first,
+     * and {@code groups[depth]} with the cards each one stands for; returns the number of moves.
+     */
+    private int generateMoves(int depth, int seat, int played, int leadSuit, int winSeat, int winCard, long trick) {
+        long hand = hands[seat];
+        long alive = hands[0] | hands[1] | hands[2] | hands[3] | trick;
+        int[] out = moves[depth];
+        long[] outGroups = groups[depth];
+        int[] weight = weights[depth];
+        int count = 0;
+
+        boolean follow = leadSuit >= 0 && PackedHand.suitCards(hand, leadSuit) != 0;
+        for (int suit = 0; suit < SUITS; suit++) {
+            if (follow && suit != leadSuit) continue;
+            int mine = PackedHand.suitCards(hand, suit);
+            int aliveSuit = PackedHand.suitCards(alive, suit);
+            while (mine != 0) {
+                int top = 31 - Integer.numberOfLeadingZeros(mine);
+                int low = top;
+                // extend the sequence down while the next remaining card is ours too
+                while (true) {
+                    int below = aliveSuit & ((1 << low) - 1);
+                    if (below == 0) break;
+                    int next = 31 - Integer.numberOfLeadingZeros(below);
+                    if ((mine & (1 << next)) == 0) break;
+                    low = next;
+                }
+                long group = (long) (mine & ~((1 << low) - 1)) << (suit * RANKS);
+                mine &= (1 << low) - 1;
+                int card = suit * RANKS + low;
+                int w;
+                if (played == 0) {
+                    w = leadWeight(seat, suit, top, low, aliveSuit);
+                } else if (follow) {
+                    w = followWeight(seat, card, played, leadSuit, winSeat, winCard);
+                } else if (suit == trump) {
+                    w = ruffWeight(seat, card, played, leadSuit, winSeat, winCard);
+                } else {
+                    w = discardWeight(seat, suit, top, low, aliveSuit);
+                }
+                int at = count++;
+                while (at > 0 && weight[at - 1] < w) {
+                    out[at] = out[at - 1];
+                    outGroups[at] = outGroups[at - 1];
+                    weight[at] = weight[at - 1];
+                    at--;
+                }
+                out[at] = card;
+                outGroups[at] = group;
+                weight[at] = w;
+            }
+        }
+        return count;
+    }
+
+    // moves the remembered best move of a position to the front
+    private void promote(int depth, int count, int card) {
+        int[] out = moves[depth];
+        long[] outGroups = groups[depth];
+        for (int i = 0; i < count; i++) {
+            if ((outGroups[i] & (1L << card)) != 0) {
+                long group = outGroups[i];
+                int move = out[i];
+                System.arraycopy(out, 0, out, 1, i);
+                System.arraycopy(outGroups, 0, outGroups, 1, i);
+                out[0] = move;
+                outGroups[0] = group;
+                return;
+            }
+        }
+    }
+
+    private int leadWeight(int seat, int suit, int topRank, int lowRank, int aliveSuit) {
+        int lho = (seat + 1) & 3;
+        int partner = seat ^ 2;
+        int rho = (seat + 3) & 3;
+        if (trump != NO_TRUMP && suit != trump) {
+            boolean lhoRuffs = canRuff(lho, suit);
+            if (canRuff(partner, suit) && !lhoRuffs) {
+                return 75 - lowRank;
+            }
+            if (lhoRuffs || canRuff(rho, suit)) {
+                return -40 - lowRank;
+            }
+        }
+        int highest = 31 - Integer.numberOfLeadingZeros(aliveSuit);
+        int second = 31 - Integer.numberOfLeadingZeros(aliveSuit & ~(1 << highest));
+        int weight;
+        if (topRank == highest) {
+            weight = 60;
+        } else if ((PackedHand.suitCards(hands[seat], suit) & (1 << highest)) != 0) {
+            // a small card from a suit we head: ducking
+            weight = 5 - lowRank;
+        } else if ((PackedHand.suitCards(hands[partner], suit) & (1 << highest)) != 0) {
+            weight = 45 - lowRank;
+        } else if ((PackedHand.suitCards(hands[lho], suit) & (1 << highest)) != 0) {
+            // leading through the top card towards partner's second one
+            weight = (second >= 0 && (PackedHand.suitCards(hands[partner], suit) & (1 << second)) != 0 ? 25 : 0) - lowRank;
+        } else {
+            weight = -10 - lowRank;
+        }
+        if (trump == NO_TRUMP) {
+            weight += PackedHand.length(hands[seat], suit);
+        } else if (suit == trump) {
+            int ours = PackedHand.length(hands[seat] | hands[partner], suit);
+            int theirs = PackedHand.length(hands[lho] | hands[rho], suit);
+            weight += ours > theirs ? 5 : -10;
+        }
+        return weight;
+    }
+
+    private int followWeight(int seat, int card, int played, int leadSuit, int winSeat, int winCard) {
+        int rank = card % RANKS;
+        boolean partnerWinning = ((winSeat ^ seat) & 1) == 0;
+        boolean beats = beats(card, winCard);
+        if (partnerWinning) {
+            if (played == 3 || holds(winCard, seat, leadSuit, played)) return 100 - rank;
+            return (beats && holds(card, seat, leadSuit, played) ? 70 : 50) - rank;
+        }
+        if (beats) {
+            if (played == 3 || holds(card, seat, leadSuit, played)) return 90 - rank;
+            return (played == 1 ? 20 : 55) - rank;
+        }
+        return 40 - rank;
+    }
+
+    private int ruffWeight(int seat, int card, int played, int leadSuit, int winSeat, int winCard) {
+        int rank = card % RANKS;
+        boolean partnerWinning = ((winSeat ^ seat) & 1) == 0;
+        if (partnerWinning && (played == 3 || holds(winCard, seat, leadSuit, played))) return -30 - rank;
+        if (!beats(card, winCard)) return -50 - rank;
+        return (played == 3 || holds(card, seat, leadSuit, played) ? 80 : 35) - rank;
+    }
+
+    private int discardWeight(int seat, int suit, int topRank, int lowRank, int aliveSuit) {
+        int highest = 31 - Integer.numberOfLeadingZeros(aliveSuit);
+        int length = PackedHand.length(hands[seat], suit);
+        return (topRank == highest ? -20 : 10) + length - lowRank;
+    }
+
+    // whether the card stays the winner against the opponents still to play after seat
+    private boolean holds(int card, int seat, int leadSuit, int played) {
+        for (int next = 1; played + next < SEATS; next++) {
+            int other = (seat + next) & 3;
+            if (((other ^ seat) & 1) == 0) continue;
+            long hand = hands[other];
+            int follow = PackedHand.suitCards(hand, leadSuit);
+            int candidates = follow != 0 ? follow : trump == NO_TRUMP ? 0 : PackedHand.suitCards(hand, trump);
+            if (candidates == 0) continue;
+            int suit = follow != 0 ? leadSuit : trump;
+            int top = suit * RANKS + 31 - Integer.numberOfLeadingZeros(candidates);
+            if (beats(top, card)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Partition-search table of trick-start positions. Positions are described by the leader,
+     * the suit lengths of every hand and, per suit, the owners of the remaining cards in
+     * relative rank order (absolute ranks are left out). An entry keeps the owners only down
+     * to the lowest rank that decided its result, and matches every position that agrees on
+     * the lengths and on those owners. It holds bounds on the tricks North-South take and the
+     * best lead found, as a suit and relative rank.
+     * <p>
+     * Entries are filed under their lengths, the set of suits with owners pinned and the owners
+     * of those suits' top cards, so a lookup visits one bucket for each such set recorded under
+     * the position's lengths. Entries are invalidated by bumping a generation.
+     */
+    private static final class TranspositionTable {
+        private static final int WAYS = 32;
+        private static final int PATTERN_BITS = 18;
+        private static final long[] PATTERN_A = new long[16];
+        private static final long[] PATTERN_B = new long[16];
+        private static final int PLANE_BITS = 13;
+        private static final int SUIT_BITS = 2 * PLANE_BITS;
+        // pext of 7- and 6-bit halves of a suit: the bits of x at the positions set in mask, packed low
+        private static final byte[] COMPRESS_LOW = compressTable(7);
+        private static final byte[] COMPRESS_HIGH = compressTable(6);
+
+        static {
+            long plane = (1L << SUIT_BITS) - 1;
+            for (int pattern = 0; pattern < 16; pattern++) {
+                PATTERN_A[pattern] = ((pattern & 1) != 0 ? plane : 0L) | ((pattern & 2) != 0 ? plane << SUIT_BITS : 0L);
+                PATTERN_B[pattern] = ((pattern & 4) != 0 ? plane : 0L) | ((pattern & 8) != 0 ? plane << SUIT_BITS : 0L);
+            }
+        }
+
+        private final long[] lengthKeys;
+        // per slot: owners and masks of the first two suits, then of the last two
+        private final long[] owners;
+        private final int[] generations;
+        private final byte[] lower;
+        private final byte[] upper;
+        private final byte[] best;
+        private final int[] used;
+        private final int mask;
+        // per suit lengths, the set of patterns (which suits have owners pinned) stored under them
+        private final long[] patternKeys = new long[1 << PATTERN_BITS];
+        private final int[] patternSets = new int[1 << PATTERN_BITS];
+        private final int[] patternGenerations = new int[1 << PATTERN_BITS];
+        private int current = 1;
+        private int clock;
+
+        TranspositionTable(int bits) {
+            int size = 1 << bits;
+            lengthKeys = new long[size];
+            owners = new long[4 * size];
+            generations = new int[size];
+            lower = new byte[size];
+            upper = new byte[size];
+            best = new byte[size];
+            used = new int[size];
+            mask = size - 1;
+        }
+
+        void clear() {
+            if (++current == Integer.MAX_VALUE) {
+                Arrays.fill(generations, 0);
+                Arrays.fill(patternGenerations, 0);
+                current = 1;
+            }
+        }
+
+        // leader and suit lengths; West's club length follows from the others and is left out
+        static long lengthKey(long[] hands, int leader) {
+            long key = leader;
+            for (int seat = 0; seat < SEATS; seat++) {
+                long hand = hands[seat];
+                for (int suit = 0; suit < SUITS; suit++) {
+                    if (seat == SEATS - 1 && suit == SUITS - 1) break;
+                    key = key << 4 | PackedHand.length(hand, suit);
+                }
+            }
+            return key;
+        }
+
+        /**
+         * Owners of the remaining cards of two suits, 26 bits per suit: one bit plane for
+         * "East or West" and one for "South or West", each with bit i for the i-th lowest card.
+         */
+        static long owners(long[] hands, int first, int second) {
+            return suitOwners(hands, first) | suitOwners(hands, second) << SUIT_BITS;
+        }
+
+        private static long suitOwners(long[] hands, int suit) {
+            int east = PackedHand.suitCards(hands[1], suit);
+            int south = PackedHand.suitCards(hands[2], suit);
+            int west = PackedHand.suitCards(hands[3], suit);
+            int alive = PackedHand.suitCards(hands[0], suit) | east | south | west;
+            return compress(east | west, alive) | (long) compress(south | west, alive) << PLANE_BITS;
+        }
+
+        private static int compress(int bits, int alive) {
+            int lowMask = alive & 0x7F;
+            return (COMPRESS_LOW[lowMask << 7 | (bits & 0x7F)] & 0xFF)
+                    | (COMPRESS_HIGH[(alive >>> 7) << 6 | (bits >>> 7)] & 0xFF) << Integer.bitCount(lowMask);
+        }
+
+        private static byte[] compressTable(int width) {
+            byte[] table = new byte[1 << (2 * width)];
+            for (int m = 0; m < 1 << width; m++) {
+                for (int x = 0; x < 1 << width; x++) {
+                    int packed = 0;
+                    int out = 0;
+                    for (int b = 0; b < width; b++) {
+                        if ((m & (1 << b)) == 0) continue;
+                        if ((x & (1 << b)) != 0) packed |= 1 << out;
+                        out++;
+                    }
+                    table[m << width | x] = (byte) packed;
+                }
+            }
+            return table;
+        }
+
+        /**
+         * Entry matching the position, preferring one whose bounds settle whether North-South
+         * take {@code need} tricks; -1 if none matches.
+         */
+        int find(long lengthKey, long positionA, long positionB, long all, int need) {
+            int at = patternIndex(lengthKey);
+            if (patternGenerations[at] != current || patternKeys[at] != lengthKey) return -1;
+            long topsA = tops(all, 0) | tops(all, 1) << SUIT_BITS;
+            long topsB = tops(all, 2) | tops(all, 3) << SUIT_BITS;
+            int found = -1;
+            for (int patterns = patternSets[at]; patterns != 0; patterns &= patterns - 1) {
+                int pattern = Integer.numberOfTrailingZeros(patterns);
+                int bucket = index(lengthKey, pattern, positionA & topsA & PATTERN_A[pattern],
+                        positionB & topsB & PATTERN_B[pattern]);
+                for (int i = 0; i < WAYS; i++) {
+                    int slot = bucket + i;
+                    int at4 = slot << 2;
+                    if (lengthKeys[slot] != lengthKey || generations[slot] != current
+                            || ((positionA ^ owners[at4]) & owners[at4 + 1]) != 0
+                            || ((positionB ^ owners[at4 + 2]) & owners[at4 + 3]) != 0) {
+                        continue;
+                    }
+                    used[slot] = ++clock;
+                    if (lower[slot] >= need || upper[slot] < need) return slot;
+                    found = slot;
+                }
+            }
+            return found;
+        }
+
+        int lower(int entry) {
+            return lower[entry];
+        }
+
+        int upper(int entry) {
+            return upper[entry];
+        }
+
+        /** The cards of {@code hands} whose owners the entry pins down. */
+        long deciding(int entry, long[] hands) {
+            long all = hands[0] | hands[1] | hands[2] | hands[3];
+            long result = 0L;
+            for (int suit = 0; suit < SUITS; suit++) {
+                long masks = owners[entry << 2 | (suit < 2 ? 1 : 3)];
+                int pinned = Integer.bitCount((int) (masks >>> ((suit & 1) * SUIT_BITS)) & 0x1FFF);
+                int cards = PackedHand.suitCards(all, suit);
+                for (int i = 0; i < pinned; i++) {
+                    int top = Integer.highestOneBit(cards);
+                    cards &= ~top;
+                    result |= (long) top << (suit * RANKS);
+                }
+            }
+            return result;
+        }
+
+        /** Best lead as the move {@code seat} would generate for it, or -1. */
+        int bestMove(int entry, long[] hands, int seat) {
+            int code = best[entry];
+            if (code < 0) return -1;
+            int suit = code >>> 4;
+            int cards = PackedHand.suitCards(hands[0] | hands[1] | hands[2] | hands[3], suit);
+            for (int i = 0; i < (code & 0xF); i++) {
+                cards &= ~Integer.highestOneBit(cards);
+            }
+            if (cards == 0) return -1;
+            int card = suit * RANKS + 31 - Integer.numberOfLeadingZeros(cards);
+            return (hands[seat] & (1L << card)) != 0 ? card : -1;
+        }
+
+        /**
+         * Records that North-South take between {@code lo} and {@code hi} tricks from every
+         * position sharing the lengths and the owners of the cards down to the lowest of
+         * {@code deciding} in each suit.
+         */
+        void store(long lengthKey, long positionA, long positionB, long[] hands, long deciding,
+                   int lo, int hi, int move) {
+            long all = hands[0] | hands[1] | hands[2] | hands[3];
+            long maskA = pinned(all, deciding, 0) | pinned(all, deciding, 1) << SUIT_BITS;
+            long maskB = pinned(all, deciding, 2) | pinned(all, deciding, 3) << SUIT_BITS;
+            positionA &= maskA;
+            positionB &= maskB;
+            int pattern = (maskA & 0x1FFF) != 0 ? 1 : 0;
+            pattern |= (maskA >>> SUIT_BITS) != 0 ? 2 : 0;
+            pattern |= (maskB & 0x1FFF) != 0 ? 4 : 0;
+            pattern |= (maskB >>> SUIT_BITS) != 0 ? 8 : 0;
+            int at = patternIndex(lengthKey);
+            if (patternGenerations[at] != current || patternKeys[at] != lengthKey) {
+                // the slot's previous lengths lose their way to their entries, which is only a miss
+                patternKeys[at] = lengthKey;
+                patternSets[at] = 0;
+                patternGenerations[at] = current;
+            }
+            patternSets[at] |= 1 << pattern;
+            long topsA = tops(all, 0) | tops(all, 1) << SUIT_BITS;
+            long topsB = tops(all, 2) | tops(all, 3) << SUIT_BITS;
+
+            int bucket = index(lengthKey, pattern, positionA & topsA, positionB & topsB);
+            int victim = bucket;
+            for (int i = 0; i < WAYS; i++) {
+                int slot = bucket + i;
+                if (generations[slot] != current) {
+                    if (generations[victim] == current) victim = slot;
+                    continue;
+                }
+                int at4 = slot << 2;
+                if (lengthKeys[slot] == lengthKey && owners[at4 + 1] == maskA && owners[at4 + 3] == maskB
+                        && owners[at4] == positionA && owners[at4 + 2] == positionB) {
+                    lower[slot] = (byte) Math.max(lower[slot], lo);
+                    upper[slot] = (byte) Math.min(upper[slot], hi);
+                    if (move >= 0) best[slot] = encode(move, all);
+                    used[slot] = ++clock;
+                    return;
+                }
+                // buckets only hold positions with the same number of cards: evict the least recently used
+                if (generations[victim] == current && used[slot] - used[victim] < 0) victim = slot;
+            }
+            lengthKeys[victim] = lengthKey;
+            owners[victim << 2] = positionA;
+            owners[victim << 2 | 1] = maskA;
+            owners[victim << 2 | 2] = positionB;
+            owners[victim << 2 | 3] = maskB;
+            generations[victim] = current;
+            lower[victim] = (byte) lo;
+            upper[victim] = (byte) hi;
+            best[victim] = encode(move, all);
+            used[victim] = ++clock;
+        }
+
+        // both owner planes of a suit, for its cards from the top down to the lowest deciding one
+        private static long pinned(long all, long deciding, int suit) {
+            int cards = PackedHand.suitCards(all, suit);
+            int decidingCards = PackedHand.suitCards(deciding, suit) & cards;
+            if (decidingCards == 0) return 0L;
+            int lowest = Integer.numberOfTrailingZeros(decidingCards);
+            int count = Integer.bitCount(cards);
+            int kept = Integer.bitCount(cards >>> lowest);
+            long plane = ((1L << kept) - 1) << (count - kept);
+            return plane | plane << PLANE_BITS;
+        }
+
+        private static byte encode(int card, long all) {
+            if (card < 0) return -1;
+            int suit = card / RANKS;
+            int order = Integer.bitCount(PackedHand.suitCards(all, suit) >>> (card % RANKS + 1));
+            return (byte) (suit << 4 | order);
+        }
+
+        // both owner planes of the top card of a suit
+        private static long tops(long all, int suit) {
+            int count = PackedHand.length(all, suit);
+            if (count == 0) return 0L;
+            long plane = 1L << (count - 1);
+            return plane | plane << PLANE_BITS;
+        }
+
+        private int index(long lengthKey, int pattern, long topOwnersA, long topOwnersB) {
+            return (int) mix(mix(lengthKey + pattern) ^ topOwnersA ^ topOwnersB * 31) & mask & -WAYS;
+        }
+
+        private int patternIndex(long lengthKey) {
+            return (int) mix(lengthKey) & (patternKeys.length - 1);
+        }
+
+        private static long mix(long h) {
+            h = (h ^ h >>> 33) * 0xFF51AFD7ED558CCDL;
+            h = (h ^ h >>> 33) * 0xC4CEB9FE1A85EC53L;
+            return h ^ h >>> 33;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * Renders explanations for a {@link SuggestedCall} from the template bundles
+ * {@code explanations/explanations*.properties}.
+ * <p>
+ * Templates use {@code {name}} placeholders (listed in the English bundle). Every language in
+ * {@code bidding.explanations.languages} is compiled once at startup into literal pieces and
+ * parameter slots, so rendering is a run of appends into one {@link StringBuilder} with no
+ * format parsing. Unknown placeholders fail the startup rather than a request. Languages
+ * without a bundle, and keys a bundle leaves out, fall back to English.
+ */
+@Service
+public class ExplanationTemplates {
+
+    private static final Logger log = LoggerFactory.getLogger(ExplanationTemplates.class);
+
+    static final String BUNDLE = "explanations/explanations";
+
+    /** How a proposed bid compares to the suggestion. */
+    enum Verdict { MATCH, ILLEGAL, DIFFERS }
+
+    enum Param { CALL, FIRST, SECOND, HCP, DIST, CONVENTION, REASON, VERDICT, PROPOSED }
+
+    // Reason template suffixes, indexed by AuctionRules role
+    private static final String[] REASONS = {"open", "respond", "rebid", "compete", "advance", "pass-out"};
+
+    // Placeholders each kind of template may use; nested templates cannot nest further
+    private static final Set<Param> SUGGEST = EnumSet.complementOf(EnumSet.of(Param.VERDICT, Param.PROPOSED));
+    private static final Set<Param> CHECK = EnumSet.complementOf(EnumSet.of(Param.PROPOSED));
+    private static final Set<Param> REASON = EnumSet.of(Param.CALL, Param.FIRST, Param.SECOND, Param.HCP,
+            Param.DIST, Param.CONVENTION);
+    private static final Set<Param> VERDICT = EnumSet.complementOf(EnumSet.of(Param.REASON, Param.VERDICT));
+
+    private final Language english;
+    // By ISO language code
+    private final Map<String, Language> languages;
+
+    public ExplanationTemplates() {
+        this("en");
+    }
+
+    @Autowired
+    public ExplanationTemplates(@Value("${bidding.explanations.languages:en,pl}") String languages) {
+        Map<String, Language> loaded = new HashMap<>();
+        for (String tag : languages.split(",")) {
+            String language = Locale.forLanguageTag(tag.trim()).getLanguage();
+            if (!language.isEmpty() && !loaded.containsKey(language)) {
+                loaded.put(language, Language.load(Locale.forLanguageTag(language)));
+            }
+        }
+        this.english = loaded.computeIfAbsent("en", language -> Language.load(Locale.ENGLISH));
+        this.languages = Map.copyOf(loaded);
+        log.info("Explanation templates loaded for {}", this.languages.keySet());
+    }
+
+    /** Why {@code suggestion} was made, in {@code locale}'s language (English for null). */
+    String suggestion(SuggestedCall suggestion, Locale locale) {
+        Language language = language(locale);
+        StringBuilder out = new StringBuilder(96);
+        render(language, language.suggest, suggestion, null, null, out);
+        return out.toString();
+    }
+
+    /** The {@code verdict} on {@code proposedBid}, as the client sent it, followed by the hand facts. */
+    String check(SuggestedCall suggestion, Verdict verdict, String proposedBid, Locale locale) {
+        Language language = language(locale);
+        StringBuilder out = new StringBuilder(112);
+        render(language, language.check, suggestion, verdict, proposedBid, out);
+        return out.toString();
+    }
+
+    private Language language(Locale locale) {
+        if (locale == null) return english;
+        Language language = languages.get(locale.getLanguage());
+        return language != null ? language : english;
+    }
+
+    private static void render(Language language, Template template, SuggestedCall suggestion,
+                               Verdict verdict, String proposedBid, StringBuilder out) {
+        Param[] params = template.params;
+        for (int i = 0; i < params.length; i++) {
+            out.append(template.literals[i]);
+            switch (params[i]) {
+                case CALL -> out.append(suggestion.call());
+                case FIRST -> out.append(PackedAuction.symbol(AuctionRules.first(suggestion.context())));
+                case SECOND -> out.append(PackedAuction.symbol(AuctionRules.second(suggestion.context())));
+                case HCP -> out.append(suggestion.hcp());
+                case DIST -> appendDistribution(suggestion.shape(), out);
+                case CONVENTION -> out.append(suggestion.convention());
+                case REASON -> render(language, language.reasons[AuctionRules.role(suggestion.context())],
+                        suggestion, verdict, proposedBid, out);
+                case VERDICT -> render(language, language.verdicts[verdict.ordinal()],
+                        suggestion, verdict, proposedBid, out);
+                case PROPOSED -> out.append(proposedBid);
+            }
+        }
+        out.append(template.literals[params.length]);
+    }
+
+    private static void appendDistribution(int shape, StringBuilder out) {
+        for (int suit = PackedHand.SPADES; suit <= PackedHand.CLUBS; suit++) {
+            if (suit != PackedHand.SPADES) out.append('-');
+            out.append(PackedHand.suitLength(shape, suit));
+        }
+    }
+
+    /**
+     * Splits {@code text} at its placeholders; {@code literals} has one more entry than
+     * {@code params}. Placeholders outside {@code allowed} are rejected.
+     */
+    static Template compile(String key, String text, Set<Param> allowed) {
+        List<String> literals = new ArrayList<>();
+        List<Param> params = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = text.indexOf('{', from)) >= 0) {
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed placeholder in explanation template '" + key + "'");
+            }
+            String name = text.substring(open + 1, close);
+            Param param = param(name);
+            if (param == null || !allowed.contains(param)) {
+                throw new IllegalStateException("Explanation template '" + key + "' cannot use {" + name + "}");
+            }
+            literals.add(text.substring(from, open));
+            params.add(param);
+            from = close + 1;
+        }
+        literals.add(text.substring(from));
+        return new Template(literals.toArray(String[]::new), params.toArray(Param[]::new));
+    }
+
+    private static Param param(String name) {
+        for (Param param : Param.values()) {
+            if (param.name().equalsIgnoreCase(name)) return param;
+        }
+        return null;
+    }
+
+    record Template(String[] literals, Param[] params) {
+    }
+
+    /** The compiled templates of one language. */
+    private record Language(Template suggest, Template check, Template[] reasons, Template[] verdicts) {
+
+        static Language load(Locale locale) {
+            // No fallback to the default locale: a missing bundle means English, whatever the JVM runs in
+            ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE, locale,
+                    ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+            if (!bundle.getLocale().getLanguage().equals(locale.getLanguage()) && !locale.getLanguage().equals("en")) {
+                log.warn("No explanation templates for '{}'; English is used", locale.getLanguage());
+            }
+            Template[] reasons = new Template[REASONS.length];
+            for (int role = 0; role < REASONS.length; role++) {
+                reasons[role] = template(bundle, "reason." + REASONS[role], REASON);
+            }
+            Template[] verdicts = new Template[Verdict.values().length];
+            for (Verdict verdict : Verdict.values()) {
+                verdicts[verdict.ordinal()] = template(bundle, "verdict." + verdict.name().toLowerCase(Locale.ROOT), VERDICT);
+            }
+            return new Language(template(bundle, "suggest", SUGGEST), template(bundle, "check", CHECK), reasons, verdicts);
+        }
+
+        private static Template template(ResourceBundle bundle, String key, Set<Param> allowed) {
+            try {
+                return compile(key, bundle.getString(key), allowed);
+            } catch (MissingResourceException e) {
+                throw new IllegalStateException("Missing explanation template '" + key + "'", e);
+            }
+        }
+    }
+}
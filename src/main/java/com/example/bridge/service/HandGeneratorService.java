@@ -2,85 +2,241 @@ package com.example.bridge.service;
 
 import com.example.bridge.model.Card;
 import com.example.bridge.model.Deal;
+import com.example.bridge.model.DealIndex;
 import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedHand;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.regex.Pattern;
 
 @Service
 public class HandGeneratorService {
-    
+
+    private static final int DECK_SIZE = 52;
+    private static final int HAND_CHARS = 16; // 13 cards + 3 suit separators
+    private static final HandPosition[] POSITIONS = HandPosition.values();
+    private static final Pattern SET_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Card instances indexed by PackedHand bit (suit * 13 + rank)
+    private static final Card[] CARDS = new Card[DECK_SIZE];
+
+    static {
+        for (Card.Suit suit : Card.Suit.values()) {
+            for (Card.Rank rank : Card.Rank.values()) {
+                CARDS[suit.ordinal() * PackedHand.RANKS + rank.ordinal()] = new Card(rank, suit);
+            }
+        }
+    }
+
+    // Per-thread deck, RNG and scratch buffers so dealing never contends or allocates
+    private final ThreadLocal<Dealer> dealers;
+    private final Timer generateTimer;
+
+    public HandGeneratorService() {
+        this(splittableRandoms(), Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public HandGeneratorService(MeterRegistry meterRegistry) {
+        this(splittableRandoms(), meterRegistry);
+    }
+
+    public HandGeneratorService(Supplier<? extends RandomGenerator> randoms) {
+        this(randoms, Metrics.globalRegistry);
+    }
+
+    /**
+     * @param randoms creates the random generator used by each dealing thread; it is called
+     *                once per thread and the generator is never shared between threads
+     */
+    public HandGeneratorService(Supplier<? extends RandomGenerator> randoms, MeterRegistry meterRegistry) {
+        this.dealers = ThreadLocal.withInitial(() -> new Dealer(randoms.get()));
+        this.generateTimer = Timer.builder("bridge.deals.generate")
+                .description("Generation and rendering of one random deal")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     public List<Card> generateRandomHand() {
-        List<Card> deck = createDeck();
-        Collections.shuffle(deck);
-        return deck.stream().limit(13).collect(Collectors.toList());
+        Dealer dealer = dealers.get();
+        dealer.shuffle();
+        List<Card> hand = new ArrayList<>(13);
+        for (int i = 0; i < 13; i++) {
+            hand.add(CARDS[dealer.deck[i]]);
+        }
+        return hand;
     }
-    
+
     public Deal generateDeal() {
-        List<Card> deck = createDeck();
-        Collections.shuffle(deck);
-        
-        Map<HandPosition, List<Card>> hands = new EnumMap<>(HandPosition.class);
-        HandPosition[] positions = HandPosition.values();
-        
-        // Initialize empty hands
-        for (HandPosition position : positions) {
-            hands.put(position, new ArrayList<>());
+        long startNanos = System.nanoTime();
+        Dealer dealer = dealers.get();
+        long[] hands = dealer.hands;
+        dealInto(dealer, hands);
+
+        HandPosition dealerSeat = POSITIONS[dealer.random.nextInt(POSITIONS.length)];
+        Deal deal = render(dealer, hands, dealerSeat);
+        generateTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return deal;
+    }
+
+    /**
+     * Deal {@code number} (1-based) of the seeded set {@code setId}. The same set and number
+     * always give the same deal, on any server and without storing anything, so clients can
+     * share or replay a set by its name alone. The dealer rotates N, E, S, W by board number.
+     */
+    public Deal dealFromSet(String setId, long number) {
+        BigInteger index;
+        try {
+            index = setDealIndex(setId, number);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Dealer dealer = dealers.get();
+        DealIndex.unrank(index, dealer.hands);
+        return render(dealer, dealer.hands, POSITIONS[(int) ((number - 1) % POSITIONS.length)]);
+    }
+
+    /**
+     * The {@link DealIndex} of deal {@code number} in set {@code setId}: two SplitMix64 outputs
+     * keyed by a 64-bit FNV-1a hash of the set id and the deal number, reduced modulo the
+     * number of deals. Deals of a set are independent, so any one is computed directly.
+     */
+    static BigInteger setDealIndex(String setId, long number) {
+        if (setId == null || !SET_ID.matcher(setId).matches()) {
+            throw new IllegalArgumentException("Set id must be 1-64 letters, digits, '.', '_' or '-'");
+        }
+        if (number < 1) {
+            throw new IllegalArgumentException("Deal number must be at least 1");
         }
-        
-        // Deal cards to each position in order
-        for (int i = 0; i < deck.size(); i++) {
-            HandPosition position = positions[i % 4];
-            hands.get(position).add(deck.get(i));
+        long seed = 0xCBF29CE484222325L;
+        for (byte b : setId.getBytes(StandardCharsets.US_ASCII)) {
+            seed = (seed ^ (b & 0xFF)) * 0x100000001B3L;
         }
-        
-        // Sort each hand by suit and rank
+        long base = seed + 2 * number * GOLDEN_GAMMA;
+        BigInteger hi = BigInteger.valueOf(mix64(base + GOLDEN_GAMMA) >>> 1);
+        BigInteger lo = BigInteger.valueOf(mix64(base + 2 * GOLDEN_GAMMA) >>> 1);
+        // 126 random bits; the modulo bias over a 96-bit range is below 2^-29
+        return hi.shiftLeft(63).or(lo).mod(DealIndex.COUNT);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Render all four hands into one buffer, sorted by suit and rank for free by the bit order
+    private static Deal render(Dealer dealer, long[] hands, HandPosition dealerSeat) {
+        char[] text = dealer.text;
         Map<HandPosition, String> formattedHands = new EnumMap<>(HandPosition.class);
-        for (Map.Entry<HandPosition, List<Card>> entry : hands.entrySet()) {
-            formattedHands.put(entry.getKey(), formatHand(entry.getValue()));
+        for (HandPosition position : POSITIONS) {
+            int start = position.ordinal() * HAND_CHARS;
+            int end = PackedHand.formatInto(hands[position.ordinal()], text, start);
+            formattedHands.put(position, new String(text, start, end - start));
         }
-        
-        // Select random dealer
-        HandPosition dealer = HandPosition.values()[
-            new Random().nextInt(HandPosition.values().length)];
-        
-        return new Deal(dealer, formattedHands);
-    }
-    
-    private String formatHand(List<Card> cards) {
-        // Group cards by suit
-        Map<Card.Suit, String> suits = new EnumMap<>(Card.Suit.class);
-        for (Card.Suit suit : Card.Suit.values()) {
-            suits.put(suit, "");
+        return new Deal(dealerSeat, formattedHands);
+    }
+
+    /**
+     * Deals a random layout into {@code hands} as four {@link PackedHand} masks indexed by
+     * {@link HandPosition} ordinal. Does not allocate, which makes it the entry point for
+     * simulation workloads that only need the cards.
+     */
+    public void dealInto(long[] hands) {
+        dealInto(dealers.get(), hands);
+    }
+
+    /**
+     * Like {@link #dealInto(long[])}, but with {@code fixedHand} held at {@code seat}: the cards
+     * missing from it are dealt at random to the other three seats. Used to sample layouts
+     * consistent with a known hand.
+     */
+    public void dealAround(long fixedHand, HandPosition seat, long[] hands) {
+        if (PackedHand.cardCount(fixedHand) != 13) {
+            throw new IllegalArgumentException("The fixed hand must hold 13 cards");
+        }
+        Dealer dealer = dealers.get();
+        dealer.shuffle();
+        byte[] deck = dealer.deck;
+        int fixed = seat.ordinal();
+        Arrays.fill(hands, 0L);
+        hands[fixed] = fixedHand;
+        int target = 1;
+        for (int i = 0; i < DECK_SIZE; i++) {
+            long card = 1L << deck[i];
+            if ((fixedHand & card) != 0) continue;
+            hands[(fixed + target) & 3] |= card;
+            target = target == 3 ? 1 : target + 1;
+        }
+    }
+
+    private void dealInto(Dealer dealer, long[] hands) {
+        dealer.shuffle();
+        byte[] deck = dealer.deck;
+        long n = 0, e = 0, s = 0, w = 0;
+        for (int i = 0; i < DECK_SIZE; i += 4) {
+            n |= 1L << deck[i];
+            e |= 1L << deck[i + 1];
+            s |= 1L << deck[i + 2];
+            w |= 1L << deck[i + 3];
         }
-        
-        // Sort cards by rank (Ace high)
-        cards.sort(Comparator
-            .comparing(Card::getSuit)
-            .thenComparing(c -> -c.getRank().ordinal()));
-        
-        // Build string for each suit
+        hands[HandPosition.NORTH.ordinal()] = n;
+        hands[HandPosition.EAST.ordinal()] = e;
+        hands[HandPosition.SOUTH.ordinal()] = s;
+        hands[HandPosition.WEST.ordinal()] = w;
+    }
+
+    String formatHand(List<Card> cards) {
+        long hand = 0L;
         for (Card card : cards) {
-            suits.merge(card.getSuit(), card.getRank().getSymbol(), String::concat);
+            hand |= PackedHand.bit(card.getSuit().ordinal(), card.getRank().ordinal());
         }
-        
-        // Join suits with dots in S, H, D, C order
-        return String.join(".", 
-            suits.get(Card.Suit.SPADES),
-            suits.get(Card.Suit.HEARTS),
-            suits.get(Card.Suit.DIAMONDS),
-            suits.get(Card.Suit.CLUBS)
-        );
-    }
-    
-    private List<Card> createDeck() {
-        List<Card> deck = new ArrayList<>();
-        for (Card.Suit suit : Card.Suit.values()) {
-            for (Card.Rank rank : Card.Rank.values()) {
-                deck.add(new Card(rank, suit));
+        return PackedHand.format(hand);
+    }
+
+    private static Supplier<RandomGenerator> splittableRandoms() {
+        SplittableRandom root = new SplittableRandom();
+        return () -> {
+            synchronized (root) {
+                return root.split();
+            }
+        };
+    }
+
+    private static final class Dealer {
+        final RandomGenerator random;
+        final byte[] deck = new byte[DECK_SIZE];
+        final long[] hands = new long[POSITIONS.length];
+        final char[] text = new char[POSITIONS.length * HAND_CHARS];
+
+        Dealer(RandomGenerator random) {
+            this.random = random;
+            for (int i = 0; i < DECK_SIZE; i++) {
+                deck[i] = (byte) i;
+            }
+        }
+
+        // Fisher-Yates; the deck is never reset because shuffling any permutation is uniform
+        void shuffle() {
+            for (int i = DECK_SIZE - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                byte tmp = deck[i];
+                deck[i] = deck[j];
+                deck[j] = tmp;
             }
         }
-        return deck;
     }
 }
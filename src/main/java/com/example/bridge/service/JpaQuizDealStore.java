@@ -0,0 +1,70 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.DealCursor;
+import com.example.bridge.dto.QuizDealSummary;
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.repository.QuizDealRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The quiz_deal table through {@link QuizDealRepository}. New deals go through the
+ * write-behind {@link QuizDealWriter} when there is one, and are saved directly otherwise.
+ */
+@Service
+@ConditionalOnProperty(name = "quiz.persistence.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaQuizDealStore implements QuizDealStore {
+
+    private final QuizDealRepository repository;
+    private final QuizDealWriter writer;
+
+    public JpaQuizDealStore(QuizDealRepository repository, QuizDealWriter writer) {
+        this.repository = repository;
+        this.writer = writer;
+    }
+
+    @Override
+    public QuizDeal save(QuizDeal deal) {
+        if (writer == null) {
+            return repository.save(deal);
+        }
+        writer.submit(deal);
+        return deal;
+    }
+
+    @Override
+    public void onWritten(Consumer<List<QuizDeal>> listener) {
+        if (writer != null) {
+            writer.onFlushed(listener);
+        }
+    }
+
+    @Override
+    public List<QuizDeal> findRecent(int limit) {
+        return repository.findAll(PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"))).getContent();
+    }
+
+    @Override
+    public List<QuizDealSummary> findRecentSummaries(int limit, DealCursor before, boolean includeAuction) {
+        Pageable page = PageRequest.of(0, limit);
+        if (before == null) {
+            return includeAuction
+                    ? repository.findRecentSummariesWithAuction(page)
+                    : repository.findRecentSummaries(page);
+        }
+        return includeAuction
+                ? repository.findRecentSummariesWithAuctionBefore(before.createdAt(), before.id(), page)
+                : repository.findRecentSummariesBefore(before.createdAt(), before.id(), page);
+    }
+
+    @Override
+    public List<QuizDeal> findAfter(long afterId, int limit) {
+        return repository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+    }
+}
@@ -0,0 +1,663 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.DealCursor;
+import com.example.bridge.dto.QuizDealSummary;
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedDeal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Quiz deals in an append-only log of fixed-size records, for generation rates the JPA store
+ * cannot keep up with.
+ * <p>
+ * The log is a directory of segment files named after their first id. Each segment is
+ * memory-mapped, and records are written into the mapping; readers decode fields straight
+ * from it, so listing and export read sequentially with no system calls or intermediate
+ * buffers. CSV rows are formatted from the mapping too, without an entity per row. Ids are
+ * assigned on append and are consecutive. The creation time is clamped to be
+ * non-decreasing, so record order is also (createdAt, id) order. Segments are located by
+ * their first id, and keyset positions by a sparse in-memory index holding the creation time
+ * of every {@value #INDEX_STRIDE}th record.
+ * <p>
+ * Durability is group commit: a sync thread forces newly written records to disk every
+ * {@code quiz.persistence.log.sync-interval-ms}, one fsync for all records appended since the
+ * last one. With {@code quiz.persistence.log.sync-on-save=true} a save waits for the sync
+ * that covers its record. Every record carries a CRC32. On startup, the last segment is
+ * scanned up to the first record that fails its check, so a record torn by a crash is
+ * discarded along with everything after it.
+ * <p>
+ * Records hold every legal auction, up to {@link PackedAuction#MAX_CALLS} calls, so the log
+ * stores whatever the JPA store does. Segments of the earlier 256-byte format ({@code .log}
+ * files) are not read: opening a directory that holds them fails rather than misreading them.
+ * <p>
+ * Saves block only on {@code java.util.concurrent} locks, never on monitors, so with virtual
+ * threads enabled a save waiting for its sync parks the virtual thread instead of pinning
+ * its carrier.
+ */
+@Service
+@ConditionalOnProperty(name = "quiz.persistence.store", havingValue = "log")
+public class LogQuizDealStore implements QuizDealStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LogQuizDealStore.class);
+
+    static final int RECORD_BYTES = 512;
+    static final int MAX_CONVENTION_BYTES = 64;
+    static final int MAX_AUCTION_CALLS = PackedAuction.MAX_CALLS;
+    static final int INDEX_STRIDE = 1024;
+
+    // record layout
+    private static final int ID = 0;                    // long
+    private static final int SECONDS = 8;               // long, createdAt epoch seconds
+    private static final int NANOS = 16;                // int
+    private static final int DEALER = 20;               // byte, HandPosition ordinal
+    private static final int DEAL = 21;                 // PackedDeal.BYTES
+    private static final int CONVENTION_LENGTH = 34;    // byte, -1 for null
+    private static final int CONVENTION = 35;           // MAX_CONVENTION_BYTES of UTF-8
+    private static final int AUCTION_LENGTH = 99;       // short, -1 for null
+    private static final int AUCTION = 101;             // MAX_AUCTION_CALLS call codes
+    private static final int CRC = 420;                 // int, CRC32 of the bytes before it; zero padding follows
+
+    private static final String PREFIX = "deals-";
+    private static final String SUFFIX = ".seg";
+    // segments of the earlier 256-byte record format, which could not hold the longest auctions
+    private static final String LEGACY_SUFFIX = ".log";
+    private static final HandPosition[] POSITIONS = HandPosition.values();
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final long syncIntervalMillis;
+    private final boolean syncOnSave;
+    private final Timer syncTimer;
+
+    // appends are serialized; readers only use segments and their volatile counts
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32 crc = new CRC32();
+    private volatile Segment[] segments;
+    private volatile long lastId;
+    private long lastSeconds;
+    private int lastNanos;
+
+    // group commit
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // signalled when records are synced, and when a save starts waiting for a sync
+    private final Condition syncProgress = syncLock.newCondition();
+    private long syncedId;
+    private int waiters;
+    private volatile boolean running;
+    private Thread syncer;
+
+    public LogQuizDealStore(Path directory) {
+        this(directory, 256 * 1024, 50, false, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public LogQuizDealStore(
+            @Value("${quiz.persistence.log.dir:./data/deal-log}") String directory,
+            @Value("${quiz.persistence.log.segment-records:262144}") int segmentRecords,
+            @Value("${quiz.persistence.log.sync-interval-ms:50}") long syncIntervalMillis,
+            @Value("${quiz.persistence.log.sync-on-save:false}") boolean syncOnSave,
+            MeterRegistry meterRegistry) {
+        this(Path.of(directory), segmentRecords, syncIntervalMillis, syncOnSave, meterRegistry);
+    }
+
+    LogQuizDealStore(Path directory, int segmentRecords, long syncIntervalMillis, boolean syncOnSave,
+                     MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentRecords = Math.max(1, segmentRecords);
+        this.syncIntervalMillis = Math.max(1, syncIntervalMillis);
+        this.syncOnSave = syncOnSave;
+        this.syncTimer = Timer.builder("quiz.deals.log.sync")
+                .description("Latency of one group-commit fsync of the quiz deal log")
+                .register(meterRegistry);
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the quiz deal log in " + directory, e);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        syncer = new Thread(this::syncLoop, "quiz-deal-log-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    /** Syncs everything written so far and closes the segment files. */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        if (syncer != null) {
+            syncLock.lock();
+            try {
+                syncProgress.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+            syncer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        appendLock.lock();
+        try {
+            sync();
+            for (Segment segment : segments) {
+                try {
+                    segment.channel.close();
+                } catch (IOException e) {
+                    log.warn("Closing deal log segment {} failed", segment.firstId, e);
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // --- writing ---
+
+    @Override
+    public QuizDeal save(QuizDeal deal) {
+        byte[] dealBits = deal.getDealBits();
+        if (deal.getDealer() == null || dealBits == null || dealBits.length != PackedDeal.BYTES) {
+            throw new IllegalArgumentException("A stored deal needs a dealer and all four hands");
+        }
+        byte[] convention = deal.getConvention() == null ? null : deal.getConvention().getBytes(StandardCharsets.UTF_8);
+        if (convention != null && convention.length > MAX_CONVENTION_BYTES) {
+            throw new IllegalArgumentException("Convention names are limited to " + MAX_CONVENTION_BYTES + " bytes");
+        }
+        byte[] auction = deal.getAuctionCalls();
+        if (auction != null && auction.length > MAX_AUCTION_CALLS) {
+            throw new IllegalArgumentException("Stored auctions are limited to " + MAX_AUCTION_CALLS + " calls");
+        }
+
+        long id;
+        appendLock.lock();
+        try {
+            Segment segment = segments[segments.length - 1];
+            if (segment.count == segment.capacity) {
+                segment = roll(segment);
+            }
+            id = lastId + 1;
+            Instant createdAt = deal.getCreatedAt() == null ? Instant.now() : deal.getCreatedAt();
+            if (createdAt.getEpochSecond() < lastSeconds
+                    || (createdAt.getEpochSecond() == lastSeconds && createdAt.getNano() < lastNanos)) {
+                createdAt = Instant.ofEpochSecond(lastSeconds, lastNanos);
+            }
+
+            ByteBuffer record = scratch.clear();
+            Arrays.fill(record.array(), (byte) 0);
+            record.putLong(ID, id)
+                    .putLong(SECONDS, createdAt.getEpochSecond())
+                    .putInt(NANOS, createdAt.getNano())
+                    .put(DEALER, (byte) deal.getDealer().ordinal())
+                    .put(DEAL, dealBits)
+                    .put(CONVENTION_LENGTH, (byte) (convention == null ? -1 : convention.length))
+                    .putShort(AUCTION_LENGTH, (short) (auction == null ? -1 : auction.length));
+            if (convention != null) record.put(CONVENTION, convention);
+            if (auction != null) record.put(AUCTION, auction);
+            crc.reset();
+            crc.update(record.array(), 0, CRC);
+            record.putInt(CRC, (int) crc.getValue());
+
+            int index = segment.count;
+            segment.buffer.put(index * RECORD_BYTES, record.array());
+            if (index % INDEX_STRIDE == 0) {
+                segment.indexSeconds[index / INDEX_STRIDE] = createdAt.getEpochSecond();
+                segment.indexNanos[index / INDEX_STRIDE] = createdAt.getNano();
+            }
+            lastSeconds = createdAt.getEpochSecond();
+            lastNanos = createdAt.getNano();
+            segment.count = index + 1; // publishes the record to readers
+            lastId = id;
+            deal.setId(id);
+            deal.setCreatedAt(createdAt);
+        } finally {
+            appendLock.unlock();
+        }
+        if (syncOnSave) {
+            awaitSync(id);
+        }
+        return deal;
+    }
+
+    private Segment roll(Segment full) {
+        try {
+            Segment next = Segment.create(directory, full.firstId + full.capacity, segmentRecords);
+            Segment[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[grown.length - 1] = next;
+            segments = grown;
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create a deal log segment in " + directory, e);
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            try {
+                sync();
+                syncLock.lock();
+                try {
+                    if (waiters == 0 || syncedId == lastId) {
+                        syncProgress.await(syncIntervalMillis, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    syncLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Syncing the quiz deal log failed", e);
+            }
+        }
+    }
+
+    /** Forces every record written since the last sync to disk and wakes the saves waiting for it. */
+    private void sync() {
+        long target = lastId;
+        long from;
+        syncLock.lock();
+        try {
+            from = syncedId + 1;
+        } finally {
+            syncLock.unlock();
+        }
+        if (target < from) return;
+        long start = System.nanoTime();
+        for (Segment segment : segments) {
+            long last = segment.firstId + segment.count - 1;
+            if (last < from || segment.firstId > target) continue;
+            int first = (int) (Math.max(from, segment.firstId) - segment.firstId);
+            int end = (int) (Math.min(target, last) - segment.firstId + 1);
+            segment.buffer.force(first * RECORD_BYTES, (end - first) * RECORD_BYTES);
+        }
+        syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        syncLock.lock();
+        try {
+            syncedId = Math.max(syncedId, target);
+            syncProgress.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void awaitSync(long id) {
+        syncLock.lock();
+        waiters++;
+        try {
+            syncProgress.signalAll();
+            while (syncedId < id && running) {
+                syncProgress.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiters--;
+            syncLock.unlock();
+        }
+    }
+
+    // --- reading ---
+
+    @Override
+    public List<QuizDeal> findRecent(int limit) {
+        List<QuizDeal> deals = new ArrayList<>(limit);
+        Segment[] snapshot = segments;
+        for (int s = snapshot.length - 1; s >= 0 && deals.size() < limit; s--) {
+            Segment segment = snapshot[s];
+            for (int i = segment.count - 1; i >= 0 && deals.size() < limit; i--) {
+                deals.add(segment.deal(i));
+            }
+        }
+        return deals;
+    }
+
+    @Override
+    public List<QuizDealSummary> findRecentSummaries(int limit, DealCursor before, boolean includeAuction) {
+        List<QuizDealSummary> summaries = new ArrayList<>(limit);
+        Segment[] snapshot = segments;
+        int s = snapshot.length - 1;
+        int i = snapshot[s].count;
+        if (before != null) {
+            long seconds = before.createdAt().getEpochSecond();
+            int nanos = before.createdAt().getNano();
+            // the last segment whose first record is older than the cursor
+            while (s > 0 && (snapshot[s].count == 0 || !snapshot[s].before(0, seconds, nanos, before.id()))) s--;
+            i = snapshot[s].countBefore(seconds, nanos, before.id());
+        }
+        for (; s >= 0 && summaries.size() < limit; s--) {
+            Segment segment = snapshot[s];
+            if (i < 0) i = segment.count;
+            for (i--; i >= 0 && summaries.size() < limit; i--) {
+                summaries.add(segment.summary(i, includeAuction));
+            }
+        }
+        return summaries;
+    }
+
+    @Override
+    public List<QuizDeal> findAfter(long afterId, int limit) {
+        List<QuizDeal> deals = new ArrayList<>(limit);
+        Segment[] snapshot = segments;
+        int s = 0;
+        while (s + 1 < snapshot.length && snapshot[s + 1].firstId <= afterId + 1) s++;
+        long first = Math.max(afterId + 1, snapshot[s].firstId);
+        for (; s < snapshot.length && deals.size() < limit; s++) {
+            Segment segment = snapshot[s];
+            for (int i = (int) Math.max(0, first - segment.firstId); i < segment.count && deals.size() < limit; i++) {
+                deals.add(segment.deal(i));
+            }
+        }
+        return deals;
+    }
+
+    // --- recovery ---
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().startsWith(PREFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(LEGACY_SUFFIX)) {
+                throw new IOException("Deal log segment " + file + " uses the old 256-byte record format;"
+                        + " move it out of " + directory + " or point quiz.persistence.log.dir elsewhere");
+            }
+        }
+        files = files.stream().filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList();
+        List<Segment> opened = new ArrayList<>();
+        for (int f = 0; f < files.size(); f++) {
+            Segment segment = Segment.open(files.get(f), f == files.size() - 1);
+            if (!opened.isEmpty()) {
+                Segment previous = opened.get(opened.size() - 1);
+                if (segment.firstId != previous.firstId + previous.capacity) {
+                    throw new IOException("Deal log segment " + files.get(f) + " does not follow the previous one");
+                }
+            }
+            opened.add(segment);
+        }
+        if (opened.isEmpty()) {
+            opened.add(Segment.create(directory, 1, segmentRecords));
+        }
+        segments = opened.toArray(new Segment[0]);
+
+        Segment last = segments[segments.length - 1];
+        lastId = last.firstId + last.count - 1;
+        syncedId = lastId;
+        if (last.count > 0) {
+            int offset = (last.count - 1) * RECORD_BYTES;
+            lastSeconds = last.buffer.getLong(offset + SECONDS);
+            lastNanos = last.buffer.getInt(offset + NANOS);
+        } else if (segments.length > 1) {
+            Segment full = segments[segments.length - 2];
+            int offset = (full.count - 1) * RECORD_BYTES;
+            lastSeconds = full.buffer.getLong(offset + SECONDS);
+            lastNanos = full.buffer.getInt(offset + NANOS);
+        }
+        log.info("Opened quiz deal log {} with {} segments, last id {}", directory, segments.length, lastId);
+    }
+
+    @Override
+    public void appendRecentCsv(StringBuilder out, int limit) {
+        CsvScratch scratch = new CsvScratch();
+        int rows = 0;
+        Segment[] snapshot = segments;
+        for (int s = snapshot.length - 1; s >= 0 && rows < limit; s--) {
+            Segment segment = snapshot[s];
+            for (int i = segment.count - 1; i >= 0 && rows < limit; i--, rows++) {
+                segment.appendCsvRow(out, i, scratch);
+            }
+        }
+    }
+
+    /** Writes rows straight from the mapped segments, handing {@code out} a page at a time. */
+    @Override
+    public long writeCsvAfter(Writer out, long afterId, int pageSize) throws IOException {
+        CsvScratch scratch = new CsvScratch();
+        StringBuilder page = new StringBuilder(pageSize * 128);
+        long rows = 0;
+        Segment[] snapshot = segments;
+        int s = 0;
+        while (s + 1 < snapshot.length && snapshot[s + 1].firstId <= afterId + 1) s++;
+        long first = Math.max(afterId + 1, snapshot[s].firstId);
+        for (; s < snapshot.length; s++) {
+            Segment segment = snapshot[s];
+            int count = segment.count;
+            for (int i = (int) Math.max(0, first - segment.firstId); i < count; i++) {
+                segment.appendCsvRow(page, i, scratch);
+                if (++rows % pageSize == 0) {
+                    out.append(page);
+                    page.setLength(0);
+                }
+            }
+        }
+        out.append(page);
+        return rows;
+    }
+
+    /** Buffers reused across the rows of one CSV listing or export. */
+    private static final class CsvScratch {
+        final byte[] deal = new byte[PackedDeal.BYTES];
+        final long[] hands = new long[POSITIONS.length];
+        final byte[] auction = new byte[MAX_AUCTION_CALLS];
+        final byte[] conventionBytes = new byte[MAX_CONVENTION_BYTES];
+        // the last convention decoded; deals mostly share a handful of names
+        final byte[] lastConventionBytes = new byte[MAX_CONVENTION_BYTES];
+        int lastConventionLength = -1;
+        String lastConvention;
+    }
+
+    private static final class Segment {
+        final long firstId;
+        final int capacity;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // creation time of every INDEX_STRIDE-th record, written before count publishes it
+        final long[] indexSeconds;
+        final int[] indexNanos;
+        volatile int count;
+
+        private Segment(long firstId, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+            this.firstId = firstId;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.indexSeconds = new long[(capacity + INDEX_STRIDE - 1) / INDEX_STRIDE];
+            this.indexNanos = new int[indexSeconds.length];
+        }
+
+        static Segment create(Path directory, long firstId, int capacity) throws IOException {
+            Path file = directory.resolve(String.format("%s%020d%s", PREFIX, firstId, SUFFIX));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = (long) capacity * RECORD_BYTES;
+            return new Segment(firstId, capacity, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        /** Opens an existing segment. Only the last one can be partly written, so only it is scanned. */
+        static Segment open(Path file, boolean last) throws IOException {
+            String name = file.getFileName().toString();
+            long firstId = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int capacity = (int) (channel.size() / RECORD_BYTES);
+            Segment segment = new Segment(firstId, capacity, channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_BYTES));
+            int count = capacity;
+            if (last) {
+                count = 0;
+                CRC32 crc = new CRC32();
+                while (count < capacity && segment.valid(count, crc)) count++;
+                segment.clearFrom(count);
+            }
+            for (int i = 0; i < count; i += INDEX_STRIDE) {
+                segment.indexSeconds[i / INDEX_STRIDE] = segment.buffer.getLong(i * RECORD_BYTES + SECONDS);
+                segment.indexNanos[i / INDEX_STRIDE] = segment.buffer.getInt(i * RECORD_BYTES + NANOS);
+            }
+            segment.count = count;
+            return segment;
+        }
+
+        private boolean valid(int index, CRC32 crc) {
+            int offset = index * RECORD_BYTES;
+            if (buffer.getLong(offset + ID) != firstId + index) return false;
+            crc.reset();
+            crc.update(buffer.slice(offset, CRC));
+            return buffer.getInt(offset + CRC) == (int) crc.getValue();
+        }
+
+        /**
+         * Zeroes the torn record and everything after it. Writes can reach the file out of order, so
+         * records past a torn or empty one may have survived a crash; they are cleared through the last
+         * non-empty record so that they cannot reappear once appends fill the gap.
+         */
+        private void clearFrom(int index) {
+            int end = capacity;
+            while (end > index && buffer.getLong((end - 1) * RECORD_BYTES + ID) == 0) end--;
+            if (end == index) return;
+            byte[] zeros = new byte[RECORD_BYTES];
+            for (int i = index; i < end; i++) {
+                buffer.put(i * RECORD_BYTES, zeros);
+            }
+            buffer.force();
+        }
+
+        /** Whether record {@code index} comes before the cursor in (createdAt, id) order. */
+        boolean before(int index, long seconds, int nanos, long id) {
+            int offset = index * RECORD_BYTES;
+            return compare(buffer.getLong(offset + SECONDS), buffer.getInt(offset + NANOS), buffer.getLong(offset + ID),
+                    seconds, nanos, id) < 0;
+        }
+
+        /** Number of records before the cursor: the sparse index narrows the search to one stride. */
+        int countBefore(long seconds, int nanos, long id) {
+            int n = count;
+            int lo = 0, hi = (n + INDEX_STRIDE - 1) / INDEX_STRIDE;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                long entryId = firstId + (long) mid * INDEX_STRIDE;
+                if (compare(indexSeconds[mid], indexNanos[mid], entryId, seconds, nanos, id) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            // entries before lo precede the cursor; the boundary lies in the stride before entry lo
+            int from = Math.max(0, (lo - 1) * INDEX_STRIDE);
+            int to = Math.min(n, lo * INDEX_STRIDE);
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (before(mid, seconds, nanos, id)) from = mid + 1;
+                else to = mid;
+            }
+            return from;
+        }
+
+        QuizDeal deal(int index) {
+            int offset = index * RECORD_BYTES;
+            QuizDeal deal = new QuizDeal();
+            deal.setId(buffer.getLong(offset + ID));
+            deal.setCreatedAt(createdAt(offset));
+            deal.setDealer(POSITIONS[buffer.get(offset + DEALER)]);
+            deal.setDealBits(dealBits(offset));
+            deal.setConvention(convention(offset));
+            deal.setAuctionCalls(auction(offset));
+            return deal;
+        }
+
+        QuizDealSummary summary(int index, boolean includeAuction) {
+            int offset = index * RECORD_BYTES;
+            HandPosition dealer = POSITIONS[buffer.get(offset + DEALER)];
+            return includeAuction
+                    ? new QuizDealSummary(buffer.getLong(offset + ID), createdAt(offset), dealer, dealBits(offset),
+                            convention(offset), auction(offset))
+                    : new QuizDealSummary(buffer.getLong(offset + ID), createdAt(offset), dealer, dealBits(offset),
+                            convention(offset));
+        }
+
+        void appendCsvRow(StringBuilder sb, int index, CsvScratch scratch) {
+            int offset = index * RECORD_BYTES;
+            buffer.get(offset + DEAL, scratch.deal);
+            PackedDeal.decode(scratch.deal, scratch.hands);
+            int auctionLength = buffer.getShort(offset + AUCTION_LENGTH);
+            if (auctionLength > 0) buffer.get(offset + AUCTION, scratch.auction, 0, auctionLength);
+            QuizDealCsv.appendRow(sb, buffer.getLong(offset + ID), createdAt(offset), POSITIONS[buffer.get(offset + DEALER)],
+                    scratch.hands, convention(offset, scratch), scratch.auction, auctionLength);
+        }
+
+        private String convention(int offset, CsvScratch scratch) {
+            int length = buffer.get(offset + CONVENTION_LENGTH);
+            if (length < 0) return null;
+            byte[] utf8 = scratch.conventionBytes;
+            buffer.get(offset + CONVENTION, utf8, 0, length);
+            if (length != scratch.lastConventionLength
+                    || !Arrays.equals(utf8, 0, length, scratch.lastConventionBytes, 0, length)) {
+                System.arraycopy(utf8, 0, scratch.lastConventionBytes, 0, length);
+                scratch.lastConventionLength = length;
+                scratch.lastConvention = new String(utf8, 0, length, StandardCharsets.UTF_8);
+            }
+            return scratch.lastConvention;
+        }
+
+        private Instant createdAt(int offset) {
+            return Instant.ofEpochSecond(buffer.getLong(offset + SECONDS), buffer.getInt(offset + NANOS));
+        }
+
+        private byte[] dealBits(int offset) {
+            byte[] deal = new byte[PackedDeal.BYTES];
+            buffer.get(offset + DEAL, deal);
+            return deal;
+        }
+
+        private String convention(int offset) {
+            int length = buffer.get(offset + CONVENTION_LENGTH);
+            if (length < 0) return null;
+            byte[] utf8 = new byte[length];
+            buffer.get(offset + CONVENTION, utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        private byte[] auction(int offset) {
+            int length = buffer.getShort(offset + AUCTION_LENGTH);
+            if (length < 0) return null;
+            byte[] calls = new byte[length];
+            buffer.get(offset + AUCTION, calls);
+            return calls;
+        }
+    }
+
+    private static int compare(long seconds, int nanos, long id, long otherSeconds, int otherNanos, long otherId) {
+        int c = Long.compare(seconds, otherSeconds);
+        if (c == 0) c = Integer.compare(nanos, otherNanos);
+        return c != 0 ? c : Long.compare(id, otherId);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed bids for one convention in one auction context (by default the opening).
+ * <p>
+ * A call only depends on HCP and the four suit lengths, so every reachable
+ * 13-card key (560 shapes x 38 HCP values) is evaluated once when the table is
+ * built and a lookup is a single array read. Keys outside the table (malformed
+ * hands that do not hold 13 cards) fall back to evaluating the rule directly.
+ */
+final class OpeningBidTable {
+
+    /** Rule for one convention and context: (HCP, packed shape) -> bid. */
+    @FunctionalInterface
+    interface Rule {
+        String open(int hcp, int shape);
+    }
+
+    static final int MAX_HCP = 37;
+    static final int SHAPES = 560;
+
+    private static final int HCP_VALUES = MAX_HCP + 1;
+    private static final int LENGTHS = 14;
+
+    // dense index of a 13-card shape, keyed by (spades, hearts, diamonds); clubs are implied
+    private static final short[] SHAPE_INDEX = new short[LENGTHS * LENGTHS * LENGTHS];
+    private static final int[] SHAPE_BY_INDEX = new int[SHAPES];
+
+    static {
+        Arrays.fill(SHAPE_INDEX, (short) -1);
+        int i = 0;
+        for (int s = 0; s <= 13; s++) {
+            for (int h = 0; h <= 13 - s; h++) {
+                for (int d = 0; d <= 13 - s - h; d++) {
+                    SHAPE_INDEX[(s * LENGTHS + h) * LENGTHS + d] = (short) i;
+                    SHAPE_BY_INDEX[i++] = PackedHand.shapeOf(s, h, d, 13 - s - h - d);
+                }
+            }
+        }
+    }
+
+    private final Rule rule;
+    private final byte[] codes = new byte[SHAPES * HCP_VALUES];
+    private final String[] bids;
+    private final int[] calls;
+
+    OpeningBidTable(Rule rule) {
+        this.rule = rule;
+        List<String> dictionary = new ArrayList<>();
+        for (int shapeIdx = 0; shapeIdx < SHAPES; shapeIdx++) {
+            int shape = SHAPE_BY_INDEX[shapeIdx];
+            for (int hcp = 0; hcp <= MAX_HCP; hcp++) {
+                String bid = rule.open(hcp, shape);
+                int code = dictionary.indexOf(bid);
+                if (code < 0) {
+                    code = dictionary.size();
+                    dictionary.add(bid);
+                }
+                codes[shapeIdx * HCP_VALUES + hcp] = (byte) code;
+            }
+        }
+        this.bids = dictionary.toArray(new String[0]);
+        this.calls = new int[bids.length];
+        for (int i = 0; i < bids.length; i++) {
+            calls[i] = callCode(bids[i]);
+        }
+    }
+
+    String lookup(int hcp, int shape) {
+        int idx = shapeIndex(shape);
+        if (idx < 0 || hcp < 0 || hcp > MAX_HCP) return rule.open(hcp, shape);
+        return bids[codes[idx * HCP_VALUES + hcp]];
+    }
+
+    /** Same as {@link #lookup} as a {@link PackedAuction} call code, or -1 when the rule's result is not a call. */
+    int lookupCall(int hcp, int shape) {
+        int idx = shapeIndex(shape);
+        if (idx < 0 || hcp < 0 || hcp > MAX_HCP) return callCode(rule.open(hcp, shape));
+        return calls[codes[idx * HCP_VALUES + hcp]];
+    }
+
+    private static int callCode(String bid) {
+        try {
+            return PackedAuction.parseCall(bid);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /** Dense index (0..559) of a 13-card shape, or -1 when the lengths do not add up to 13. */
+    static int shapeIndex(int shape) {
+        int s = PackedHand.suitLength(shape, PackedHand.SPADES);
+        int h = PackedHand.suitLength(shape, PackedHand.HEARTS);
+        int d = PackedHand.suitLength(shape, PackedHand.DIAMONDS);
+        int c = PackedHand.suitLength(shape, PackedHand.CLUBS);
+        if (s + h + d + c != 13) return -1;
+        return SHAPE_INDEX[(s * LENGTHS + h) * LENGTHS + d];
+    }
+}
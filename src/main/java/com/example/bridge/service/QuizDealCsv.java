@@ -0,0 +1,95 @@
+package com.example.bridge.service;
+
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedDeal;
+import com.example.bridge.model.PackedHand;
+
+import java.time.Instant;
+
+/**
+ * CSV rows of stored quiz deals. Rows are built from the stored fields rather than from a
+ * {@link QuizDeal}, so a store can write them straight from its own representation; hand
+ * strings never need escaping and the auction is written as an escaped JSON array of calls.
+ */
+final class QuizDealCsv {
+
+    static final String HEADER = "id,createdAt,dealer,northHand,eastHand,southHand,westHand,convention,auctionJson\n";
+
+    private QuizDealCsv() {
+    }
+
+    static void appendRow(StringBuilder sb, QuizDeal deal) {
+        // Decode the deal once rather than once per hand getter
+        byte[] dealBits = deal.getDealBits();
+        long[] hands = null;
+        if (dealBits != null) {
+            hands = new long[4];
+            PackedDeal.decode(dealBits, hands);
+        }
+        byte[] auction = deal.getAuctionCalls();
+        if (deal.getId() != null) sb.append(deal.getId().longValue());
+        appendFields(sb, deal.getCreatedAt(), deal.getDealer(), hands, deal.getConvention(),
+                auction, auction == null ? -1 : auction.length);
+    }
+
+    /**
+     * @param hands         the four hands by {@link HandPosition} ordinal, or null when no deal is stored
+     * @param auction       call codes in its first {@code auctionLength} bytes
+     * @param auctionLength number of calls, or -1 when there is no auction
+     */
+    static void appendRow(StringBuilder sb, long id, Instant createdAt, HandPosition dealer, long[] hands,
+                          String convention, byte[] auction, int auctionLength) {
+        sb.append(id);
+        appendFields(sb, createdAt, dealer, hands, convention, auction, auctionLength);
+    }
+
+    private static void appendFields(StringBuilder sb, Instant createdAt, HandPosition dealer, long[] hands,
+                                     String convention, byte[] auction, int auctionLength) {
+        sb.append(',');
+        if (createdAt != null) sb.append(createdAt);
+        sb.append(',');
+        if (dealer != null) sb.append(dealer.name());
+        for (int i = 0; i < 4; i++) {
+            sb.append(',');
+            if (hands != null) sb.append(PackedHand.format(hands[i]));
+        }
+        sb.append(',');
+        appendEscaped(sb, convention);
+        sb.append(',');
+        appendAuction(sb, auction, auctionLength);
+        sb.append('\n');
+    }
+
+    private static void appendEscaped(StringBuilder sb, String s) {
+        if (s == null) return;
+        boolean mustQuote = s.indexOf(',') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('"') >= 0;
+        if (!mustQuote) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    // The JSON array of calls, e.g. ["1C","PASS"]; any call brings quotes, so the field is quoted
+    private static void appendAuction(StringBuilder sb, byte[] auction, int length) {
+        if (length < 0) return;
+        if (length == 0) {
+            sb.append("[]");
+            return;
+        }
+        sb.append("\"[");
+        for (int i = 0; i < length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("\"\"").append(PackedAuction.symbol(auction[i])).append("\"\"");
+        }
+        sb.append("]\"");
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedDeal;
+import com.example.bridge.model.PackedHand;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Moves quiz deals stored before the compact format onto it.
+ * <p>
+ * Older rows keep their four hand strings in {@code north_hand} .. {@code west_hand} and the
+ * auction as JSON in {@code auction_json}. Schema update adds the {@code deal_bits} and
+ * {@code auction_calls} columns; on startup this converts the old columns in keyset batches
+ * and, once every row has converted, drops them. A row that cannot be converted is logged
+ * and keeps its old columns, so nothing is dropped until the data is fixed. Runs before the
+ * {@link QuizDealWriter} starts inserting, and does nothing once the old columns are gone.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class QuizDealMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizDealMigration.class);
+
+    static final List<String> LEGACY_HANDS = List.of("north_hand", "east_hand", "south_hand", "west_hand");
+    static final String LEGACY_AUCTION = "auction_json";
+
+    private static final TypeReference<List<String>> CALLS = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final boolean enabled;
+    private final int batchSize;
+    private final boolean dropLegacyColumns;
+
+    public QuizDealMigration(
+            JdbcTemplate jdbcTemplate,
+            @Value("${quiz.persistence.migration.enabled:true}") boolean enabled,
+            @Value("${quiz.persistence.migration.batch-size:1000}") int batchSize,
+            @Value("${quiz.persistence.migration.drop-legacy-columns:true}") boolean dropLegacyColumns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.dropLegacyColumns = dropLegacyColumns;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) return;
+        Set<String> columns = columns();
+        List<String> legacy = new ArrayList<>();
+        for (String column : LEGACY_HANDS) {
+            if (columns.contains(column)) legacy.add(column);
+        }
+        if (columns.contains(LEGACY_AUCTION)) legacy.add(LEGACY_AUCTION);
+        if (legacy.isEmpty()) return;
+        if (legacy.size() < LEGACY_HANDS.size() + 1) {
+            throw new IllegalStateException("quiz_deal has only some of the legacy columns " + legacy);
+        }
+
+        // New rows only fill the compact columns
+        for (String column : legacy) {
+            jdbcTemplate.execute("alter table quiz_deal alter column " + column + " drop not null");
+        }
+        long[] counts = convert();
+        log.info("Converted {} quiz deals to the compact format, {} failed", counts[0], counts[1]);
+        if (counts[1] > 0 || !dropLegacyColumns) return;
+        for (String column : legacy) {
+            jdbcTemplate.execute("alter table quiz_deal drop column " + column);
+        }
+        log.info("Dropped the legacy quiz_deal columns {}", legacy);
+    }
+
+    /** Converts every row without compact data; returns the number converted and failed. */
+    long[] convert() {
+        long converted = 0, failed = 0;
+        long lastId = Long.MIN_VALUE;
+        String select = "select id, north_hand, east_hand, south_hand, west_hand, auction_json from quiz_deal"
+                + " where deal_bits is null and id > ? order by id fetch first " + batchSize + " rows only";
+        while (true) {
+            List<Object[]> updates = new ArrayList<>(batchSize);
+            long[] last = {lastId};
+            long[] errors = {0};
+            jdbcTemplate.query(select, rs -> {
+                long id = rs.getLong(1);
+                last[0] = id;
+                try {
+                    long[] hands = new long[4];
+                    for (int seat = 0; seat < 4; seat++) {
+                        hands[seat] = PackedHand.parse(rs.getString(seat + 2));
+                    }
+                    updates.add(new Object[]{PackedDeal.encode(hands), auctionCalls(rs.getString(6)), id});
+                } catch (IllegalArgumentException e) {
+                    errors[0]++;
+                    log.warn("Quiz deal {} cannot be converted: {}", id, e.getMessage());
+                }
+            }, lastId);
+            if (last[0] == lastId) break;
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("update quiz_deal set deal_bits = ?, auction_calls = ? where id = ?", updates);
+            }
+            converted += updates.size();
+            failed += errors[0];
+            lastId = last[0];
+        }
+        return new long[]{converted, failed};
+    }
+
+    // Auctions were stored as a JSON array, or comma-joined when serialization failed
+    private byte[] auctionCalls(String json) {
+        if (json == null || json.isBlank()) return null;
+        List<String> calls;
+        try {
+            calls = mapper.readValue(json, CALLS);
+        } catch (IOException e) {
+            calls = List.of(json.split(","));
+        }
+        return PackedAuction.encodeCalls(calls);
+    }
+
+    private Set<String> columns() {
+        return jdbcTemplate.query("select * from quiz_deal where 1 = 0", rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            Set<String> names = new HashSet<>();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                names.add(meta.getColumnName(i).toLowerCase(Locale.ROOT));
+            }
+            return names;
+        });
+    }
+}
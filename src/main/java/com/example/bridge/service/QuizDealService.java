@@ -1,75 +1,180 @@
 package com.example.bridge.service;
 
+import com.example.bridge.dto.DealCursor;
+import com.example.bridge.dto.QuizDealSummary;
 import com.example.bridge.entity.QuizDeal;
 import com.example.bridge.model.Deal;
-import com.example.bridge.model.HandPosition;
 import com.example.bridge.repository.QuizDealRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class QuizDealService {
 
-    private final QuizDealRepository repository;
-    private final ObjectMapper objectMapper;
+    private final QuizDealStore store;
+    // Live feed for /api/deals/stream; null when there is none
+    private final DealFeed feed;
+    private final Timer saveTimer;
+    private final Timer listTimer;
+    private final Timer exportTimer;
+    private final Timer csvTimer;
 
-    public QuizDealService(QuizDealRepository repository, ObjectMapper objectMapper) {
-        this.repository = repository;
-        this.objectMapper = objectMapper;
+    // Change token: bumped after every save, and again when the store makes written-behind deals visible
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long lastChangeMillis = System.currentTimeMillis();
+
+    /**
+     * Identifies the stored deals as this instance last changed them: equal tokens mean a
+     * listing would return the same rows. {@code etag} is a quoted strong entity tag that
+     * also carries the start time, so tokens from before a restart never match, and
+     * {@code lastModified} is the epoch millis of the last change (or of the start).
+     */
+    public record ChangeToken(long sequence, String etag, long lastModified) {
+    }
+
+    /** Saves straight through {@code repository}, without write-behind. */
+    public QuizDealService(QuizDealRepository repository) {
+        this(new JpaQuizDealStore(repository, null), Metrics.globalRegistry);
+    }
+
+    public QuizDealService(QuizDealStore store, MeterRegistry meterRegistry) {
+        this(store, meterRegistry, null);
+    }
+
+    @Autowired
+    public QuizDealService(QuizDealStore store, MeterRegistry meterRegistry, DealFeed feed) {
+        this.store = store;
+        this.feed = feed;
+        this.saveTimer = persistenceTimer(meterRegistry, "save");
+        this.listTimer = persistenceTimer(meterRegistry, "list");
+        this.exportTimer = persistenceTimer(meterRegistry, "export");
+        this.csvTimer = persistenceTimer(meterRegistry, "csv");
+        store.onWritten(this::written);
     }
 
+    private static Timer persistenceTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("bridge.deals.persistence")
+                .description("Quiz deal persistence operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Stores a generated quiz deal and publishes it to the {@link DealFeed}. With the JPA
+     * store's write-behind writer the row is inserted asynchronously in a batch, so the
+     * returned entity has no id yet, and the deal is published once its batch is in.
+     */
     public QuizDeal save(Deal deal, String convention, List<String> auction) {
+        return saveTimer.record(() -> doSave(deal, convention, auction));
+    }
+
+    private QuizDeal doSave(Deal deal, String convention, List<String> auction) {
         QuizDeal entity = new QuizDeal();
         entity.setDealer(deal.getDealer());
-        entity.setNorthHand(deal.getHands().get(HandPosition.NORTH));
-        entity.setEastHand(deal.getHands().get(HandPosition.EAST));
-        entity.setSouthHand(deal.getHands().get(HandPosition.SOUTH));
-        entity.setWestHand(deal.getHands().get(HandPosition.WEST));
+        entity.setHands(deal.getHands());
         entity.setConvention(convention);
-        try {
-            entity.setAuctionJson(objectMapper.writeValueAsString(auction));
-        } catch (JsonProcessingException e) {
-            // Fallback to a joined string if JSON serialization fails
-            entity.setAuctionJson(String.join(",", auction));
+        entity.setAuction(auction);
+        QuizDeal saved = store.save(entity);
+        changed();
+        if (feed != null && saved.getId() != null) {
+            feed.publish(saved);
+        }
+        return saved;
+    }
+
+    private void written(List<QuizDeal> deals) {
+        changed();
+        if (feed != null) {
+            deals.forEach(feed::publish);
         }
-        return repository.save(entity);
+    }
+
+    /**
+     * The current {@link ChangeToken}; reading it does not touch the store. Only deals saved
+     * through this instance are seen, not rows other processes write to a shared database.
+     */
+    public ChangeToken changeToken() {
+        long sequence = changes.get();
+        return new ChangeToken(sequence, "\"" + epoch + "-" + sequence + "\"", lastChangeMillis);
+    }
+
+    private void changed() {
+        lastChangeMillis = System.currentTimeMillis();
+        changes.incrementAndGet();
     }
 
     public List<QuizDeal> listRecent(int limit) {
         int effectiveLimit = Math.max(1, Math.min(limit, 1000));
-        return repository.findAll(
-                PageRequest.of(0, effectiveLimit, Sort.by(Sort.Direction.DESC, "createdAt"))
-        ).getContent();
+        return listTimer.record(() -> store.findRecent(effectiveLimit));
+    }
+
+    /**
+     * Keyset-paginated listing, newest first. Returns deals strictly older than {@code before}
+     * (or the newest ones when it is null); the auction is only read when requested.
+     */
+    public List<QuizDealSummary> listRecentSummaries(int limit, DealCursor before, boolean includeAuction) {
+        int effectiveLimit = Math.max(1, Math.min(limit, 1000));
+        return listTimer.record(() -> store.findRecentSummaries(effectiveLimit, before, includeAuction));
     }
 
     public String toCsv(List<QuizDeal> deals) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("id,createdAt,dealer,northHand,eastHand,southHand,westHand,convention,auctionJson\n");
-        for (QuizDeal d : deals) {
-            sb.append(safe(d.getId()))
-              .append(',').append(safe(d.getCreatedAt()))
-              .append(',').append(escape(d.getDealer() != null ? d.getDealer().name() : null))
-              .append(',').append(escape(d.getNorthHand()))
-              .append(',').append(escape(d.getEastHand()))
-              .append(',').append(escape(d.getSouthHand()))
-              .append(',').append(escape(d.getWestHand()))
-              .append(',').append(escape(d.getConvention()))
-              .append(',').append(escape(d.getAuctionJson()))
-              .append('\n');
+        return csvTimer.record(() -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append(QuizDealCsv.HEADER);
+            for (QuizDeal d : deals) {
+                QuizDealCsv.appendRow(sb, d);
+            }
+            return sb.toString();
+        });
+    }
+
+    /**
+     * The newest deals as CSV, newest first. Rows are written by the store, so stores that can
+     * format them from their own records skip building an entity per row; reading and rendering
+     * are then one step, so the whole call is timed as {@code csv} rather than {@code list}.
+     */
+    public String recentCsv(int limit) {
+        int effectiveLimit = Math.max(1, Math.min(limit, 1000));
+        return csvTimer.record(() -> {
+            StringBuilder sb = new StringBuilder(QuizDealCsv.HEADER.length() + effectiveLimit * 128);
+            sb.append(QuizDealCsv.HEADER);
+            store.appendRecentCsv(sb, effectiveLimit);
+            return sb.toString();
+        });
+    }
+
+    /**
+     * Streams every stored deal with id greater than {@code afterId} as CSV, in id order.
+     * Rows are written by the store (see {@link QuizDealStore#writeCsvAfter}), in pages of
+     * {@code pageSize}, so memory use does not depend on the number of rows exported.
+     *
+     * @return number of rows written
+     */
+    public long writeCsv(Writer out, long afterId, int pageSize) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return doWriteCsv(out, afterId, pageSize);
+        } finally {
+            exportTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        return sb.toString();
     }
 
-    private String safe(Object o) { return o == null ? "" : o.toString(); }
-    private String escape(String s) {
-        if (s == null) return "";
-        boolean mustQuote = s.contains(",") || s.contains("\n") || s.contains("\"");
-        String t = s.replace("\"", "\"\"");
-        return mustQuote ? ("\"" + t + "\"") : t;
+    private long doWriteCsv(Writer out, long afterId, int pageSize) throws IOException {
+        int effectivePageSize = Math.max(1, Math.min(pageSize, 10_000));
+        out.write(QuizDealCsv.HEADER);
+        long rows = store.writeCsvAfter(out, afterId, effectivePageSize);
+        out.flush();
+        return rows;
     }
 }
@@ -0,0 +1,74 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.DealCursor;
+import com.example.bridge.dto.QuizDealSummary;
+import com.example.bridge.entity.QuizDeal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Where quiz deals are kept. Stored deals are never updated. {@code quiz.persistence.store}
+ * selects the backend: {@code jpa} (the default, {@link JpaQuizDealStore}) or {@code log}
+ * ({@link LogQuizDealStore}). Limits are already clamped by {@link QuizDealService}.
+ */
+public interface QuizDealStore {
+
+    /** Stores a new deal. The id may be assigned later when the store writes asynchronously. */
+    QuizDeal save(QuizDeal deal);
+
+    /** The newest deals, newest first. */
+    List<QuizDeal> findRecent(int limit);
+
+    /**
+     * Deals strictly older than {@code before} in (createdAt, id) order, newest first, or the
+     * newest ones when it is null. The auction is only read when {@code includeAuction} is set.
+     */
+    List<QuizDealSummary> findRecentSummaries(int limit, DealCursor before, boolean includeAuction);
+
+    /** Deals with id greater than {@code afterId}, in id order. */
+    List<QuizDeal> findAfter(long afterId, int limit);
+
+    /** Appends the {@link QuizDealCsv} rows of the newest deals, newest first. */
+    default void appendRecentCsv(StringBuilder out, int limit) {
+        for (QuizDeal deal : findRecent(limit)) {
+            QuizDealCsv.appendRow(out, deal);
+        }
+    }
+
+    /**
+     * Writes the {@link QuizDealCsv} rows of every deal with id greater than {@code afterId} to
+     * {@code out}, in id order. Rows are read in keyset pages ({@code id > lastId}) of
+     * {@code pageSize}, so memory use does not depend on the number of rows exported.
+     *
+     * @return number of rows written
+     */
+    default long writeCsvAfter(Writer out, long afterId, int pageSize) throws IOException {
+        StringBuilder sb = new StringBuilder(pageSize * 128);
+        long lastId = afterId;
+        long rows = 0;
+        while (true) {
+            List<QuizDeal> deals = findAfter(lastId, pageSize);
+            if (deals.isEmpty()) break;
+            sb.setLength(0);
+            for (QuizDeal deal : deals) {
+                QuizDealCsv.appendRow(sb, deal);
+            }
+            out.append(sb);
+            rows += deals.size();
+            lastId = deals.get(deals.size() - 1).getId();
+            if (deals.size() < pageSize) break;
+        }
+        return rows;
+    }
+
+    /**
+     * Passes deals that {@link #save} accepted without writing them to {@code listener} once
+     * they are visible to the find methods and have ids. Stores that write before save
+     * returns never call it.
+     */
+    default void onWritten(Consumer<List<QuizDeal>> listener) {
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.bridge.service;
+
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.repository.QuizDealRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence for quiz deals.
+ * <p>
+ * Deals are queued in a bounded buffer and a single flush thread inserts them in
+ * JDBC batches (see {@code hibernate.jdbc.batch_size}). When the buffer is full the
+ * configured {@link OverflowPolicy} either blocks the caller or drops the deal.
+ * A batch that fails to insert is kept and retried with backoff; until it goes in
+ * no further deals are taken from the queue, so a failing database fills the buffer
+ * and the overflow policy applies. Remaining deals are flushed on shutdown. With
+ * write-behind disabled every deal is saved synchronously.
+ */
+@Service
+@DependsOn("quizDealMigration") // legacy rows are converted before new ones are inserted
+public class QuizDealWriter {
+
+    /** What {@link #submit(QuizDeal)} does when the queue is full. */
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    private static final Logger log = LoggerFactory.getLogger(QuizDealWriter.class);
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 10_000;
+
+    private final QuizDealRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<QuizDeal> queue;
+    // A batch whose insert failed, retried by the flush thread before it takes more from the queue
+    private final List<QuizDeal> parked = new ArrayList<>();
+    private final List<Consumer<List<QuizDeal>>> flushListeners = new CopyOnWriteArrayList<>();
+
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    // Submitters hold the read lock while they enqueue; stop() takes the write lock once
+    // running is cleared, so no deal can be queued after its final drain
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock(true);
+    private Thread flusher;
+    private volatile boolean running;
+
+    public QuizDealWriter(
+            QuizDealRepository repository,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${quiz.persistence.write-behind.enabled:true}") boolean enabled,
+            @Value("${quiz.persistence.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${quiz.persistence.write-behind.batch-size:50}") int batchSize,
+            @Value("${quiz.persistence.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${quiz.persistence.write-behind.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        Gauge.builder("quiz.deals.write.queue.depth", queue, BlockingQueue::size)
+                .description("Quiz deals waiting to be flushed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("quiz.deals.write.flush")
+                .description("Latency of one batch insert of quiz deals")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.written = Counter.builder("quiz.deals.write.written").register(meterRegistry);
+        this.dropped = Counter.builder("quiz.deals.write.dropped").register(meterRegistry);
+        this.failed = Counter.builder("quiz.deals.write.failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        alignIdSequence();
+        if (!enabled) return;
+        running = true;
+        flusher = new Thread(this::run, "quiz-deal-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops accepting new deals and flushes everything still queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        lifecycle.writeLock().lock();
+        lifecycle.writeLock().unlock();
+        List<QuizDeal> rest = new ArrayList<>();
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+            if (flusher.isAlive()) {
+                // Still inside an insert; its batch stays with it
+                log.warn("Quiz deal writer did not finish its current batch in time");
+            } else {
+                rest.addAll(parked);
+                parked.clear();
+            }
+        }
+        // Whatever the flush thread did not get to (e.g. a batch it could not insert) is written here
+        queue.drainTo(rest);
+        if (!rest.isEmpty() && !flush(rest)) {
+            dropped.increment(rest.size());
+            log.error("Gave up on {} quiz deals at shutdown", rest.size());
+        }
+    }
+
+    /**
+     * Queues a deal for insertion, or saves it right away when write-behind is disabled.
+     * The entity's id is assigned when its batch is flushed.
+     *
+     * @return false if the deal was dropped because the queue was full
+     */
+    public boolean submit(QuizDeal deal) {
+        if (!enabled) {
+            repository.save(deal);
+            written.increment();
+            return true;
+        }
+        lifecycle.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Quiz deal writer is not running");
+            }
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                if (!queue.offer(deal)) {
+                    dropped.increment();
+                    return false;
+                }
+                return true;
+            }
+            // Waits in steps so that a shutdown, which waits for this call, is not held up for good
+            while (!queue.offer(deal, flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    dropped.increment();
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+            return false;
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes each inserted batch, with ids assigned, to {@code listener} on the flush thread.
+     * The list is only valid during the call.
+     */
+    public void onFlushed(Consumer<List<QuizDeal>> listener) {
+        flushListeners.add(listener);
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<QuizDeal> batch = new ArrayList<>(batchSize);
+        long retryDelay = flushIntervalMillis;
+        while (running || !queue.isEmpty()) {
+            try {
+                if (!parked.isEmpty()) {
+                    Thread.sleep(retryDelay);
+                    // Once stopping, stop() makes the last attempt with everything else that is left
+                    if (!running) return;
+                    if (flush(parked)) {
+                        parked.clear();
+                        retryDelay = flushIntervalMillis;
+                    } else {
+                        retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+                    }
+                    continue;
+                }
+                QuizDeal first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (!flush(batch)) parked.addAll(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Inserts {@code batch}; returns false, leaving it to the caller, when the insert fails. */
+    private boolean flush(List<QuizDeal> batch) {
+        long start = System.nanoTime();
+        try {
+            repository.saveAll(batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to write {} quiz deals", batch.size(), e);
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        flushListeners.forEach(listener -> listener.accept(batch));
+        return true;
+    }
+
+    // Rows written before the switch from IDENTITY to a pooled sequence would collide with
+    // fresh sequence values, so move the sequence past the highest existing id.
+    private void alignIdSequence() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from quiz_deal", Long.class);
+        if (maxId == null || maxId <= 0) return;
+        long restartWith = maxId + QuizDeal.ID_ALLOCATION_SIZE + 1;
+        jdbcTemplate.execute("alter sequence quiz_deal_seq restart with " + restartWith);
+    }
+}
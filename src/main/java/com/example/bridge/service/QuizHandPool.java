@@ -0,0 +1,156 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.QuizHandResponse;
+import com.example.bridge.service.QuizHandService.QuizHand;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free pool of ready-made quiz hands.
+ * <p>
+ * Background producer threads keep the pool between the low and high watermarks so
+ * that serving a quiz is a single poll. When the pool is empty (or disabled) the hand
+ * is built on the caller's thread and counted as a miss.
+ * <p>
+ * Pooled hands are built but not stored: a hand's deal is saved when {@link #take()}
+ * serves it, so hands dropped on a full pool or left over at shutdown never reach the
+ * deal store, the live feed or the recent-deals ETag.
+ */
+@Service
+public class QuizHandPool {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizHandPool.class);
+
+    // Producers re-check the depth at least this often even without a wake-up
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long ERROR_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final QuizHandService quizHandService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int producerThreads;
+
+    private final Queue<QuizHand> items = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final List<Thread> producers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+
+    public QuizHandPool(
+            QuizHandService quizHandService,
+            @Value("${quiz.pool.enabled:true}") boolean enabled,
+            @Value("${quiz.pool.capacity:256}") int capacity,
+            @Value("${quiz.pool.low-watermark:64}") int lowWatermark,
+            @Value("${quiz.pool.high-watermark:256}") int highWatermark,
+            @Value("${quiz.pool.producer-threads:1}") int producerThreads) {
+        if (capacity < 1) throw new IllegalArgumentException("quiz.pool.capacity must be positive");
+        this.quizHandService = quizHandService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.highWatermark = Math.max(1, Math.min(highWatermark, capacity));
+        this.lowWatermark = Math.max(0, Math.min(lowWatermark, this.highWatermark - 1));
+        this.producerThreads = Math.max(1, producerThreads);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        for (int i = 0; i < producerThreads; i++) {
+            Thread t = new Thread(this::produce, "quiz-pool-producer-" + i);
+            t.setDaemon(true);
+            producers.add(t);
+            t.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        wakeProducers();
+    }
+
+    /**
+     * Returns a ready quiz hand from the pool, or builds one synchronously on a miss.
+     * Either way the hand's deal is saved on the caller's thread before it is returned.
+     */
+    public QuizHandResponse take() {
+        QuizHand item = items.poll();
+        if (item == null) {
+            misses.increment();
+            wakeProducers();
+            return quizHandService.createQuizHand();
+        }
+        hits.increment();
+        if (depth.decrementAndGet() < lowWatermark) {
+            wakeProducers();
+        }
+        return quizHandService.saveQuizHand(item);
+    }
+
+    public int depth() { return depth.get(); }
+    public int capacity() { return capacity; }
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+
+    /** Fraction of {@link #take()} calls that had to build a hand synchronously. */
+    public double missRate() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return h + m == 0 ? 0.0 : (double) m / (h + m);
+    }
+
+    private void produce() {
+        boolean refilling = true;
+        while (running) {
+            int current = depth.get();
+            if (current >= highWatermark) refilling = false;
+            else if (current < lowWatermark) refilling = true;
+
+            if (!refilling) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                offer(quizHandService.buildQuizHand());
+            } catch (RuntimeException e) {
+                log.warn("Quiz pool producer failed to build a hand, backing off", e);
+                LockSupport.parkNanos(this, ERROR_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    private boolean offer(QuizHand item) {
+        // Reserve a slot first so the bound holds with several producers; a hand that does not
+        // fit is dropped, which is harmless because pooled hands are not stored yet
+        int current;
+        do {
+            current = depth.get();
+            if (current >= capacity) return false;
+        } while (!depth.compareAndSet(current, current + 1));
+        items.offer(item);
+        return true;
+    }
+
+    private void wakeProducers() {
+        for (Thread t : producers) {
+            LockSupport.unpark(t);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.QuizHandResponse;
+import com.example.bridge.model.Deal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a complete quiz item: deals a board, simulates the auction up to North
+ * and persists the generated deal.
+ * <p>
+ * Building and saving are separate steps so that hands prepared ahead of time by
+ * {@link QuizHandPool} are only stored once they are actually served.
+ */
+@Service
+public class QuizHandService {
+
+    // Convention used for simulation
+    static final String CONVENTION = "polish club";
+
+    private final HandGeneratorService handGeneratorService;
+    private final BridgeBiddingService biddingService;
+    private final QuizDealService quizDealService;
+
+    public QuizHandService(HandGeneratorService handGeneratorService, BridgeBiddingService biddingService, QuizDealService quizDealService) {
+        this.handGeneratorService = handGeneratorService;
+        this.biddingService = biddingService;
+        this.quizDealService = quizDealService;
+    }
+
+    /** A built quiz hand that has not been stored yet. */
+    public record QuizHand(Deal deal, List<String> auction) {}
+
+    /** Builds and stores a quiz hand. */
+    public QuizHandResponse createQuizHand() {
+        return saveQuizHand(buildQuizHand());
+    }
+
+    /** Deals a board and simulates the auction up to North, without storing anything. */
+    public QuizHand buildQuizHand() {
+        Deal deal = handGeneratorService.generateDeal();
+
+        // Bid from Dealer up to but not including North, extending the packed auction call by call
+        List<String> auction = new ArrayList<>();
+        long state = PackedAuction.start(deal.getDealer());
+        HandPosition cursor = deal.getDealer();
+        while (cursor != HandPosition.NORTH) {
+            long hand = PackedHand.parse(deal.getHands().get(cursor));
+            int call = biddingService.nextCall(state, hand, CONVENTION);
+            state = PackedAuction.apply(state, call);
+            auction.add(PackedAuction.symbol(call));
+            cursor = cursor.next();
+        }
+
+        return new QuizHand(deal, auction);
+    }
+
+    /** Persists the deal of a built quiz hand and returns the hand as served to the user. */
+    public QuizHandResponse saveQuizHand(QuizHand quizHand) {
+        quizDealService.save(quizHand.deal(), CONVENTION, quizHand.auction());
+
+        // User always answers as North
+        String northHand = quizHand.deal().getHands().get(HandPosition.NORTH);
+        return new QuizHandResponse(northHand, "N", CONVENTION, quizHand.auction());
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.SimulationRequest;
+import com.example.bridge.dto.SimulationResult;
+import com.example.bridge.dto.SimulationResult.ContractEstimate;
+import com.example.bridge.dto.SimulationResult.Interval;
+import com.example.bridge.model.Contract;
+import com.example.bridge.model.HandParser;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.TrickTable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Monte Carlo evaluation of contracts: deals random layouts around a known hand and scores
+ * each candidate contract double dummy.
+ * <p>
+ * One worker per core claims samples from a shared counter until the requested count or the
+ * time budget is reached; each worker keeps its own solver. The calling thread reports
+ * snapshots of the running estimates at a fixed interval, so callers can stream them while
+ * the estimates converge. A sample still being solved when the budget runs out is dropped.
+ * <p>
+ * Only the strains of the candidate contracts are solved, each with the single opening
+ * leader of the requested declarer. At most {@code simulations.max-concurrent} simulations
+ * run at a time; further requests wait up to {@code simulations.queue-timeout-ms} for a slot
+ * and are then refused with 503. The service only exists when {@code simulations.enabled}
+ * is set.
+ */
+@Service
+@ConditionalOnProperty(name = "simulations.enabled", havingValue = "true")
+public class SimulationService {
+
+    /** Tricks North-South take in a strain with the given leader. Instances are used by one thread. */
+    @FunctionalInterface
+    interface TrickCounter {
+        int tricksNorthSouth(long[] deal, int strain, int leader);
+    }
+
+    private static final double Z_95 = 1.96;
+    private static final int TRICKS = 13;
+
+    private final HandGeneratorService handGenerator;
+    private final ThreadLocal<TrickCounter> counters;
+    private final int defaultSamples;
+    private final int maxSamples;
+    private final long defaultBudgetMillis;
+    private final long maxBudgetMillis;
+    private final long progressIntervalMillis;
+    private final int parallelism;
+    private final long queueTimeoutMillis;
+    private final Semaphore slots;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public SimulationService(
+            HandGeneratorService handGenerator,
+            @Value("${simulations.default-samples:1000}") int defaultSamples,
+            @Value("${simulations.max-samples:10000}") int maxSamples,
+            @Value("${simulations.default-time-budget-ms:10000}") long defaultBudgetMillis,
+            @Value("${simulations.max-time-budget-ms:60000}") long maxBudgetMillis,
+            @Value("${simulations.progress-interval-ms:1000}") long progressIntervalMillis,
+            @Value("${simulations.parallelism:0}") int parallelism,
+            @Value("${simulations.max-concurrent:2}") int maxConcurrent,
+            @Value("${simulations.queue-timeout-ms:5000}") long queueTimeoutMillis) {
+        this(handGenerator, () -> new DoubleDummySolver()::tricksNorthSouth, defaultSamples, maxSamples,
+                defaultBudgetMillis, maxBudgetMillis, progressIntervalMillis, parallelism,
+                maxConcurrent, queueTimeoutMillis);
+    }
+
+    SimulationService(HandGeneratorService handGenerator, Supplier<TrickCounter> counters,
+                      int defaultSamples, int maxSamples, long defaultBudgetMillis, long maxBudgetMillis,
+                      long progressIntervalMillis, int parallelism, int maxConcurrent, long queueTimeoutMillis) {
+        this.handGenerator = handGenerator;
+        this.counters = ThreadLocal.withInitial(counters);
+        this.maxSamples = Math.max(1, maxSamples);
+        this.defaultSamples = Math.max(1, Math.min(defaultSamples, this.maxSamples));
+        this.maxBudgetMillis = Math.max(1, maxBudgetMillis);
+        this.defaultBudgetMillis = Math.max(1, Math.min(defaultBudgetMillis, this.maxBudgetMillis));
+        this.progressIntervalMillis = Math.max(1, progressIntervalMillis);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.queueTimeoutMillis = Math.max(0, queueTimeoutMillis);
+        this.slots = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Checks the hand, positions and contracts of a request (400 on failure) and reserves a
+     * simulation slot for it (503 when none frees up within the queue timeout). Call before
+     * any response bytes are written, and close the slot when the simulation is done.
+     */
+    public Slot reserve(SimulationRequest request) {
+        Plan plan = plan(request);
+        try {
+            if (!slots.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Too many simulations running, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while queued");
+        }
+        return new Slot(plan);
+    }
+
+    /**
+     * Reserves a slot, runs the simulation and frees the slot.
+     *
+     * @see #simulate(Slot, BatchBiddingService.ResultConsumer)
+     */
+    public SimulationResult simulate(SimulationRequest request,
+                                     BatchBiddingService.ResultConsumer<SimulationResult> progress) throws IOException {
+        try (Slot slot = reserve(request)) {
+            return simulate(slot, progress);
+        }
+    }
+
+    /**
+     * Runs the simulation reserved by {@code slot}, passing a snapshot to {@code progress}
+     * every progress interval until it finishes. The slot stays reserved until closed.
+     *
+     * @return the final estimates
+     */
+    public SimulationResult simulate(Slot slot,
+                                     BatchBiddingService.ResultConsumer<SimulationResult> progress) throws IOException {
+        if (!slot.open.get()) throw new IllegalStateException("Simulation slot already closed");
+        Plan plan = slot.plan;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(plan.budgetMillis);
+        Tally tally = new Tally(plan);
+        AtomicInteger claimed = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        int workers = Math.min(parallelism, plan.samples);
+        CountDownLatch done = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> {
+                try {
+                    work(plan, tally, claimed, stopped, deadline);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    stopped.set(true);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        try {
+            while (!done.await(Math.min(progressIntervalMillis, remainingMillis(deadline)), TimeUnit.MILLISECONDS)) {
+                if (System.nanoTime() >= deadline) break;
+                progress.accept(tally.snapshot(elapsedMillis(start), false));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped.set(true);
+        }
+        if (failure.get() != null) throw failure.get();
+        return tally.snapshot(elapsedMillis(start), true);
+    }
+
+    private void work(Plan plan, Tally tally, AtomicInteger claimed, AtomicBoolean stopped, long deadline) {
+        TrickCounter counter = counters.get();
+        long[] deal = new long[4];
+        int[] tricks = new int[TrickTable.STRAINS];
+        int leader = (plan.declarer.ordinal() + 1) & 3;
+        boolean northSouth = (plan.declarer.ordinal() & 1) == 0;
+        while (!stopped.get() && System.nanoTime() < deadline && claimed.getAndIncrement() < plan.samples) {
+            handGenerator.dealAround(plan.hand, plan.seat, deal);
+            for (int strain : plan.strains) {
+                int ns = counter.tricksNorthSouth(deal, strain, leader);
+                tricks[strain] = northSouth ? ns : TRICKS - ns;
+            }
+            if (stopped.get()) return;
+            tally.add(tricks);
+        }
+    }
+
+    private Plan plan(SimulationRequest request) {
+        try {
+            long hand = HandParser.parseOrThrow(request.hand());
+            HandPosition seat = HandPosition.fromSymbol(request.position());
+            HandPosition declarer = request.declarer() == null || request.declarer().isBlank()
+                    ? seat : HandPosition.fromSymbol(request.declarer());
+            List<Contract> contracts = new ArrayList<>(request.contracts().size());
+            boolean[] used = new boolean[TrickTable.STRAINS];
+            for (String text : request.contracts()) {
+                Contract contract = Contract.parse(text);
+                contracts.add(contract);
+                used[contract.strain()] = true;
+            }
+            int[] strains = new int[TrickTable.STRAINS];
+            int count = 0;
+            for (int strain = 0; strain < TrickTable.STRAINS; strain++) {
+                if (used[strain]) strains[count++] = strain;
+            }
+            int samples = request.samples() == null ? defaultSamples : Math.min(request.samples(), maxSamples);
+            long budget = request.timeBudgetMillis() == null
+                    ? defaultBudgetMillis : Math.min(request.timeBudgetMillis(), maxBudgetMillis);
+            return new Plan(hand, seat, declarer, contracts, Arrays.copyOf(strains, count),
+                    samples, budget, request.vulnerable());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /** A reserved place among the concurrently running simulations; closing it twice is harmless. */
+    public final class Slot implements AutoCloseable {
+        private final Plan plan;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        private Slot(Plan plan) {
+            this.plan = plan;
+        }
+
+        @Override
+        public void close() {
+            if (open.compareAndSet(true, false)) slots.release();
+        }
+    }
+
+    private record Plan(long hand, HandPosition seat, HandPosition declarer, List<Contract> contracts,
+                        int[] strains, int samples, long budgetMillis, boolean vulnerable) {}
+
+    /** Running sums per contract; shared by the workers. */
+    private static final class Tally {
+        private final Plan plan;
+        private final int size;
+        private final double[] tricks;
+        private final double[] tricksSquared;
+        private final double[] score;
+        private final double[] scoreSquared;
+        private final int[] makes;
+        private int samples;
+
+        Tally(Plan plan) {
+            this.plan = plan;
+            this.size = plan.contracts.size();
+            this.tricks = new double[size];
+            this.tricksSquared = new double[size];
+            this.score = new double[size];
+            this.scoreSquared = new double[size];
+            this.makes = new int[size];
+        }
+
+        synchronized void add(int[] tricksByStrain) {
+            for (int i = 0; i < size; i++) {
+                Contract contract = plan.contracts.get(i);
+                int taken = tricksByStrain[contract.strain()];
+                int points = contract.score(taken, plan.vulnerable);
+                tricks[i] += taken;
+                tricksSquared[i] += (double) taken * taken;
+                score[i] += points;
+                scoreSquared[i] += (double) points * points;
+                if (contract.makes(taken)) makes[i]++;
+            }
+            samples++;
+        }
+
+        synchronized SimulationResult snapshot(long elapsedMillis, boolean finished) {
+            List<ContractEstimate> estimates = new ArrayList<>(size);
+            if (samples > 0) {
+                for (int i = 0; i < size; i++) {
+                    double meanTricks = tricks[i] / samples;
+                    double meanScore = score[i] / samples;
+                    estimates.add(new ContractEstimate(
+                            plan.contracts.get(i).toString(),
+                            plan.declarer.getSymbol(),
+                            meanTricks,
+                            interval(meanTricks, tricksSquared[i]),
+                            meanScore,
+                            interval(meanScore, scoreSquared[i]),
+                            (double) makes[i] / samples));
+                }
+            }
+            return new SimulationResult(samples, plan.samples, elapsedMillis, finished && samples == plan.samples, estimates);
+        }
+
+        private Interval interval(double mean, double sumSquares) {
+            if (samples < 2) return new Interval(mean, mean);
+            double variance = Math.max(0.0, (sumSquares - samples * mean * mean) / (samples - 1));
+            double margin = Z_95 * Math.sqrt(variance / samples);
+            return new Interval(mean - margin, mean + margin);
+        }
+    }
+}
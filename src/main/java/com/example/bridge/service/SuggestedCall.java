@@ -0,0 +1,10 @@
+package com.example.bridge.service;
+
+/**
+ * A suggested call together with what it was derived from: the {@link AuctionRules} context
+ * (its role is the reason code, its two calls the reason's parameters) and the hand's HCP
+ * and {@link com.example.bridge.model.PackedHand#shape shape}. Explanations are rendered from
+ * this by {@link ExplanationTemplates} only when a client asks for one.
+ */
+record SuggestedCall(String call, int context, int hcp, int shape, String convention) {
+}
@@ -0,0 +1,33 @@
+package com.example.bridge.validation;
+
+import com.example.bridge.model.HandParser;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/** Checks {@link ValidHand} strings with {@link HandParser}, reporting its message. */
+public class HandValidator implements ConstraintValidator<ValidHand, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        if (value == null) return true;
+        long result = HandParser.parse(value);
+        if (!HandParser.isError(result) || HandParser.error(result) == HandParser.Error.EMPTY) {
+            return true;
+        }
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(escape(HandParser.message(result, value)))
+                .addConstraintViolation();
+        return false;
+    }
+
+    // The message quotes client input, which must not be read as a message template
+    static String escape(String message) {
+        StringBuilder out = new StringBuilder(message.length() + 8);
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '\\' || c == '{' || c == '}' || c == '$') out.append('\\');
+            out.append(c);
+        }
+        return out.toString();
+    }
+}
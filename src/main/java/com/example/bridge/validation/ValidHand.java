@@ -0,0 +1,28 @@
+package com.example.bridge.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated string is a 13-card hand in a notation {@link com.example.bridge.model.HandParser}
+ * accepts. Null and blank values are left to {@code @NotNull}/{@code @NotBlank}. The violation
+ * message says what is wrong and where, e.g. "Hand has 14 cards, expected 13".
+ */
+@Documented
+@Constraint(validatedBy = HandValidator.class)
+@Target({ElementType.METHOD, ElementType.FIELD, ElementType.ANNOTATION_TYPE, ElementType.PARAMETER, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidHand {
+
+    String message() default "Invalid hand, expected e.g. 'AKQJ.T987.AK.QJ9'";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -1,31 +1,55 @@
 package com.example.bridge.controller;
 
+import com.example.bridge.dto.BatchResponse;
 import com.example.bridge.dto.BidRequest;
 import com.example.bridge.dto.BidResponse;
 import com.example.bridge.dto.CheckBidRequest;
 import com.example.bridge.dto.CheckBidResponse;
 import com.example.bridge.model.HandPosition;
 import com.example.bridge.model.Deal;
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+import com.example.bridge.service.BatchBiddingService;
 import com.example.bridge.service.BridgeBiddingService;
 import com.example.bridge.service.HandGeneratorService;
 import com.example.bridge.service.QuizDealService;
+import com.example.bridge.service.QuizHandPool;
+import com.example.bridge.service.QuizHandService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Locale;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = BidController.class)
+@Import({QuizHandPool.class, QuizHandService.class})
+@TestPropertySource(properties = "quiz.pool.enabled=false")
 class BidControllerTest {
 
     @Autowired
@@ -40,6 +64,9 @@ class BidControllerTest {
     @MockBean
     private QuizDealService quizDealService;
 
+    @MockBean
+    private BatchBiddingService batchBiddingService;
+
     @Test
     @DisplayName("GET /api/bids/ returns welcome HTML")
     void welcome_returnsHtml() throws Exception {
@@ -78,8 +105,8 @@ class BidControllerTest {
         Deal deal = new Deal(HandPosition.WEST, hands);
 
         Mockito.when(handGeneratorService.generateDeal()).thenReturn(deal);
-        Mockito.when(biddingService.suggestOpeningBid(eq(hands.get(HandPosition.WEST)), eq("polish club")))
-                .thenReturn("1NT");
+        Mockito.when(biddingService.nextCall(anyLong(), eq(PackedHand.parse(hands.get(HandPosition.WEST))), eq("polish club")))
+                .thenReturn(PackedAuction.parseCall("1NT"));
 
         mockMvc.perform(get("/api/bids/quiz"))
                 .andExpect(status().isOk())
@@ -88,7 +115,7 @@ class BidControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/bids/quiz builds auction from dealer to North using simulated openings")
+    @DisplayName("GET /api/bids/quiz builds auction from dealer to North with the auction engine")
     void getQuizHand_buildsAuctionFromDealerToNorth() throws Exception {
         // Prepare deterministic deal: Dealer = EAST. Order of seats: E, S, W, N
         java.util.Map<HandPosition, String> hands = new java.util.EnumMap<>(HandPosition.class);
@@ -100,13 +127,13 @@ class BidControllerTest {
 
         Mockito.when(handGeneratorService.generateDeal()).thenReturn(deal);
 
-        // Mock opening suggestions for seats before North: E, S, W
-        Mockito.when(biddingService.suggestOpeningBid(eq(hands.get(HandPosition.EAST)), eq("polish club")))
-                .thenReturn("1C");
-        Mockito.when(biddingService.suggestOpeningBid(eq(hands.get(HandPosition.SOUTH)), eq("polish club")))
-                .thenReturn("PASS");
-        Mockito.when(biddingService.suggestOpeningBid(eq(hands.get(HandPosition.WEST)), eq("polish club")))
-                .thenReturn("PASS");
+        // Mock the calls for seats before North: E, S, W
+        Mockito.when(biddingService.nextCall(anyLong(), eq(PackedHand.parse(hands.get(HandPosition.EAST))), eq("polish club")))
+                .thenReturn(PackedAuction.parseCall("1C"));
+        Mockito.when(biddingService.nextCall(anyLong(), eq(PackedHand.parse(hands.get(HandPosition.SOUTH))), eq("polish club")))
+                .thenReturn(PackedAuction.parseCall("PASS"));
+        Mockito.when(biddingService.nextCall(anyLong(), eq(PackedHand.parse(hands.get(HandPosition.WEST))), eq("polish club")))
+                .thenReturn(PackedAuction.parseCall("PASS"));
 
         mockMvc.perform(get("/api/bids/quiz"))
                 .andExpect(status().isOk())
@@ -122,7 +149,7 @@ class BidControllerTest {
     @Test
     @DisplayName("POST /api/bids/suggest returns bid suggestion")
     void suggestBid_returnsResponse() throws Exception {
-        Mockito.when(biddingService.suggestBid(any(BidRequest.class)))
+        Mockito.when(biddingService.suggestBid(any(BidRequest.class), eq(true), any()))
                 .thenReturn(new BidResponse("PASS", "stub"));
 
         String body = "{" +
@@ -141,6 +168,38 @@ class BidControllerTest {
                 .andExpect(jsonPath("$.explanation").value("stub"));
     }
 
+    @Test
+    @DisplayName("POST /api/bids/suggest explains in the Accept-Language language")
+    void suggestBid_passesTheRequestLocale() throws Exception {
+        Mockito.when(biddingService.suggestBid(any(BidRequest.class), eq(true), any()))
+                .thenReturn(new BidResponse("1NT", "stub"));
+
+        mockMvc.perform(post("/api/bids/suggest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "pl-PL,pl;q=0.9,en;q=0.8")
+                        .content("{\"hand\": \"AK73.QJ3.Q98.KJ9\", \"position\": \"N\", \"convention\": \"natural\", \"vulnerability\": \"None\", \"auction\": []}"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(biddingService).suggestBid(any(BidRequest.class), eq(true), eq(Locale.forLanguageTag("pl-PL")));
+    }
+
+    @Test
+    @DisplayName("POST /api/bids/suggest with a 14-card hand returns 400 without evaluating it")
+    void suggestBid_validationError_invalidHand() throws Exception {
+        String invalidBody = "{" +
+                "\n  \"hand\": \"AKQJ.T987.AK.QJ98\"," +
+                "\n  \"position\": \"N\"," +
+                "\n  \"convention\": \"natural\"," +
+                "\n  \"vulnerability\": \"None\"," +
+                "\n  \"auction\": []\n}";
+
+        mockMvc.perform(post("/api/bids/suggest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(invalidBody))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(biddingService);
+    }
+
     @Test
     @DisplayName("POST /api/bids/suggest with missing convention returns 400")
     void suggestBid_validationError_missingConvention() throws Exception {
@@ -157,10 +216,32 @@ class BidControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("POST /api/bids/suggest?explain=false answers in CBOR without the explanation")
+    void suggestBid_cborWithoutExplanation() throws Exception {
+        Mockito.when(biddingService.suggestBid(any(BidRequest.class), eq(false), any()))
+                .thenReturn(new BidResponse("1NT", null));
+        CBORMapper cbor = new CBORMapper();
+        byte[] body = cbor.writeValueAsBytes(
+                new BidRequest("AK73.QJ3.Q98.KJ9", "N", "natural", "None", java.util.List.of()));
+
+        MvcResult result = mockMvc.perform(post("/api/bids/suggest?explain=false")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode response = cbor.readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("1NT", response.get("suggestedBid").asText());
+        assertFalse(response.has("explanation"));
+    }
+
     @Test
     @DisplayName("POST /api/bids/check returns check result")
     void checkBid_returnsResponse() throws Exception {
-        Mockito.when(biddingService.checkBid(any(CheckBidRequest.class)))
+        Mockito.when(biddingService.checkBid(any(CheckBidRequest.class), eq(true), any()))
                 .thenReturn(new CheckBidResponse("1C", "stub-check"));
 
         String body = "{" +
@@ -194,4 +275,104 @@ class BidControllerTest {
                         .content(invalidBody))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @DisplayName("POST /api/bids/suggest:batch returns ordered results with batch timing")
+    void suggestBatch_jsonArray() throws Exception {
+        Mockito.when(batchBiddingService.maxBatchSize()).thenReturn(100);
+        Mockito.when(batchBiddingService.suggestAll(anyList(), eq(true), any()))
+                .thenReturn(new BatchResponse<>(2, 1500, java.util.List.of(
+                        new BidResponse("1NT", "a"), new BidResponse("PASS", "b"))));
+
+        String body = "[" +
+                "{\"hand\":\"AK73.QJ3.Q98.KJ9\",\"position\":\"N\",\"convention\":\"natural\",\"vulnerability\":\"None\",\"auction\":[]}," +
+                "{\"hand\":\"T732.T43.982.732\",\"position\":\"N\",\"convention\":\"natural\",\"vulnerability\":\"None\",\"auction\":[]}" +
+                "]";
+
+        mockMvc.perform(post("/api/bids/suggest:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", "batch;dur=1.5"))
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.elapsedMicros").value(1500))
+                .andExpect(jsonPath("$.results[0].suggestedBid").value("1NT"))
+                .andExpect(jsonPath("$.results[1].suggestedBid").value("PASS"));
+    }
+
+    @Test
+    @DisplayName("POST /api/bids/suggest:batch refuses an array once it passes the batch limit")
+    void suggestBatch_stopsReadingAtTheLimit() throws Exception {
+        Mockito.when(batchBiddingService.maxBatchSize()).thenReturn(2);
+        String item = "{\"hand\":\"AK73.QJ3.Q98.KJ9\",\"position\":\"N\",\"convention\":\"natural\",\"vulnerability\":\"None\",\"auction\":[]}";
+        // The third item is never bound, so the malformed tail is not even seen
+        String body = "[" + item + "," + item + "," + item + ", {not json";
+
+        mockMvc.perform(post("/api/bids/suggest:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPayloadTooLarge());
+        Mockito.verify(batchBiddingService, Mockito.never()).suggestAll(anyList(), anyBoolean(), any());
+    }
+
+    @Test
+    @DisplayName("POST /api/bids/suggest:batch reads CBOR arrays too")
+    void suggestBatch_cborArray() throws Exception {
+        Mockito.when(batchBiddingService.maxBatchSize()).thenReturn(100);
+        Mockito.when(batchBiddingService.suggestAll(anyList(), eq(true), any()))
+                .thenReturn(new BatchResponse<>(1, 10, java.util.List.of(new BidResponse("1NT", "a"))));
+        byte[] body = new CBORMapper().writeValueAsBytes(java.util.List.of(
+                new BidRequest("AK73.QJ3.Q98.KJ9", "N", "natural", "None", java.util.List.of())));
+
+        mockMvc.perform(post("/api/bids/suggest:batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        Mockito.verify(batchBiddingService).suggestAll(
+                argThat(requests -> requests.size() == 1 && requests.get(0).hand().equals("AK73.QJ3.Q98.KJ9")),
+                eq(true), any());
+    }
+
+    @Test
+    @DisplayName("POST /api/bids/check:batch rejects a body that is not an array")
+    void checkBatch_rejectsANonArrayBody() throws Exception {
+        Mockito.when(batchBiddingService.maxBatchSize()).thenReturn(100);
+
+        mockMvc.perform(post("/api/bids/check:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"proposedBid\":\"1C\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/bids/check:batch with NDJSON streams one result per line and a summary line")
+    void checkBatch_ndjson() throws Exception {
+        Mockito.when(batchBiddingService.maxBatchSize()).thenReturn(100);
+        Mockito.when(batchBiddingService.checkEach(anyList(), eq(true), any(), any())).thenAnswer(inv -> {
+            BatchBiddingService.ResultConsumer<CheckBidResponse> consumer = inv.getArgument(3);
+            consumer.accept(new CheckBidResponse("1C", "x"));
+            consumer.accept(new CheckBidResponse("1NT", "y"));
+            return 42L;
+        });
+
+        String body = "{\"proposedBid\":\"1C\",\"hand\":\"AKQJ.T987.AK.QJ9\",\"position\":\"N\",\"convention\":\"precision\",\"auction\":[]}\n" +
+                "{\"proposedBid\":\"1H\",\"hand\":\"AK73.QJ3.Q98.KJ9\",\"position\":\"N\",\"convention\":\"natural\",\"auction\":[]}\n";
+
+        MvcResult result = mockMvc.perform(post("/api/bids/check:batch")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"suggestedBid\":\"1C\""));
+        assertTrue(lines[1].contains("\"suggestedBid\":\"1NT\""));
+        assertEquals("{\"count\":2,\"elapsedMicros\":42}", lines[2]);
+        Mockito.verify(batchBiddingService).validate(anyList());
+    }
 }
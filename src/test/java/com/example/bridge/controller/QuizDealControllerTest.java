@@ -1,22 +1,42 @@
 package com.example.bridge.controller;
 
+import com.example.bridge.dto.DealCursor;
+import com.example.bridge.dto.QuizDealSummary;
 import com.example.bridge.entity.QuizDeal;
 import com.example.bridge.model.HandPosition;
+import com.example.bridge.service.DealFeed;
 import com.example.bridge.service.QuizDealService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,38 +49,132 @@ class QuizDealControllerTest {
     @MockBean
     private QuizDealService quizDealService;
 
+    @MockBean
+    private DealFeed dealFeed;
+
+    private static final AtomicLong changes = new AtomicLong();
+    private QuizDealService.ChangeToken token;
+
+    @BeforeEach
+    void stubChangeToken() {
+        // A fresh token per test, so bodies the controller cached in earlier tests are never served
+        token = changeToken(changes.incrementAndGet());
+        Mockito.when(quizDealService.changeToken()).thenReturn(token);
+    }
+
+    private static QuizDealService.ChangeToken changeToken(long sequence) {
+        return new QuizDealService.ChangeToken(sequence, "\"test-" + sequence + "\"",
+                Instant.parse("2024-01-01T00:00:00Z").toEpochMilli());
+    }
+
     private QuizDeal sampleDeal(long id) {
         QuizDeal d = new QuizDeal();
         d.setId(id);
         d.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
         d.setDealer(HandPosition.EAST);
-        d.setNorthHand("AKQJ.T987.AK.QJ9");
-        d.setEastHand("KQ73.KJ3.Q98.QJ9");
-        d.setSouthHand("QJ32.764.AKJ.832");
-        d.setWestHand("A954.AQ2.7654.K4");
+        d.setHands(Map.of(
+                HandPosition.NORTH, "AKQJ.T987.AK.QJ9",
+                HandPosition.EAST, "T987.AKQJ.QJ9.AK",
+                HandPosition.SOUTH, "65432.65.65432.T",
+                HandPosition.WEST, ".432.T87.8765432"));
         d.setConvention("polish club");
-        d.setAuctionJson("[\"1C\",\"PASS\"]");
+        d.setAuction(List.of("1C", "PASS"));
         return d;
     }
 
+    private QuizDealSummary sampleSummary(long id) {
+        return new QuizDealSummary(id, Instant.parse("2024-01-01T00:00:00Z"), HandPosition.EAST,
+                "AKQJ.T987.AK.QJ9", "KQ73.KJ3.Q98.QJ9", "QJ32.764.AKJ.832", "A954.AQ2.7654.K4", "polish club");
+    }
+
     @Test
     @DisplayName("GET /api/deals/recent returns JSON list of recent deals")
     void listRecent_returnsJson() throws Exception {
-        Mockito.when(quizDealService.listRecent(anyInt())).thenReturn(List.of(sampleDeal(1), sampleDeal(2)));
+        Mockito.when(quizDealService.listRecentSummaries(anyInt(), isNull(), eq(false)))
+                .thenReturn(List.of(sampleSummary(1), sampleSummary(2)));
 
         mockMvc.perform(get("/api/deals/recent?limit=2"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].dealer").value("E"))
-                .andExpect(jsonPath("$[0].northHand").value("AKQJ.T987.AK.QJ9"));
+                .andExpect(jsonPath("$[0].northHand").value("AKQJ.T987.AK.QJ9"))
+                .andExpect(jsonPath("$[0].auctionJson").doesNotExist())
+                .andExpect(header().string("X-Next-Cursor", "2024-01-01T00:00:00Z,2"));
+    }
+
+    @Test
+    @DisplayName("GET /api/deals/recent with a cursor returns the older page")
+    void listRecent_withCursor() throws Exception {
+        DealCursor cursor = new DealCursor(Instant.parse("2024-01-01T00:00:00Z"), 2);
+        Mockito.when(quizDealService.listRecentSummaries(eq(10), eq(cursor), eq(true)))
+                .thenReturn(List.of(new QuizDealSummary(1L, cursor.createdAt(), HandPosition.EAST,
+                        "A", "B", "C", "D", "polish club", "[\"1C\"]")));
+
+        mockMvc.perform(get("/api/deals/recent?limit=10&includeAuction=true&before=2024-01-01T00:00:00Z,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].auctionJson").value("[\"1C\"]"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("GET /api/deals/recent with a malformed cursor returns 400")
+    void listRecent_badCursor() throws Exception {
+        mockMvc.perform(get("/api/deals/recent?before=yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/deals/recent sends validators and renders repeated polls once per change")
+    void listRecent_cachesTheRenderedPageUntilTheTokenChanges() throws Exception {
+        Mockito.when(quizDealService.listRecentSummaries(eq(2), isNull(), eq(false)))
+                .thenReturn(List.of(sampleSummary(1), sampleSummary(2)));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/deals/recent?limit=2"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", token.etag()))
+                    .andExpect(header().string("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"))
+                    .andExpect(header().string("Cache-Control", "no-cache"))
+                    .andExpect(header().string("X-Next-Cursor", "2024-01-01T00:00:00Z,2"))
+                    .andExpect(jsonPath("$[1].id").value(2));
+        }
+        Mockito.verify(quizDealService, times(1)).listRecentSummaries(eq(2), isNull(), eq(false));
+
+        Mockito.when(quizDealService.changeToken()).thenReturn(changeToken(changes.incrementAndGet()));
+        mockMvc.perform(get("/api/deals/recent?limit=2")).andExpect(status().isOk());
+        Mockito.verify(quizDealService, times(2)).listRecentSummaries(eq(2), isNull(), eq(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/deals/recent with the current ETag returns 304 without a query")
+    void listRecent_notModified() throws Exception {
+        mockMvc.perform(get("/api/deals/recent?limit=2").header(HttpHeaders.IF_NONE_MATCH, token.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", token.etag()))
+                .andExpect(content().string(""));
+
+        Mockito.verify(quizDealService, never()).listRecentSummaries(anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("GET /api/deals/recent.csv unchanged since If-Modified-Since returns 304 without a query")
+    void downloadRecentCsv_notModified() throws Exception {
+        Mockito.when(quizDealService.recentCsv(anyInt())).thenReturn("id\n");
+
+        mockMvc.perform(get("/api/deals/recent.csv").header(HttpHeaders.IF_MODIFIED_SINCE, "Mon, 01 Jan 2024 00:00:00 GMT"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/deals/recent.csv").header(HttpHeaders.IF_NONE_MATCH, "\"test-0\""))
+                .andExpect(status().isOk());
+
+        Mockito.verify(quizDealService, times(1)).recentCsv(anyInt());
     }
 
     @Test
     @DisplayName("GET /api/deals/recent.csv returns CSV content and attachment header")
     void downloadRecentCsv_returnsCsvAttachment() throws Exception {
-        Mockito.when(quizDealService.listRecent(anyInt())).thenReturn(List.of(sampleDeal(1)));
-        Mockito.when(quizDealService.toCsv(Mockito.anyList())).thenReturn(
+        Mockito.when(quizDealService.recentCsv(anyInt())).thenReturn(
                 "id,createdAt,dealer,northHand,eastHand,southHand,westHand,convention,auctionJson\n" +
                 "1,2024-01-01T00:00:00Z,E,AKQJ.T987.AK.QJ9,KQ73.KJ3.Q98.QJ9,QJ32.764.AKJ.832,A954.AQ2.7654.K4,polish club,\"[\\\"1C\\\",\\\"PASS\\\"]\"\n"
         );
@@ -72,4 +186,70 @@ class QuizDealControllerTest {
                 .andExpect(content().string(containsString("id,createdAt,dealer")))
                 .andExpect(content().string(containsString("AKQJ.T987.AK.QJ9")));
     }
+
+    @Test
+    @DisplayName("GET /api/deals/export.csv streams CSV from the service")
+    void exportCsv_streamsCsv() throws Exception {
+        Mockito.doAnswer(inv -> {
+            Writer out = inv.getArgument(0);
+            out.write("id,createdAt,dealer,northHand,eastHand,southHand,westHand,convention,auctionJson\n");
+            out.write("2,2024-01-01T00:00:00Z,E,AKQJ.T987.AK.QJ9,KQ73.KJ3.Q98.QJ9,QJ32.764.AKJ.832,A954.AQ2.7654.K4,polish club,x\n");
+            out.flush();
+            return 1L;
+        }).when(quizDealService).writeCsv(any(Writer.class), eq(1L), anyInt());
+
+        MvcResult result = mockMvc.perform(get("/api/deals/export.csv?afterId=1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("attachment; filename=")))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string(containsString("2,2024-01-01T00:00:00Z,E")));
+    }
+
+    @Test
+    @DisplayName("GET /api/deals/export.csv?gzip=true returns a gzip-encoded body")
+    void exportCsv_gzip() throws Exception {
+        Mockito.doAnswer(inv -> {
+            Writer out = inv.getArgument(0);
+            out.write("id,createdAt\n");
+            out.flush();
+            return 0L;
+        }).when(quizDealService).writeCsv(any(Writer.class), eq(0L), anyInt());
+
+        MvcResult result = mockMvc.perform(get("/api/deals/export.csv?gzip=true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("id,createdAt\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/deals/stream subscribes with Last-Event-ID and sends deals as events")
+    void stream_sendsFeedEvents() throws Exception {
+        Mockito.when(dealFeed.subscribe(eq("abc-4"), any(DealFeed.Sink.class))).thenAnswer(inv -> {
+            DealFeed.Sink sink = inv.getArgument(1);
+            sink.send(new DealFeed.Event("abc-5", "deal", "{\"id\":5}"));
+            sink.close();
+            return Mockito.mock(DealFeed.Subscription.class);
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/deals/stream").header("Last-Event-ID", "abc-4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("id:abc-5\nevent:deal\ndata:{\"id\":5}\n\n")));
+    }
 }
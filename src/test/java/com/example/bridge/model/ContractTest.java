@@ -0,0 +1,35 @@
+package com.example.bridge.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractTest {
+
+    @Test
+    void parse_acceptsSuitsAndNoTrumpSpellings() {
+        assertEquals(new Contract(4, PackedHand.HEARTS), Contract.parse("4H"));
+        assertEquals(new Contract(3, TrickTable.NO_TRUMP), Contract.parse("3nt"));
+        assertEquals(new Contract(3, TrickTable.NO_TRUMP), Contract.parse(" 3N "));
+        assertEquals("3NT", Contract.parse("3N").toString());
+    }
+
+    @Test
+    void parse_rejectsUnknownContracts() {
+        assertThrows(IllegalArgumentException.class, () -> Contract.parse("8S"));
+        assertThrows(IllegalArgumentException.class, () -> Contract.parse("4X"));
+        assertThrows(IllegalArgumentException.class, () -> Contract.parse(null));
+    }
+
+    @Test
+    void score_followsDuplicateScoring() {
+        assertEquals(420, Contract.parse("4H").score(10, false));
+        assertEquals(650, Contract.parse("4S").score(11, true));
+        assertEquals(400, Contract.parse("3NT").score(9, false));
+        assertEquals(110, Contract.parse("2D").score(9, false));
+        assertEquals(980, Contract.parse("6H").score(12, false));
+        assertEquals(2220, Contract.parse("7NT").score(13, true));
+        assertEquals(-100, Contract.parse("4H").score(8, false));
+        assertEquals(-300, Contract.parse("3NT").score(6, true));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bridge.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealIndexTest {
+
+    @Test
+    void count_isTheNumberOfBridgeDeals() {
+        // 52! / (13!)^4
+        BigInteger factorial = BigInteger.ONE;
+        for (int i = 2; i <= 52; i++) factorial = factorial.multiply(BigInteger.valueOf(i));
+        BigInteger hand = BigInteger.ONE;
+        for (int i = 2; i <= 13; i++) hand = hand.multiply(BigInteger.valueOf(i));
+        assertEquals(factorial.divide(hand.pow(4)), DealIndex.COUNT);
+        assertEquals(new BigInteger("53644737765488792839237440000"), DealIndex.COUNT);
+    }
+
+    @Test
+    void unrank_firstAndLastDealsAreSortedBlocks() {
+        long[] hands = new long[4];
+        DealIndex.unrank(BigInteger.ZERO, hands);
+        assertEquals(0x1FFFL, hands[0], "North holds the first 13 cards, the spades");
+        assertEquals(0x1FFFL << 39, hands[3]);
+
+        DealIndex.unrank(DealIndex.COUNT.subtract(BigInteger.ONE), hands);
+        assertEquals(0x1FFFL, hands[3]);
+        assertEquals(0x1FFFL << 39, hands[0]);
+    }
+
+    @Test
+    void rank_invertsUnrank() {
+        Random random = new Random(7);
+        long[] hands = new long[4];
+        for (int i = 0; i < 1000; i++) {
+            BigInteger index = new BigInteger(96, random).mod(DealIndex.COUNT);
+            DealIndex.unrank(index, hands);
+            long all = 0L;
+            for (long hand : hands) {
+                assertEquals(13, PackedHand.cardCount(hand));
+                all |= hand;
+            }
+            assertEquals((1L << 52) - 1, all);
+            assertEquals(index, DealIndex.rank(hands));
+        }
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        long[] hands = new long[4];
+        assertThrows(IllegalArgumentException.class, () -> DealIndex.unrank(DealIndex.COUNT, hands));
+        assertThrows(IllegalArgumentException.class, () -> DealIndex.unrank(BigInteger.valueOf(-1), hands));
+        assertThrows(IllegalArgumentException.class, () -> DealIndex.rank(new long[]{0x1FFFL, 0x1FFFL, 0, 0}));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bridge.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandParserTest {
+
+    private static final long HAND = PackedHand.parse("AKQJ.T987.AK.QJ9");
+
+    private static void assertError(HandParser.Error error, int index, String text) {
+        long result = HandParser.parse(text);
+        assertTrue(HandParser.isError(result), text);
+        assertEquals(error, HandParser.error(result), text);
+        assertEquals(index, HandParser.index(result), text);
+    }
+
+    @Test
+    void parse_acceptsPbnInAnyCaseWithTensAndWhitespace() {
+        assertEquals(HAND, HandParser.parse("AKQJ.T987.AK.QJ9"));
+        assertEquals(HAND, HandParser.parse(" jqka.7 8 9 10.ka.9JQ\n"));
+        assertNull(HandParser.error(HAND));
+    }
+
+    @Test
+    void parse_acceptsEmptyOrDashedVoids() {
+        long hand = PackedHand.parse("AKQJ9..T987.QJ92");
+        assertEquals(hand, HandParser.parse("AKQJ9..T987.QJ92"));
+        assertEquals(hand, HandParser.parse("AKQJ9.-.T987.QJ92"));
+        assertEquals(PackedHand.parse("AKQJT98765432..."), HandParser.parse("AKQJT98765432.-.-.-"));
+    }
+
+    @Test
+    void parse_acceptsLinInAnySuitOrder() {
+        assertEquals(HAND, HandParser.parse("SAKQJHT987DAKCQJ9"));
+        assertEquals(HAND, HandParser.parse("c9jq s AKQJ d ak h 10 9 8 7"));
+        assertEquals(PackedHand.parse("AKQJ9..T987.QJ92"), HandParser.parse("SAKQJ9DT987CQJ92"));
+    }
+
+    @Test
+    void parse_reportsWhatIsWrongAndWhere() {
+        assertError(HandParser.Error.EMPTY, 0, " ");
+        assertError(HandParser.Error.TOO_LONG, 65, "A".repeat(65));
+        assertError(HandParser.Error.SUIT_COUNT, 3, "AKQJ.T987.AKQJ9");
+        assertError(HandParser.Error.SUIT_COUNT, 5, "AKQJ.T987.AK.QJ9.2");
+        assertError(HandParser.Error.DUPLICATE_SUIT, 5, "SAKQJSHT987DAKCQJ9");
+        assertError(HandParser.Error.INVALID_CHARACTER, 2, "AKXJ.T987.AK.QJ9");
+        assertError(HandParser.Error.INVALID_CHARACTER, 6, "AKQJ.-T987.AK.QJ9");
+        assertError(HandParser.Error.INVALID_CHARACTER, 0, "N:AKQJ.T987.AK.QJ9");
+        assertError(HandParser.Error.DUPLICATE_CARD, 3, "AKQA.T987.AK.QJ9");
+        assertError(HandParser.Error.DUPLICATE_CARD, 6, "AKQJ.T1098.AK.QJ9");
+        assertError(HandParser.Error.CARD_COUNT, 12, "AKQJ.T987.AK.QJ");
+        assertError(HandParser.Error.CARD_COUNT, 14, "AKQJ.T987.AK.QJ98");
+        assertError(HandParser.Error.EMPTY, 0, null);
+    }
+
+    @Test
+    void message_describesTheError() {
+        String text = "AKQJ.T987.AK.QJ98";
+        assertEquals("Hand has 14 cards, expected 13", HandParser.message(HandParser.parse(text), text));
+        text = "AKQJ.T9x7.AK.QJ9";
+        assertEquals("Unexpected character 'x' at position 8", HandParser.message(HandParser.parse(text), text));
+        text = "AKQJ.T1098.AK.QJ9";
+        assertEquals("Card 10 is given twice at position 7", HandParser.message(HandParser.parse(text), text));
+        assertNull(HandParser.message(HAND, "AKQJ.T987.AK.QJ9"));
+    }
+
+    @Test
+    void parseOrThrow_rejectsWithTheMessage() {
+        assertEquals(HAND, HandParser.parseOrThrow("AKQJ.T987.AK.QJ9"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> HandParser.parseOrThrow("AKQJ.T987.AK"));
+        assertEquals("Hand has 3 suits, expected 4 separated by dots (S.H.D.C)", e.getMessage());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bridge.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedAuctionTest {
+
+    @Test
+    void calls_roundTripThroughCodesInBiddingOrder() {
+        assertEquals(PackedAuction.PASS, PackedAuction.parseCall("pass"));
+        assertEquals(PackedAuction.PASS, PackedAuction.parseCall("P"));
+        assertEquals(PackedAuction.DOUBLE, PackedAuction.parseCall("X"));
+        assertEquals(PackedAuction.REDOUBLE, PackedAuction.parseCall("xx"));
+        assertEquals("3NT", PackedAuction.symbol(PackedAuction.parseCall("3n")));
+        assertTrue(PackedAuction.parseCall("1D") < PackedAuction.parseCall("1H"));
+        assertTrue(PackedAuction.parseCall("1NT") < PackedAuction.parseCall("2C"));
+        assertEquals(PackedAuction.CALLS - 1, PackedAuction.parseCall("7NT"));
+        int fourHearts = PackedAuction.parseCall("4H");
+        assertEquals(4, PackedAuction.level(fourHearts));
+        assertEquals(PackedHand.HEARTS, PackedAuction.strain(fourHearts));
+        assertThrows(IllegalArgumentException.class, () -> PackedAuction.parseCall("8C"));
+    }
+
+    @Test
+    void cheapestBid_findsTheLowestSufficientLevel() {
+        int oneHeart = PackedAuction.parseCall("1H");
+        assertEquals("1S", PackedAuction.symbol(PackedAuction.cheapestBid(oneHeart, PackedHand.SPADES)));
+        assertEquals("2D", PackedAuction.symbol(PackedAuction.cheapestBid(oneHeart, PackedHand.DIAMONDS)));
+        assertEquals("1C", PackedAuction.symbol(PackedAuction.cheapestBid(PackedAuction.PASS, PackedHand.CLUBS)));
+        assertEquals(-1, PackedAuction.cheapestBid(PackedAuction.parseCall("7S"), PackedHand.HEARTS));
+    }
+
+    @Test
+    void apply_tracksSeatLastBidAndOpeningRound() {
+        long auction = PackedAuction.parse(HandPosition.EAST, List.of("PASS", "1H", "X", "2H"));
+
+        assertEquals(HandPosition.EAST.ordinal(), PackedAuction.seatToAct(auction));
+        assertEquals(4, PackedAuction.callCount(auction));
+        assertEquals(PackedAuction.parseCall("2H"), PackedAuction.lastBid(auction));
+        assertEquals(HandPosition.NORTH.ordinal(), PackedAuction.lastBidder(auction));
+        assertEquals(0, PackedAuction.doubled(auction));
+        assertEquals(PackedAuction.parseCall("1H"), PackedAuction.opening(auction));
+        assertEquals(HandPosition.SOUTH.ordinal(), PackedAuction.opener(auction));
+        assertEquals(PackedAuction.parseCall("2H"), PackedAuction.response(auction));
+        assertFalse(PackedAuction.openerHasRebid(auction));
+        assertTrue(PackedAuction.hasCalled(auction, HandPosition.WEST.ordinal()));
+        assertFalse(PackedAuction.hasCalled(auction, HandPosition.EAST.ordinal()));
+
+        long rebid = PackedAuction.apply(PackedAuction.apply(auction, PackedAuction.PASS), PackedAuction.PASS);
+        assertTrue(PackedAuction.openerHasRebid(rebid));
+    }
+
+    @Test
+    void isLegal_enforcesSufficiencyAndDoubles() {
+        long auction = PackedAuction.parse(HandPosition.NORTH, List.of("1S"));
+
+        assertFalse(PackedAuction.isLegal(auction, PackedAuction.parseCall("1H")));
+        assertTrue(PackedAuction.isLegal(auction, PackedAuction.parseCall("1NT")));
+        assertTrue(PackedAuction.isLegal(auction, PackedAuction.DOUBLE));
+        assertFalse(PackedAuction.isLegal(auction, PackedAuction.REDOUBLE));
+
+        long partnerToAct = PackedAuction.apply(auction, PackedAuction.PASS);
+        assertFalse(PackedAuction.isLegal(partnerToAct, PackedAuction.DOUBLE), "cannot double partner");
+
+        long doubled = PackedAuction.apply(auction, PackedAuction.DOUBLE);
+        assertTrue(PackedAuction.isLegal(doubled, PackedAuction.REDOUBLE));
+        assertFalse(PackedAuction.isLegal(doubled, PackedAuction.DOUBLE));
+        assertThrows(IllegalArgumentException.class, () -> PackedAuction.apply(auction, PackedAuction.parseCall("1C")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedAuction.parse(HandPosition.NORTH, List.of("1S", "PASS", "1H")));
+    }
+
+    @Test
+    void isComplete_afterThreePassesOrPassedOut() {
+        assertFalse(PackedAuction.isComplete(PackedAuction.parse(HandPosition.WEST, List.of("PASS", "PASS", "PASS"))));
+        long passedOut = PackedAuction.parse(HandPosition.WEST, List.of("PASS", "PASS", "PASS", "PASS"));
+        assertTrue(PackedAuction.isComplete(passedOut));
+        assertFalse(PackedAuction.isLegal(passedOut, PackedAuction.parseCall("1C")));
+        assertTrue(PackedAuction.isComplete(PackedAuction.parse(HandPosition.WEST, List.of("1C", "PASS", "PASS", "PASS"))));
+    }
+
+    @Test
+    void encodeCalls_storesOneBytePerCall() {
+        byte[] codes = PackedAuction.encodeCalls(List.of("1C", "pass", "3N", "X", "XX", "7NT"));
+        assertEquals(6, codes.length);
+        assertEquals(List.of("1C", "PASS", "3NT", "X", "XX", "7NT"), PackedAuction.decodeCalls(codes));
+        assertThrows(IllegalArgumentException.class, () -> PackedAuction.encodeCalls(List.of("8C")));
+        assertThrows(IllegalArgumentException.class, () -> PackedAuction.decodeCalls(new byte[]{38}));
+    }
+}
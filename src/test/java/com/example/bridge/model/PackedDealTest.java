@@ -0,0 +1,48 @@
+package com.example.bridge.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedDealTest {
+
+    @Test
+    void encode_roundTripsIn13Bytes() {
+        Random random = new Random(11);
+        long[] hands = new long[4];
+        long[] decoded = new long[4];
+        for (int i = 0; i < 200; i++) {
+            DealIndex.unrank(new BigInteger(96, random).mod(DealIndex.COUNT), hands);
+            byte[] deal = PackedDeal.encode(hands);
+            assertEquals(PackedDeal.BYTES, deal.length);
+            PackedDeal.decode(deal, decoded);
+            assertArrayEquals(hands, decoded);
+            assertEquals(hands[2], PackedDeal.hand(deal, HandPosition.SOUTH));
+        }
+    }
+
+    @Test
+    void encode_storesTheOwnerOfEachCardInTwoBits() {
+        long[] hands = new long[4];
+        DealIndex.unrank(BigInteger.ZERO, hands); // N holds spades, E hearts, S diamonds, W clubs
+        byte[] deal = PackedDeal.encode(hands);
+        assertEquals(0, deal[0], "the first four cards all belong to North");
+        assertEquals((byte) 0xFF, deal[12], "the last four clubs all belong to West");
+    }
+
+    @Test
+    void encode_rejectsIncompleteOrOverlappingHands() {
+        long[] hands = new long[4];
+        DealIndex.unrank(BigInteger.ONE, hands);
+        long[] missing = hands.clone();
+        missing[0] &= missing[0] - 1;
+        assertThrows(IllegalArgumentException.class, () -> PackedDeal.encode(missing));
+        long[] shared = hands.clone();
+        shared[1] |= hands[0];
+        assertThrows(IllegalArgumentException.class, () -> PackedDeal.encode(shared));
+        assertThrows(IllegalArgumentException.class, () -> PackedDeal.decode(new byte[12], hands));
+    }
+}
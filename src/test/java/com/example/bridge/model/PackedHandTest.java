@@ -0,0 +1,41 @@
+package com.example.bridge.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedHandTest {
+
+    @Test
+    void parse_countsSuitLengthsAndHcp() {
+        long hand = PackedHand.parse("AKQJ.T987.AK.QJ9");
+        assertEquals(13, PackedHand.cardCount(hand));
+        assertEquals(4, PackedHand.length(hand, PackedHand.SPADES));
+        assertEquals(4, PackedHand.length(hand, PackedHand.HEARTS));
+        assertEquals(2, PackedHand.length(hand, PackedHand.DIAMONDS));
+        assertEquals(3, PackedHand.length(hand, PackedHand.CLUBS));
+        assertEquals(20, PackedHand.hcp(hand));
+    }
+
+    @Test
+    void parse_acceptsLowercaseUnsortedAndTen() {
+        long canonical = PackedHand.parse("AKQJ.T987.AK.QJ9");
+        assertEquals(canonical, PackedHand.parse(" jqka.7891089.ka.9JQ "));
+        assertEquals(canonical, PackedHand.parse("AKQJ.10987.AK.QJ9"));
+    }
+
+    @Test
+    void parse_wrongSuitCountYieldsEmptyHand() {
+        assertEquals(0L, PackedHand.parse("AKQJ.T987.AK"));
+        assertEquals(0L, PackedHand.parse("AKQJ.T987.AK.QJ9.2"));
+        assertEquals(0L, PackedHand.parse(null));
+        assertEquals(0L, PackedHand.parse(""));
+    }
+
+    @Test
+    void format_roundTripsWithVoids() {
+        String hand = "AKQJT98765432...";
+        assertEquals(hand, PackedHand.format(PackedHand.parse(hand)));
+        assertEquals("AK.QJ2..T98765432", PackedHand.format(PackedHand.parse("KA.2JQ..23456789T")));
+    }
+}
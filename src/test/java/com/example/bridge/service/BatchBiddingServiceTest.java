@@ -0,0 +1,106 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.BatchResponse;
+import com.example.bridge.dto.BidRequest;
+import com.example.bridge.dto.BidResponse;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchBiddingServiceTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final BridgeBiddingService biddingService = new BridgeBiddingService();
+    private final BatchBiddingService service = new BatchBiddingService(biddingService, validator, 1000, 4);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static BidRequest request(String hand) {
+        return new BidRequest(hand, "N", "natural", "None", List.of());
+    }
+
+    @Test
+    void suggestAll_keepsRequestOrderAcrossChunks() {
+        List<BidRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            requests.add(request(i % 2 == 0 ? "AK73.QJ3.Q98.KJ9" : "T732.T43.982.732"));
+        }
+
+        BatchResponse<BidResponse> response = service.suggestAll(requests, true, null);
+
+        assertThat(response.count()).isEqualTo(600);
+        assertThat(response.elapsedMicros()).isGreaterThanOrEqualTo(0);
+        for (int i = 0; i < 600; i++) {
+            assertThat(response.results().get(i).suggestedBid()).isEqualTo(i % 2 == 0 ? "1NT" : "PASS");
+        }
+    }
+
+    @Test
+    void validate_rejectsOversizedBatch() {
+        List<BidRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) requests.add(request("AK73.QJ3.Q98.KJ9"));
+
+        assertThatThrownBy(() -> service.validate(requests))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+    }
+
+    @Test
+    void validate_namesTheInvalidItem() {
+        List<BidRequest> requests = List.of(request("AK73.QJ3.Q98.KJ9"), new BidRequest("", "N", "natural", "None", List.of()));
+
+        assertThatThrownBy(() -> service.validate(requests))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).startsWith("Item 1 is invalid").contains("hand");
+                });
+    }
+
+    @Test
+    void validate_reportsWhatIsWrongWithAHand() {
+        List<BidRequest> requests = List.of(request("AK73.QJ3.Q98.KJ9"), request("AK73.QJ3.Q98.KJ9"), request("AK73.QJ3.Q98.KJ99"));
+
+        assertThatThrownBy(() -> service.validate(requests))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).isEqualTo("Item 2 is invalid: hand: Card 9 is given twice at position 17");
+                });
+    }
+
+    @Test
+    void validate_checksEachItemsPositionAndAuction() {
+        List<BidRequest> badPosition = List.of(request("AK73.QJ3.Q98.KJ9"),
+                new BidRequest("AK73.QJ3.Q98.KJ9", "X", "natural", "None", List.of()));
+        List<BidRequest> finishedAuction = List.of(request("AK73.QJ3.Q98.KJ9"), request("AK73.QJ3.Q98.KJ9"),
+                new BidRequest("AK73.QJ3.Q98.KJ9", "N", "natural", "None", List.of("1C", "PASS", "PASS", "PASS")));
+
+        assertThatThrownBy(() -> service.validate(badPosition))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).startsWith("Item 1 is invalid: ");
+                });
+        assertThatThrownBy(() -> service.validate(finishedAuction))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getReason()).isEqualTo("Item 2 is invalid: The auction is already over"));
+    }
+
+    @Test
+    void suggestAll_leavesOutExplanationsUnlessAsked() {
+        List<BidRequest> requests = List.of(request("AK73.QJ3.Q98.KJ9"));
+
+        assertThat(service.suggestAll(requests, false, null).results().get(0).explanation()).isNull();
+        assertThat(service.suggestAll(requests, true, null).results().get(0).explanation()).contains("HCP=16");
+    }
+}
@@ -2,9 +2,19 @@ package com.example.bridge.service;
 
 import com.example.bridge.dto.BidRequest;
 import com.example.bridge.dto.BidResponse;
+import com.example.bridge.dto.CheckBidRequest;
+import com.example.bridge.model.Deal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -147,4 +157,173 @@ class BridgeBiddingServiceTest {
         String bid = service.suggestOpeningBid(hand, "precision");
         assertEquals("1C", bid);
     }
+
+    @Test
+    void suggestOpeningBid_recordsTimerPerConventionAndBid() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BridgeBiddingService instrumented = new BridgeBiddingService(registry);
+
+        instrumented.suggestOpeningBid("AK73.QJ3.Q98.KJ9", "precision");
+        instrumented.suggestOpeningBid("AK73.QJ3.Q98.KJ9", "precision");
+        instrumented.suggestOpeningBid("T732.J43.982.932", "made-up system");
+
+        Timer precision = registry.find("bridge.bidding.opening")
+                .tags("convention", "precision", "bid", "1C").timer();
+        assertNotNull(precision);
+        assertEquals(2, precision.count());
+        assertNotNull(registry.find("bridge.bidding.opening").tags("convention", "other", "bid", "PASS").timer());
+        assertNull(registry.find("bridge.bidding.opening").tags("convention", "made-up system").timer());
+        assertEquals(1.0, registry.get("bridge.bidding.opening.pass").tags("convention", "other").counter().count());
+    }
+
+    @Test
+    void suggestBid_respondsToPartnersOpening() {
+        // South dealt and opened 1H; North has 8 HCP and four hearts
+        BidResponse resp = service.suggestBid(new BidRequest(
+                "K73.Q842.J95.Q73", "N", "natural", "None", List.of("1H", "PASS")));
+
+        assertEquals("2H", resp.suggestedBid());
+        assertTrue(resp.explanation().contains("Respond 2H to partner's 1H"), resp.explanation());
+    }
+
+    @Test
+    void suggestBid_rebidsAfterPartnersRaise() {
+        // 19 HCP with five spades bids game after 1S - 2S
+        BidResponse resp = service.suggestBid(new BidRequest(
+                "AKQ73.AK2.K95.73", "N", "natural", "None", List.of("1S", "PASS", "2S", "PASS")));
+
+        assertEquals("4S", resp.suggestedBid());
+    }
+
+    @Test
+    void suggestBid_overcallsInsteadOfOpening() {
+        // West opened 1H in front of North
+        BidResponse resp = service.suggestBid(new BidRequest(
+                "AQJ73.82.K95.873", "N", "natural", "None", List.of("1H")));
+
+        assertEquals("1S", resp.suggestedBid());
+        assertTrue(resp.explanation().contains("over their 1H"), resp.explanation());
+    }
+
+    @Test
+    void suggestBid_rejectsIllegalAuctions() {
+        assertThrows(ResponseStatusException.class, () -> service.suggestBid(new BidRequest(
+                "AQJ73.82.K95.873", "N", "natural", "None", List.of("1H", "1C"))));
+        assertThrows(ResponseStatusException.class, () -> service.suggestBid(new BidRequest(
+                "AQJ73.82.K95.873", "N", "natural", "None", List.of("1H", "PASS", "PASS", "PASS"))));
+        assertThrows(ResponseStatusException.class, () -> service.suggestBid(new BidRequest(
+                "AQJ73.82.K95.873", "Q", "natural", "None", List.of())));
+    }
+
+    @Test
+    void suggestBid_rejectsInvalidHands() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.suggestBid(
+                new BidRequest("AQJ73.82.K95.8732", "N", "natural", "None", List.of())));
+        assertEquals("Hand has 14 cards, expected 13", e.getReason());
+        assertThrows(ResponseStatusException.class, () -> service.suggestBid(
+                new BidRequest("AQJ73.82.K95", "N", "natural", "None", List.of())));
+    }
+
+    @Test
+    void checkBid_flagsInsufficientBid() {
+        var resp = service.checkBid(new CheckBidRequest("1C", "AQJ73.82.K95.873", "N", "natural", List.of("1H")));
+
+        assertEquals("1S", resp.suggestedBid());
+        assertTrue(resp.explanation().contains("not legal"), resp.explanation());
+    }
+
+    @Test
+    void bidDeal_completesWithLegalCallsOnly() {
+        HandGeneratorService generator = new HandGeneratorService(() -> new SplittableRandom(11));
+        for (int i = 0; i < 2_000; i++) {
+            Deal deal = generator.generateDeal();
+            long[] hands = new long[4];
+            for (HandPosition position : HandPosition.values()) {
+                hands[position.ordinal()] = PackedHand.parse(deal.getHands().get(position));
+            }
+
+            byte[] calls = service.bidDeal(hands, deal.getDealer(), i % 2 == 0 ? "natural" : "precision");
+
+            long auction = PackedAuction.start(deal.getDealer());
+            for (byte call : calls) {
+                auction = PackedAuction.apply(auction, call); // throws on an illegal call
+            }
+            assertTrue(PackedAuction.isComplete(auction));
+        }
+    }
+
+    @Test
+    void suggestBid_explainsInTheRequestedLanguage() {
+        BidRequest req = new BidRequest("AK73.QJ3.Q98.KJ9", "N", "natural", "None", List.of());
+
+        assertEquals("HCP=16, dist=4-3-3-3, convention='natural'. Open with 1NT by simple rules.",
+                service.suggestBid(req).explanation());
+        assertEquals("PH=16, rozkład=4-3-3-3, konwencja 'natural'. Otwarcie 1NT według prostych reguł.",
+                polish().suggestBid(req, true, Locale.forLanguageTag("pl-PL")).explanation());
+        assertEquals(service.suggestBid(req).explanation(),
+                polish().suggestBid(req, true, Locale.GERMAN).explanation());
+    }
+
+    @Test
+    void checkBid_explainsTheVerdictInTheRequestedLanguage() {
+        CheckBidRequest req = new CheckBidRequest("2c", "AK73.QJ3.Q98.KJ9", "N", "natural", List.of());
+
+        assertEquals("Your bid '2c' differs from suggested '1NT'. HCP=16, dist=4-3-3-3, convention='natural'.",
+                service.checkBid(req).explanation());
+        assertEquals("Odzywka '2c' różni się od sugerowanej '1NT'. PH=16, rozkład=4-3-3-3, konwencja 'natural'.",
+                polish().checkBid(req, true, Locale.forLanguageTag("pl")).explanation());
+    }
+
+    @Test
+    void checkBid_reusesTheCachedSuggestionButEchoesTheProposedBid() {
+        var upper = service.checkBid(new CheckBidRequest("2C", "AK73.QJ3.Q98.KJ9", "N", "natural", List.of()));
+        var lower = service.checkBid(new CheckBidRequest("2c", "AK73.QJ3.Q98.KJ9", "N", "natural", List.of()));
+
+        assertEquals(upper.suggestedBid(), lower.suggestedBid());
+        assertTrue(upper.explanation().contains("'2C'"), upper.explanation());
+        assertTrue(lower.explanation().contains("'2c'"), lower.explanation());
+    }
+
+    @Test
+    void suggestBid_withoutExplainReturnsTheSameCallOnly() {
+        BidRequest req = new BidRequest("AK73.QJ3.Q98.KJ9", "N", "natural", "None", List.of());
+
+        BidResponse bare = service.suggestBid(req, false, null);
+        assertEquals("1NT", bare.suggestedBid());
+        assertNull(bare.explanation());
+        assertNotNull(service.suggestBid(req, true, null).explanation());
+        assertNull(service.checkBid(new CheckBidRequest("2C", "AK73.QJ3.Q98.KJ9", "N", "natural", List.of()), false, null)
+                .explanation());
+    }
+
+    @Test
+    void suggestBid_equivalentHandsAliasesAndChecksShareACachedSuggestion() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BridgeBiddingService instrumented = new BridgeBiddingService(registry);
+
+        instrumented.suggestBid(new BidRequest("AK73.QJ3.Q98.KJ9", "N", "natural", "None", List.of("PASS")));
+        instrumented.suggestBid(new BidRequest("7kA3.3jq.89q.jk9", "N", " SAYC ", "None", List.of("pass")));
+        instrumented.checkBid(new CheckBidRequest("2C", "AK73.QJ3.Q98.KJ9", "N", "natural", List.of("PASS")));
+        instrumented.suggestBid(new BidRequest("AK73.QJ3.Q98.KJ9", "N", "precision", "None", List.of("PASS")));
+
+        assertEquals(2.0, registry.get("cache.gets")
+                .tags("cache", BidResultCache.SUGGEST, "result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.gets")
+                .tags("cache", BidResultCache.SUGGEST, "result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void suggestBid_withCacheDisabledGivesTheSameAnswers() {
+        BridgeBiddingService uncached = new BridgeBiddingService(
+                new SimpleMeterRegistry(), new ConventionRegistry(), new ExplanationTemplates(), false, 0, 0);
+        BidRequest req = new BidRequest("AK73.QJ3.Q98.KJ9", "N", "natural", "None", List.of());
+
+        assertEquals(service.suggestBid(req), uncached.suggestBid(req));
+        assertEquals(service.suggestBid(req), uncached.suggestBid(req));
+    }
+
+    private static BridgeBiddingService polish() {
+        return new BridgeBiddingService(
+                new SimpleMeterRegistry(), new ConventionRegistry(), new ExplanationTemplates("en,pl"), true, 100, 60_000);
+    }
 }
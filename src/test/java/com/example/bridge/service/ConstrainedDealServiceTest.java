@@ -0,0 +1,114 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.ConstrainedDealRequest;
+import com.example.bridge.dto.ConstrainedDealRequest.Range;
+import com.example.bridge.dto.ConstrainedDealRequest.SeatConstraint;
+import com.example.bridge.dto.ConstrainedDealResponse;
+import com.example.bridge.model.Deal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedHand;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstrainedDealServiceTest {
+
+    private final ConstrainedDealService service =
+            new ConstrainedDealService(() -> new SplittableRandom(3), 100_000, 50_000_000, 60_000);
+
+    @Test
+    void deal_meetsEverySeatConstraint() {
+        SeatConstraint north = new SeatConstraint(new Range(15, 17), null, null, null, null, true);
+        SeatConstraint south = new SeatConstraint(null, null, new Range(5, null), null, null, false);
+
+        ConstrainedDealResponse response = service.deal(
+                new ConstrainedDealRequest(500, "E", Map.of("N", north, "s", south), null));
+
+        assertTrue(response.complete());
+        assertEquals(500, response.deals().size());
+        assertTrue(response.attempts() >= 500);
+        for (Deal deal : response.deals()) {
+            assertEquals(HandPosition.EAST, deal.getDealer());
+            long all = 0L;
+            for (String text : deal.getHands().values()) {
+                long hand = PackedHand.parse(text);
+                assertEquals(13, PackedHand.cardCount(hand));
+                assertEquals(0L, all & hand, "hands must not share cards");
+                all |= hand;
+            }
+            long n = PackedHand.parse(deal.getHands().get(HandPosition.NORTH));
+            assertTrue(PackedHand.hcp(n) >= 15 && PackedHand.hcp(n) <= 17, deal.toString());
+            int doubletons = 0;
+            for (int suit = 0; suit < PackedHand.SUITS; suit++) {
+                int length = PackedHand.length(n, suit);
+                assertTrue(length >= 2 && length <= 5, deal.toString());
+                if (length == 2) doubletons++;
+            }
+            assertTrue(doubletons <= 1, deal.toString());
+            long s = PackedHand.parse(deal.getHands().get(HandPosition.SOUTH));
+            assertTrue(PackedHand.length(s, PackedHand.HEARTS) >= 5, deal.toString());
+        }
+    }
+
+    @Test
+    void deal_unconstrainedMatchesRandomDealFrequencies() {
+        ConstrainedDealResponse response = service.deal(new ConstrainedDealRequest(20_000, null, null, null));
+
+        int fiveCardSpades = 0;
+        long totalHcp = 0;
+        for (Deal deal : response.deals()) {
+            long north = PackedHand.parse(deal.getHands().get(HandPosition.NORTH));
+            if (PackedHand.length(north, PackedHand.SPADES) >= 5) fiveCardSpades++;
+            totalHcp += PackedHand.hcp(north);
+        }
+        // P(5+ cards in a given suit) is about 0.187; the mean hand has 10 HCP
+        assertEquals(0.187, fiveCardSpades / 20_000.0, 0.015);
+        assertEquals(10.0, totalHcp / 20_000.0, 0.15);
+        assertEquals(1.0, response.acceptanceRate(), 1e-9);
+    }
+
+    @Test
+    void deal_stopsAtTheAttemptCapWithStatistics() {
+        SeatConstraint huge = new SeatConstraint(new Range(30, null), null, null, null, null, false);
+
+        ConstrainedDealResponse response = service.deal(
+                new ConstrainedDealRequest(10, null, Map.of("W", huge), 1_000L));
+
+        assertFalse(response.complete());
+        assertEquals(1_000, response.attempts());
+        assertEquals(response.attempts() - response.deals().size(),
+                response.shapeRejections() + response.hcpRejections());
+    }
+
+    @Test
+    void deal_stopsWhenTheTimeBudgetRunsOut() {
+        ConstrainedDealService budgeted =
+                new ConstrainedDealService(() -> new SplittableRandom(3), 100_000, Long.MAX_VALUE, 50);
+        // North 37 HCP: one deal in about 10^11 qualifies, so only the budget ends the request
+        SeatConstraint everything = new SeatConstraint(new Range(37, null), null, null, null, null, false);
+
+        long start = System.nanoTime();
+        ConstrainedDealResponse response = budgeted.deal(
+                new ConstrainedDealRequest(1, null, Map.of("N", everything), null));
+
+        assertFalse(response.complete());
+        assertTrue(response.attempts() > 0);
+        assertTrue(System.nanoTime() - start < 2_000_000_000L, "stopped long after the 50 ms budget");
+    }
+
+    @Test
+    void deal_rejectsContradictoryConstraints() {
+        SeatConstraint longSpades = new SeatConstraint(null, new Range(7, null), null, null, null, false);
+        assertThrows(ResponseStatusException.class, () -> service.deal(
+                new ConstrainedDealRequest(1, null, Map.of("N", longSpades, "S", longSpades), null)));
+        assertThrows(ResponseStatusException.class, () -> service.deal(
+                new ConstrainedDealRequest(1, null, Map.of("X", longSpades), null)));
+        SeatConstraint inverted = new SeatConstraint(new Range(20, 10), null, null, null, null, false);
+        assertThrows(ResponseStatusException.class, () -> service.deal(
+                new ConstrainedDealRequest(1, null, Map.of("N", inverted), null)));
+    }
+}
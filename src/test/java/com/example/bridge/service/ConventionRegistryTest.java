@@ -0,0 +1,106 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedHand;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConventionRegistryTest {
+
+    // 13 HCP, 4-3-3-3
+    private static final int HCP = 13;
+    private static final int SHAPE = PackedHand.shapeOf(4, 3, 3, 3);
+
+    private static final String WEAK_NO_TRUMP = """
+            {
+              "id": "weak-nt",
+              "aliases": ["weak no trump"],
+              "keywords": ["kamikaze"],
+              "openings": [
+                { "hcp": "12-14", "balanced": true, "bid": "1NT" },
+                { "hcp": "12+", "level": 1, "suit": "longest" }
+              ]
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resolve_matchesIdsAliasesAndKeywords() {
+        ConventionRegistry registry = new ConventionRegistry();
+
+        assertEquals("polish-club", registry.resolve("Polish Club").convention().id());
+        assertEquals("precision", registry.resolve("  my precision system ").convention().id());
+        assertEquals("2/1", registry.resolve("two-over-one").convention().id());
+        assertEquals("natural", registry.resolve(null).convention().id());
+        assertTrue(ConventionRegistry.isFallback(registry.resolve("made-up system")));
+        assertSame(registry.resolve("acol"), registry.resolve("acol"));
+    }
+
+    @Test
+    void resolve_prefersTheHigherPriorityKeywordWhenANameHoldsSeveral() {
+        ConventionRegistry registry = new ConventionRegistry();
+
+        assertEquals("2/1", registry.resolve("2/1 standard").convention().id());
+        assertEquals("precision", registry.resolve("strong polish").convention().id());
+        assertEquals("polish-club", registry.resolve("polish acol").convention().id());
+        assertEquals("acol", registry.resolve("std acol").convention().id());
+    }
+
+    @Test
+    void directory_addsConventionsWithoutCodeChanges() throws IOException {
+        Files.writeString(dir.resolve("weak-nt.json"), WEAK_NO_TRUMP);
+        ConventionRegistry registry = new ConventionRegistry(true, dir, false);
+
+        AuctionRuleTable weak = registry.resolve("Weak No Trump");
+        assertEquals("weak-nt", weak.convention().id());
+        assertEquals("1NT", weak.openings().lookup(HCP, SHAPE));
+        assertEquals("weak-nt", registry.resolve("kamikaze 1NT").convention().id());
+        assertEquals("PASS", weak.openings().lookup(11, SHAPE), "no rule matches, so the hand passes");
+        assertTrue(registry.ids().containsAll(java.util.List.of("natural", "weak-nt")));
+    }
+
+    @Test
+    void reload_swapsRulesAndKeepsThemWhenAFileIsInvalid() throws IOException {
+        Path file = dir.resolve("weak-nt.json");
+        Files.writeString(file, WEAK_NO_TRUMP);
+        ConventionRegistry registry = new ConventionRegistry(true, dir, false);
+        assertEquals("1NT", registry.resolve("weak-nt").openings().lookup(HCP, SHAPE));
+
+        Files.writeString(file, WEAK_NO_TRUMP.replace("\"1NT\"", "\"1C\""));
+        registry.reload();
+        assertEquals("1C", registry.resolve("weak-nt").openings().lookup(HCP, SHAPE));
+
+        Files.writeString(file, WEAK_NO_TRUMP.replace("\"longest\"", "\"shortest\""));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, registry::reload);
+        assertTrue(error.getMessage().contains("weak-nt"), error.getMessage());
+        assertEquals("1C", registry.resolve("weak-nt").openings().lookup(HCP, SHAPE));
+    }
+
+    @Test
+    void load_rejectsInvalidRules() throws IOException {
+        Files.writeString(dir.resolve("bad.json"), """
+                { "id": "bad", "openings": [ { "hcp": "17-15", "bid": "1NT" } ] }
+                """);
+        assertThrows(IllegalArgumentException.class, () -> new ConventionRegistry(true, dir, false));
+
+        Files.writeString(dir.resolve("bad.json"), """
+                { "id": "bad", "aliases": ["acol"], "openings": [] }
+                """);
+        assertThrows(IllegalArgumentException.class, () -> new ConventionRegistry(true, dir, false));
+
+        Files.writeString(dir.resolve("bad.json"), """
+                { "id": "bad", "openings": [ { "bid": "1Z" } ] }
+                """);
+        assertThrows(IllegalArgumentException.class, () -> new ConventionRegistry(true, dir, false));
+
+        assertThrows(IllegalArgumentException.class, () -> new ConventionRegistry(false, dir, false),
+                "a registry needs a default convention");
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.bridge.service;
+
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.model.HandPosition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DealFeedTest {
+
+    private final DealFeed feed = new DealFeed(new ObjectMapper().findAndRegisterModules(), 4, 3);
+
+    @AfterEach
+    void shutdown() {
+        feed.shutdown();
+    }
+
+    /** Collects events; heartbeats are ignored. */
+    private static class RecordingSink implements DealFeed.Sink {
+        final BlockingQueue<DealFeed.Event> events = new LinkedBlockingQueue<>();
+        volatile boolean closed;
+
+        @Override
+        public void send(DealFeed.Event event) throws IOException {
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<DealFeed.Event> take(int count) throws InterruptedException {
+            List<DealFeed.Event> taken = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                DealFeed.Event event = events.poll(5, TimeUnit.SECONDS);
+                assertThat(event).as("event %d of %d", i + 1, count).isNotNull();
+                taken.add(event);
+            }
+            return taken;
+        }
+    }
+
+    private static QuizDeal deal(long id) {
+        QuizDeal d = new QuizDeal();
+        d.setId(id);
+        d.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        d.setDealer(HandPosition.NORTH);
+        d.setHands(Map.of(
+                HandPosition.NORTH, "AKQJ.T987.AK.QJ9",
+                HandPosition.EAST, "T987.AKQJ.QJ9.AK",
+                HandPosition.SOUTH, "65432.65.65432.T",
+                HandPosition.WEST, ".432.T87.8765432"));
+        d.setConvention("natural");
+        d.setAuction(List.of("1C"));
+        return d;
+    }
+
+    @Test
+    @DisplayName("new subscribers get deals published after they subscribed, as JSON")
+    void subscribe_sendsNewDeals() throws InterruptedException {
+        feed.publish(deal(1));
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, sink);
+
+        feed.publish(deal(2));
+        feed.publish(deal(3));
+
+        List<DealFeed.Event> events = sink.take(2);
+        assertThat(events).extracting(DealFeed.Event::name).containsOnly(DealFeed.DEAL_EVENT);
+        assertThat(events.get(0).data()).contains("\"id\":2", "\"northHand\":\"AKQJ.T987.AK.QJ9\"", "\"auctionJson\"");
+        assertThat(events.get(1).data()).contains("\"id\":3");
+        assertThat(events.get(1).id()).isNotEqualTo(events.get(0).id());
+        assertThat(sink.events).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a subscriber resuming from Last-Event-ID gets the deals it missed")
+    void subscribe_resumesFromLastEventId() throws InterruptedException {
+        RecordingSink first = new RecordingSink();
+        DealFeed.Subscription subscription = feed.subscribe(null, first);
+        feed.publish(deal(1));
+        String lastSeen = first.take(1).get(0).id();
+        subscription.cancel();
+
+        feed.publish(deal(2));
+        feed.publish(deal(3));
+        RecordingSink resumed = new RecordingSink();
+        feed.subscribe(lastSeen, resumed);
+
+        assertThat(resumed.take(2)).extracting(DealFeed.Event::data)
+                .satisfiesExactly(d -> assertThat(d).contains("\"id\":2"), d -> assertThat(d).contains("\"id\":3"));
+    }
+
+    @Test
+    @DisplayName("ids that were overwritten or come from another run get a reset, then the buffered deals")
+    void subscribe_resetsWhenTheIdCannotBeResumed() throws InterruptedException {
+        RecordingSink first = new RecordingSink();
+        DealFeed.Subscription subscription = feed.subscribe(null, first);
+        feed.publish(deal(1));
+        String lastSeen = first.take(1).get(0).id();
+        subscription.cancel();
+        for (long id = 2; id <= 7; id++) {
+            feed.publish(deal(id)); // the buffer holds 4, so 2 and 3 are gone
+        }
+
+        RecordingSink lapped = new RecordingSink();
+        feed.subscribe(lastSeen, lapped);
+        List<DealFeed.Event> events = lapped.take(5);
+        assertThat(events.get(0).name()).isEqualTo(DealFeed.RESET_EVENT);
+        assertThat(events.get(0).id()).isNull();
+        assertThat(events.get(0).data()).isEqualTo("{\"missed\":2}");
+        assertThat(events.get(1).data()).contains("\"id\":4");
+        assertThat(events.get(4).data()).contains("\"id\":7");
+
+        RecordingSink stranger = new RecordingSink();
+        feed.subscribe("someotherepoch-3", stranger);
+        assertThat(stranger.take(1).get(0).name()).isEqualTo(DealFeed.RESET_EVENT);
+    }
+
+    @Test
+    @DisplayName("a stalled subscriber blocks neither the writer nor other subscribers")
+    void publish_doesNotWaitForSlowSubscribers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stalled = new RecordingSink() {
+            @Override
+            public void send(DealFeed.Event event) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                super.send(event);
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        feed.subscribe(null, stalled);
+        feed.subscribe(null, fast);
+
+        long start = System.nanoTime();
+        for (long id = 1; id <= 3; id++) {
+            feed.publish(deal(id));
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        List<String> ids = fast.take(3).stream().map(DealFeed.Event::id).toList();
+
+        release.countDown();
+        assertThat(stalled.take(3)).extracting(DealFeed.Event::id).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    @DisplayName("a subscriber whose send outlasts the send timeout is dropped, and its sender replaced")
+    void send_dropsStalledSubscribers() throws InterruptedException {
+        DealFeed oneSender = new DealFeed(new ObjectMapper().findAndRegisterModules(), 4, 3, 1, 100);
+        try {
+            CountDownLatch never = new CountDownLatch(1);
+            RecordingSink stalled = new RecordingSink() {
+                @Override
+                public void send(DealFeed.Event event) throws IOException {
+                    try {
+                        never.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+            };
+            oneSender.subscribe(null, stalled);
+            oneSender.publish(deal(1));
+            Thread.sleep(20); // the only sender is now stuck in the stalled client's send
+            RecordingSink fast = new RecordingSink();
+            oneSender.subscribe(null, fast);
+            oneSender.publish(deal(2));
+
+            assertThat(fast.take(1).get(0).data()).contains("\"id\":2");
+            for (int i = 0; i < 50 && !stalled.closed; i++) {
+                Thread.sleep(20);
+            }
+            assertThat(stalled.closed).isTrue();
+            assertThat(oneSender.subscriberCount()).isEqualTo(1);
+        } finally {
+            oneSender.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("a subscriber far behind is drained in turns, so others get their deals meanwhile")
+    void drain_sendsALimitedNumberOfEventsPerTurn() throws InterruptedException {
+        DealFeed oneSender = new DealFeed(new ObjectMapper().findAndRegisterModules(), 1024, 3, 1, 0);
+        try {
+            List<String> order = Collections.synchronizedList(new ArrayList<>());
+            RecordingSink behind = new RecordingSink() {
+                @Override
+                public void send(DealFeed.Event event) throws IOException {
+                    order.add("behind");
+                    super.send(event);
+                }
+            };
+            RecordingSink other = new RecordingSink() {
+                @Override
+                public void send(DealFeed.Event event) throws IOException {
+                    order.add("other");
+                    super.send(event);
+                }
+            };
+            oneSender.subscribe(null, behind);
+            oneSender.subscribe(null, other);
+            for (long id = 1; id <= 500; id++) {
+                oneSender.publish(deal(id));
+            }
+
+            behind.take(500);
+            other.take(500);
+            // Neither subscriber got all its 500 deals before the other got any
+            assertThat(order.subList(0, 500)).contains("behind", "other");
+        } finally {
+            oneSender.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("subscribers are limited, and ones whose send fails are dropped")
+    void subscribe_limitsAndDropsFailedSubscribers() throws InterruptedException {
+        RecordingSink failing = new RecordingSink() {
+            @Override
+            public void send(DealFeed.Event event) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        feed.subscribe(null, failing);
+        feed.subscribe(null, new RecordingSink());
+        RecordingSink last = new RecordingSink();
+        feed.subscribe(null, last);
+        assertThatThrownBy(() -> feed.subscribe(null, new RecordingSink()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("limit of 3 subscribers");
+
+        feed.publish(deal(1));
+        last.take(1);
+        for (int i = 0; i < 50 && feed.subscriberCount() > 2; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(feed.subscriberCount()).isEqualTo(2);
+
+        feed.shutdown();
+        assertThat(last.closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("concurrent subscribes never exceed the limit, and a cancel frees exactly one slot")
+    void subscribe_limitHoldsUnderConcurrentSubscribes() throws Exception {
+        int clients = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<DealFeed.Subscription>> attempts = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            attempts.add(pool.submit(() -> {
+                start.await();
+                return feed.subscribe(null, new RecordingSink());
+            }));
+        }
+        start.countDown();
+        List<DealFeed.Subscription> accepted = new ArrayList<>();
+        for (Future<DealFeed.Subscription> attempt : attempts) {
+            try {
+                accepted.add(attempt.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(ResponseStatusException.class);
+            }
+        }
+        pool.shutdown();
+        assertThat(accepted).hasSize(3);
+        assertThat(feed.subscriberCount()).isEqualTo(3);
+
+        accepted.get(0).cancel();
+        accepted.get(0).cancel();
+        feed.subscribe(null, new RecordingSink());
+        assertThatThrownBy(() -> feed.subscribe(null, new RecordingSink()))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.Deal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedHand;
+import com.example.bridge.model.TrickTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleDummyServiceTest {
+
+    private final DoubleDummyService service = new DoubleDummyService();
+
+    @Test
+    void solve_returnsTricksPerDeclarerAndStrain() {
+        TrickTable table = service.solve(deal("AKQJT98765432...", ".AKQJT98765432..",
+                "..AKQJT98765432.", "...AKQJT98765432"));
+
+        assertEquals(13, table.tricks(HandPosition.NORTH, PackedHand.SPADES));
+        assertEquals(13, table.tricks(HandPosition.WEST, PackedHand.CLUBS));
+        assertEquals(0, table.tricks(HandPosition.NORTH, TrickTable.NO_TRUMP));
+    }
+
+    @Test
+    void solve_rejectsShortHand() {
+        Deal deal = deal("AKQJT9876543...", ".AKQJT98765432..",
+                "..AKQJT98765432.", "...AKQJT98765432");
+        assertThrows(IllegalArgumentException.class, () -> service.solve(deal));
+    }
+
+    private static Deal deal(String north, String east, String south, String west) {
+        Map<HandPosition, String> hands = new EnumMap<>(HandPosition.class);
+        hands.put(HandPosition.NORTH, north);
+        hands.put(HandPosition.EAST, east);
+        hands.put(HandPosition.SOUTH, south);
+        hands.put(HandPosition.WEST, west);
+        return new Deal(HandPosition.NORTH, hands);
+    }
+}
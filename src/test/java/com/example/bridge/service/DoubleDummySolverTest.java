@@ -0,0 +1,118 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedHand;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleDummySolverTest {
+
+    private final DoubleDummySolver solver = new DoubleDummySolver();
+
+    @Test
+    void solve_eachHandHoldingOneSuitMakesAllOrNothing() {
+        long[] deal = {
+                PackedHand.parse("AKQJT98765432..."),
+                PackedHand.parse(".AKQJT98765432.."),
+                PackedHand.parse("..AKQJT98765432."),
+                PackedHand.parse("...AKQJT98765432")
+        };
+
+        byte[] tricks = solver.solve(deal);
+
+        // North in spades ruffs or draws trumps from the first trick on
+        assertEquals(13, tricks[0 * DoubleDummySolver.STRAINS + PackedHand.SPADES]);
+        // East leads against North at no trump and runs the hearts
+        assertEquals(0, tricks[0 * DoubleDummySolver.STRAINS + DoubleDummySolver.NO_TRUMP]);
+        // South declaring diamonds ruffs the club lead and draws trumps
+        assertEquals(13, tricks[2 * DoubleDummySolver.STRAINS + PackedHand.DIAMONDS]);
+    }
+
+    @Test
+    void tricksNorthSouth_matchesExhaustiveSearchOnSmallEndings() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 300; i++) {
+            int size = 2 + i % 3;
+            long[] deal = randomEnding(random, size);
+            int strain = random.nextInt(DoubleDummySolver.STRAINS);
+            int leader = random.nextInt(DoubleDummySolver.SEATS);
+
+            int expected = minimax(deal.clone(), strain, leader, 0, -1, 0, 0);
+
+            assertEquals(expected, solver.tricksNorthSouth(deal, strain, leader),
+                    () -> "strain " + strain + ", leader " + leader + ", hands " + format(deal));
+        }
+    }
+
+    @Test
+    void solve_rejectsHandsSharingACard() {
+        long[] deal = {
+                PackedHand.parse("AKQJT98765432..."),
+                PackedHand.parse("A.AKQJT9876543.."),
+                PackedHand.parse("..AKQJT98765432."),
+                PackedHand.parse("...AKQJT98765432")
+        };
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(deal));
+    }
+
+    private static long[] randomEnding(SplittableRandom random, int size) {
+        int[] deck = new int[52];
+        for (int i = 0; i < deck.length; i++) deck[i] = i;
+        for (int i = deck.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = tmp;
+        }
+        long[] hands = new long[4];
+        for (int i = 0; i < size * 4; i++) {
+            hands[i % 4] |= 1L << deck[i];
+        }
+        return hands;
+    }
+
+    // plain minimax over every legal card, North-South maximising
+    private static int minimax(long[] hands, int strain, int seat, int played, int leadSuit, int winSeat, int winCard) {
+        if (hands[seat] == 0) return 0;
+        long hand = hands[seat];
+        long follow = leadSuit < 0 ? 0L : hand & (0x1FFFL << (leadSuit * 13));
+        long legal = follow != 0 ? follow : hand;
+        boolean northSouth = (seat & 1) == 0;
+        int best = northSouth ? -1 : Integer.MAX_VALUE;
+        for (long cards = legal; cards != 0; cards &= cards - 1) {
+            int card = Long.numberOfTrailingZeros(cards);
+            hands[seat] &= ~(1L << card);
+            int nextWinSeat = winSeat;
+            int nextWinCard = winCard;
+            if (played == 0 || beats(card, winCard, strain)) {
+                nextWinSeat = seat;
+                nextWinCard = card;
+            }
+            int value;
+            if (played == 3) {
+                value = ((nextWinSeat & 1) == 0 ? 1 : 0) + minimax(hands, strain, nextWinSeat, 0, -1, 0, 0);
+            } else {
+                value = minimax(hands, strain, (seat + 1) & 3, played + 1,
+                        played == 0 ? card / 13 : leadSuit, nextWinSeat, nextWinCard);
+            }
+            hands[seat] |= 1L << card;
+            best = northSouth ? Math.max(best, value) : Math.min(best, value);
+        }
+        return best;
+    }
+
+    private static boolean beats(int card, int winCard, int strain) {
+        if (card / 13 == winCard / 13) return card > winCard;
+        return card / 13 == strain;
+    }
+
+    private static String format(long[] deal) {
+        StringBuilder out = new StringBuilder();
+        for (long hand : deal) {
+            out.append(PackedHand.format(hand)).append(' ');
+        }
+        return out.toString().trim();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedAuction;
+import com.example.bridge.model.PackedHand;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExplanationTemplatesTest {
+
+    private final ExplanationTemplates templates = new ExplanationTemplates("en, pl, de");
+
+    @Test
+    void suggestion_rendersTheReasonForEachRole() {
+        int oneHeart = PackedAuction.parseCall("1H");
+        int twoHearts = PackedAuction.parseCall("2H");
+
+        assertEquals("HCP=10, dist=5-3-3-2, convention='natural'. Rebid 4H after 1H - 2H by simple rules.",
+                templates.suggestion(call("4H", AuctionRules.REBID, oneHeart, twoHearts), null));
+        assertEquals("HCP=10, dist=5-3-3-2, convention='natural'. Compete with 1S over their 1H by simple rules.",
+                templates.suggestion(call("1S", AuctionRules.COMPETE, oneHeart, PackedAuction.PASS), Locale.ENGLISH));
+        assertEquals("HCP=10, dist=5-3-3-2, convention='natural'. Call PASS once the opening round is over by simple rules.",
+                templates.suggestion(call("PASS", AuctionRules.PASS_OUT, oneHeart, PackedAuction.PASS), Locale.UK));
+    }
+
+    @Test
+    void languagesWithoutTemplatesFallBackToEnglish() {
+        SuggestedCall open = call("1S", AuctionRules.OPEN, PackedAuction.PASS, PackedAuction.PASS);
+
+        assertEquals(templates.suggestion(open, null), templates.suggestion(open, Locale.GERMANY));
+        assertEquals(templates.suggestion(open, null), templates.suggestion(open, Locale.JAPANESE));
+        assertTrue(templates.suggestion(open, Locale.forLanguageTag("pl")).startsWith("PH=10, rozkład=5-3-3-2"));
+    }
+
+    @Test
+    void check_rendersTheVerdict() {
+        SuggestedCall open = call("1S", AuctionRules.OPEN, PackedAuction.PASS, PackedAuction.PASS);
+
+        assertEquals("Your bid matches the suggested call. HCP=10, dist=5-3-3-2, convention='natural'.",
+                templates.check(open, ExplanationTemplates.Verdict.MATCH, "1s", null));
+        assertEquals("Your bid '7NT' is not legal in this auction; suggested '1S'. HCP=10, dist=5-3-3-2, convention='natural'.",
+                templates.check(open, ExplanationTemplates.Verdict.ILLEGAL, "7NT", null));
+        assertEquals("Odzywka '1H' różni się od sugerowanej '1S'. PH=10, rozkład=5-3-3-2, konwencja 'natural'.",
+                templates.check(open, ExplanationTemplates.Verdict.DIFFERS, "1H", Locale.forLanguageTag("pl")));
+    }
+
+    @Test
+    void compile_splitsAtPlaceholdersAndRejectsUnknownOnes() {
+        var template = ExplanationTemplates.compile("t", "{call} after {first}.",
+                EnumSet.allOf(ExplanationTemplates.Param.class));
+
+        assertArrayEquals(new String[]{"", " after ", "."}, template.literals());
+        assertArrayEquals(new ExplanationTemplates.Param[]{ExplanationTemplates.Param.CALL, ExplanationTemplates.Param.FIRST},
+                template.params());
+        assertThrows(IllegalStateException.class, () -> ExplanationTemplates.compile("t", "{bid}",
+                EnumSet.allOf(ExplanationTemplates.Param.class)));
+        assertThrows(IllegalStateException.class, () -> ExplanationTemplates.compile("t", "{call",
+                EnumSet.allOf(ExplanationTemplates.Param.class)));
+        assertThrows(IllegalStateException.class, () -> ExplanationTemplates.compile("t", "{verdict}",
+                EnumSet.of(ExplanationTemplates.Param.CALL)));
+    }
+
+    private static SuggestedCall call(String call, int role, int first, int second) {
+        return new SuggestedCall(call, AuctionRules.context(role, first, second), 10,
+                PackedHand.shapeOf(5, 3, 3, 2), "natural");
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.bridge.service;
 
 import com.example.bridge.model.Deal;
+import com.example.bridge.model.DealIndex;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedHand;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,4 +47,68 @@ class HandGeneratorServiceTest {
             assertEquals(13, totalCards, "each hand must have 13 cards");
         });
     }
+
+    @Test
+    void dealInto_partitionsTheDeckIntoFourThirteenCardHands() {
+        long[] hands = new long[4];
+        service.dealInto(hands);
+        long all = 0L;
+        for (long hand : hands) {
+            assertEquals(13, Long.bitCount(hand), "each hand must have 13 cards");
+            assertEquals(0L, all & hand, "hands must not share cards");
+            all |= hand;
+        }
+        assertEquals((1L << 52) - 1, all, "all 52 cards must be dealt");
+    }
+
+    @Test
+    void generateDeal_isReproducibleWithSeededRandom() {
+        HandGeneratorService a = new HandGeneratorService(() -> new SplittableRandom(42));
+        HandGeneratorService b = new HandGeneratorService(() -> new SplittableRandom(42));
+        for (int i = 0; i < 5; i++) {
+            Deal da = a.generateDeal();
+            Deal db = b.generateDeal();
+            assertEquals(da.getDealer(), db.getDealer());
+            assertEquals(da.getHands(), db.getHands());
+        }
+    }
+
+    @Test
+    void dealAround_keepsTheFixedHandAndDealsTheRest() {
+        long fixed = PackedHand.parse("AKQJ.T987.AK.QJ9");
+        long[] hands = new long[4];
+        service.dealAround(fixed, HandPosition.SOUTH, hands);
+
+        assertEquals(fixed, hands[HandPosition.SOUTH.ordinal()]);
+        long all = 0L;
+        for (long hand : hands) {
+            assertEquals(13, Long.bitCount(hand), "each hand must have 13 cards");
+            assertEquals(0L, all & hand, "hands must not share cards");
+            all |= hand;
+        }
+        assertEquals((1L << 52) - 1, all, "all 52 cards must be dealt");
+    }
+
+    @Test
+    void dealFromSet_isDeterministicAndIndexedByNumber() {
+        Deal first = service.dealFromSet("club-night", 7);
+        Deal again = new HandGeneratorService(() -> new SplittableRandom(1)).dealFromSet("club-night", 7);
+        assertEquals(first.getHands(), again.getHands(), "a set deal does not depend on the random generator");
+        assertEquals(HandPosition.SOUTH, first.getDealer(), "board 7 is dealt by South");
+        assertNotEquals(first.getHands(), service.dealFromSet("club-night", 8).getHands());
+        assertNotEquals(first.getHands(), service.dealFromSet("club-nite", 7).getHands());
+
+        long[] hands = new long[4];
+        DealIndex.unrank(HandGeneratorService.setDealIndex("club-night", 7), hands);
+        for (HandPosition position : HandPosition.values()) {
+            assertEquals(PackedHand.format(hands[position.ordinal()]), first.getHands().get(position));
+        }
+    }
+
+    @Test
+    void dealFromSet_rejectsInvalidSetsAndNumbers() {
+        assertThrows(ResponseStatusException.class, () -> service.dealFromSet("bad set", 1));
+        assertThrows(ResponseStatusException.class, () -> service.dealFromSet("", 1));
+        assertThrows(ResponseStatusException.class, () -> service.dealFromSet("club-night", 0));
+    }
 }
@@ -0,0 +1,259 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.DealCursor;
+import com.example.bridge.dto.QuizDealSummary;
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.model.DealIndex;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.model.PackedDeal;
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogQuizDealStoreTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private LogQuizDealStore open(int segmentRecords, boolean syncOnSave) {
+        return new LogQuizDealStore(dir, segmentRecords, 10, syncOnSave, Metrics.globalRegistry);
+    }
+
+    private static QuizDeal deal(int n) {
+        long[] hands = new long[4];
+        DealIndex.unrank(BigInteger.valueOf(n), hands);
+        QuizDeal deal = new QuizDeal();
+        deal.setCreatedAt(T0.plusSeconds(n));
+        deal.setDealer(HandPosition.values()[n % 4]);
+        deal.setDealBits(PackedDeal.encode(hands));
+        deal.setConvention(n % 3 == 0 ? null : "polish club");
+        deal.setAuction(n % 2 == 0 ? List.of("1C", "PASS") : null);
+        return deal;
+    }
+
+    private static void assertSameDeal(QuizDeal expected, QuizDeal actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getDealer(), actual.getDealer());
+        assertEquals(expected.getNorthHand(), actual.getNorthHand());
+        assertEquals(expected.getWestHand(), actual.getWestHand());
+        assertEquals(expected.getConvention(), actual.getConvention());
+        assertEquals(expected.getAuctionJson(), actual.getAuctionJson());
+    }
+
+    @Test
+    void save_assignsConsecutiveIdsAndReadsRecordsBack() throws InterruptedException {
+        LogQuizDealStore store = open(4, false);
+        QuizDeal[] saved = new QuizDeal[10];
+        for (int n = 0; n < saved.length; n++) {
+            saved[n] = store.save(deal(n));
+            assertEquals(n + 1L, (long) saved[n].getId());
+        }
+
+        List<QuizDeal> after = store.findAfter(3, 100);
+        assertEquals(7, after.size());
+        for (int i = 0; i < after.size(); i++) {
+            assertSameDeal(saved[i + 3], after.get(i));
+        }
+        assertEquals(2, store.findAfter(0, 2).size());
+        assertTrue(store.findAfter(10, 5).isEmpty());
+
+        List<QuizDeal> recent = store.findRecent(3);
+        assertEquals(List.of(10L, 9L, 8L), recent.stream().map(QuizDeal::getId).toList());
+        assertSameDeal(saved[9], recent.get(0));
+        store.close();
+    }
+
+    @Test
+    void findRecentSummaries_pagesByCursorAcrossSegments() throws InterruptedException {
+        LogQuizDealStore store = open(3, false);
+        for (int n = 0; n < 10; n++) store.save(deal(n));
+
+        List<QuizDealSummary> first = store.findRecentSummaries(4, null, false);
+        assertEquals(List.of(10L, 9L, 8L, 7L), first.stream().map(QuizDealSummary::id).toList());
+        assertNull(first.get(0).auctionJson());
+
+        List<QuizDealSummary> second = store.findRecentSummaries(4, first.get(3).cursor(), true);
+        assertEquals(List.of(6L, 5L, 4L, 3L), second.stream().map(QuizDealSummary::id).toList());
+        assertNull(second.get(0).auctionJson(), "id 6 was saved without an auction");
+        assertEquals("[\"1C\",\"PASS\"]", second.get(1).auctionJson());
+
+        List<QuizDealSummary> last = store.findRecentSummaries(4, second.get(3).cursor(), false);
+        assertEquals(List.of(2L, 1L), last.stream().map(QuizDealSummary::id).toList());
+        assertTrue(store.findRecentSummaries(4, new DealCursor(T0, 1), false).isEmpty());
+        store.close();
+    }
+
+    @Test
+    void findRecentSummaries_findsTheCursorThroughTheSparseIndex() throws InterruptedException {
+        LogQuizDealStore store = open(2500, false);
+        int count = 3 * LogQuizDealStore.INDEX_STRIDE;
+        for (int n = 0; n < count; n++) store.save(deal(n));
+
+        for (long id : new long[]{1, 2, LogQuizDealStore.INDEX_STRIDE, LogQuizDealStore.INDEX_STRIDE + 1, 2500, 2501, count}) {
+            DealCursor cursor = new DealCursor(T0.plusSeconds(id - 1), id);
+            List<QuizDealSummary> page = store.findRecentSummaries(2, cursor, false);
+            assertEquals(id > 2 ? List.of(id - 1, id - 2) : id == 2 ? List.of(1L) : List.of(),
+                    page.stream().map(QuizDealSummary::id).toList(), "before id " + id);
+        }
+        store.close();
+    }
+
+    @Test
+    void save_keepsCreationTimesInIdOrder() throws InterruptedException {
+        LogQuizDealStore store = open(16, false);
+        QuizDeal late = store.save(deal(5));
+        QuizDeal early = store.save(deal(1));
+        assertEquals(late.getCreatedAt(), early.getCreatedAt(), "an earlier timestamp is moved up to the last one");
+        store.close();
+    }
+
+    @Test
+    void reopen_recoversRecordsAndDropsATornTail() throws IOException, InterruptedException {
+        LogQuizDealStore store = open(4, true);
+        store.start();
+        for (int n = 0; n < 7; n++) store.save(deal(n));
+        store.close();
+
+        LogQuizDealStore reopened = open(4, false);
+        assertEquals(7, reopened.findAfter(0, 100).size());
+        reopened.close();
+
+        // Corrupt id 6, the second record of the last segment
+        Path last;
+        try (Stream<Path> files = Files.list(dir)) {
+            last = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), LogQuizDealStore.RECORD_BYTES + 30);
+        }
+
+        LogQuizDealStore recovered = open(4, false);
+        assertEquals(5, recovered.findAfter(0, 100).size(), "the torn record and the one after it are dropped");
+        assertEquals(6L, (long) recovered.save(deal(8)).getId());
+        recovered.close();
+
+        LogQuizDealStore again = open(4, false);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), again.findAfter(0, 100).stream().map(QuizDeal::getId).toList());
+        again.close();
+    }
+
+    @Test
+    void reopen_clearsRecordsThatSurvivedPastAnEmptyOne() throws IOException, InterruptedException {
+        LogQuizDealStore store = open(4, true);
+        store.start();
+        for (int n = 0; n < 7; n++) store.save(deal(n));
+        store.close();
+
+        // Id 6 never reached the file but id 7, after it, did
+        Path last;
+        try (Stream<Path> files = Files.list(dir)) {
+            last = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[LogQuizDealStore.RECORD_BYTES]), LogQuizDealStore.RECORD_BYTES);
+        }
+
+        LogQuizDealStore recovered = open(4, false);
+        assertEquals(5, recovered.findAfter(0, 100).size());
+        assertEquals(6L, (long) recovered.save(deal(8)).getId());
+        recovered.close();
+
+        LogQuizDealStore again = open(4, false);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), again.findAfter(0, 100).stream().map(QuizDeal::getId).toList());
+        again.close();
+    }
+
+    @Test
+    void save_withSyncOnSaveReturnsOnceConcurrentSavesAreSynced() throws Exception {
+        LogQuizDealStore store = open(64, true);
+        store.start();
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<QuizDeal>> saves = new ArrayList<>();
+            for (int n = 0; n < 200; n++) {
+                QuizDeal deal = deal(n);
+                saves.add(clients.submit(() -> store.save(deal)));
+            }
+            for (Future<QuizDeal> save : saves) {
+                assertNotNull(save.get().getId());
+            }
+        } finally {
+            clients.shutdown();
+        }
+        assertEquals(200, store.findAfter(0, 500).size());
+        store.close();
+    }
+
+    @Test
+    void save_rejectsDealsThatDoNotFitARecord() throws InterruptedException {
+        LogQuizDealStore store = open(4, false);
+        QuizDeal noHands = deal(1);
+        noHands.setDealBits(null);
+        assertThrows(IllegalArgumentException.class, () -> store.save(noHands));
+        QuizDeal longConvention = deal(1);
+        longConvention.setConvention("x".repeat(LogQuizDealStore.MAX_CONVENTION_BYTES + 1));
+        assertThrows(IllegalArgumentException.class, () -> store.save(longConvention));
+        store.close();
+    }
+
+    @Test
+    void csv_isWrittenFromTheRecordsAsFromTheEntities() throws IOException, InterruptedException {
+        LogQuizDealStore store = open(4, false);
+        for (int n = 0; n < 10; n++) store.save(deal(n));
+        QuizDealService service = new QuizDealService(store, Metrics.globalRegistry);
+
+        StringWriter export = new StringWriter();
+        assertEquals(7, service.writeCsv(export, 3, 2));
+        assertEquals(service.toCsv(store.findAfter(3, 100)), export.toString());
+        assertEquals(service.toCsv(store.findRecent(6)), service.recentCsv(6));
+        store.close();
+    }
+
+    @Test
+    void save_storesTheLongestLegalAuction() throws InterruptedException {
+        List<String> calls = new ArrayList<>(List.of("PASS", "PASS", "PASS"));
+        for (int level = 1; level <= 7; level++) {
+            for (String strain : List.of("C", "D", "H", "S", "NT")) {
+                calls.addAll(List.of(level + strain, "PASS", "PASS", "X", "PASS", "PASS", "XX", "PASS", "PASS"));
+            }
+        }
+        calls.add("PASS");
+        assertEquals(LogQuizDealStore.MAX_AUCTION_CALLS, calls.size());
+        LogQuizDealStore store = open(4, false);
+        QuizDeal deal = deal(1);
+        deal.setAuction(calls);
+
+        store.save(deal);
+        assertEquals(calls, store.findAfter(0, 1).get(0).getAuction());
+        store.close();
+    }
+
+    @Test
+    void open_refusesSegmentsOfTheOldRecordFormat() throws IOException {
+        Files.write(dir.resolve("deals-00000000000000000001.log"), new byte[256 * 4]);
+
+        assertThrows(UncheckedIOException.class, () -> open(4, false));
+    }
+}
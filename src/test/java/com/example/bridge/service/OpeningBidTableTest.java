@@ -0,0 +1,49 @@
+package com.example.bridge.service;
+
+import com.example.bridge.model.PackedHand;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBidTableTest {
+
+    @Test
+    void shapeIndex_coversAll560ThirteenCardShapes() {
+        Set<Integer> seen = new HashSet<>();
+        for (int s = 0; s <= 13; s++) {
+            for (int h = 0; h <= 13 - s; h++) {
+                for (int d = 0; d <= 13 - s - h; d++) {
+                    int idx = OpeningBidTable.shapeIndex(PackedHand.shapeOf(s, h, d, 13 - s - h - d));
+                    assertTrue(idx >= 0 && idx < OpeningBidTable.SHAPES);
+                    seen.add(idx);
+                }
+            }
+        }
+        assertEquals(OpeningBidTable.SHAPES, seen.size());
+        assertEquals(-1, OpeningBidTable.shapeIndex(PackedHand.shapeOf(4, 4, 4, 4)));
+    }
+
+    @Test
+    void lookup_matchesRuleForEveryKey() {
+        OpeningBidTable.Rule rule = (hcp, shape) ->
+                hcp >= 12 ? "1" + PackedHand.SUIT_SYMBOLS[hcp % 4] + PackedHand.suitLength(shape, PackedHand.CLUBS) : "PASS";
+        OpeningBidTable table = new OpeningBidTable(rule);
+        for (int s = 0; s <= 13; s++) {
+            for (int h = 0; h <= 13 - s; h++) {
+                int shape = PackedHand.shapeOf(s, h, 0, 13 - s - h);
+                for (int hcp = 0; hcp <= OpeningBidTable.MAX_HCP; hcp++) {
+                    assertEquals(rule.open(hcp, shape), table.lookup(hcp, shape));
+                }
+            }
+        }
+    }
+
+    @Test
+    void lookup_fallsBackToRuleForIncompleteHands() {
+        OpeningBidTable table = new OpeningBidTable((hcp, shape) -> PackedHand.shapeOf(0, 0, 0, 0) == shape ? "EMPTY" : "PASS");
+        assertEquals("EMPTY", table.lookup(0, 0));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.bridge.service;
+
+import com.example.bridge.entity.QuizDeal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizDealMigrationTest {
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:quiz-deal-migration;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    // The table as schema update leaves it: the old NOT NULL hand columns plus the new compact ones
+    private void createLegacyTable() {
+        jdbc.execute("create table quiz_deal (id bigint primary key, created_at timestamp not null,"
+                + " dealer varchar(8) not null, north_hand varchar(64) not null, east_hand varchar(64) not null,"
+                + " south_hand varchar(64) not null, west_hand varchar(64) not null, convention varchar(64),"
+                + " auction_json clob, deal_bits varbinary(13), auction_calls varbinary(320))");
+        insert(1, "AKQJ.T987.AK.QJ9", "[\"1C\",\"PASS\"]");
+        insert(2, "AKQJ.T987.AK.QJ9", "1NT,PASS");
+    }
+
+    private void insert(long id, String north, String auctionJson) {
+        jdbc.update("insert into quiz_deal (id, created_at, dealer, north_hand, east_hand, south_hand, west_hand,"
+                        + " convention, auction_json) values (?, current_timestamp, 'NORTH', ?, ?, ?, ?, 'natural', ?)",
+                id, north, "T987.AKQJ.QJ9.AK", "65432.65.65432.T", ".432.T87.8765432", auctionJson);
+    }
+
+    @AfterEach
+    void dropTable() {
+        jdbc.execute("drop table if exists quiz_deal");
+    }
+
+    private QuizDeal load(long id) {
+        Map<String, Object> row = jdbc.queryForMap("select deal_bits, auction_calls from quiz_deal where id = ?", id);
+        QuizDeal deal = new QuizDeal();
+        deal.setDealBits((byte[]) row.get("DEAL_BITS"));
+        deal.setAuctionCalls((byte[]) row.get("AUCTION_CALLS"));
+        return deal;
+    }
+
+    private List<String> columns() {
+        return jdbc.queryForList("select lower(column_name) from information_schema.columns"
+                + " where lower(table_name) = 'quiz_deal'", String.class);
+    }
+
+    @Test
+    @DisplayName("legacy rows are converted and the old columns dropped")
+    void migrate_convertsRowsAndDropsLegacyColumns() {
+        createLegacyTable();
+        new QuizDealMigration(jdbc, true, 1, true).migrate();
+
+        QuizDeal first = load(1);
+        assertThat(first.getNorthHand()).isEqualTo("AKQJ.T987.AK.QJ9");
+        assertThat(first.getWestHand()).isEqualTo(".432.T87.8765432");
+        assertThat(first.getAuctionJson()).isEqualTo("[\"1C\",\"PASS\"]");
+        assertThat(load(2).getAuction()).containsExactly("1NT", "PASS");
+        assertThat(columns()).contains("deal_bits", "auction_calls").doesNotContain("north_hand", "auction_json");
+
+        // A second start finds nothing to do
+        new QuizDealMigration(jdbc, true, 1, true).migrate();
+    }
+
+    @Test
+    @DisplayName("the old columns are kept while a row cannot be converted")
+    void migrate_keepsLegacyColumnsWhenARowFails() {
+        createLegacyTable();
+        insert(3, "AKQJ.T987.AK", "[]");
+        new QuizDealMigration(jdbc, true, 2, true).migrate();
+
+        assertThat(load(1).getNorthHand()).isEqualTo("AKQJ.T987.AK.QJ9");
+        assertThat(load(3).getDealBits()).isNull();
+        assertThat(columns()).contains("north_hand", "auction_json");
+
+        // New rows need not fill the old columns any more
+        jdbc.update("insert into quiz_deal (id, created_at, dealer, deal_bits) values (4, current_timestamp, 'EAST', ?)",
+                (Object) load(1).getDealBits());
+
+        jdbc.update("update quiz_deal set north_hand = 'AKQJ.T987.AK.QJ9' where id = 3");
+        new QuizDealMigration(jdbc, true, 2, true).migrate();
+        assertThat(load(3).getNorthHand()).isEqualTo("AKQJ.T987.AK.QJ9");
+        assertThat(columns()).doesNotContain("north_hand");
+    }
+}
@@ -1,41 +1,52 @@
 package com.example.bridge.service;
 
+import com.example.bridge.dto.DealCursor;
 import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.model.Deal;
 import com.example.bridge.model.HandPosition;
 import com.example.bridge.repository.QuizDealRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.io.StringWriter;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class QuizDealServiceTest {
 
     private final QuizDealRepository repository = Mockito.mock(QuizDealRepository.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final QuizDealService service = new QuizDealService(repository, objectMapper);
+    private final QuizDealService service = new QuizDealService(repository);
 
     private QuizDeal sampleDeal(long id) {
         QuizDeal d = new QuizDeal();
         d.setId(id);
         d.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
         d.setDealer(HandPosition.WEST);
-        d.setNorthHand("A,B\nC\"D");
-        d.setEastHand("E");
-        d.setSouthHand("F");
-        d.setWestHand("G");
-        d.setConvention("conv,\"x\"");
-        d.setAuctionJson("[\"1C\",\"PASS\"]");
+        d.setHands(Map.of(
+                HandPosition.NORTH, "AKQJ.T987.AK.QJ9",
+                HandPosition.EAST, "T987.AKQJ.QJ9.AK",
+                HandPosition.SOUTH, "65432.65.65432.T",
+                HandPosition.WEST, ".432.T87.8765432"));
+        d.setConvention("conv,\"x\"\ny");
+        d.setAuction(List.of("1C", "PASS"));
         return d;
     }
 
@@ -45,10 +56,27 @@ class QuizDealServiceTest {
         String csv = service.toCsv(List.of(sampleDeal(1)));
         // header present
         assertThat(csv).startsWith("id,createdAt,dealer,northHand,eastHand,southHand,westHand,convention,auctionJson\n");
-        // northHand with comma and newline should be quoted and quotes doubled
-        assertThat(csv).contains("\"A,B\nC\"\"D\"" );
-        // convention with comma and quotes should be quoted
-        assertThat(csv).contains("\"conv,\"\"x\"\"\"");
+        // hands are decoded from the compact deal
+        assertThat(csv).contains(",AKQJ.T987.AK.QJ9,T987.AKQJ.QJ9.AK,65432.65.65432.T,.432.T87.8765432,");
+        // convention with comma, quotes and newline should be quoted and quotes doubled
+        assertThat(csv).contains("\"conv,\"\"x\"\"\ny\"");
+        // the auction is rendered as a JSON array, which needs quoting too
+        assertThat(csv).endsWith(",\"[\"\"1C\"\",\"\"PASS\"\"]\"\n");
+    }
+
+    @Test
+    @DisplayName("CSV rendering is timed as its own operation, apart from listing")
+    void csv_isTimedApartFromListing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QuizDealService timed = new QuizDealService(new JpaQuizDealStore(repository, null), registry);
+        when(repository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(sampleDeal(1))));
+
+        timed.toCsv(List.of(sampleDeal(1)));
+        timed.recentCsv(10);
+        timed.listRecent(10);
+
+        assertThat(registry.get("bridge.deals.persistence").tag("operation", "csv").timer().count()).isEqualTo(2);
+        assertThat(registry.get("bridge.deals.persistence").tag("operation", "list").timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -68,4 +96,98 @@ class QuizDealServiceTest {
         assertThat(sort.getOrderFor("createdAt")).isNotNull();
         assertThat(sort.getOrderFor("createdAt").getDirection()).isEqualTo(Sort.Direction.DESC);
     }
+
+    @Test
+    @DisplayName("writeCsv pages through deals by id until a short page")
+    void writeCsv_keysetPagination() throws Exception {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(sampleDeal(1), sampleDeal(2)));
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(sampleDeal(3)));
+
+        StringWriter out = new StringWriter();
+        long rows = service.writeCsv(out, 0L, 2);
+
+        assertThat(rows).isEqualTo(3);
+        String csv = out.toString();
+        assertThat(csv).startsWith("id,createdAt,dealer,northHand,eastHand,southHand,westHand,convention,auctionJson\n");
+        assertThat(csv.lines().filter(l -> l.startsWith("1,") || l.startsWith("2,") || l.startsWith("3,"))).hasSize(3);
+        verify(repository, never()).findByIdGreaterThanOrderByIdAsc(eq(3L), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("listRecentSummaries uses the keyset query and skips the auction unless requested")
+    void listRecentSummaries_selectsQueryByCursorAndAuction() {
+        DealCursor cursor = new DealCursor(Instant.parse("2024-01-01T00:00:00Z"), 7);
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        when(repository.findRecentSummariesBefore(eq(cursor.createdAt()), eq(7L), captor.capture()))
+                .thenReturn(List.of());
+
+        service.listRecentSummaries(5000, cursor, false);
+        service.listRecentSummaries(10, null, true);
+
+        assertThat(captor.getValue().getPageSize()).isEqualTo(1000);
+        verify(repository).findRecentSummariesWithAuction(any(Pageable.class));
+        verify(repository, never()).findRecentSummaries(any(Pageable.class));
+        verify(repository, never()).findRecentSummariesWithAuctionBefore(any(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void dealCursor_roundTrips() {
+        DealCursor cursor = DealCursor.parse("2024-01-01T00:00:00Z,42");
+        assertThat(cursor.id()).isEqualTo(42);
+        assertThat(DealCursor.parse(cursor.toString())).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("the change token moves on with every save and when written-behind deals land")
+    @SuppressWarnings("unchecked")
+    void changeToken_movesOnWithEverySave() {
+        QuizDealWriter writer = Mockito.mock(QuizDealWriter.class);
+        ArgumentCaptor<Consumer<List<QuizDeal>>> flushed = ArgumentCaptor.forClass(Consumer.class);
+        QuizDealService writingBehind = new QuizDealService(new JpaQuizDealStore(repository, writer), new SimpleMeterRegistry());
+        verify(writer).onFlushed(flushed.capture());
+        QuizDealService.ChangeToken before = writingBehind.changeToken();
+
+        assertThat(writingBehind.changeToken()).isEqualTo(before);
+        writingBehind.save(generatedDeal(), "natural", List.of("1C"));
+        QuizDealService.ChangeToken saved = writingBehind.changeToken();
+        flushed.getValue().accept(List.of(sampleDeal(1)));
+        QuizDealService.ChangeToken written = writingBehind.changeToken();
+
+        assertThat(saved.sequence()).isEqualTo(before.sequence() + 1);
+        assertThat(written.sequence()).isEqualTo(saved.sequence() + 1);
+        assertThat(written.etag()).startsWith("\"").endsWith("\"").isNotEqualTo(saved.etag()).isNotEqualTo(before.etag());
+        assertThat(written.lastModified()).isGreaterThanOrEqualTo(before.lastModified());
+        verify(repository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("stored deals are published to the feed once they have ids")
+    @SuppressWarnings("unchecked")
+    void save_publishesStoredDeals() {
+        DealFeed feed = Mockito.mock(DealFeed.class);
+        when(repository.save(any(QuizDeal.class))).thenAnswer(inv -> {
+            QuizDeal deal = inv.getArgument(0);
+            deal.setId(41L);
+            return deal;
+        });
+        QuizDealService direct = new QuizDealService(new JpaQuizDealStore(repository, null), new SimpleMeterRegistry(), feed);
+
+        QuizDeal saved = direct.save(generatedDeal(), "natural", List.of());
+        verify(feed).publish(saved);
+
+        QuizDealWriter writer = Mockito.mock(QuizDealWriter.class);
+        ArgumentCaptor<Consumer<List<QuizDeal>>> flushed = ArgumentCaptor.forClass(Consumer.class);
+        QuizDealService writingBehind = new QuizDealService(new JpaQuizDealStore(repository, writer), new SimpleMeterRegistry(), feed);
+        verify(writer).onFlushed(flushed.capture());
+        QuizDeal queued = writingBehind.save(generatedDeal(), "natural", List.of());
+        verify(feed, never()).publish(queued);
+        flushed.getValue().accept(List.of(queued));
+        verify(feed).publish(queued);
+    }
+
+    private static Deal generatedDeal() {
+        return new HandGeneratorService(() -> new SplittableRandom(3)).generateDeal();
+    }
 }
@@ -0,0 +1,178 @@
+package com.example.bridge.service;
+
+import com.example.bridge.entity.QuizDeal;
+import com.example.bridge.repository.QuizDealRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class QuizDealWriterTest {
+
+    private final QuizDealRepository repository = Mockito.mock(QuizDealRepository.class);
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private QuizDealWriter writer(boolean enabled, int capacity, QuizDealWriter.OverflowPolicy policy) {
+        return new QuizDealWriter(repository, jdbcTemplate, registry, enabled, capacity, 10, 20, policy);
+    }
+
+    @Test
+    @DisplayName("queued deals are inserted in batches and flushed on shutdown")
+    @SuppressWarnings("unchecked")
+    void submit_flushesInBatches() throws InterruptedException {
+        List<QuizDeal> saved = new ArrayList<>();
+        when(repository.saveAll(anyIterable())).thenAnswer(inv -> {
+            synchronized (saved) {
+                ((Iterable<QuizDeal>) inv.getArgument(0)).forEach(saved::add);
+            }
+            return List.of();
+        });
+        QuizDealWriter writer = writer(true, 100, QuizDealWriter.OverflowPolicy.BLOCK);
+        writer.start();
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(writer.submit(new QuizDeal())).isTrue();
+        }
+        writer.stop();
+
+        assertThat(saved).hasSize(25);
+        ArgumentCaptor<Iterable<QuizDeal>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository, atLeast(3)).saveAll(captor.capture());
+        captor.getAllValues().forEach(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        verify(repository, never()).save(any());
+        assertThat(registry.get("quiz.deals.write.written").counter().count()).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("flush listeners run after each inserted batch, and a failed batch is retried rather than lost")
+    void onFlushed_runsAfterEachInsertedBatch() throws InterruptedException {
+        AtomicInteger flushes = new AtomicInteger();
+        when(repository.saveAll(anyIterable()))
+                .thenReturn(List.of())
+                .thenThrow(new IllegalStateException("database gone"))
+                .thenReturn(List.of());
+        QuizDealWriter writer = writer(true, 100, QuizDealWriter.OverflowPolicy.BLOCK);
+        writer.onFlushed(batch -> flushes.incrementAndGet());
+        writer.start();
+
+        writer.submit(new QuizDeal());
+        verify(repository, timeout(5_000)).saveAll(anyIterable());
+        writer.submit(new QuizDeal());
+        verify(repository, timeout(5_000).times(3)).saveAll(anyIterable());
+        writer.stop();
+
+        assertThat(flushes).hasValue(2);
+        assertThat(registry.get("quiz.deals.write.written").counter().count()).isEqualTo(2);
+        assertThat(registry.get("quiz.deals.write.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("every deal accepted while the writer stops is written")
+    @SuppressWarnings("unchecked")
+    void stop_writesEveryAcceptedDeal() throws Exception {
+        AtomicInteger saved = new AtomicInteger();
+        when(repository.saveAll(anyIterable())).thenAnswer(inv -> {
+            ((Iterable<QuizDeal>) inv.getArgument(0)).forEach(deal -> saved.incrementAndGet());
+            return List.of();
+        });
+        QuizDealWriter writer = writer(true, 100, QuizDealWriter.OverflowPolicy.BLOCK);
+        writer.start();
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread submitter = new Thread(() -> {
+                try {
+                    while (true) {
+                        if (writer.submit(new QuizDeal())) accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException stopped) {
+                    // the writer no longer takes deals
+                }
+            });
+            submitter.start();
+            submitters.add(submitter);
+        }
+
+        Thread.sleep(50);
+        writer.stop();
+        for (Thread submitter : submitters) submitter.join(5_000);
+
+        assertThat(accepted.get()).isPositive();
+        assertThat(saved).hasValue(accepted.get());
+    }
+
+    @Test
+    @DisplayName("a BLOCK submit waiting on a full queue gives up when the writer stops")
+    void submit_blockPolicy_givesUpWhenStopped() throws Exception {
+        QuizDealWriter writer = writer(true, 1, QuizDealWriter.OverflowPolicy.BLOCK);
+        // Not started: nothing drains the queue, but submit() needs the running flag
+        ReflectionTestUtils.setField(writer, "running", true);
+        assertThat(writer.submit(new QuizDeal())).isTrue();
+        AtomicBoolean result = new AtomicBoolean(true);
+        Thread blocked = new Thread(() -> result.set(writer.submit(new QuizDeal())));
+        blocked.start();
+
+        Thread.sleep(50);
+        writer.stop();
+        blocked.join(5_000);
+
+        assertThat(blocked.isAlive()).isFalse();
+        assertThat(result).isFalse();
+        verify(repository).saveAll(anyIterable());
+        assertThat(registry.get("quiz.deals.write.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("DROP policy discards deals when the queue is full")
+    void submit_dropPolicy_dropsWhenFull() {
+        QuizDealWriter writer = writer(true, 2, QuizDealWriter.OverflowPolicy.DROP);
+        // Not started: nothing drains the queue, but submit() needs the running flag
+        ReflectionTestUtils.setField(writer, "running", true);
+
+        assertThat(writer.submit(new QuizDeal())).isTrue();
+        assertThat(writer.submit(new QuizDeal())).isTrue();
+        assertThat(writer.submit(new QuizDeal())).isFalse();
+        assertThat(writer.queueDepth()).isEqualTo(2);
+        assertThat(registry.get("quiz.deals.write.dropped").counter().count()).isEqualTo(1);
+        assertThat(registry.get("quiz.deals.write.queue.depth").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("disabled write-behind saves synchronously")
+    void submit_disabled_savesImmediately() {
+        QuizDealWriter writer = writer(false, 10, QuizDealWriter.OverflowPolicy.BLOCK);
+        writer.start();
+        QuizDeal deal = new QuizDeal();
+
+        writer.submit(deal);
+
+        verify(repository).save(deal);
+        assertThat(writer.queueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("start moves the id sequence past existing rows")
+    void start_alignsSequenceWithExistingIds() {
+        when(jdbcTemplate.queryForObject(any(String.class), eq(Long.class))).thenReturn(120L);
+        QuizDealWriter writer = writer(false, 10, QuizDealWriter.OverflowPolicy.BLOCK);
+
+        writer.start();
+
+        verify(jdbcTemplate).execute("alter sequence quiz_deal_seq restart with " + (120 + QuizDeal.ID_ALLOCATION_SIZE + 1));
+    }
+}
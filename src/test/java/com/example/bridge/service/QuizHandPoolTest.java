@@ -0,0 +1,99 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.QuizHandResponse;
+import com.example.bridge.model.Deal;
+import com.example.bridge.model.HandPosition;
+import com.example.bridge.service.QuizHandService.QuizHand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuizHandPoolTest {
+
+    private final QuizHandService quizHandService = Mockito.mock(QuizHandService.class);
+    private QuizHandPool pool;
+
+    private static QuizHandResponse sampleHand() {
+        return new QuizHandResponse("AKQJ.T987.AK.QJ9", "N", "polish club", List.of("PASS"));
+    }
+
+    private static QuizHand builtHand() {
+        Deal deal = new Deal(HandPosition.WEST, Map.of(
+                HandPosition.NORTH, "AKQJ.T987.AK.QJ9",
+                HandPosition.EAST, "T98.AKQ.QJT9.AK8",
+                HandPosition.SOUTH, "765.J65.8765.T76",
+                HandPosition.WEST, "432.432.432.5432"));
+        return new QuizHand(deal, List.of("PASS"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.stop();
+    }
+
+    @Test
+    @DisplayName("disabled pool builds every hand synchronously and counts misses")
+    void take_disabledPool_buildsOnCallerThread() {
+        when(quizHandService.createQuizHand()).thenReturn(sampleHand());
+        pool = new QuizHandPool(quizHandService, false, 8, 2, 8, 1);
+        pool.start();
+
+        assertThat(pool.take()).isEqualTo(sampleHand());
+        assertThat(pool.take()).isEqualTo(sampleHand());
+
+        assertThat(pool.misses()).isEqualTo(2);
+        assertThat(pool.hits()).isZero();
+        assertThat(pool.missRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("producers fill the pool up to the high watermark and take() is served from it")
+    void take_enabledPool_servesPreparedHands() throws InterruptedException {
+        when(quizHandService.buildQuizHand()).thenAnswer(inv -> builtHand());
+        when(quizHandService.saveQuizHand(any())).thenReturn(sampleHand());
+        pool = new QuizHandPool(quizHandService, true, 16, 4, 8, 2);
+        pool.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.depth() < 8 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(pool.depth()).isBetween(8, 16);
+        verify(quizHandService, never()).saveQuizHand(any());
+
+        assertThat(pool.take()).isEqualTo(sampleHand());
+        assertThat(pool.hits()).isEqualTo(1);
+        assertThat(pool.misses()).isZero();
+        assertThat(pool.depth()).isLessThanOrEqualTo(pool.capacity());
+        verify(quizHandService, times(1)).saveQuizHand(any());
+    }
+
+    @Test
+    @DisplayName("hands still pooled at shutdown are never stored")
+    void stop_leavesPooledHandsUnsaved() throws InterruptedException {
+        when(quizHandService.buildQuizHand()).thenAnswer(inv -> builtHand());
+        pool = new QuizHandPool(quizHandService, true, 4, 1, 4, 1);
+        pool.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.depth() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        pool.stop();
+
+        assertThat(pool.depth()).isEqualTo(4);
+        verify(quizHandService, never()).saveQuizHand(any());
+        verify(quizHandService, never()).createQuizHand();
+    }
+}
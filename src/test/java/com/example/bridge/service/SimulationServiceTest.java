@@ -0,0 +1,115 @@
+package com.example.bridge.service;
+
+import com.example.bridge.dto.SimulationRequest;
+import com.example.bridge.dto.SimulationResult;
+import com.example.bridge.model.PackedHand;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationServiceTest {
+
+    private static final String HAND = "AKQJ.T987.AK.QJ9";
+
+    private final HandGeneratorService generator = new HandGeneratorService(() -> new SplittableRandom(7));
+
+    @Test
+    void simulate_scoresEveryContractFromTheSolvedTricks() throws Exception {
+        // North-South always take ten tricks in hearts and eight at no trump
+        SimulationService service = service((deal, strain, leader) -> strain == PackedHand.HEARTS ? 10 : 8, 60_000);
+
+        SimulationResult result = service.simulate(request(List.of("4H", "3NT"), 200, "N"), snapshot -> { });
+
+        assertTrue(result.complete());
+        assertEquals(200, result.samples());
+        SimulationResult.ContractEstimate hearts = result.contracts().get(0);
+        assertEquals("4H", hearts.contract());
+        assertEquals(10.0, hearts.expectedTricks(), 1e-9);
+        assertEquals(420.0, hearts.expectedScore(), 1e-9);
+        assertEquals(1.0, hearts.makeProbability(), 1e-9);
+        assertEquals(10.0, hearts.tricks95().low(), 1e-9);
+        SimulationResult.ContractEstimate noTrump = result.contracts().get(1);
+        assertEquals(-50.0, noTrump.expectedScore(), 1e-9);
+        assertEquals(0.0, noTrump.makeProbability(), 1e-9);
+    }
+
+    @Test
+    void simulate_holdsTheKnownHandAndCountsForEastWestDeclarer() throws Exception {
+        long known = PackedHand.parse(HAND);
+        List<Long> seen = new ArrayList<>();
+        SimulationService service = service((deal, strain, leader) -> {
+            synchronized (seen) {
+                seen.add(deal[0]);
+            }
+            assertEquals(2, leader, "East declares, so South leads");
+            return 4;
+        }, 60_000);
+
+        SimulationResult result = service.simulate(request(List.of("2S"), 20, "E"), snapshot -> { });
+
+        assertEquals(9.0, result.contracts().get(0).expectedTricks(), 1e-9);
+        assertEquals(20, seen.size());
+        seen.forEach(north -> assertEquals(known, north.longValue()));
+    }
+
+    @Test
+    void simulate_stopsAtTheTimeBudgetWithPartialResults() throws Exception {
+        SimulationService service = service((deal, strain, leader) -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 7;
+        }, 200);
+        List<SimulationResult> snapshots = new ArrayList<>();
+
+        SimulationResult result = service.simulate(
+                new SimulationRequest(HAND, "N", List.of("1NT"), null, 10_000, 200L, false), snapshots::add);
+
+        assertFalse(result.complete());
+        assertTrue(result.samples() < 10_000);
+        assertFalse(snapshots.isEmpty(), "progress snapshots are reported while running");
+        assertTrue(result.elapsedMillis() < 5_000);
+    }
+
+    @Test
+    void reserve_rejectsUnknownContract() {
+        SimulationService service = service((deal, strain, leader) -> 7, 60_000);
+        assertThrows(ResponseStatusException.class, () -> service.reserve(request(List.of("9Z"), 1, null)));
+        assertThrows(ResponseStatusException.class,
+                () -> service.reserve(new SimulationRequest("AKQ...", "N", List.of("1NT"), null, 1, null, false)));
+    }
+
+    @Test
+    void reserve_refusesRequestsBeyondTheConcurrencyCap() throws Exception {
+        SimulationService service = new SimulationService(generator, () -> (deal, strain, leader) -> 7,
+                100, 10_000, 60_000, 60_000, 20, 4, 1, 0);
+        SimulationRequest request = request(List.of("4S"), 10, null);
+
+        SimulationService.Slot slot = service.reserve(request);
+        ResponseStatusException busy = assertThrows(ResponseStatusException.class, () -> service.reserve(request));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, busy.getStatusCode());
+        assertThrows(ResponseStatusException.class, () -> service.simulate(request, snapshot -> { }));
+
+        assertEquals(10, service.simulate(slot, snapshot -> { }).samples());
+        slot.close();
+        slot.close();
+        service.reserve(request).close();
+        assertEquals(10, service.simulate(request, snapshot -> { }).samples());
+    }
+
+    private SimulationService service(SimulationService.TrickCounter counter, long maxBudgetMillis) {
+        return new SimulationService(generator, () -> counter, 100, 10_000, maxBudgetMillis, maxBudgetMillis, 20, 4, 4, 0);
+    }
+
+    private static SimulationRequest request(List<String> contracts, int samples, String declarer) {
+        return new SimulationRequest(HAND, "N", contracts, declarer, samples, null, false);
+    }
+}